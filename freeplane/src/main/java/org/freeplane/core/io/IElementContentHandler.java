@@ -23,5 +23,14 @@ import org.freeplane.n3.nanoxml.XMLElement;
 
 public interface IElementContentHandler extends IElementHandler {
     boolean findsClosingTagByName();
+    /**
+     * Returns true if no attribute handlers are applied to the created element,
+     * so that all attributes are passed to {@link #endElement(Object, String, Object, XMLElement, String)}.
+     * It is only considered for elements created after their attributes have been read,
+     * that is if more than one handler is registered for the tag.
+     */
+    default boolean keepsAllAttributes() {
+        return false;
+    }
 	void endElement(Object parent, String tag, Object node, XMLElement element, String content);
 }
@@ -0,0 +1,82 @@
+package org.freeplane.core.io.xml;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Passes written characters through and keeps them while at least one fragment is open,
+ * so that the text of any open fragment can be obtained by its start and end positions.
+ */
+class FragmentRecorder extends Writer {
+	private final Writer out;
+	private final StringBuilder buffer;
+	private long bufferStart;
+	private int openFragments;
+
+	FragmentRecorder(Writer out) {
+		this.out = out;
+		buffer = new StringBuilder();
+		bufferStart = 0;
+		openFragments = 0;
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		out.write(c);
+		if (openFragments > 0)
+			buffer.append((char) c);
+		else
+			bufferStart++;
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		out.write(cbuf, off, len);
+		if (openFragments > 0)
+			buffer.append(cbuf, off, len);
+		else
+			bufferStart += len;
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		out.write(str, off, len);
+		if (openFragments > 0)
+			buffer.append(str, off, off + len);
+		else
+			bufferStart += len;
+	}
+
+	long position() {
+		return bufferStart + buffer.length();
+	}
+
+	long beginFragment() {
+		openFragments++;
+		return position();
+	}
+
+	String text(long start, long end) {
+		return buffer.substring((int) (start - bufferStart), (int) (end - bufferStart));
+	}
+
+	void endFragment() {
+		if (openFragments == 0)
+			throw new IllegalStateException("no open fragment");
+		openFragments--;
+		if (openFragments == 0) {
+			bufferStart += buffer.length();
+			buffer.setLength(0);
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
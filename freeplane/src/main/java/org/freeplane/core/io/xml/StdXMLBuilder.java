@@ -147,8 +147,12 @@ class StdXMLBuilder implements IXMLBuilder {
 			str.append(buf, 0, size);
 			sizeRead += size;
 		}
+		addPCData(str.toString(), systemID, lineNr);
+	}
+
+	public void addPCData(final String data, final String systemID, final int lineNr) {
 		final XMLElement elt = prototype.createElement(null, systemID, lineNr);
-		elt.setContent(str.toString());
+		elt.setContent(data);
 		if (!stack.empty()) {
 			final XMLElement top = stack.peek();
 			top.addChild(elt);
@@ -37,7 +37,9 @@ import org.freeplane.core.io.IElementDOMHandler;
 import org.freeplane.core.io.IElementHandler;
 import org.freeplane.core.io.ListHashTable;
 import org.freeplane.core.io.ReadManager;
+import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.util.LogUtils;
+import org.freeplane.features.mode.Controller;
 import org.freeplane.n3.nanoxml.IXMLBuilder;
 import org.freeplane.n3.nanoxml.IXMLReader;
 import org.freeplane.n3.nanoxml.NonValidator;
@@ -46,6 +48,8 @@ import org.freeplane.n3.nanoxml.XMLElement;
 import org.freeplane.n3.nanoxml.XMLException;
 
 public class TreeXmlReader implements IXMLBuilder {
+	public static final String BUFFERED_XML_SCANNER_PROPERTY = "buffered_xml_scanner";
+
 	public static boolean xmlToBoolean(final String string) {
 		if (string == null) {
 			return false;
@@ -93,6 +97,7 @@ public class TreeXmlReader implements IXMLBuilder {
 	private Object parentElement;
 	final private ReadManager parseManager;
 	private XMLParser parser;
+	private XMLScanner scanner;
 	private XMLElement saveAsXmlUntil;
 	private String tag;
 	private StdXMLBuilder xmlBuilder;
@@ -141,6 +146,17 @@ public class TreeXmlReader implements IXMLBuilder {
 		xmlBuilder.addPCData(reader, systemID, lineNr);
 	}
 
+	public void addPCData(final String data, final String systemID, final int lineNr) throws Exception {
+		xmlBuilder.addPCData(data, systemID, lineNr);
+	}
+
+	private void collectContentUntilMatchingTag(final boolean findsClosingTagByName) {
+		if (scanner != null)
+			scanner.collectContentUntilMatchingTag(findsClosingTagByName);
+		else
+			parser.collectContentUntilMatchingTag(findsClosingTagByName);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
@@ -165,7 +181,12 @@ public class TreeXmlReader implements IXMLBuilder {
 		}
 		if (currentElement != null) {
 			if (nodeCreator instanceof IElementContentHandler) {
-				parser.collectContentUntilMatchingTag(((IElementContentHandler)nodeCreator).findsClosingTagByName());
+				final IElementContentHandler contentHandler = (IElementContentHandler) nodeCreator;
+				collectContentUntilMatchingTag(contentHandler.findsClosingTagByName());
+				if (contentHandler.keepsAllAttributes()) {
+					attributeHandlersForTag = null;
+					return;
+				}
 			}
 			attributeHandlersForTag = getAttributeLoaders().get(tag);
 			if (attributeHandlersForTag == null) {
@@ -249,6 +270,17 @@ public class TreeXmlReader implements IXMLBuilder {
 	 * @see freeplane.persistence.Reader#load()
 	 */
 	public void load(final Reader reader) throws XMLException {
+		load(reader, usesBufferedScanner());
+	}
+
+	void load(final Reader reader, final boolean usesBufferedScanner) throws XMLException {
+		if (usesBufferedScanner) {
+			parser = null;
+			scanner = new XMLScanner(reader, this);
+			scanner.parse();
+			return;
+		}
+		scanner = null;
 		parser = new XMLParser();
 		final IXMLReader nanoxmlReader = new StdXMLReader(reader);
 		parser.setReader(nanoxmlReader);
@@ -319,7 +351,7 @@ public class TreeXmlReader implements IXMLBuilder {
 		if (currentElement != null) {
 			attributeHandlersForTag = getAttributeLoaders().get(tag);
 			if (nodeCreator instanceof IElementContentHandler) {
-				parser.collectContentUntilMatchingTag(((IElementContentHandler)nodeCreator).findsClosingTagByName());
+				collectContentUntilMatchingTag(((IElementContentHandler)nodeCreator).findsClosingTagByName());
 			}
 		}
 		else {
@@ -329,6 +361,12 @@ public class TreeXmlReader implements IXMLBuilder {
 		}
 	}
 
+	private static boolean usesBufferedScanner() {
+		final Controller controller = Controller.getCurrentController();
+		final ResourceController resourceController = controller != null ? controller.getResourceController() : null;
+		return resourceController == null || resourceController.getBooleanProperty(BUFFERED_XML_SCANNER_PROPERTY, true);
+	}
+
 	public void load(Object currentElement, Reader pReader) throws XMLException {
 	    this.currentElement = currentElement;
 	    load(pReader);
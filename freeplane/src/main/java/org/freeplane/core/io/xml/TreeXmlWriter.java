@@ -21,6 +21,7 @@ package org.freeplane.core.io.xml;
 
 import java.awt.Point;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.Collection;
 import java.util.Date;
@@ -71,20 +72,51 @@ public class TreeXmlWriter implements ITreeWriter {
 		return TreeXmlWriter.listToString(l);
 	}
 
+	/**
+	 * Returns the xml text of an element read together with its unparsed content,
+	 * formatted like elements written by this class, so that it can be passed to {@link #addFragment(String)}.
+	 */
+	public static String elementToXml(final XMLElement element, final String content) throws IOException {
+		final StringWriter out = new StringWriter();
+		final XMLWriter xmlWriter = new XMLWriter(out, false);
+		if (content == null) {
+			xmlWriter.write(element);
+			xmlWriter.flush();
+			out.write(System.lineSeparator());
+		}
+		else {
+			xmlWriter.startElement(element);
+			xmlWriter.writeEncodedText(content);
+			xmlWriter.endElement(element.getFullName(), true);
+			xmlWriter.flush();
+		}
+		return out.toString();
+	}
+
 	private boolean elementStarted = false;
 	final private HashMap<Object, Object> hints;
 	final private WriteManager writeManager;
 	private XMLElement xmlElement;
 	final private XMLWriter xmlwriter;
+	final private FragmentRecorder fragmentRecorder;
 
 	public void flush() {
 	    xmlwriter.flush();
     }
 
 	public TreeXmlWriter(final WriteManager writeManager, final Writer writer, boolean restrictedCharset) {
+		this(writeManager, writer, restrictedCharset, false);
+	}
+
+	/**
+	 * @param recordsFragments enables {@link #beginFragment()}, {@link #getFragmentText(long, long)} and {@link #endFragment()}
+	 */
+	public TreeXmlWriter(final WriteManager writeManager, final Writer writer, boolean restrictedCharset,
+	                     boolean recordsFragments) {
 		super();
 		this.writeManager = writeManager;
-		xmlwriter = new XMLWriter(writer, restrictedCharset);
+		fragmentRecorder = recordsFragments ? new FragmentRecorder(writer) : null;
+		xmlwriter = new XMLWriter(recordsFragments ? fragmentRecorder : writer, restrictedCharset);
 		hints = new HashMap<Object, Object>();
 	}
 
@@ -170,6 +202,50 @@ public class TreeXmlWriter implements ITreeWriter {
 		xmlwriter.write(content);
 	}
 
+	/**
+	 * Writes the start tag of the current element if it is not written yet,
+	 * so that following output belongs to the element content.
+	 */
+	public void startElementContent() throws IOException {
+		if (elementStarted == false && xmlElement != null) {
+			xmlwriter.write(xmlElement, true, 0, true, false);
+			elementStarted = true;
+		}
+	}
+
+	/**
+	 * Adds xml text previously written by this class as a part of the current element content.
+	 */
+	public void addFragment(final String fragment) throws IOException {
+		startElementContent();
+		xmlwriter.writeEncodedText(fragment);
+	}
+
+	/**
+	 * Starts recording the output.
+	 * The start tag of the current element is written before so that it does not belong to the fragment.
+	 * @return the fragment start position
+	 */
+	public long beginFragment() throws IOException {
+		startElementContent();
+		return fragmentRecorder.beginFragment();
+	}
+
+	public long getFragmentPosition() {
+		return fragmentRecorder.position();
+	}
+
+	/**
+	 * Returns text written between given positions of an open fragment.
+	 */
+	public String getFragmentText(final long start, final long end) {
+		return fragmentRecorder.text(start, end);
+	}
+
+	public void endFragment() {
+		fragmentRecorder.endFragment();
+	}
+
 	public void addExtensionAttributes(final Object map, final Collection<IExtension> extensions) {
 		final Iterator<IExtension> extensionIterator = extensions.iterator();
 		while (extensionIterator.hasNext()) {
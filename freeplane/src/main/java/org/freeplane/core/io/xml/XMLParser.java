@@ -55,96 +55,38 @@ class XMLParser extends StdXMLParser implements IXMLParser {
 	protected void processElementContent(final String defaultNamespace, final Properties namespaces,
 	                                     final String fullName, final String name, final String prefix)
 	        throws IOException, XMLParseException, Exception {
-		if (contentCollect != ContentCollect.NONE) {
-			boolean inComment = false;
+		if (contentCollect == ContentCollect.BY_CLOSING_TAG_LEVEL) {
+			((TreeXmlReader) getBuilder()).setElementContent(collectContentByLevel());
+			return;
+		}
+		if (contentCollect == ContentCollect.BY_CLOSING_TAG_NAME) {
 			final TreeXmlReader builder = (TreeXmlReader) getBuilder();
 			final StringBuilder contentBuffer = new StringBuilder();
-			int level = 1;
 			int confirmedContentBufferLength = 0;
             int closingTagMatchingCharacters = -2;
 			for (;;) {
 				final IXMLReader reader = getReader();
 				char ch = reader.read();
-				if (inComment) {
-					contentBuffer.append(ch);
-					if (ch != '-') {
-						continue;
-					}
-					ch = reader.read();
-					contentBuffer.append(ch);
-					if (ch != '-') {
-						continue;
-					}
-					ch = reader.read();
-					contentBuffer.append(ch);
-					if (ch != '>') {
-						continue;
-					}
-					inComment = false;
-					continue;
-				}
 				if (ch == '<') {
 					ch = reader.read();
 					if (ch == '/') {
-					    if (contentCollect == ContentCollect.BY_CLOSING_TAG_LEVEL) {
-					        level--;
-					        if (level == 0) {
-					            break;
-					        }
-					    }
-					    else {
-					        confirmedContentBufferLength = contentBuffer.length();
-					        closingTagMatchingCharacters = -1;
-
-					    }
-					}
-					else if (contentCollect == ContentCollect.BY_CLOSING_TAG_LEVEL) {
-					    if (ch == '!') {
-					        final char read1 = reader.read();
-					        final char read2 = reader.read();
-					        if (read1 != '-' || read2 != '-') {
-					            throw new XMLParseException(reader.getSystemID(), reader.getLineNr(), "Invalid input: <!"
-					                    + read1 + read2);
-					        }
-					        inComment = true;
-					        contentBuffer.append("<!--");
-					        continue;
-					    }
-					    else {
-					        level++;
-					    }
+					    confirmedContentBufferLength = contentBuffer.length();
+					    closingTagMatchingCharacters = -1;
 					}
 					contentBuffer.append('<');
 				}
-				else if (contentCollect == ContentCollect.BY_CLOSING_TAG_LEVEL && ch == '/') {
-				    ch = reader.read();
-				    if (ch == '>') {
-				        level--;
-				        if (level == 0) {
-				            throw new XMLParseException(reader.getSystemID(), reader.getLineNr(), "Invalid input: />");
-				        }
-				    }
-				    else if (ch == '<') {
-				        contentBuffer.append('/');
-				        reader.unread(ch);
-				        continue;
-				    }
-				    contentBuffer.append('/');
-				}
-				if(contentCollect == ContentCollect.BY_CLOSING_TAG_NAME) {
-				    if (closingTagMatchingCharacters == -1
-				            || closingTagMatchingCharacters >= 0 && closingTagMatchingCharacters < fullName.length() && fullName.charAt(closingTagMatchingCharacters) == ch) {
-				        if ((closingTagMatchingCharacters >= 0 && closingTagMatchingCharacters < fullName.length())
-				                || (ch != ' ' && ch != '\t' && ch != '\n'))
-				            closingTagMatchingCharacters++;
-				    } else if(ch == '>' && closingTagMatchingCharacters == fullName.length()) {
-				        contentBuffer.setLength(confirmedContentBufferLength);
-				        closingTagIsReadAndVerified = true;
-				        break;
-				    }
-				    else
-				        closingTagMatchingCharacters = -2;
-				}
+			    if (closingTagMatchingCharacters == -1
+			            || closingTagMatchingCharacters >= 0 && closingTagMatchingCharacters < fullName.length() && fullName.charAt(closingTagMatchingCharacters) == ch) {
+			        if ((closingTagMatchingCharacters >= 0 && closingTagMatchingCharacters < fullName.length())
+			                || (ch != ' ' && ch != '\t' && ch != '\n'))
+			            closingTagMatchingCharacters++;
+			    } else if(ch == '>' && closingTagMatchingCharacters == fullName.length()) {
+			        contentBuffer.setLength(confirmedContentBufferLength);
+			        closingTagIsReadAndVerified = true;
+			        break;
+			    }
+			    else
+			        closingTagMatchingCharacters = -2;
 				contentBuffer.append(ch);
 			}
 			builder.setElementContent(contentBuffer.toString());
@@ -152,4 +94,94 @@ class XMLParser extends StdXMLParser implements IXMLParser {
 		}
 		super.processElementContent(defaultNamespace, namespaces, fullName, name, prefix);
 	}
+
+	/**
+	 * Collects the content up to the closing tag of the current element, which is read up to its name.
+	 * Comments, CDATA sections, processing instructions and quoted attribute values are copied
+	 * without looking for tags inside.
+	 */
+	private String collectContentByLevel() throws IOException {
+		final IXMLReader reader = getReader();
+		final StringBuilder contentBuffer = new StringBuilder();
+		int level = 1;
+		for (;;) {
+			char ch = reader.read();
+			if (ch != '<') {
+				contentBuffer.append(ch);
+				continue;
+			}
+			ch = reader.read();
+			if (ch == '/') {
+				level--;
+				if (level == 0)
+					return contentBuffer.toString();
+				contentBuffer.append("</");
+				copyUntil(contentBuffer, ">");
+			}
+			else if (ch == '!') {
+				contentBuffer.append("<!");
+				if (copyLiteral(contentBuffer, "--"))
+					copyUntil(contentBuffer, "-->");
+				else if (copyLiteral(contentBuffer, "[CDATA["))
+					copyUntil(contentBuffer, "]]>");
+				else
+					copyUntil(contentBuffer, ">");
+			}
+			else if (ch == '?') {
+				contentBuffer.append("<?");
+				copyUntil(contentBuffer, "?>");
+			}
+			else {
+				contentBuffer.append('<');
+				reader.unread(ch);
+				if (!copyStartTag(contentBuffer))
+					level++;
+			}
+		}
+	}
+
+	/** Copies the literal as far as it matches the input, and returns true if it matches completely. */
+	private boolean copyLiteral(final StringBuilder contentBuffer, final String literal) throws IOException {
+		final IXMLReader reader = getReader();
+		for (int i = 0; i < literal.length(); i++) {
+			final char ch = reader.read();
+			if (ch != literal.charAt(i)) {
+				reader.unread(ch);
+				return false;
+			}
+			contentBuffer.append(ch);
+		}
+		return true;
+	}
+
+	private void copyUntil(final StringBuilder contentBuffer, final String terminator) throws IOException {
+		final IXMLReader reader = getReader();
+		final int terminatorLength = terminator.length();
+		for (;;) {
+			contentBuffer.append(reader.read());
+			final int terminatorStart = contentBuffer.length() - terminatorLength;
+			if (terminatorStart >= 0 && contentBuffer.indexOf(terminator, terminatorStart) == terminatorStart)
+				return;
+		}
+	}
+
+	/** Copies a start tag and returns true if it is an empty element tag. */
+	private boolean copyStartTag(final StringBuilder contentBuffer) throws IOException {
+		final IXMLReader reader = getReader();
+		char delimiter = 0;
+		char previous = 0;
+		for (;;) {
+			final char ch = reader.read();
+			contentBuffer.append(ch);
+			if (delimiter != 0) {
+				if (ch == delimiter)
+					delimiter = 0;
+			}
+			else if (ch == '"' || ch == '\'')
+				delimiter = ch;
+			else if (ch == '>')
+				return previous == '/';
+			previous = ch;
+		}
+	}
 }
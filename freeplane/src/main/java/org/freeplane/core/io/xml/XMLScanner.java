@@ -0,0 +1,864 @@
+package org.freeplane.core.io.xml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.freeplane.n3.nanoxml.IXMLBuilder;
+import org.freeplane.n3.nanoxml.XMLException;
+import org.freeplane.n3.nanoxml.XMLParseException;
+
+/**
+ * Parses XML read in large character blocks and passes it to a builder like {@link XMLParser} does,
+ * but without its stack of character readers and the collections it allocates for each element.
+ *
+ * Element and attribute names are interned, so that equal names share one string.
+ * The input is handled like by NanoXML: line breaks are normalized, white space preceding tags is dropped,
+ * tabs in leading white space of text and white space in attribute values are replaced by spaces,
+ * and a text is passed in parts separated by comments and CDATA sections.
+ * Document type declarations are skipped except for their internal entities.
+ */
+class XMLScanner {
+	static final String SYSTEM_ID = "file:.";
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int MAXIMAL_ENTITY_DEPTH = 8;
+	private static final int MAXIMAL_ENTITY_EXPANSIONS = 1 << 16;
+
+	private static class NameTable {
+		private String[] names = new String[256];
+		private int size;
+
+		String intern(final char[] chars, final int start, final int length) {
+			int hash = 0;
+			for (int i = start; i < start + length; i++)
+				hash = 31 * hash + chars[i];
+			int mask = names.length - 1;
+			for (int index = (hash ^ (hash >>> 16)) & mask;; index = (index + 1) & mask) {
+				final String name = names[index];
+				if (name == null) {
+					final String newName = new String(chars, start, length).intern();
+					names[index] = newName;
+					if (++size * 2 > names.length)
+						rehash();
+					return newName;
+				}
+				if (name.hashCode() == hash && equals(name, chars, start, length))
+					return name;
+			}
+		}
+
+		private static boolean equals(final String name, final char[] chars, final int start, final int length) {
+			if (name.length() != length)
+				return false;
+			for (int i = 0; i < length; i++) {
+				if (name.charAt(i) != chars[start + i])
+					return false;
+			}
+			return true;
+		}
+
+		private void rehash() {
+			final String[] oldNames = names;
+			names = new String[oldNames.length * 2];
+			final int mask = names.length - 1;
+			for (final String name : oldNames) {
+				if (name == null)
+					continue;
+				final int hash = name.hashCode();
+				int index = (hash ^ (hash >>> 16)) & mask;
+				while (names[index] != null)
+					index = (index + 1) & mask;
+				names[index] = name;
+			}
+		}
+	}
+
+	private enum ContentCollect {NONE, BY_CLOSING_TAG_LEVEL, BY_CLOSING_TAG_NAME}
+
+	private final Reader reader;
+	private final IXMLBuilder builder;
+	private final NameTable names;
+	private final StringBuilder text;
+	private char[] buffer;
+	private int position;
+	private int limit;
+	private int mark;
+	private boolean skipsLineFeed;
+	private boolean atEndOfInput;
+	private int lineCount;
+	private int lineCountPosition;
+	private String[] attributeNames;
+	private String[] attributeValues;
+	private int attributeCount;
+	private Map<String, String> entities;
+	private int entityExpansions;
+	private ContentCollect contentCollect;
+	private boolean closingTagIsReadAndVerified;
+
+	XMLScanner(final Reader reader, final IXMLBuilder builder) {
+		this.reader = reader;
+		this.builder = builder;
+		names = new NameTable();
+		text = new StringBuilder();
+		buffer = new char[BUFFER_SIZE];
+		mark = -1;
+		attributeNames = new String[16];
+		attributeValues = new String[16];
+		contentCollect = ContentCollect.NONE;
+	}
+
+	void collectContentUntilMatchingTag(final boolean findsClosingTagByName) {
+		contentCollect = findsClosingTagByName ? ContentCollect.BY_CLOSING_TAG_NAME : ContentCollect.BY_CLOSING_TAG_LEVEL;
+	}
+
+	void parse() throws XMLException {
+		try {
+			builder.startBuilding(SYSTEM_ID, getLineNr());
+			while (builder.getResult() == null) {
+				if (position == limit && !fill())
+					break;
+				final char ch = buffer[position++];
+				switch (ch) {
+					case '<':
+						scanSomeTag(false, null, null);
+						break;
+					case ' ':
+					case '\t':
+					case '\r':
+					case '\n':
+						break;
+					case '&':
+						throw new XMLParseException(SYSTEM_ID, getLineNr(), "Invalid entity: `&" + scanReference() + ";'");
+					default:
+						throw new XMLParseException(SYSTEM_ID, getLineNr(), "Invalid input: `" + ch + "' (0x"
+						        + Integer.toHexString(ch) + ')');
+				}
+			}
+		}
+		catch (final XMLException e) {
+			throw e;
+		}
+		catch (final Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private void scanSomeTag(final boolean allowCDATA, final String defaultNamespace,
+	                         final Map<String, String> namespaces) throws Exception {
+		final char ch = read();
+		switch (ch) {
+			case '&':
+				throw unexpectedEntity();
+			case '?':
+				scanProcessingInstruction();
+				break;
+			case '!':
+				scanSpecialTag(allowCDATA);
+				break;
+			default:
+				unread();
+				scanElement(defaultNamespace, namespaces);
+		}
+	}
+
+	private void scanSpecialTag(final boolean allowCDATA) throws Exception {
+		final char ch = read();
+		switch (ch) {
+			case '&':
+				throw unexpectedEntity();
+			case '[':
+				if (!allowCDATA)
+					throw new XMLParseException(SYSTEM_ID, getLineNr(), "No CDATA section is expected here");
+				if (!checkLiteral("CDATA["))
+					throw expectedInput("<![[CDATA[");
+				final int lineNr = getLineNr();
+				builder.addPCData(scanCDATA(), SYSTEM_ID, lineNr);
+				return;
+			case 'D':
+				scanDocType();
+				return;
+			case '-':
+				skipComment();
+				return;
+		}
+	}
+
+	private void scanElement(String defaultNamespace, final Map<String, String> parentNamespaces) throws Exception {
+		final String fullName = scanIdentifier();
+		String name = fullName;
+		String prefix = null;
+		skipWhitespace(null);
+		final int colonIndex = fullName.indexOf(':');
+		if (colonIndex > 0) {
+			prefix = fullName.substring(0, colonIndex).intern();
+			name = fullName.substring(colonIndex + 1).intern();
+		}
+		attributeCount = 0;
+		char ch;
+		for (;;) {
+			ch = read();
+			if (ch == '/' || ch == '>')
+				break;
+			unread();
+			scanAttribute();
+			skipWhitespace(null);
+		}
+		Map<String, String> namespaces = parentNamespaces;
+		for (int i = 0; i < attributeCount; i++) {
+			final String key = attributeNames[i];
+			if (key.equals("xmlns"))
+				defaultNamespace = attributeValues[i];
+			else if (key.startsWith("xmlns:")) {
+				if (namespaces == parentNamespaces)
+					namespaces = parentNamespaces == null ? new HashMap<>() : new HashMap<>(parentNamespaces);
+				namespaces.put(key.substring(6), attributeValues[i]);
+			}
+		}
+		final String nsURI = prefix == null ? defaultNamespace : getNamespace(namespaces, prefix);
+		builder.startElement(name, prefix, nsURI, SYSTEM_ID, getLineNr());
+		for (int i = 0; i < attributeCount; i++) {
+			final String key = attributeNames[i];
+			if (key.startsWith("xmlns"))
+				continue;
+			final int attributeColonIndex = key.indexOf(':');
+			if (attributeColonIndex > 0) {
+				final String attributePrefix = key.substring(0, attributeColonIndex);
+				builder.addAttribute(key.substring(attributeColonIndex + 1), attributePrefix,
+				    getNamespace(namespaces, attributePrefix), attributeValues[i], "CDATA");
+			}
+			else
+				builder.addAttribute(key, null, null, attributeValues[i], "CDATA");
+		}
+		builder.elementAttributesProcessed(name, prefix, nsURI);
+		final ContentCollect elementContentCollect = contentCollect;
+		contentCollect = ContentCollect.NONE;
+		if (ch == '/') {
+			if (read() != '>')
+				throw expectedInput("`>'");
+			builder.endElement(name, prefix, nsURI);
+			return;
+		}
+		if (elementContentCollect != ContentCollect.NONE)
+			collectElementContent(elementContentCollect, fullName);
+		else
+			scanElementContent(defaultNamespace, namespaces);
+		if (!closingTagIsReadAndVerified) {
+			skipWhitespace(null);
+			final String closingName = scanIdentifier();
+			if (!closingName.equals(fullName))
+				throw new XMLParseException(SYSTEM_ID, getLineNr(), "Closing tag does not match opening tag: `"
+				        + closingName + "' != `" + name + "'");
+			skipWhitespace(null);
+			if (read() != '>')
+				throw new XMLParseException(SYSTEM_ID, getLineNr(), "Closing tag must be empty");
+		}
+		else
+			closingTagIsReadAndVerified = false;
+		builder.endElement(name, prefix, nsURI);
+	}
+
+	private String getNamespace(final Map<String, String> namespaces, final String prefix) {
+		return namespaces == null ? null : namespaces.get(prefix);
+	}
+
+	private void scanAttribute() throws IOException, XMLParseException {
+		final String key = scanIdentifier();
+		skipWhitespace(null);
+		if (read() != '=')
+			throw expectedInput("`='");
+		skipWhitespace(null);
+		final String value = scanAttributeValue();
+		if (attributeCount == attributeNames.length) {
+			attributeNames = Arrays.copyOf(attributeNames, attributeCount * 2);
+			attributeValues = Arrays.copyOf(attributeValues, attributeCount * 2);
+		}
+		attributeNames[attributeCount] = key;
+		attributeValues[attributeCount] = value;
+		attributeCount++;
+	}
+
+	private String scanAttributeValue() throws IOException, XMLParseException {
+		final char delimiter = read();
+		if (delimiter != '\'' && delimiter != '"')
+			throw expectedInput("delimited string");
+		text.setLength(0);
+		for (;;) {
+			if (position == limit && !fill())
+				throw unexpectedEndOfInput();
+			final int start = position;
+			char ch = 0;
+			while (position < limit) {
+				ch = buffer[position];
+				if (ch == delimiter || ch == '&' || ch == '\t' || ch == '\n')
+					break;
+				position++;
+			}
+			if (position == limit) {
+				text.append(buffer, start, position - start);
+				continue;
+			}
+			position++;
+			if (ch == delimiter) {
+				if (text.length() == 0)
+					return new String(buffer, start, position - 1 - start);
+				text.append(buffer, start, position - 1 - start);
+				return text.toString();
+			}
+			text.append(buffer, start, position - 1 - start);
+			if (ch == '&')
+				appendReference(text, scanReference(), 0);
+			else
+				text.append(' ');
+		}
+	}
+
+	private void scanElementContent(final String defaultNamespace, final Map<String, String> namespaces)
+	        throws Exception {
+		for (;;) {
+			text.setLength(0);
+			skipWhitespace(text);
+			final char ch = read();
+			if (ch == '<') {
+				if (read() == '/')
+					break;
+				unread();
+				scanSomeTag(true, defaultNamespace, namespaces);
+				continue;
+			}
+			final int lineNr = getLineNr();
+			if (ch == '&')
+				appendReference(text, scanReference(), 0);
+			else
+				unread();
+			scanText();
+			builder.addPCData(text.toString(), SYSTEM_ID, lineNr);
+		}
+	}
+
+	private void scanText() throws IOException, XMLParseException {
+		for (;;) {
+			if (position == limit && !fill())
+				throw unexpectedEndOfInput();
+			final int start = position;
+			while (position < limit) {
+				final char ch = buffer[position];
+				if (ch == '<' || ch == '&')
+					break;
+				position++;
+			}
+			text.append(buffer, start, position - start);
+			if (position == limit)
+				continue;
+			if (buffer[position] == '<')
+				return;
+			position++;
+			appendReference(text, scanReference(), 0);
+		}
+	}
+
+	private void collectElementContent(final ContentCollect collect, final String fullName)
+	        throws IOException, XMLParseException {
+		final String content = collect == ContentCollect.BY_CLOSING_TAG_LEVEL
+		        ? collectContentByLevel()
+		        : collectContentByName(fullName);
+		((TreeXmlReader) builder).setElementContent(content);
+	}
+
+	private String collectContentByName(final String fullName) throws IOException {
+		final StringBuilder contentBuffer = new StringBuilder();
+		int confirmedContentBufferLength = 0;
+		int closingTagMatchingCharacters = -2;
+		for (;;) {
+			char ch = read();
+			if (ch == '<') {
+				ch = read();
+				if (ch == '/') {
+					confirmedContentBufferLength = contentBuffer.length();
+					closingTagMatchingCharacters = -1;
+				}
+				contentBuffer.append('<');
+			}
+			if (closingTagMatchingCharacters == -1
+			        || closingTagMatchingCharacters >= 0 && closingTagMatchingCharacters < fullName.length()
+			        && fullName.charAt(closingTagMatchingCharacters) == ch) {
+				if ((closingTagMatchingCharacters >= 0 && closingTagMatchingCharacters < fullName.length())
+				        || (ch != ' ' && ch != '\t' && ch != '\n'))
+					closingTagMatchingCharacters++;
+			}
+			else if (ch == '>' && closingTagMatchingCharacters == fullName.length()) {
+				contentBuffer.setLength(confirmedContentBufferLength);
+				closingTagIsReadAndVerified = true;
+				return contentBuffer.toString();
+			}
+			else
+				closingTagMatchingCharacters = -2;
+			contentBuffer.append(ch);
+		}
+	}
+
+	/**
+	 * Collects the content up to the closing tag of the current element, which is read up to its name.
+	 * Comments, CDATA sections, processing instructions and quoted attribute values are copied
+	 * without looking for tags inside.
+	 */
+	private String collectContentByLevel() throws IOException {
+		final StringBuilder contentBuffer = new StringBuilder();
+		int level = 1;
+		for (;;) {
+			char ch = read();
+			if (ch != '<') {
+				contentBuffer.append(ch);
+				continue;
+			}
+			ch = read();
+			if (ch == '/') {
+				level--;
+				if (level == 0)
+					return contentBuffer.toString();
+				contentBuffer.append("</");
+				copyUntil(contentBuffer, ">");
+			}
+			else if (ch == '!') {
+				contentBuffer.append("<!");
+				if (copyLiteral(contentBuffer, "--"))
+					copyUntil(contentBuffer, "-->");
+				else if (copyLiteral(contentBuffer, "[CDATA["))
+					copyUntil(contentBuffer, "]]>");
+				else
+					copyUntil(contentBuffer, ">");
+			}
+			else if (ch == '?') {
+				contentBuffer.append("<?");
+				copyUntil(contentBuffer, "?>");
+			}
+			else {
+				contentBuffer.append('<');
+				unread();
+				if (!copyStartTag(contentBuffer))
+					level++;
+			}
+		}
+	}
+
+	/** Copies the literal as far as it matches the input, and returns true if it matches completely. */
+	private boolean copyLiteral(final StringBuilder contentBuffer, final String literal) throws IOException {
+		for (int i = 0; i < literal.length(); i++) {
+			final char ch = read();
+			if (ch != literal.charAt(i)) {
+				unread();
+				return false;
+			}
+			contentBuffer.append(ch);
+		}
+		return true;
+	}
+
+	private void copyUntil(final StringBuilder contentBuffer, final String terminator) throws IOException {
+		final int terminatorLength = terminator.length();
+		for (;;) {
+			contentBuffer.append(read());
+			final int terminatorStart = contentBuffer.length() - terminatorLength;
+			if (terminatorStart >= 0 && contentBuffer.indexOf(terminator, terminatorStart) == terminatorStart)
+				return;
+		}
+	}
+
+	/** Copies a start tag and returns true if it is an empty element tag. */
+	private boolean copyStartTag(final StringBuilder contentBuffer) throws IOException {
+		char delimiter = 0;
+		char previous = 0;
+		for (;;) {
+			final char ch = read();
+			contentBuffer.append(ch);
+			if (delimiter != 0) {
+				if (ch == delimiter)
+					delimiter = 0;
+			}
+			else if (ch == '"' || ch == '\'')
+				delimiter = ch;
+			else if (ch == '>')
+				return previous == '/';
+			previous = ch;
+		}
+	}
+
+	private String scanCDATA() throws IOException {
+		text.setLength(0);
+		for (;;) {
+			final char ch = read();
+			if (ch == ']') {
+				if (read() == ']') {
+					if (read() == '>')
+						return text.toString();
+					unread();
+				}
+				unread();
+			}
+			text.append(ch);
+		}
+	}
+
+	private void scanProcessingInstruction() throws Exception {
+		skipWhitespace(null);
+		final String target = scanIdentifier();
+		skipWhitespace(null);
+		text.setLength(0);
+		for (;;) {
+			final char ch = read();
+			if (ch == '?') {
+				if (read() == '>')
+					break;
+				unread();
+			}
+			text.append(ch);
+		}
+		if (!target.equalsIgnoreCase("xml"))
+			builder.newProcessingInstruction(target, new StringReader(text.toString()));
+	}
+
+	private void skipProcessingInstruction() throws IOException {
+		for (;;) {
+			if (read() == '?') {
+				if (read() == '>')
+					return;
+				unread();
+			}
+		}
+	}
+
+	private void skipComment() throws IOException, XMLParseException {
+		if (read() != '-')
+			throw expectedInput("<!--");
+		int dashesRead = 0;
+		for (;;) {
+			final char ch = read();
+			if (ch == '-')
+				dashesRead++;
+			else if (ch == '>' && dashesRead == 2)
+				return;
+			else
+				dashesRead = 0;
+		}
+	}
+
+	private void scanDocType() throws IOException, XMLParseException {
+		if (!checkLiteral("OCTYPE"))
+			throw expectedInput("<!DOCTYPE");
+		skipWhitespace(null);
+		scanIdentifier();
+		skipWhitespace(null);
+		char ch = read();
+		if (ch == 'P') {
+			if (checkLiteral("UBLIC")) {
+				skipWhitespace(null);
+				scanQuotedString();
+				skipWhitespace(null);
+				scanQuotedString();
+			}
+			skipWhitespace(null);
+			ch = read();
+		}
+		else if (ch == 'S') {
+			if (checkLiteral("YSTEM")) {
+				skipWhitespace(null);
+				scanQuotedString();
+			}
+			skipWhitespace(null);
+			ch = read();
+		}
+		if (ch == '[') {
+			scanInternalSubset();
+			skipWhitespace(null);
+			ch = read();
+		}
+		if (ch != '>')
+			throw expectedInput("`>'");
+	}
+
+	private void scanInternalSubset() throws IOException, XMLParseException {
+		for (;;) {
+			skipWhitespace(null);
+			final char ch = read();
+			if (ch == ']')
+				return;
+			if (ch == '%') {
+				scanReference();
+				continue;
+			}
+			if (ch != '<')
+				throw expectedInput("`<'");
+			final char next = read();
+			if (next == '?') {
+				skipProcessingInstruction();
+				continue;
+			}
+			if (next != '!')
+				throw expectedInput("`!'");
+			if (read() == '-') {
+				skipComment();
+				continue;
+			}
+			unread();
+			final String declaration = scanIdentifier();
+			skipWhitespace(null);
+			if (declaration.equals("ENTITY") && read() != '%') {
+				unread();
+				final String name = scanIdentifier();
+				skipWhitespace(null);
+				final char delimiter = read();
+				unread();
+				if (delimiter == '"' || delimiter == '\'') {
+					if (entities == null)
+						entities = new HashMap<>();
+					final String value = scanQuotedString();
+					if (!entities.containsKey(name))
+						entities.put(name, value);
+				}
+			}
+			skipDeclaration();
+		}
+	}
+
+	private void skipDeclaration() throws IOException {
+		char delimiter = 0;
+		for (;;) {
+			final char ch = read();
+			if (delimiter != 0) {
+				if (ch == delimiter)
+					delimiter = 0;
+			}
+			else if (ch == '"' || ch == '\'')
+				delimiter = ch;
+			else if (ch == '>')
+				return;
+		}
+	}
+
+	private String scanQuotedString() throws IOException, XMLParseException {
+		final char delimiter = read();
+		if (delimiter != '\'' && delimiter != '"')
+			throw expectedInput("delimited string");
+		text.setLength(0);
+		for (;;) {
+			final char ch = read();
+			if (ch == delimiter)
+				return text.toString();
+			text.append(ch == '\t' || ch == '\n' ? ' ' : ch);
+		}
+	}
+
+	/** Reads an entity or character reference after its ampersand and returns it without the semicolon. */
+	private String scanReference() throws IOException {
+		mark = position;
+		try {
+			for (;;) {
+				if (position == limit && !fill())
+					throw unexpectedEndOfInput();
+				if (buffer[position++] == ';')
+					return new String(buffer, mark, position - 1 - mark);
+			}
+		}
+		finally {
+			mark = -1;
+		}
+	}
+
+	private void appendReference(final StringBuilder target, final String reference, final int depth)
+	        throws XMLParseException {
+		if (reference.startsWith("#")) {
+			try {
+				final int codePoint = reference.startsWith("#x") || reference.startsWith("#X")
+				        ? Integer.parseInt(reference.substring(2), 16) : Integer.parseInt(reference.substring(1), 10);
+				target.appendCodePoint(codePoint);
+				return;
+			}
+			catch (final IllegalArgumentException e) {
+				throw invalidEntity(reference);
+			}
+		}
+		switch (reference) {
+			case "amp":
+				target.append('&');
+				return;
+			case "lt":
+				target.append('<');
+				return;
+			case "gt":
+				target.append('>');
+				return;
+			case "quot":
+				target.append('"');
+				return;
+			case "apos":
+				target.append('\'');
+				return;
+		}
+		final String value = entities != null ? entities.get(reference) : null;
+		if (value == null || depth >= MAXIMAL_ENTITY_DEPTH || ++entityExpansions > MAXIMAL_ENTITY_EXPANSIONS)
+			throw invalidEntity(reference);
+		int start = 0;
+		for (int ampersand = value.indexOf('&'); ampersand >= 0; ampersand = value.indexOf('&', start)) {
+			target.append(value, start, ampersand);
+			final int semicolon = value.indexOf(';', ampersand);
+			if (semicolon < 0)
+				throw invalidEntity(reference);
+			appendReference(target, value.substring(ampersand + 1, semicolon), depth + 1);
+			start = semicolon + 1;
+		}
+		target.append(value, start, value.length());
+	}
+
+	private String scanIdentifier() throws IOException {
+		mark = position;
+		try {
+			for (;;) {
+				if (position == limit && !fill())
+					break;
+				if (!isIdentifierCharacter(buffer[position]))
+					break;
+				position++;
+			}
+			return names.intern(buffer, mark, position - mark);
+		}
+		finally {
+			mark = -1;
+		}
+	}
+
+	private static boolean isIdentifierCharacter(final char ch) {
+		return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9')
+		        || ch == '_' || ch == ':' || ch == '-' || ch == '.' || ch > '~';
+	}
+
+	private boolean checkLiteral(final String literal) throws IOException {
+		for (int i = 0; i < literal.length(); i++) {
+			if (read() != literal.charAt(i))
+				return false;
+		}
+		return true;
+	}
+
+	/** Skips white space, appending it to the given buffer with tabs replaced by spaces if it is not null. */
+	private void skipWhitespace(final StringBuilder whitespace) throws IOException {
+		for (;;) {
+			final char ch = read();
+			if (ch == ' ' || ch == '\t') {
+				if (whitespace != null)
+					whitespace.append(' ');
+			}
+			else if (ch == '\n') {
+				if (whitespace != null)
+					whitespace.append('\n');
+			}
+			else {
+				unread();
+				return;
+			}
+		}
+	}
+
+	private char read() throws IOException {
+		if (position == limit && !fill())
+			throw unexpectedEndOfInput();
+		return buffer[position++];
+	}
+
+	/** Steps back over the last read character. */
+	private void unread() {
+		position--;
+	}
+
+	/**
+	 * Reads the next block of characters. Characters from the mark and the last read character are kept,
+	 * so that the scanned name or reference stays in the buffer and the last character can be unread.
+	 */
+	private boolean fill() throws IOException {
+		if (atEndOfInput)
+			return false;
+		countLines();
+		int keptStart = position > 0 ? position - 1 : 0;
+		if (mark >= 0 && mark < keptStart)
+			keptStart = mark;
+		if (keptStart > 0) {
+			System.arraycopy(buffer, keptStart, buffer, 0, limit - keptStart);
+			limit -= keptStart;
+			position -= keptStart;
+			lineCountPosition -= keptStart;
+			if (mark >= 0)
+				mark -= keptStart;
+		}
+		if (limit == buffer.length)
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		for (;;) {
+			final int count = reader.read(buffer, limit, buffer.length - limit);
+			if (count < 0) {
+				atEndOfInput = true;
+				return false;
+			}
+			final int newLimit = normalizeLineBreaks(limit, limit + count);
+			if (newLimit > limit) {
+				limit = newLimit;
+				return true;
+			}
+		}
+	}
+
+	/** Replaces carriage returns and carriage returns followed by line feeds by line feeds. */
+	private int normalizeLineBreaks(final int start, final int end) {
+		int target = start;
+		for (int i = start; i < end; i++) {
+			final char ch = buffer[i];
+			if (ch == '\r') {
+				buffer[target++] = '\n';
+				skipsLineFeed = true;
+			}
+			else {
+				if (ch != '\n' || !skipsLineFeed)
+					buffer[target++] = ch;
+				skipsLineFeed = false;
+			}
+		}
+		return target;
+	}
+
+	private int getLineNr() {
+		countLines();
+		return lineCount + 1;
+	}
+
+	private void countLines() {
+		if (position >= lineCountPosition) {
+			for (int i = lineCountPosition; i < position; i++) {
+				if (buffer[i] == '\n')
+					lineCount++;
+			}
+		}
+		else {
+			for (int i = position; i < lineCountPosition; i++) {
+				if (buffer[i] == '\n')
+					lineCount--;
+			}
+		}
+		lineCountPosition = position;
+	}
+
+	private XMLParseException expectedInput(final String expectedString) {
+		return new XMLParseException(SYSTEM_ID, getLineNr(), "Expected: " + expectedString);
+	}
+
+	private XMLParseException invalidEntity(final String reference) {
+		return new XMLParseException(SYSTEM_ID, getLineNr(), "Invalid entity: `&" + reference + ";'");
+	}
+
+	private XMLParseException unexpectedEntity() throws IOException {
+		return new XMLParseException(SYSTEM_ID, getLineNr(), "No entity reference is expected here (&"
+		        + scanReference() + ";)");
+	}
+
+	private IOException unexpectedEndOfInput() {
+		return new IOException("Unexpected EOF at line " + getLineNr());
+	}
+}
@@ -94,6 +94,13 @@ class XMLWriter {
 		writeEncoded(content, false, true);
 	}
 
+	/**
+	 * Writes already encoded XML text.
+	 */
+	public void writeEncodedText(final String text) {
+		writer.print(text);
+	}
+
 	/**
 	 * Writes an XML element.
 	 * 
@@ -0,0 +1,63 @@
+package org.freeplane.core.ui.components.html;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+
+import org.freeplane.core.resources.ResourceController;
+
+/**
+ * Defers the creation of html renderers of labels updated by a task on the event dispatch thread.
+ *
+ * After the task the renderers of all deferred labels are created from their final texts,
+ * so labels changed several times by the task are parsed only once.
+ * Labels measured or laid out by the task itself get their renderers immediately.
+ */
+class DeferredHTMLRenderers {
+	static final String PROPERTY = "deferred_html_rendering";
+
+	private static DeferredHTMLRenderers current;
+
+	private final Map<JLabel, String> texts = new LinkedHashMap<>();
+
+	static void run(Runnable task) {
+		if (current != null
+		        || ! SwingUtilities.isEventDispatchThread()
+		        || ! ResourceController.getResourceController().getBooleanProperty(PROPERTY)) {
+			task.run();
+			return;
+		}
+		final DeferredHTMLRenderers renderers = new DeferredHTMLRenderers();
+		current = renderers;
+		try {
+			task.run();
+		}
+		finally {
+			current = null;
+			renderers.createRenderers();
+		}
+	}
+
+	/** Returns true if the renderer of the label is created later. */
+	static boolean defer(JLabel label, String text) {
+		if (current == null || ! SwingUtilities.isEventDispatchThread())
+			return false;
+		current.texts.put(label, text);
+		return true;
+	}
+
+	static void createDeferredRenderer(JLabel label) {
+		if (current == null)
+			return;
+		final String text = current.texts.remove(label);
+		if (text != null)
+			ScaledHTML.createRenderer(label, text);
+	}
+
+	private void createRenderers() {
+		for (Map.Entry<JLabel, String> labelText : texts.entrySet())
+			ScaledHTML.createRenderer(labelText.getKey(), labelText.getValue());
+	}
+}
@@ -0,0 +1,108 @@
+package org.freeplane.core.ui.components.html;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import javax.swing.JLabel;
+import javax.swing.plaf.basic.BasicHTML;
+import javax.swing.text.Document;
+import javax.swing.text.html.StyleSheet;
+
+import org.freeplane.core.resources.ResourceController;
+
+/**
+ * Keeps recently parsed html documents of labels, so that labels showing the same html
+ * with the same font, color, alignment, orientation, style sheet and document base share one document.
+ *
+ * Each label still builds its own view tree, the shared documents are only read and must not be changed.
+ */
+class HTMLDocumentCache {
+	static final String CACHE_SIZE_PROPERTY = "html_document_cache_size";
+
+	private static final class Key {
+		private final String html;
+		private final Font font;
+		private final Color foreground;
+		private final int horizontalAlignment;
+		private final boolean leftToRight;
+		private final StyleSheet styleSheet;
+		private final String base;
+		private final int hashCode;
+
+		Key(JLabel c, String html) {
+			this.html = html;
+			this.font = c.getFont();
+			this.foreground = c.getForeground();
+			this.horizontalAlignment = c.getHorizontalAlignment();
+			this.leftToRight = c.getComponentOrientation().isLeftToRight();
+			this.styleSheet = (StyleSheet) c.getClientProperty(StyleSheet.class);
+			final Object base = c.getClientProperty(BasicHTML.documentBaseKey);
+			this.base = base instanceof URL ? ((URL) base).toExternalForm() : null;
+			this.hashCode = Objects.hash(html, font, foreground, horizontalAlignment, leftToRight,
+			    System.identityHashCode(styleSheet), base);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			final Key other = (Key) obj;
+			return hashCode == other.hashCode
+			        && html.equals(other.html)
+			        && Objects.equals(font, other.font)
+			        && Objects.equals(foreground, other.foreground)
+			        && horizontalAlignment == other.horizontalAlignment
+			        && leftToRight == other.leftToRight
+			        && styleSheet == other.styleSheet
+			        && Objects.equals(base, other.base);
+		}
+	}
+
+	private static final HTMLDocumentCache instance = new HTMLDocumentCache();
+
+	private int maximumSize;
+	private final LinkedHashMap<Key, Document> documents;
+
+	private HTMLDocumentCache() {
+		documents = new LinkedHashMap<Key, Document>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Document> eldest) {
+				return size() > maximumSize;
+			}
+		};
+	}
+
+	/** Returns the document of the html for the label, parsing it only if no equal document is cached. */
+	static Document getDocument(JLabel c, String html, Supplier<Document> parser) {
+		return instance.get(c, html, parser);
+	}
+
+	private synchronized Document get(JLabel c, String html, Supplier<Document> parser) {
+		maximumSize = ResourceController.getResourceController().getIntProperty(CACHE_SIZE_PROPERTY, 0);
+		if (maximumSize <= 0) {
+			documents.clear();
+			return parser.get();
+		}
+		final Key key = new Key(c, html);
+		Document document = documents.get(key);
+		if (document == null) {
+			document = parser.get();
+			documents.put(key, document);
+		}
+		return document;
+	}
+}
@@ -62,6 +62,14 @@ public class ScaledHTML extends BasicHTML{
 	 */
 	static Renderer createHTMLView(JLabel c, String html) {
 		ScaledEditorKit kit = SynchronousScaledEditorKit.create();
+		Document doc = HTMLDocumentCache.getDocument(c, html, () -> createHTMLDocument(kit, c, html));
+        ViewFactory f = kit.getViewFactory();
+        View hview = f.create(doc.getDefaultRootElement());
+        Renderer v = new Renderer(c, f, hview);
+        return v;
+    }
+
+	private static Document createHTMLDocument(ScaledEditorKit kit, JLabel c, String html) {
 		Document doc = kit.createDefaultDocument(c);
 		applyComponentOrientation(doc, c.getComponentOrientation());
 		Object base = c.getClientProperty(documentBaseKey);
@@ -73,16 +81,24 @@ public class ScaledHTML extends BasicHTML{
             kit.read(r, doc, 0);
         } catch (Throwable e) {
         }
+        return doc;
+	}
 
+    public static void resetPainter() {
+        GlyphPainterMetricResetter.resetPainter();
+    }
 
-        ViewFactory f = kit.getViewFactory();
-        View hview = f.create(doc.getDefaultRootElement());
-        Renderer v = new Renderer(c, f, hview);
-        return v;
+    /**
+     * Runs the label updates deferring the creation of html renderers until all updates are done,
+     * so that each updated label parses only its final text.
+     */
+    public static void updateRenderersOnce(Runnable labelUpdates) {
+        DeferredHTMLRenderers.run(labelUpdates);
     }
 
-    public static void resetPainter() {
-        GlyphPainterMetricResetter.resetPainter();
+    /** Creates the renderer of a label whose renderer creation was deferred and which needs to be measured now. */
+    public static void createDeferredRenderer(JLabel lbl) {
+        DeferredHTMLRenderers.createDeferredRenderer(lbl);
     }
 
     public static void updateRendererOnPropertyChange(JLabel lbl, String propertyName) {
@@ -97,6 +113,21 @@ public class ScaledHTML extends BasicHTML{
         finally{
             GlyphPainterMetricResetter.resetPainter();
         }
+        updatePreferredWidth(lbl);
+    }
+
+    static void createRenderer(JLabel lbl, String text) {
+        GlyphPainterMetricResetter.resetPainter();
+        try {
+            setRenderer(lbl, createRendererView(lbl, text));
+        }
+        finally{
+            GlyphPainterMetricResetter.resetPainter();
+        }
+        updatePreferredWidth(lbl);
+    }
+
+    private static void updatePreferredWidth(JLabel lbl) {
         View v = (View) lbl.getClientProperty(BasicHTML.propertyKey);
         if (v != null) {
             lbl.putClientProperty("preferredWidth", v.getPreferredSpan(View.X_AXIS));
@@ -116,22 +147,38 @@ public class ScaledHTML extends BasicHTML{
      public static void updateRenderer(JLabel c, String text) {
     	View value = null;
     	try{
-    	View oldValue = (View)c.getClientProperty(propertyKey);
+    		if (! DeferredHTMLRenderers.defer(c, text))
+    			value = createRendererView(c, text);
+    	}
+    	finally{
+    		setRenderer(c, value);
+    	}
+    }
+
+    private static View createRendererView(JLabel c, String text) {
+    	String html = toHTML(c, text);
+    	return html != null ? ScaledHTML.createHTMLView(c, html) : null;
+    }
+
+    private static String toHTML(JLabel c, String text) {
     	if (isHTMLString(text)) {
-    		value = ScaledHTML.createHTMLView(c, text);
+    		return text;
     	}
     	else if (c.getClientProperty(StyleSheet.class) != null) {
-    		value = ScaledHTML.createHTMLView(c, HtmlUtils.plainToHTML(text));
+    		return HtmlUtils.plainToHTML(text);
     	}
+    	else
+    		return null;
+    }
+
+    private static void setRenderer(JLabel c, View value) {
+    	View oldValue = (View)c.getClientProperty(propertyKey);
     	if (value != oldValue && oldValue != null) {
     		for (int i = 0; i < oldValue.getViewCount(); i++) {
     			oldValue.getView(i).setParent(null);
     		}
     	}
-    	}
-    	finally{
-    		c.putClientProperty(BasicHTML.propertyKey, value);
-    	}
+    	c.putClientProperty(BasicHTML.propertyKey, value);
     }
 
 
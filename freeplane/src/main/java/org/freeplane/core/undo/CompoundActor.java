@@ -31,6 +31,7 @@ import java.util.ListIterator;
  */
 public class CompoundActor implements IActor {
 	final private LinkedList<IActor> actors;
+	private long estimatedSize;
 
 	public CompoundActor() {
 		this(new LinkedList<IActor>());
@@ -39,6 +40,10 @@ public class CompoundActor implements IActor {
 	@SuppressWarnings("unchecked")
 	public CompoundActor(final LinkedList<? extends IActor> actors) {
 		this.actors = (LinkedList<IActor>) actors;
+		estimatedSize = DEFAULT_ESTIMATED_SIZE;
+		for (final IActor actor : actors) {
+			estimatedSize += actor.getEstimatedSize();
+		}
 	}
 
 	public void act() {
@@ -49,6 +54,7 @@ public class CompoundActor implements IActor {
 
 	public void add(final IActor firstActor) {
 		actors.add(firstActor);
+		estimatedSize += firstActor.getEstimatedSize();
 	}
 
 	public String getDescription() {
@@ -73,6 +79,11 @@ public class CompoundActor implements IActor {
 		}
 	}
 
+	@Override
+	public long getEstimatedSize() {
+		return estimatedSize;
+	}
+
 	public boolean isEmpty() {
 		return actors.size() == 0;
 	}
@@ -20,6 +20,8 @@
 package org.freeplane.core.undo;
 
 public interface IActor {
+	long DEFAULT_ESTIMATED_SIZE = 64;
+
 	void act();
 
 	String getDescription();
@@ -29,4 +31,16 @@ public interface IActor {
 	default boolean isReadonly() {
 		return false;
 	}
+
+	/** Returns the estimated number of bytes kept in memory only by this actor. */
+	default long getEstimatedSize() {
+		return DEFAULT_ESTIMATED_SIZE;
+	}
+
+	/** Estimates the bytes used by a text or another value kept by an actor. */
+	static long estimateSize(Object value) {
+		if (value instanceof CharSequence)
+			return 40 + 2L * ((CharSequence) value).length();
+		return value == null ? 0 : 16;
+	}
 }
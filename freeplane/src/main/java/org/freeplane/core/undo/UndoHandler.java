@@ -28,6 +28,7 @@ import java.util.ListIterator;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
+import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.util.LogUtils;
 import org.freeplane.features.map.IMapSelection;
 import org.freeplane.features.map.MapModel;
@@ -54,12 +55,14 @@ public class UndoHandler implements IUndoHandler {
 	private static class ActorList extends LinkedList<CompoundActor> {
 		private static final long serialVersionUID = 1L;
 		int commitDelay = COMMIT_DELAY;
+		long estimatedSize = 0;
 	}
 
 	/**
 	 *
 	 */
 	private static final int MAX_ENTRIES = 100;
+	public static final String MEMORY_LIMIT_PROPERTY = "undo_history_memory_limit_mb";
 	private static final long TIME_TO_BEGIN_NEW_ACTION = 100;
 	private boolean actionFrameStarted;
 	private ListIterator<CompoundActor> actorIterator;
@@ -112,6 +115,7 @@ public class UndoHandler implements IUndoHandler {
 			else {
 				if (actorList.size() > 0) {
 					actorList.clear();
+					actorList.estimatedSize = 0;
 					actorIterator = actorList.listIterator();
 				}
 				return;
@@ -122,6 +126,8 @@ public class UndoHandler implements IUndoHandler {
 			CompoundActor compoundActor = actorIterator.previous();
 			compoundActor.add(actor);
 			actorIterator.next();
+			actorList.estimatedSize += actor.getEstimatedSize();
+			removeOldestEntries();
 		}
 		else {
 			CompoundActor compoundActor = new CompoundActor();
@@ -133,17 +139,35 @@ public class UndoHandler implements IUndoHandler {
 			}
 			compoundActor.add(actor);
 			actorIterator.add(compoundActor);
-			final int maxEntries = UndoHandler.MAX_ENTRIES;
-			while (actorList.size() > maxEntries) {
-				actorList.removeFirst();
-				actorIterator = actorList.listIterator(actorList.size());
-			}
+			actorList.estimatedSize += compoundActor.getEstimatedSize();
+			removeOldestEntries();
 		}
 		startActionFrame();
 		timeOfLastAdd = currentTime;
 		fireStateChanged();
 	}
 
+	/**
+	 * Limits the history by the number of entries and by their estimated memory size.
+	 * The last entry is always kept.
+	 */
+	private void removeOldestEntries() {
+		// actors of open transactions are kept for their commit or rollback
+		if (! transactionList.isEmpty())
+			return;
+		final long memoryLimit = ResourceController.getResourceController().getIntProperty(MEMORY_LIMIT_PROPERTY, 0) * 1024L * 1024L;
+		while (actorList.size() > MAX_ENTRIES
+		        || memoryLimit > 0 && actorList.estimatedSize > memoryLimit && actorList.size() > 1) {
+			actorList.estimatedSize -= actorList.removeFirst().getEstimatedSize();
+			actorIterator = actorList.listIterator(actorList.size());
+		}
+	}
+
+	/** Returns the estimated number of bytes kept by the undo history outside of open transactions. */
+	public long getEstimatedSize() {
+		return transactionList.isEmpty() ? actorList.estimatedSize : transactionList.getFirst().estimatedSize;
+	}
+
 	private void fireStateChanged() {
 		for (final ChangeListener listener : listeners) {
 			listener.stateChanged(event);
@@ -253,7 +277,7 @@ public class UndoHandler implements IUndoHandler {
 
 	public void resetRedo() {
 		while (canRedo()) {
-			actorIterator.next();
+			actorList.estimatedSize -= actorIterator.next().getEstimatedSize();
 			actorIterator.remove();
 		}
 		fireStateChanged();
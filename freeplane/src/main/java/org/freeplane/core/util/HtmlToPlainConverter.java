@@ -0,0 +1,340 @@
+package org.freeplane.core.util;
+
+/**
+ * Converts html to plain text in a single pass over the text,
+ * producing the same result as the sequence of regular expression replacements
+ * in {@link HtmlUtils#htmlToPlainUsingPatterns(String, boolean, String)}.
+ *
+ * Markup and white space are converted first, the result is trimmed, and then entities are replaced
+ * in the same buffer. Because the replacements are applied one after another, a replacement can remove
+ * white space produced by a previous one. Such effects are reproduced by the tag handling states below.
+ * Texts for which they are not reproduced, like tags containing '&lt;' or numeric entities encoding
+ * letters, are not converted, and {@link #convert(String, boolean, String)} returns null.
+ */
+class HtmlToPlainConverter {
+	private static final int NO_BLOCK_TAG = 0;
+	private static final int P_TAG = 1;
+	private static final int DIV_TAG = 2;
+	private static final int TR_TAG = 3;
+
+	private final String text;
+	private final boolean removesNewLines;
+	private final String bulletPointReplacement;
+	private final StringBuilder result;
+	/** Paragraph, div and table row tags remove following white space
+	 * and line breaks produced by tags of lower rank. */
+	private int whiteSpaceRemovingTagRank;
+	/** Other opening tags remove following spaces. */
+	private boolean removesSpaces;
+	/** Closing tags remove preceding spaces up to this position. */
+	private int spaceRemovalStart;
+	/** Line breaks remove preceding spaces and tabs up to this position. */
+	private int lineEndSpaceRemovalStart;
+	private int resultLength;
+
+	static String convert(String text, boolean removesNewLines, String bulletPointReplacement) {
+		if (bulletPointReplacement.indexOf('<') >= 0
+		        || bulletPointReplacement.indexOf('>') >= 0
+		        || bulletPointReplacement.indexOf('&') >= 0)
+			return null;
+		return new HtmlToPlainConverter(text, removesNewLines, bulletPointReplacement).convert();
+	}
+
+	private HtmlToPlainConverter(String text, boolean removesNewLines, String bulletPointReplacement) {
+		this.text = text;
+		this.removesNewLines = removesNewLines;
+		this.bulletPointReplacement = bulletPointReplacement;
+		this.result = new StringBuilder(text.length());
+	}
+
+	private String convert() {
+		if (!convertMarkup())
+			return null;
+		int start = 0;
+		int end = result.length();
+		while (start < end && result.charAt(start) <= ' ')
+			start++;
+		while (end > start && result.charAt(end - 1) <= ' ')
+			end--;
+		if (!convertEntities(start, end))
+			return null;
+		result.setLength(resultLength);
+		return result.toString();
+	}
+
+	private boolean convertMarkup() {
+		final int length = text.length();
+		boolean followsGreaterThanSign = false;
+		int i = 0;
+		while (i < length) {
+			final char c = text.charAt(i);
+			if (c == '<') {
+				final int tagEnd = findTagEnd(i);
+				if (tagEnd < 0)
+					return false;
+				convertTag(i, tagEnd);
+				i = tagEnd + 1;
+				followsGreaterThanSign = true;
+			}
+			else if (followsGreaterThanSign && (c == '\n' || c == '\t'))
+				i++;
+			else if (removesNewLines && isCollapsedWhiteSpace(c)) {
+				i++;
+				while (i < length && isCollapsedWhiteSpace(text.charAt(i)))
+					i++;
+				appendText(' ');
+				followsGreaterThanSign = false;
+			}
+			else {
+				appendText(c);
+				followsGreaterThanSign = c == '>';
+				i++;
+			}
+		}
+		return true;
+	}
+
+	private boolean isCollapsedWhiteSpace(char c) {
+		return c == ' ' || c == '\n' || c == '\t';
+	}
+
+	private int findTagEnd(int tagStart) {
+		for (int i = tagStart + 1; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if (c == '>')
+				return i > tagStart + 1 ? i : -1;
+			if (c == '<')
+				return -1;
+		}
+		return -1;
+	}
+
+	private void convertTag(int tagStart, int tagEnd) {
+		if (text.charAt(tagStart + 1) == '/') {
+			whiteSpaceRemovingTagRank = NO_BLOCK_TAG;
+			while (result.length() > spaceRemovalStart && result.charAt(result.length() - 1) == ' ')
+				result.setLength(result.length() - 1);
+		}
+		else if (tagNameStartsWith(tagStart, tagEnd, "br")) {
+			if (whiteSpaceRemovingTagRank == NO_BLOCK_TAG)
+				appendLineBreak("");
+		}
+		else if (tagNameStartsWith(tagStart, tagEnd, "p"))
+			convertBlockTag(P_TAG);
+		else if (tagNameStartsWith(tagStart, tagEnd, "div"))
+			convertBlockTag(DIV_TAG);
+		else if (tagNameStartsWith(tagStart, tagEnd, "tr"))
+			convertBlockTag(TR_TAG);
+		else if (tagNameStartsWith(tagStart, tagEnd, "dt"))
+			appendLineBreak("");
+		else if (tagNameStartsWith(tagStart, tagEnd, "dd"))
+			appendLineBreak("   ");
+		else if (tagNameStartsWith(tagStart, tagEnd, "td")) {
+			whiteSpaceRemovingTagRank = NO_BLOCK_TAG;
+			if (!removesSpaces)
+				result.append(' ');
+		}
+		else if (tagNameStartsWith(tagStart, tagEnd, "ul") || tagNameStartsWith(tagStart, tagEnd, "ol"))
+			appendLineBreak("");
+		else if (tagNameStartsWith(tagStart, tagEnd, "li"))
+			appendLineBreak(bulletPointReplacement);
+		else {
+			whiteSpaceRemovingTagRank = NO_BLOCK_TAG;
+			removesSpaces = true;
+			spaceRemovalStart = result.length();
+		}
+	}
+
+	private boolean tagNameStartsWith(int tagStart, int tagEnd, String name) {
+		for (int i = 0; i < name.length(); i++) {
+			final int position = tagStart + 1 + i;
+			if (position >= tagEnd || (text.charAt(position) | 0x20) != name.charAt(i))
+				return false;
+		}
+		return true;
+	}
+
+	private void convertBlockTag(int rank) {
+		if (rank < whiteSpaceRemovingTagRank)
+			return;
+		appendLineBreak("");
+		whiteSpaceRemovingTagRank = rank;
+	}
+
+	private void appendLineBreak(String indentation) {
+		whiteSpaceRemovingTagRank = NO_BLOCK_TAG;
+		removesSpaces = false;
+		result.append('\n').append(indentation);
+	}
+
+	private void appendText(char c) {
+		if (whiteSpaceRemovingTagRank != NO_BLOCK_TAG) {
+			if (isRegexWhiteSpace(c))
+				return;
+			whiteSpaceRemovingTagRank = NO_BLOCK_TAG;
+		}
+		if (c == ' ') {
+			if (removesSpaces)
+				return;
+		}
+		else
+			removesSpaces = false;
+		result.append(c);
+	}
+
+	private boolean isRegexWhiteSpace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	private boolean convertEntities(int start, int end) {
+		resultLength = 0;
+		lineEndSpaceRemovalStart = 0;
+		int i = start;
+		while (i < end) {
+			final char c = result.charAt(i);
+			if (c != '&') {
+				appendPlain(c);
+				i++;
+				continue;
+			}
+			final int semicolon = indexOf(';', i + 1, end);
+			if (semicolon < 0) {
+				// an ampersand at the end is dropped, other text without semicolons contains no entities
+				if (i + 1 < end) {
+					for (; i < end; i++)
+						appendPlain(result.charAt(i));
+				}
+				break;
+			}
+			if (semicolon == i + 1)
+				return false;
+			if (result.charAt(i + 1) == '#') {
+				if (semicolon == i + 2)
+					return false;
+				final long value = result.charAt(i + 2) == 'x' ? parseInt(i + 3, semicolon, 16) : parseInt(i + 2, semicolon, 10);
+				if (value != Long.MIN_VALUE) {
+					final char decoded = (char) value;
+					if (decoded == '&' || decoded == ';' || (decoded | 0x20) >= 'a' && (decoded | 0x20) <= 'z')
+						return false;
+					appendPlain(decoded >= ' ' || decoded == '\t' || decoded == '\r' || decoded == '\n' ? decoded : ' ');
+					i = semicolon + 1;
+					continue;
+				}
+			}
+			i = convertNamedEntities(i, semicolon + 1, end);
+		}
+		return true;
+	}
+
+	private int convertNamedEntities(int start, int entityEnd, int end) {
+		int i = start;
+		while (i < entityEnd) {
+			final char c = result.charAt(i);
+			if (c == '&') {
+				if (startsWithIgnoreCase(i + 1, entityEnd, "lt;")) {
+					appendPlain('<');
+					i += 4;
+					continue;
+				}
+				if (startsWithIgnoreCase(i + 1, entityEnd, "gt;")) {
+					appendPlain('>');
+					i += 4;
+					continue;
+				}
+				if (startsWithIgnoreCase(i + 1, entityEnd, "quot;")) {
+					appendPlain('"');
+					i += 6;
+					continue;
+				}
+				if (startsWithIgnoreCase(i + 1, entityEnd, "amp;")) {
+					i += 5;
+					// the ampersand can form a non breaking space entity together with the following text
+					if (startsWithIgnoreCase(i, end, "nbsp;")) {
+						appendNonBreakingSpace();
+						return i + 5;
+					}
+					appendPlain('&');
+					continue;
+				}
+				if (startsWithIgnoreCase(i + 1, entityEnd, "nbsp;")) {
+					appendNonBreakingSpace();
+					i += 6;
+					continue;
+				}
+			}
+			appendPlain(c);
+			i++;
+		}
+		return entityEnd;
+	}
+
+	private boolean startsWithIgnoreCase(int start, int end, String lowerCaseText) {
+		if (start + lowerCaseText.length() > end)
+			return false;
+		for (int i = 0; i < lowerCaseText.length(); i++) {
+			final char c = result.charAt(start + i);
+			final char expected = lowerCaseText.charAt(i);
+			if (c != expected && (expected < 'a' || expected > 'z' || (c | 0x20) != expected))
+				return false;
+		}
+		return true;
+	}
+
+	private void appendPlain(char c) {
+		if (c == '\n') {
+			while (resultLength > lineEndSpaceRemovalStart
+			        && (result.charAt(resultLength - 1) == ' ' || result.charAt(resultLength - 1) == '\t'))
+				resultLength--;
+		}
+		if (c == '\u00a0')
+			appendNonBreakingSpace();
+		else
+			result.setCharAt(resultLength++, c);
+	}
+
+	private void appendNonBreakingSpace() {
+		result.setCharAt(resultLength++, ' ');
+		lineEndSpaceRemovalStart = resultLength;
+	}
+
+	private int indexOf(char c, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (result.charAt(i) == c)
+				return i;
+		}
+		return -1;
+	}
+
+	/** Same as {@link Integer#parseInt(String, int)}, but returns Long.MIN_VALUE instead of throwing exceptions. */
+	private long parseInt(int start, int end, int radix) {
+		if (start >= end)
+			return Long.MIN_VALUE;
+		boolean negative = false;
+		int limit = -Integer.MAX_VALUE;
+		int i = start;
+		final char first = result.charAt(i);
+		if (first < '0') {
+			if (first == '-') {
+				negative = true;
+				limit = Integer.MIN_VALUE;
+			}
+			else if (first != '+')
+				return Long.MIN_VALUE;
+			if (end - start == 1)
+				return Long.MIN_VALUE;
+			i++;
+		}
+		final int multiplicationLimit = limit / radix;
+		int value = 0;
+		while (i < end) {
+			final int digit = Character.digit(result.charAt(i++), radix);
+			if (digit < 0 || value < multiplicationLimit)
+				return Long.MIN_VALUE;
+			value *= radix;
+			if (value < limit + digit)
+				return Long.MIN_VALUE;
+			value -= digit;
+		}
+		return negative ? value : -value;
+	}
+}
@@ -144,6 +144,13 @@ public class HtmlUtils {
 		if (strictHTMLOnly && !HtmlUtils.isHtml(text)) {
 			return text;
 		}
+		final String plainText = HtmlToPlainConverter.convert(text, removeNewLines, bulletPointReplacement);
+		if (plainText != null)
+			return plainText;
+		return htmlToPlainUsingPatterns(text, removeNewLines, bulletPointReplacement);
+	}
+
+	static String htmlToPlainUsingPatterns(final String text, final boolean removeNewLines, String bulletPointReplacement) {
 		if (PATTERNS == null) {
 			PATTERNS = new Pattern[] {
 					Pattern.compile("(?ims)>[\n\t]+"),
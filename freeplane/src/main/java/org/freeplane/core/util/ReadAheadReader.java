@@ -0,0 +1,127 @@
+package org.freeplane.core.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads and decodes the source on its own thread into a bounded number of buffers,
+ * so that the reading thread can parse the text read before while the next part is read.
+ * The source is closed by the read ahead thread after it has been read or after this reader has been closed.
+ */
+public class ReadAheadReader extends Reader {
+	private static class Chunk {
+		private final char[] chars;
+		private int length;
+
+		private Chunk(int size) {
+			this.chars = new char[size];
+		}
+	}
+
+	private static final Chunk END = new Chunk(0);
+
+	private final Reader source;
+	private final BlockingQueue<Chunk> filledChunks;
+	private final BlockingQueue<Chunk> freeChunks;
+	private final Thread readAheadThread;
+	private volatile IOException failure;
+	private volatile boolean closed;
+	private Chunk chunk;
+	private int position;
+
+	public ReadAheadReader(Reader source, int chunkSize, int chunkCount) {
+		this.source = source;
+		filledChunks = new ArrayBlockingQueue<>(chunkCount + 1);
+		freeChunks = new ArrayBlockingQueue<>(chunkCount);
+		for (int i = 0; i < chunkCount; i++)
+			freeChunks.add(new Chunk(chunkSize));
+		readAheadThread = new Thread(this::readAhead, "read ahead");
+		readAheadThread.setDaemon(true);
+		readAheadThread.start();
+	}
+
+	private void readAhead() {
+		try (Reader reader = source) {
+			for (;;) {
+				final Chunk freeChunk = freeChunks.take();
+				freeChunk.length = fill(freeChunk.chars);
+				if (freeChunk.length > 0)
+					filledChunks.put(freeChunk);
+				if (freeChunk.length < freeChunk.chars.length)
+					break;
+			}
+		}
+		catch (IOException e) {
+			// the source has been read, only closing it failed
+		}
+		catch (InterruptedException e) {
+			return;
+		}
+		filledChunks.add(END);
+	}
+
+	/** Returns less than the chunk size only at the end of the source, after a failure or after closing. */
+	private int fill(char[] chars) {
+		int length = 0;
+		try {
+			while (length < chars.length && ! closed) {
+				final int count = source.read(chars, length, chars.length - length);
+				if (count < 0)
+					break;
+				length += count;
+			}
+		}
+		catch (IOException e) {
+			if (! closed)
+				failure = e;
+		}
+		return length;
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+		if (chunk == null || position == chunk.length) {
+			if (! nextChunk())
+				return -1;
+		}
+		final int count = Math.min(len, chunk.length - position);
+		System.arraycopy(chunk.chars, position, cbuf, off, count);
+		position += count;
+		return count;
+	}
+
+	private boolean nextChunk() throws IOException {
+		if (chunk == END)
+			return false;
+		if (closed)
+			throw new IOException("Stream closed");
+		if (chunk != null)
+			freeChunks.add(chunk);
+		try {
+			chunk = filledChunks.take();
+		}
+		catch (InterruptedException e) {
+			throw new InterruptedIOException();
+		}
+		position = 0;
+		if (chunk == END) {
+			if (failure != null)
+				throw failure;
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public void close() {
+		if (closed)
+			return;
+		closed = true;
+		readAheadThread.interrupt();
+	}
+}
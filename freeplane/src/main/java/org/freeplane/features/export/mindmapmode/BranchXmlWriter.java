@@ -1,14 +1,24 @@
 package org.freeplane.features.export.mindmapmode;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
 import java.io.Writer;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.xml.transform.Result;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamSource;
 
 import org.freeplane.features.map.MapWriter;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.mode.Controller;
 
 class BranchXmlWriter{
+	private static final int PIPE_SIZE = 64 * 1024;
 	private final List<NodeModel> branches;
 
 	 BranchXmlWriter(List<NodeModel> branches) {
@@ -32,4 +42,59 @@ class BranchXmlWriter{
 			throw new RuntimeException(e);
 		}
 	}
+
+	/**
+	 * Transforms the xml of the branches without keeping it in memory.
+	 * The xml is written on the calling thread and piped to the transformer running in another thread.
+	 */
+	void transform(Transformer transformer, Result result, MapWriter.Mode mode) throws TransformerException {
+		final PipedReader reader = new PipedReader(PIPE_SIZE);
+		final Writer writer;
+		try {
+			writer = new BufferedWriter(new PipedWriter(reader));
+		}
+		catch (IOException e) {
+			throw new TransformerException(e);
+		}
+		final AtomicReference<TransformerException> transformationError = new AtomicReference<>();
+		final Thread transformationThread = new Thread(() -> {
+			try {
+				transformer.transform(new StreamSource(reader), result);
+			}
+			catch (TransformerException e) {
+				transformationError.set(e);
+			}
+			catch (RuntimeException e) {
+				transformationError.set(new TransformerException(e));
+			}
+			finally {
+				try {
+					reader.close();
+				}
+				catch (IOException e) {
+				}
+			}
+		}, "XSLT Transformation");
+		transformationThread.start();
+		Exception writingError = null;
+		try (Writer output = writer) {
+			writeXml(output, mode);
+		}
+		catch (IOException | RuntimeException e) {
+			// writing also fails after a failed transformation closes the pipe
+			if (transformationError.get() == null)
+				writingError = e;
+		}
+		try {
+			transformationThread.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TransformerException(e);
+		}
+		if (writingError != null)
+			throw new TransformerException(writingError);
+		if (transformationError.get() != null)
+			throw transformationError.get();
+	}
 }
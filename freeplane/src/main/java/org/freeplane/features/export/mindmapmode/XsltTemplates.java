@@ -0,0 +1,72 @@
+package org.freeplane.features.export.mindmapmode;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+
+/**
+ * Caches compiled xslt stylesheets per url.
+ * Stylesheet files are compiled again after their modification time changes.
+ */
+class XsltTemplates {
+	private static class CompiledStylesheet {
+		final long lastModified;
+		final Templates templates;
+
+		CompiledStylesheet(long lastModified, Templates templates) {
+			this.lastModified = lastModified;
+			this.templates = templates;
+		}
+	}
+
+	private static final Map<String, CompiledStylesheet> stylesheets = new ConcurrentHashMap<>();
+
+	static Transformer newTransformer(File xsltFile) throws IOException, TransformerConfigurationException {
+		return newTransformer(xsltFile.toURI().toURL());
+	}
+
+	static Transformer newTransformer(URL xsltUrl) throws IOException, TransformerConfigurationException {
+		return getTemplates(xsltUrl).newTransformer();
+	}
+
+	private static Templates getTemplates(URL xsltUrl) throws IOException, TransformerConfigurationException {
+		final String key = xsltUrl.toExternalForm();
+		final long lastModified = lastModified(xsltUrl);
+		CompiledStylesheet stylesheet = stylesheets.get(key);
+		if (stylesheet == null || stylesheet.lastModified != lastModified) {
+			stylesheet = new CompiledStylesheet(lastModified, compile(xsltUrl));
+			stylesheets.put(key, stylesheet);
+		}
+		return stylesheet.templates;
+	}
+
+	private static Templates compile(URL xsltUrl) throws IOException, TransformerConfigurationException {
+		try (InputStream xsltStream = new BufferedInputStream(xsltUrl.openStream())) {
+			final TransformerFactory transFact = TransformerFactory.newInstance();
+			return transFact.newTemplates(new StreamSource(xsltStream, xsltUrl.toExternalForm()));
+		}
+	}
+
+	/** Resources other than files are not expected to change while the application runs. */
+	private static long lastModified(URL xsltUrl) {
+		if (! "file".equals(xsltUrl.getProtocol()))
+			return 0;
+		try {
+			return new File(xsltUrl.toURI()).lastModified();
+		}
+		catch (URISyntaxException | IllegalArgumentException e) {
+			return 0;
+		}
+	}
+}
@@ -19,9 +19,12 @@
  */
 package org.freeplane.features.filter;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Consumer;
 
 import javax.swing.Icon;
@@ -29,6 +32,7 @@ import javax.swing.Icon;
 import org.freeplane.core.extension.IExtension;
 import org.freeplane.core.resources.ResourceController;
 import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.filter.condition.IParallelCondition;
 import org.freeplane.features.filter.hidden.NodeVisibility;
 import org.freeplane.features.link.ConnectorModel;
 import org.freeplane.features.map.MapModel;
@@ -57,13 +61,86 @@ public class Filter implements IExtension {
 
 	}
 
+	/**
+	 * Collects data of all nodes in depth first order on the calling thread,
+	 * checks them in parallel and provides the results in the same order.
+	 * The map is not changed while the calling thread waits for the results.
+	 */
+	private class ParallelNodeCheck {
+		private static final int NODES_PER_TASK = 256;
+		private final Object REMAINS_INVISIBLE = new Object();
+		private final IParallelCondition parallelCondition;
+		private final List<NodeModel> nodes;
+		private final List<Object> nodeData;
+		private boolean[] results;
+		private int nextNodeIndex;
+
+		ParallelNodeCheck(IParallelCondition parallelCondition) {
+			this.parallelCondition = parallelCondition;
+			this.nodes = new ArrayList<>();
+			this.nodeData = new ArrayList<>();
+		}
+
+		void collect(final NodeModel node) {
+			nodes.add(node);
+			nodeData.add(shouldRemainInvisible(node) ? REMAINS_INVISIBLE : parallelCondition.collectNodeData(node));
+			for (final NodeModel child : children(node))
+				collect(child);
+		}
+
+		void check() {
+			results = new boolean[nodes.size()];
+			ForkJoinPool.commonPool().invoke(new CheckTask(0, results.length));
+			nextNodeIndex = 0;
+		}
+
+		boolean nextResult(final NodeModel node) {
+			if (nextNodeIndex < nodes.size() && nodes.get(nextNodeIndex) == node)
+				return results[nextNodeIndex++];
+			else
+				return checkNodeSerially(node);
+		}
+
+		@SuppressWarnings("serial")
+		private class CheckTask extends RecursiveAction {
+			private final int start;
+			private final int end;
+
+			CheckTask(int start, int end) {
+				this.start = start;
+				this.end = end;
+			}
+
+			@Override
+			protected void compute() {
+				if (end - start <= NODES_PER_TASK) {
+					for (int i = start; i < end; i++) {
+						final Object data = nodeData.get(i);
+						results[i] = data != REMAINS_INVISIBLE && parallelCondition.checkNodeData(data);
+					}
+				}
+				else {
+					final int middle = (start + end) >>> 1;
+					invokeAll(new CheckTask(start, middle), new CheckTask(middle, end));
+				}
+			}
+		}
+	}
+
 	static public Filter createFilter(final ICondition condition, final boolean areAncestorsShown,
             final boolean areDescendantsShown, final boolean appliesToVisibleElementsOnly, Filter baseFilter) {
 		return new Filter(condition, false, areAncestorsShown, areDescendantsShown, appliesToVisibleElementsOnly, baseFilter);
 	}
 
+	public static final String PARALLEL_EVALUATION_PROPERTY = "filter.parallelEvaluation";
+	private static final int MINIMAL_NODE_COUNT_FOR_PARALLEL_EVALUATION = 1000;
+	private static final int OWN_STATE = FilterInfo.MATCHES | FilterInfo.NO_MATCH;
+	private static final int ANCESTOR_STATE = FilterInfo.HAS_MATCHED_ANCESTOR | FilterInfo.HAS_HIDDEN_ANCESTOR;
+	private static final int DESCENDANT_STATE = FilterInfo.HAS_MATCHED_DESCENDANT | FilterInfo.HAS_HIDDEN_DESCENDANT;
+
 	final private ICondition condition;
 	final int options;
+	private ParallelNodeCheck parallelNodeCheck;
 
 	private FilterInfoAccessor accessor;
 	private final boolean hidesMatchingElements;
@@ -140,13 +217,51 @@ public class Filter implements IExtension {
 	    this.accessor = new FilterInfoAccessor();
 		final NodeModel root = map.getRootNode();
 		resetFilter(root);
-		int ownStateAsAncestor = checkNode(root) ? FilterInfo.HAS_MATCHED_ANCESTOR : FilterInfo.HAS_HIDDEN_ANCESTOR;
-        addFilterResult(root, filterChildrenGetDescendantState(root, ownStateAsAncestor));
+		try {
+			checkNodesInParallel(root);
+			int ownStateAsAncestor = checkNode(root) ? FilterInfo.HAS_MATCHED_ANCESTOR : FilterInfo.HAS_HIDDEN_ANCESTOR;
+			addFilterResult(root, filterChildrenGetDescendantState(root, ownStateAsAncestor));
+		}
+		finally {
+			parallelNodeCheck = null;
+		}
 	}
 
     public void calculateFilterResults(final NodeModel root) {
         this.accessor = new FilterInfoAccessor();
-        applyFilterGetDescendantState(root, 0);
+        try {
+        	checkNodesInParallel(root);
+        	applyFilterGetDescendantState(root, 0);
+        }
+        finally {
+        	parallelNodeCheck = null;
+        }
+    }
+
+    /**
+     * Conditions implementing {@link IParallelCondition} are checked for all nodes in advance using the fork join pool,
+     * other conditions like scripts are checked serially during the following tree traversal.
+     */
+    private void checkNodesInParallel(final NodeModel root) {
+    	if (! (condition instanceof IParallelCondition)
+    			|| ! ResourceController.getResourceController().getBooleanProperty(PARALLEL_EVALUATION_PROPERTY))
+    		return;
+    	if (countNodes(root, MINIMAL_NODE_COUNT_FOR_PARALLEL_EVALUATION) < MINIMAL_NODE_COUNT_FOR_PARALLEL_EVALUATION)
+    		return;
+    	final ParallelNodeCheck check = new ParallelNodeCheck((IParallelCondition) condition);
+    	check.collect(root);
+    	check.check();
+    	parallelNodeCheck = check;
+    }
+
+    private int countNodes(final NodeModel node, final int limit) {
+    	int count = 1;
+    	for (final NodeModel child : children(node)) {
+    		if (count >= limit)
+    			break;
+    		count += countNodes(child, limit - count);
+    	}
+    	return count;
     }
 
     private int filterChildrenGetDescendantState(final NodeModel node, int state) {
@@ -197,6 +312,12 @@ public class Filter implements IExtension {
     }
 
     private boolean checkNode(final NodeModel node) {
+		if (parallelNodeCheck != null)
+			return parallelNodeCheck.nextResult(node);
+		return checkNodeSerially(node);
+	}
+
+    private boolean checkNodeSerially(final NodeModel node) {
 		return condition == null || ! shouldRemainInvisible(node) && condition.checkNode(node);
 	}
 
@@ -296,63 +417,115 @@ public class Filter implements IExtension {
         }
     }
 
+    /**
+     * Updates filter results after the given node has been changed, inserted or has lost a child.
+     * Only the node itself and the nodes whose condition checks it are checked again.
+     * Visibility of its ancestors and descendants is patched starting from the checked nodes
+     * until the first node whose state does not change.
+     */
     public void updateFilterResults(NodeModel node, Consumer<NodeModel> callbackOnUpdate) {
         if(condition == null)
             return;
-        boolean matches = checkNode(node);
-        FilterInfo filterInfo = getFilterInfo(node);
-        filterInfo.set(matches ? FilterInfo.MATCHES : FilterInfo.NO_MATCH);
-        updateFilterResultsAndAncestors(node, callbackOnUpdate);
-        updateDescendantResults(node, matches ? FilterInfo.HAS_MATCHED_ANCESTOR : FilterInfo.HAS_HIDDEN_ANCESTOR, callbackOnUpdate);
+        updateNodeResult(node, callbackOnUpdate);
+        if(condition.checksParent() || condition.checksAncestors())
+            updateDescendantNodeResults(node, condition.checksAncestors(), callbackOnUpdate);
+        if(condition.checksChildren() || condition.checksDescendants()) {
+            for(NodeModel ancestor = node.getParentNode(); ancestor != null; ancestor = ancestor.getParentNode()) {
+                updateNodeResult(ancestor, callbackOnUpdate);
+                if(! condition.checksDescendants())
+                    break;
+            }
+        }
     }
 
-    private void updateFilterResultsAndAncestors(NodeModel node,
-            Consumer<NodeModel> callbackOnUpdate) {
-        FilterInfo filterInfo = getFilterInfo(node);
-        NodeModel parentNode = node.getParentNode();
-        FilterInfo parentFilterInfo = getFilterInfo(parentNode);
-        if(! filterInfo.isNotChecked()) {
-            boolean matches = filterInfo.isMatched();
-            boolean wasVisible = isVisible(node);
+    private void updateDescendantNodeResults(NodeModel node, boolean checksAllDescendants, Consumer<NodeModel> callbackOnUpdate) {
+        for(NodeModel child : children(node)) {
+            updateNodeResult(child, callbackOnUpdate);
+            if(checksAllDescendants)
+                updateDescendantNodeResults(child, true, callbackOnUpdate);
+        }
+    }
+
+    private void updateNodeResult(NodeModel node, Consumer<NodeModel> callbackOnUpdate) {
+        boolean matches = checkNode(node);
+        if(! node.isRoot()) {
+            NodeModel parentNode = node.getParentNode();
+            int ancestorState = parentNode != null ? getStateForChildren(parentNode) : 0;
             int ownState = matches ? FilterInfo.MATCHES : FilterInfo.NO_MATCH;
-            int ancestorState = parentFilterInfo.isMatched() ? FilterInfo.HAS_MATCHED_ANCESTOR
-                    : parentFilterInfo.get(FilterInfo.HAS_MATCHED_ANCESTOR | FilterInfo.HAS_HIDDEN_ANCESTOR);
-            int descendantState = node.getChildren().stream()
-                    .map(this::getFilterInfo)
-                    .mapToInt(x -> x.get(FilterInfo.MATCHES | FilterInfo.NO_MATCH | FilterInfo.HAS_HIDDEN_DESCENDANT | FilterInfo.HAS_MATCHED_DESCENDANT))
-                    .reduce(0, (m, n) -> m|n);
-            if((descendantState & FilterInfo.MATCHES) != 0) {
-                descendantState &= ~FilterInfo.MATCHES;
-                descendantState |= FilterInfo.HAS_MATCHED_DESCENDANT;
-            }
-            if((descendantState & FilterInfo.NO_MATCH) != 0) {
-                descendantState &= ~FilterInfo.NO_MATCH;
-                descendantState |= FilterInfo.HAS_HIDDEN_DESCENDANT;
-            }
-            filterInfo.set(ancestorState | ownState | descendantState);
-            if(wasVisible != isVisible(node))
-                callbackOnUpdate.accept(node);
+            setState(node, ANCESTOR_STATE | OWN_STATE, ancestorState | ownState, callbackOnUpdate);
         }
-        if(parentNode != null)
-            updateFilterResultsAndAncestors(parentNode, callbackOnUpdate);
+        updateDescendantStates(node, callbackOnUpdate);
+        updateAncestorStates(node, matches, callbackOnUpdate);
+    }
 
+    private void updateAncestorStates(NodeModel node, boolean matches, Consumer<NodeModel> callbackOnUpdate) {
+        int ancestorState = getFilterInfo(node).get(ANCESTOR_STATE) | stateAsAncestor(matches);
+        for(NodeModel child : children(node))
+            updateAncestorStates(child, ancestorState, callbackOnUpdate);
     }
 
-    private void updateDescendantResults(NodeModel node, int options, Consumer<NodeModel> callbackOnUpdate) {
-        for(NodeModel child : node.getChildren()) {
-            FilterInfo childInfo = getFilterInfo(child);
-            if(childInfo.matches(options))
-                continue;
-            if(childInfo.isNotChecked()) {
-                updateDescendantResults(child, options, callbackOnUpdate);
-                continue;
-            }
-            boolean wasVisible = isVisible(child);
-            if(childInfo.add(options))
-                if(wasVisible != isVisible(child))
-                    callbackOnUpdate.accept(child);
-                updateDescendantResults(child, options, callbackOnUpdate);
+    private void updateAncestorStates(NodeModel node, int ancestorState, Consumer<NodeModel> callbackOnUpdate) {
+        FilterInfo filterInfo = getFilterInfo(node);
+        if(filterInfo.isNotChecked()) {
+            for(NodeModel child : children(node))
+                updateAncestorStates(child, ancestorState, callbackOnUpdate);
+            return;
         }
+        if(! setState(node, ANCESTOR_STATE, ancestorState, callbackOnUpdate))
+            return;
+        int childrenAncestorState = ancestorState | stateAsAncestor(filterInfo.isMatched());
+        for(NodeModel child : children(node))
+            updateAncestorStates(child, childrenAncestorState, callbackOnUpdate);
+    }
+
+    private void updateDescendantStates(NodeModel node, Consumer<NodeModel> callbackOnUpdate) {
+        for(NodeModel ancestor = node; ancestor != null; ancestor = ancestor.getParentNode()) {
+            int descendantState = 0;
+            for(NodeModel child : children(ancestor))
+                descendantState |= getStateForParent(child);
+            if(! setState(ancestor, DESCENDANT_STATE, descendantState, callbackOnUpdate) && ancestor != node)
+                break;
+        }
+    }
+
+    private int getStateForChildren(NodeModel node) {
+        FilterInfo filterInfo = getFilterInfo(node);
+        int ancestorState = filterInfo.get(ANCESTOR_STATE);
+        if(filterInfo.get(OWN_STATE) != 0)
+            return ancestorState | stateAsAncestor(filterInfo.isMatched());
+        else if(node.isRoot())
+            return stateAsAncestor(checkNode(node));
+        else
+            return ancestorState;
+    }
+
+    private int getStateForParent(NodeModel node) {
+        FilterInfo filterInfo = getFilterInfo(node);
+        int descendantState = filterInfo.get(DESCENDANT_STATE);
+        if(filterInfo.isMatched())
+            descendantState |= FilterInfo.HAS_MATCHED_DESCENDANT;
+        else if(filterInfo.get(FilterInfo.NO_MATCH) != 0)
+            descendantState |= FilterInfo.HAS_HIDDEN_DESCENDANT;
+        return descendantState;
+    }
+
+    private int stateAsAncestor(boolean matches) {
+        return matches ? FilterInfo.HAS_MATCHED_ANCESTOR : FilterInfo.HAS_HIDDEN_ANCESTOR;
+    }
+
+    private boolean setState(NodeModel node, int mask, int state, Consumer<NodeModel> callbackOnUpdate) {
+        FilterInfo filterInfo = getFilterInfo(node);
+        int oldInfo = filterInfo.get(~0);
+        int newInfo = oldInfo & ~mask | state;
+        if((mask & OWN_STATE) != 0)
+            newInfo &= ~FilterInfo.SHOW_AS_INITIAL_VALUE;
+        if(oldInfo == newInfo)
+            return false;
+        boolean wasVisible = isVisible(node);
+        filterInfo.set(newInfo);
+        if(wasVisible != isVisible(node))
+            callbackOnUpdate.accept(node);
+        return true;
     }
 
 	public void reset(NodeModel node) {
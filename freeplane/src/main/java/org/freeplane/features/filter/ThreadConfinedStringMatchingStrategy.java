@@ -0,0 +1,19 @@
+package org.freeplane.features.filter;
+
+import java.util.function.Supplier;
+
+/**
+ * Uses a separate instance of a stateful strategy for each thread.
+ */
+class ThreadConfinedStringMatchingStrategy implements StringMatchingStrategy {
+	private final ThreadLocal<StringMatchingStrategy> strategies;
+
+	ThreadConfinedStringMatchingStrategy(Supplier<StringMatchingStrategy> strategyFactory) {
+		strategies = ThreadLocal.withInitial(strategyFactory);
+	}
+
+	@Override
+	public boolean matches(String searchTerm, String searchText, Type matchType) {
+		return strategies.get().matches(searchTerm, searchText, matchType);
+	}
+}
@@ -131,6 +131,11 @@ abstract public class DecoratedCondition extends ASelectableCondition implements
         return originalCondition.checksDescendants();
     }
 
+    @Override
+    public boolean checksExternalState() {
+        return originalCondition.checksExternalState();
+    }
+
 
 
 }
@@ -39,4 +39,12 @@ public interface ICondition {
     default boolean checksDescendants() {
         return false;
     }
+
+    /**
+     * Returns true if the result can change without any change of the map,
+     * like for conditions checking the selection or the current time or running scripts.
+     */
+    default boolean checksExternalState() {
+        return false;
+    }
 }
@@ -0,0 +1,21 @@
+package org.freeplane.features.filter.condition;
+
+import org.freeplane.features.map.NodeModel;
+
+/**
+ * Condition which can check many nodes in parallel.
+ *
+ * Node data are collected on the thread calling the filter, usually the event dispatch thread,
+ * because content transformers and other model accessors are not thread safe.
+ * The collected data can be checked on any thread.
+ */
+public interface IParallelCondition extends ICondition {
+	Object collectNodeData(NodeModel node);
+
+	boolean checkNodeData(Object nodeData);
+
+	@Override
+	default boolean checkNode(NodeModel node) {
+		return checkNodeData(collectNodeData(node));
+	}
+}
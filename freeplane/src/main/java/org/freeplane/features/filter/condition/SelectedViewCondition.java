@@ -72,6 +72,11 @@ public class SelectedViewCondition extends ASelectableCondition implements Condi
         return false;
     }
 
+    @Override
+    public boolean checksExternalState() {
+        return true;
+    }
+
 	@Override
     public ASelectableCondition createSnapshotCondition() {
 	    return  new SelectedViewSnapshotCondition(Controller.getCurrentController().getSelection().getSelection());
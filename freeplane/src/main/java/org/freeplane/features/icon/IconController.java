@@ -247,7 +247,7 @@ public class IconController implements IExtension {
 			if (styleNode == null) {
 				continue;
 			}
-			final Quantity<LengthUnit> iconSize = styleNode.getSharedData().getIcons().getIconSize();
+			final Quantity<LengthUnit> iconSize = styleNode.getSharedData().getIconSize();
 			if (iconSize == null) {
 				continue;
 			}
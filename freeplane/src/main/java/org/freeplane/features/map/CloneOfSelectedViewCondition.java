@@ -74,6 +74,11 @@ public class CloneOfSelectedViewCondition extends ASelectableCondition implement
         return false;
     }
 
+    @Override
+    public boolean checksExternalState() {
+        return true;
+    }
+
 	public ASelectableCondition createSnapshotCondition() {
 	    return new CloneOfSelectedViewSnapshotCondition(Controller.getCurrentController().getSelection().getSelection());
     }
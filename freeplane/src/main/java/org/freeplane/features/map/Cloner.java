@@ -44,7 +44,7 @@ class Cloner {
 		if(node.containsExtension(EncryptionModel.class))
 			throw new CloneEncryptedNodeException();
 		final NodeModel clone = node.cloneNode(CloneType.TREE);
-		final List<NodeModel> cloneChildren = clone.getChildrenInternal();
+		final List<NodeModel> cloneChildren = clone.getModifiableChildrenInternal();
 		for (NodeModel childNode : node.getChildrenInternal()){
 			final NodeModel childClone = cloneStructure(childNode);
 			childClone.setParent(clone);
@@ -0,0 +1,79 @@
+package org.freeplane.features.map;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.freeplane.core.io.xml.TreeXmlWriter;
+import org.freeplane.core.util.LogUtils;
+import org.freeplane.features.map.MapWriter.Hint;
+import org.freeplane.features.map.MapWriter.Mode;
+
+/**
+ * Keeps the xml of the child nodes of a folded node read from a file,
+ * so that the child nodes are only created when they are accessed for the first time.
+ *
+ * Until then the parent reports the number of its children, the ids of all contained nodes are known to the map,
+ * and saving the map writes the kept xml unchanged.
+ */
+class DeferredChildNodes {
+	private final MapReader mapReader;
+	private final List<String> childNodesXml;
+	private final List<String> nodeIDs;
+
+	DeferredChildNodes(MapReader mapReader) {
+		this.mapReader = mapReader;
+		this.childNodesXml = new ArrayList<>();
+		this.nodeIDs = new ArrayList<>();
+	}
+
+	void add(String childNodeXml, List<String> childNodeIDs) {
+		childNodesXml.add(childNodeXml);
+		nodeIDs.addAll(childNodeIDs);
+	}
+
+	int size() {
+		return childNodesXml.size();
+	}
+
+	List<String> getNodeIDs() {
+		return nodeIDs;
+	}
+
+	List<String> getChildNodesXml() {
+		return Collections.unmodifiableList(childNodesXml);
+	}
+
+	/** Creates the child nodes and inserts them into the parent unless it has been done before. */
+	void load(NodeModel parent) {
+		synchronized (mapReader) {
+			if (parent.getDeferredChildren() != this)
+				return;
+			parent.setDeferredChildren(null);
+			final MapModel map = parent.getMap();
+			map.unregistryDeferredNodeIDs(nodeIDs);
+			final Map<Object, Object> hints = new HashMap<>();
+			hints.put(Hint.MODE, Mode.FILE);
+			hints.put(NodeBuilder.FOLDING_LOADED, Boolean.TRUE);
+			hints.put(MapReader.FIRST_NODE_LEVEL, parent.getNodeLevel() + 1);
+			for (String childNodeXml : childNodesXml) {
+				try {
+					final NodeModel child = mapReader.createNodeTreeFromXml(map, new StringReader(childNodeXml), hints);
+					parent.insert(child);
+				}
+				catch (Exception e) {
+					LogUtils.severe("Can not load child node of " + parent.getID(), e);
+				}
+			}
+		}
+	}
+
+	void writeTo(TreeXmlWriter writer) throws IOException {
+		for (String childNodeXml : childNodesXml)
+			writer.addFragment(childNodeXml);
+	}
+}
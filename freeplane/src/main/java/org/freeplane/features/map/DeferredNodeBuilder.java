@@ -0,0 +1,167 @@
+package org.freeplane.features.map;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.freeplane.core.io.IElementContentHandler;
+import org.freeplane.core.io.xml.TreeXmlWriter;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.util.HtmlUtils;
+import org.freeplane.features.map.MapWriter.Hint;
+import org.freeplane.features.map.MapWriter.Mode;
+import org.freeplane.n3.nanoxml.XMLElement;
+
+/**
+ * Reads the child nodes of folded nodes as unparsed xml kept in {@link DeferredChildNodes}
+ * if lazy branch loading is enabled and the map is loaded from a file.
+ *
+ * Branches containing connectors or clones are created immediately,
+ * because their nodes must be known to other nodes of the map right after loading.
+ * All later siblings are created immediately too, so that the order of the children is kept.
+ */
+class DeferredNodeBuilder implements IElementContentHandler {
+	static final String LAZY_BRANCH_LOADING_PROPERTY = "lazy_branch_loading";
+	static final String LAZY_BRANCH_LOADING_LEVEL_PROPERTY = "lazy_branch_loading_level";
+	private static final String[] IMMEDIATELY_LOADED_CONTENT = {"<arrowlink", "REFERENCE_ID=\"", "TREE_ID=\"", "CONTENT_ID=\""};
+	private static final String ID_ATTRIBUTE = "ID";
+
+	private final MapReader mapReader;
+
+	DeferredNodeBuilder(MapReader mapReader) {
+		this.mapReader = mapReader;
+	}
+
+	@Override
+	public Object createElement(Object parent, String tag, XMLElement attributes) {
+		if (! (parent instanceof NodeModel) || attributes == null)
+			return null;
+		final NodeModel parentNode = (NodeModel) parent;
+		if (! parentNode.isFolded())
+			return null;
+		if (parentNode.getDeferredChildren() == null && parentNode.getChildCount() != 0)
+			return null;
+		final MapReader.NodeTreeCreator nodeTreeCreator = mapReader.getCurrentNodeTreeCreator();
+		if (! Mode.FILE.equals(nodeTreeCreator.getHint(Hint.MODE)))
+			return null;
+		if (attributes.hasAttribute("REFERENCE_ID") || attributes.hasAttribute("TREE_ID")
+		        || attributes.hasAttribute("CONTENT_ID"))
+			return null;
+		final ResourceController resourceController = ResourceController.getResourceController();
+		if (! resourceController.getBooleanProperty(LAZY_BRANCH_LOADING_PROPERTY))
+			return null;
+		if (nodeTreeCreator.getNextNodeLevel() < resourceController.getIntProperty(LAZY_BRANCH_LOADING_LEVEL_PROPERTY, 1))
+			return null;
+		return parentNode;
+	}
+
+	@Override
+	public boolean findsClosingTagByName() {
+		return false;
+	}
+
+	@Override
+	public boolean keepsAllAttributes() {
+		return true;
+	}
+
+	@Override
+	public void endElement(Object parent, String tag, Object node, XMLElement element, String content) {
+		final NodeModel parentNode = (NodeModel) node;
+		final List<String> nodeIDs = new ArrayList<>();
+		final String id = element.getAttribute("ID", null);
+		if (id != null)
+			nodeIDs.add(id);
+		if (content != null)
+			addContainedNodeIDs(content, nodeIDs);
+		DeferredChildNodes deferredChildren = parentNode.getDeferredChildren();
+		if (deferredChildren == null) {
+			deferredChildren = new DeferredChildNodes(mapReader);
+			parentNode.setDeferredChildren(deferredChildren);
+		}
+		try {
+			deferredChildren.add(TreeXmlWriter.elementToXml(element, content), nodeIDs);
+		}
+		catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		parentNode.getMap().registryDeferredNodeIDs(nodeIDs, parentNode);
+		if (content != null && containsImmediatelyLoadedContent(content))
+			deferredChildren.load(parentNode);
+	}
+
+	/**
+	 * Adds the ids of the node elements contained in the given xml.
+	 * Only attributes of node start tags are read, so text, rich content, comments and CDATA sections are skipped.
+	 */
+	static void addContainedNodeIDs(String content, List<String> nodeIDs) {
+		final int length = content.length();
+		int index = content.indexOf('<');
+		while (index >= 0 && index < length - 1) {
+			if (content.startsWith("<!--", index))
+				index = skipBehind(content, index, "-->");
+			else if (content.startsWith("<![CDATA[", index))
+				index = skipBehind(content, index, "]]>");
+			else if (content.startsWith("<?", index))
+				index = skipBehind(content, index, "?>");
+			else {
+				final int nameStart = index + 1;
+				int nameEnd = nameStart;
+				while (nameEnd < length && isNameChar(content.charAt(nameEnd)))
+					nameEnd++;
+				final boolean isNodeTag = content.regionMatches(nameStart, NodeBuilder.XML_NODE, 0, nameEnd - nameStart)
+				        && nameEnd - nameStart == NodeBuilder.XML_NODE.length();
+				index = readAttributes(content, nameEnd, isNodeTag ? nodeIDs : null);
+			}
+			if (index < 0)
+				return;
+			index = content.indexOf('<', index);
+		}
+	}
+
+	private static int skipBehind(String content, int index, String end) {
+		final int endIndex = content.indexOf(end, index);
+		return endIndex >= 0 ? endIndex + end.length() : -1;
+	}
+
+	private static boolean isNameChar(char c) {
+		return ! Character.isWhitespace(c) && c != '>' && c != '/' && c != '=';
+	}
+
+	/** Reads attributes up to the end of the start tag, adds the value of an ID attribute if ids are given and returns the index behind the tag. */
+	private static int readAttributes(String content, int index, List<String> nodeIDs) {
+		final int length = content.length();
+		int nameStart = -1;
+		int nameEnd = -1;
+		while (index < length) {
+			final char c = content.charAt(index);
+			if (c == '>')
+				return index + 1;
+			if (c == '"' || c == '\'') {
+				final int valueEnd = content.indexOf(c, index + 1);
+				if (valueEnd < 0)
+					return -1;
+				if (nodeIDs != null && nameStart >= 0 && content.substring(nameStart, nameEnd).equals(ID_ATTRIBUTE))
+					nodeIDs.add(HtmlUtils.toXMLUnescapedText(content.substring(index + 1, valueEnd)));
+				nameStart = -1;
+				index = valueEnd + 1;
+			}
+			else if (isNameChar(c)) {
+				nameStart = index;
+				while (index < length && isNameChar(content.charAt(index)))
+					index++;
+				nameEnd = index;
+			}
+			else
+				index++;
+		}
+		return -1;
+	}
+
+	private static boolean containsImmediatelyLoadedContent(String content) {
+		for (String marker : IMMEDIATELY_LOADED_CONTENT)
+			if (content.contains(marker))
+				return true;
+		return false;
+	}
+}
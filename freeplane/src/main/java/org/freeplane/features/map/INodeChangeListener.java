@@ -21,4 +21,12 @@ package org.freeplane.features.map;
 
 public interface INodeChangeListener extends ComparableByPriority{
     public void nodeChanged(NodeChangeEvent event);
+
+    /**
+     * Returns true for listeners keeping data derived from nodes, which must be notified of changes made in a batch
+     * when they happen. They are notified again when the batch ends.
+     */
+    default boolean isNotifiedDuringBatch() {
+        return false;
+    }
 }
@@ -23,6 +23,7 @@ import java.awt.GraphicsEnvironment;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -33,11 +34,13 @@ import java.util.Comparator;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 
 import javax.swing.Action;
@@ -54,6 +57,7 @@ import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.ui.AFreeplaneAction;
 import org.freeplane.core.ui.menubuilders.generic.UserRole;
 import org.freeplane.core.undo.IActor;
+import org.freeplane.core.undo.IUndoHandler;
 import org.freeplane.core.util.DelayedRunner;
 import org.freeplane.features.clipboard.ClipboardControllers;
 import org.freeplane.features.explorer.MapExplorerController;
@@ -71,6 +75,7 @@ import org.freeplane.features.mode.ModeController;
 import org.freeplane.features.mode.SelectionController;
 import org.freeplane.features.ui.IMapViewChangeListener;
 import org.freeplane.features.ui.IMapViewManager;
+import org.freeplane.features.ui.ViewController;
 import org.freeplane.features.url.UrlManager;
 import org.freeplane.main.addons.AddOnsController;
 import org.freeplane.n3.nanoxml.XMLException;
@@ -375,6 +380,9 @@ implements IExtension, NodeChangeAnnouncer{
 		addNodeSelectionListener(actionSelectorOnChange);
 		addUINodeChangeListener(actionSelectorOnChange);
 		addUIMapChangeListener(actionSelectorOnChange);
+		final NodeXmlFragmentCache.Updater fragmentCacheUpdater = new NodeXmlFragmentCache.Updater();
+		addNodeChangeListener(fragmentCacheUpdater);
+		addMapChangeListener(fragmentCacheUpdater);
 		final MapClipboardController mapClipboardController = createMapClipboardController();
 		modeController.addExtension(MapClipboardController.class, mapClipboardController);
 		createActions(modeController);
@@ -981,6 +989,11 @@ implements IExtension, NodeChangeAnnouncer{
 		}
 		final NodeModel node = nodeChangeEvent.getNode();
 		final MapModel map = node.getMap();
+		if (isBatchRunning(map)) {
+			map.getExtension(Batch.class).defer(nodeChangeEvent);
+			fireNodeChangedDuringBatch(node, nodeChangeEvent);
+			return;
+		}
 		if(nodeChangeEvent.setsDirtyFlag())
 			mapSaved(map, false);
 		if (nodeChangeEvent.updatesModificationTime() && !map.isUndoActionRunning()) {
@@ -1020,6 +1033,111 @@ implements IExtension, NodeChangeAnnouncer{
 	}
 
 
+	/** Node change events deferred by the running batch of a map. */
+	private static class Batch implements IExtension {
+		private final Thread thread = Thread.currentThread();
+		private final LinkedHashMap<NodeRefreshKey, NodeChangeEvent> deferredNodeChanges = new LinkedHashMap<>();
+		private int level;
+
+		void defer(final NodeChangeEvent event) {
+			deferredNodeChanges.merge(new NodeRefreshKey(event.getNode(), event.getProperty()), event,
+			    (first, last) -> new NodeChangeEvent(first.getNode(), first.getProperty(), first.getOldValue(), last.getNewValue(),
+			        first.setsDirtyFlag() || last.setsDirtyFlag(), first.updatesModificationTime() || last.updatesModificationTime()));
+		}
+	}
+
+	/**
+	 * Runs the changes as one undoable action of the map. Node change events are deferred until the outermost batch ends,
+	 * events of the same node and property are merged, so that listeners and views are notified once per changed node property.
+	 * Events of nodes removed from the map during the batch are dropped.
+	 * Batches run on the event dispatch thread, only events fired there are deferred.
+	 * Changes throwing an exception are rolled back.
+	 */
+	public void batch(final MapModel map, final Runnable changes) {
+		final ViewController viewController = Controller.getCurrentController().getViewController();
+		if (viewController.isDispatchThread()) {
+			runBatch(map, changes);
+			return;
+		}
+		try {
+			viewController.invokeAndWait(() -> runBatch(map, changes));
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+			while (cause instanceof ExecutionException || cause instanceof InvocationTargetException)
+				cause = cause.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new RuntimeException(cause);
+		}
+	}
+
+	private void runBatch(final MapModel map, final Runnable changes) {
+		Batch batch = map.getExtension(Batch.class);
+		if (batch == null) {
+			batch = new Batch();
+			map.addExtension(batch);
+		}
+		final IUndoHandler undoHandler = map.getExtension(IUndoHandler.class);
+		if (undoHandler != null)
+			undoHandler.startTransaction();
+		boolean completed = false;
+		batch.level++;
+		try {
+			changes.run();
+			completed = true;
+		}
+		finally {
+			if (--batch.level == 0) {
+				map.removeExtension(Batch.class);
+				fireDeferredNodeChanges(map, batch);
+			}
+			if (undoHandler != null) {
+				if (completed)
+					undoHandler.commit();
+				else
+					undoHandler.rollback();
+			}
+		}
+	}
+
+	/** Returns true if node change events of the map fired by the current thread are deferred by a batch. */
+	public boolean isBatchRunning(final MapModel map) {
+		final Batch batch = map.getExtension(Batch.class);
+		return batch != null && batch.thread == Thread.currentThread();
+	}
+
+	private void fireDeferredNodeChanges(final MapModel map, final Batch batch) {
+		for (final NodeChangeEvent event : batch.deferredNodeChanges.values()) {
+			if (isInMap(event.getNode(), map))
+				nodeRefresh(event);
+		}
+	}
+
+	private static boolean isInMap(final NodeModel node, final MapModel map) {
+		NodeModel ancestor = node;
+		while (ancestor.getParentNode() != null)
+			ancestor = ancestor.getParentNode();
+		return ancestor == map.getRootNode();
+	}
+
+	private void fireNodeChangedDuringBatch(final NodeModel node, final NodeChangeEvent nodeChangeEvent) {
+		sortNodeChangeListeners();
+		final INodeChangeListener[] nodeChangeListeners = this.nodeChangeListeners.toArray(new INodeChangeListener[]{});
+		for (final INodeChangeListener listener : nodeChangeListeners) {
+			if (listener.isNotifiedDuringBatch()) {
+				for (final NodeModel clone : node.allClones())
+					listener.nodeChanged(nodeChangeEvent.forNode(clone));
+			}
+		}
+	}
+
 	// nodes may only be refreshed by their own ModeController, so we have to store that too
 	private final ActionEnablerOnChange actionEnablerOnChange;
 	private final ActionSelectorOnChange actionSelectorOnChange;
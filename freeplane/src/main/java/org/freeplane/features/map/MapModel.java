@@ -21,6 +21,7 @@ package org.freeplane.features.map;
 
 import java.io.File;
 import java.net.URL;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -49,6 +50,7 @@ public class MapModel {
 	private IconRegistry iconRegistry;
 	final private List<IMapChangeListener> listeners;
 	final private Map<String, NodeModel> nodes;
+	private Map<String, NodeModel> parentsOfDeferredNodes;
 	private boolean readOnly = false;
 	private NodeModel root;
 	private URL url;
@@ -66,7 +68,7 @@ public class MapModel {
 	}
 
     protected Map<String, NodeModel> createNodeByIdMap() {
-        return new HashMap<String, NodeModel>();
+        return new NodeByIdMap();
     }
 
 	public MapModel(INodeDuplicator nodeDuplicator) {
@@ -140,7 +142,7 @@ public class MapModel {
 			 * XML/DTD.
 			 */
 			returnValue = prefix + Integer.toString(ran.nextInt(UNDEFINED_NODE_ID));
-		} while (nodes.containsKey(returnValue));
+		} while (nodes.containsKey(returnValue) || isDeferredNodeID(returnValue));
 		return returnValue;
 	}
 
@@ -174,9 +176,44 @@ public class MapModel {
 	 */
 	public NodeModel getNodeForID(final String nodeID) {
 		final NodeModel node = nodes.get(nodeID);
+		if (node == null && isDeferredNodeID(nodeID))
+			return loadDeferredNode(nodeID);
 		return node;
 	}
 
+	private boolean isDeferredNodeID(final String nodeID) {
+		return parentsOfDeferredNodes != null && parentsOfDeferredNodes.containsKey(nodeID);
+	}
+
+	private NodeModel loadDeferredNode(final String nodeID) {
+		NodeModel loadedParent = null;
+		for (;;) {
+			final NodeModel parent = parentsOfDeferredNodes.get(nodeID);
+			if (parent == null || parent == loadedParent)
+				return nodes.get(nodeID);
+			parent.getChildren();
+			loadedParent = parent;
+		}
+	}
+
+	/**
+	 * Registers ids of nodes contained in not yet created child nodes of the given parent,
+	 * so that they are created when the ids are looked up.
+	 */
+	void registryDeferredNodeIDs(final Collection<String> ids, final NodeModel parent) {
+		if (parentsOfDeferredNodes == null)
+			parentsOfDeferredNodes = new HashMap<String, NodeModel>();
+		for (final String id : ids)
+			parentsOfDeferredNodes.put(id, parent);
+	}
+
+	void unregistryDeferredNodeIDs(final Collection<String> ids) {
+		if (parentsOfDeferredNodes == null)
+			return;
+		for (final String id : ids)
+			parentsOfDeferredNodes.remove(id);
+	}
+
 	public int getNumberOfChangesSinceLastSave() {
 		return changesPerformedSinceLastSave;
 	}
@@ -244,6 +281,11 @@ public class MapModel {
 		if (id != null) {
 			registryID(id, nodeModel);
 		}
+		final DeferredChildNodes deferredChildren = nodeModel.getDeferredChildren();
+		if (deferredChildren != null) {
+			registryDeferredNodeIDs(deferredChildren.getNodeIDs(), nodeModel);
+			return;
+		}
 		final Iterator<NodeModel> iterator = nodeModel.getChildren().iterator();
 		while (iterator.hasNext()) {
 			final NodeModel next = iterator.next();
@@ -305,9 +347,15 @@ public class MapModel {
 	public void updateLastKnownFileModificationTime() {/**/}
 
 	public void unregistryNodes(final NodeModel node) {
-		final List<NodeModel> children = node.getChildren();
-		for (final NodeModel child : children) {
-			unregistryNodes(child);
+		final DeferredChildNodes deferredChildren = node.getDeferredChildren();
+		if (deferredChildren != null) {
+			unregistryDeferredNodeIDs(deferredChildren.getNodeIDs());
+		}
+		else {
+			final List<NodeModel> children = node.getChildren();
+			for (final NodeModel child : children) {
+				unregistryNodes(child);
+			}
 		}
 		final String id = node.getID();
 		if (id != null) {
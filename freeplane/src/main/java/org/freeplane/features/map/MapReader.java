@@ -38,11 +38,15 @@ import org.freeplane.n3.nanoxml.XMLException;
  * 20.12.2008
  */
 public class MapReader implements IElementDOMHandler {
+	/** Hint holding the level of the top node of the created node tree. */
+	public static final String FIRST_NODE_LEVEL = "first_node_level";
+
 	public class NodeTreeCreator {
 		private MapModel createdMap;
 		private final Map<Object, Object> hints;
 		private NodeModel mapChild = null;
 		private final Map<String, String> newIds;
+		private int startedNodeCount;
 
 		public NodeTreeCreator() {
 			this(new HashMap<Object, Object>());
@@ -124,6 +128,20 @@ public class MapReader implements IElementDOMHandler {
 				createdMap.setRoot(mapChild);
 		}
 
+		void nodeStarted() {
+			startedNodeCount++;
+		}
+
+		void nodeFinished() {
+			startedNodeCount--;
+		}
+
+		/** Returns the level a node element started now gets in the map. */
+		int getNextNodeLevel() {
+			final Object firstNodeLevel = hints.get(FIRST_NODE_LEVEL);
+			return startedNodeCount + (firstNodeLevel instanceof Integer ? (Integer) firstNodeLevel : 0);
+		}
+
 		public void substituteNodeID(final String value, final String realId) {
 			newIds.put(value, realId);
 		}
@@ -148,6 +166,7 @@ public class MapReader implements IElementDOMHandler {
 	public MapReader(final ReadManager readManager) {
 		this.readManager = readManager;
 		nodeBuilder = new NodeBuilder(this);
+		readManager.addElementHandler(NodeBuilder.XML_NODE, new DeferredNodeBuilder(this));
 		nodeBuilder.registerBy(readManager);
 	}
 
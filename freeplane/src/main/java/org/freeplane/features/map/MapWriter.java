@@ -31,6 +31,7 @@ import org.freeplane.core.io.WriteManager;
 import org.freeplane.core.io.xml.TreeXmlWriter;
 import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.util.FreeplaneVersion;
+import org.freeplane.features.filter.Filter;
 import org.freeplane.features.link.LinkBuilder;
 import org.freeplane.features.link.LinkController;
 import org.freeplane.features.map.clipboard.MapClipboardController.CopiedNodeSet;
@@ -50,7 +51,7 @@ public class MapWriter implements IElementWriter, IAttributeWriter {
 	        + System.getProperty("line.separator");
 
 	public enum Hint {
-		MODE
+		MODE, FRAGMENT_CACHE, FILTER
 	};
 
 	public enum Mode {
@@ -83,11 +84,16 @@ public class MapWriter implements IElementWriter, IAttributeWriter {
 
 	public void writeMapAsXml(final MapModel map, final Writer fileout, final Mode mode, final CopiedNodeSet copiedNodeSet,
 	                          final boolean forceFormat) throws IOException {
-		final TreeXmlWriter xmlWriter = createTreeWriter(fileout);
+		final NodeXmlFragmentCache fragmentCache = Mode.FILE.equals(mode) && copiedNodeSet == CopiedNodeSet.ALL_NODES
+		        && !forceFormat ? NodeXmlFragmentCache.getCacheForSaving(map) : null;
+		final TreeXmlWriter xmlWriter = createTreeWriter(fileout, fragmentCache != null);
 		xmlWriter.setHint(Hint.MODE, mode);
 		if (forceFormat) {
 			xmlWriter.setHint(WriterHint.FORCE_FORMATTING);
 		}
+		if (fragmentCache != null) {
+			xmlWriter.setHint(Hint.FRAGMENT_CACHE, fragmentCache);
+		}
 		final XMLElement xmlMap = new XMLElement("map");
 		this.copiedNodeSet = copiedNodeSet;
 		xmlWriter.addElement(map, xmlMap);
@@ -125,8 +131,17 @@ public class MapWriter implements IElementWriter, IAttributeWriter {
 
 	public void writeNodeAsXml(final Writer writer, final NodeModel node, final Mode mode,
 	                           final CopiedNodeSet copiedNodeSet, final boolean writeChildren, boolean forceFormat) throws IOException {
+		writeNodeAsXml(writer, node, mode, copiedNodeSet, null, writeChildren, forceFormat);
+	}
+
+	/** Writes the node using the given filter for filtered node sets, or the current filter of its map if it is null. */
+	public void writeNodeAsXml(final Writer writer, final NodeModel node, final Mode mode,
+	                           final CopiedNodeSet copiedNodeSet, final Filter filter, final boolean writeChildren, boolean forceFormat) throws IOException {
 		final TreeXmlWriter xmlWriter = createTreeWriter(writer);
 		xmlWriter.setHint(Hint.MODE, mode);
+		if (filter != null) {
+			xmlWriter.setHint(Hint.FILTER, filter);
+		}
 		if (forceFormat) {
 			xmlWriter.setHint(WriterHint.FORCE_FORMATTING);
 		}
@@ -135,8 +150,12 @@ public class MapWriter implements IElementWriter, IAttributeWriter {
 	}
 
 	TreeXmlWriter createTreeWriter(final Writer writer) {
+		return createTreeWriter(writer, false);
+	}
+
+	private TreeXmlWriter createTreeWriter(final Writer writer, boolean recordsFragments) {
 		return new TreeXmlWriter(writeManager, writer, //
-			ResourceController.getResourceController().getBooleanProperty("useAsciiCharset"));
+			ResourceController.getResourceController().getBooleanProperty("useAsciiCharset"), recordsFragments);
 	}
 }
 
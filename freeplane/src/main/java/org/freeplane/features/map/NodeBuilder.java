@@ -88,6 +88,7 @@ public class NodeBuilder implements IElementDOMHandler {
 	@Override
 	public Object createElement(final Object parent, final String tag, final XMLElement attributes) {
 		final NodeModel userObject = createNode();
+		mapReader.getCurrentNodeTreeCreator().nodeStarted();
 		if (getMapChild() == null) {
 			setMapChild(userObject);
 		}
@@ -101,6 +102,7 @@ public class NodeBuilder implements IElementDOMHandler {
 	@Override
 	public void endElement(final Object parentObject, final String tag, final Object userObject, final XMLElement dom) {
 		final NodeModel node = (NodeModel) userObject;
+		mapReader.getCurrentNodeTreeCreator().nodeFinished();
 		if (dom.getAttributeCount() != 0 || dom.hasChildren()) {
 			node.addExtension(new UnknownElements(dom));
 		}
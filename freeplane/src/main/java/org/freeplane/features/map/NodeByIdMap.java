@@ -0,0 +1,174 @@
+package org.freeplane.features.map;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps node ids to nodes.
+ *
+ * Ids generated by {@link MapModel#generateNodeID(String)} look like ID_&lt;non negative int&gt;,
+ * their numbers are kept in an open addressing int table, so that neither lookups nor registrations allocate objects.
+ * All other ids are kept in a hash map.
+ *
+ * Like in a hash map a key may be registered with null value,
+ * it is still contained in the map then.
+ */
+class NodeByIdMap extends AbstractMap<String, NodeModel> {
+	private static final String PREFIX = "ID_";
+	private static final int NO_NUMBER = -1;
+	private static final int EMPTY = -1;
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int[] numbers;
+	private NodeModel[] nodes;
+	private int numberCount;
+	private Map<String, NodeModel> otherIds;
+
+	NodeByIdMap() {
+		numbers = new int[INITIAL_CAPACITY];
+		Arrays.fill(numbers, EMPTY);
+		nodes = new NodeModel[INITIAL_CAPACITY];
+	}
+
+	/** returns the number of a standard id or NO_NUMBER if the id is not one or it does not exactly look like a formatted int. */
+	static int idNumber(final Object id) {
+		if (!(id instanceof String))
+			return NO_NUMBER;
+		final String string = (String) id;
+		final int length = string.length();
+		if (length <= PREFIX.length() || length > PREFIX.length() + 10 || !string.startsWith(PREFIX))
+			return NO_NUMBER;
+		if (string.charAt(PREFIX.length()) == '0' && length > PREFIX.length() + 1)
+			return NO_NUMBER;
+		long number = 0;
+		for (int i = PREFIX.length(); i < length; i++) {
+			final char c = string.charAt(i);
+			if (c < '0' || c > '9')
+				return NO_NUMBER;
+			number = number * 10 + (c - '0');
+		}
+		return number <= Integer.MAX_VALUE ? (int) number : NO_NUMBER;
+	}
+
+	private int slot(final int number) {
+		final int mask = numbers.length - 1;
+		int slot = mix(number) & mask;
+		while (numbers[slot] != EMPTY && numbers[slot] != number)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private static int mix(final int number) {
+		final int h = number * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	@Override
+	public NodeModel get(final Object key) {
+		final int number = idNumber(key);
+		if (number == NO_NUMBER)
+			return otherIds != null ? otherIds.get(key) : null;
+		return nodes[slot(number)];
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		final int number = idNumber(key);
+		if (number == NO_NUMBER)
+			return otherIds != null && otherIds.containsKey(key);
+		return numbers[slot(number)] != EMPTY;
+	}
+
+	@Override
+	public NodeModel put(final String key, final NodeModel node) {
+		final int number = idNumber(key);
+		if (number == NO_NUMBER) {
+			if (otherIds == null)
+				otherIds = new HashMap<String, NodeModel>();
+			return otherIds.put(key, node);
+		}
+		final int slot = slot(number);
+		if (numbers[slot] != EMPTY) {
+			final NodeModel old = nodes[slot];
+			nodes[slot] = node;
+			return old;
+		}
+		numbers[slot] = number;
+		nodes[slot] = node;
+		if (++numberCount * 4 > numbers.length * 3)
+			resize(numbers.length * 2);
+		return null;
+	}
+
+	@Override
+	public NodeModel remove(final Object key) {
+		final int number = idNumber(key);
+		if (number == NO_NUMBER)
+			return otherIds != null ? otherIds.remove(key) : null;
+		int slot = slot(number);
+		if (numbers[slot] == EMPTY)
+			return null;
+		final NodeModel old = nodes[slot];
+		final int mask = numbers.length - 1;
+		for (int next = (slot + 1) & mask; numbers[next] != EMPTY; next = (next + 1) & mask) {
+			final int home = mix(numbers[next]) & mask;
+			final boolean canMove = slot <= next ? home <= slot || home > next : home <= slot && home > next;
+			if (canMove) {
+				numbers[slot] = numbers[next];
+				nodes[slot] = nodes[next];
+				slot = next;
+			}
+		}
+		numbers[slot] = EMPTY;
+		nodes[slot] = null;
+		numberCount--;
+		return old;
+	}
+
+	private void resize(final int capacity) {
+		final int[] oldNumbers = numbers;
+		final NodeModel[] oldNodes = nodes;
+		numbers = new int[capacity];
+		Arrays.fill(numbers, EMPTY);
+		nodes = new NodeModel[capacity];
+		for (int i = 0; i < oldNumbers.length; i++) {
+			if (oldNumbers[i] != EMPTY) {
+				final int slot = slot(oldNumbers[i]);
+				numbers[slot] = oldNumbers[i];
+				nodes[slot] = oldNodes[i];
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return numberCount + (otherIds != null ? otherIds.size() : 0);
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(numbers, EMPTY);
+		Arrays.fill(nodes, null);
+		numberCount = 0;
+		otherIds = null;
+	}
+
+	/** returns a snapshot of the entries, changes of it are not written back. */
+	@Override
+	public Set<Entry<String, NodeModel>> entrySet() {
+		final Set<Entry<String, NodeModel>> entries = new LinkedHashSet<>(size());
+		for (int i = 0; i < numbers.length; i++) {
+			if (numbers[i] != EMPTY)
+				entries.add(new SimpleImmutableEntry<>(PREFIX + numbers[i], nodes[i]));
+		}
+		if (otherIds != null) {
+			for (Entry<String, NodeModel> entry : otherIds.entrySet())
+				entries.add(new SimpleImmutableEntry<>(entry));
+		}
+		return entries;
+	}
+}
@@ -33,7 +33,6 @@ import org.freeplane.features.icon.NamedIcon;
 public class NodeIconSetModel {
 	/** stores the icons associated with this node. */
 	private List<NamedIcon> icons;
-	private List<String> tags;
 	private Quantity<LengthUnit> iconSize = null;
 
 	public void setIconSize(final Quantity<LengthUnit> iconSize)
@@ -78,7 +78,10 @@ public class NodeModel{
 	public static final String NODE_ICON_SIZE = "icon_size";
 	static public final Object HYPERLINK_CHANGED = "hyperlink_changed";
 
+	/** Shared by all leaves, replaced by an own list when the first child is added. */
+	private static final List<NodeModel> NO_CHILDREN = Collections.unmodifiableList(new ArrayList<NodeModel>(0));
 	private List<NodeModel> children;
+	private volatile DeferredChildNodes deferredChildren;
 	private NodeModel parent;
 	private String id;
 	private boolean folded;
@@ -106,7 +109,7 @@ public class NodeModel{
 
 	public NodeModel(final Object userObject, final MapModel map) {
 		this.map = map;
-		children = new ArrayList<NodeModel>();
+		children = NO_CHILDREN;
 		sharedData = new SharedNodeData();
 		side = Side.DEFAULT;
 		init(userObject);
@@ -117,7 +120,7 @@ public class NodeModel{
 	private NodeModel(NodeModel toBeCloned, CloneType cloneType){
 		this.map = toBeCloned.map;
 		this.sharedData = toBeCloned.sharedData;
-		children = new ArrayList<NodeModel>();
+		children = NO_CHILDREN;
 		clones = new Clones[]{new DetachedNodeList(this, cloneType == TREE ? toBeCloned : this, TREE), new DetachedNodeList(this, toBeCloned, CONTENT)};
 		side = Side.DEFAULT;
 		folded = toBeCloned.folded;
@@ -170,9 +173,40 @@ public class NodeModel{
 	}
 
 	protected List<NodeModel> getChildrenInternal() {
+		final DeferredChildNodes deferredChildren = this.deferredChildren;
+		if (deferredChildren != null)
+			deferredChildren.load(this);
 		return children;
 	}
 
+	protected List<NodeModel> getModifiableChildrenInternal() {
+		final DeferredChildNodes deferredChildren = this.deferredChildren;
+		if (deferredChildren != null)
+			deferredChildren.load(this);
+		if (children == NO_CHILDREN)
+			children = new ArrayList<NodeModel>();
+		return children;
+	}
+
+	DeferredChildNodes getDeferredChildren() {
+		return deferredChildren;
+	}
+
+	/** Returns the kept xml of the child nodes which are not loaded yet, or an empty list if the child nodes are loaded. */
+	public List<String> getDeferredChildNodesXml() {
+		final DeferredChildNodes deferredChildren = this.deferredChildren;
+		return deferredChildren != null ? deferredChildren.getChildNodesXml() : Collections.<String>emptyList();
+	}
+
+	/** Returns true if the child nodes are kept as xml and have not been loaded yet. */
+	public boolean hasDeferredChildren() {
+		return deferredChildren != null;
+	}
+
+	void setDeferredChildren(DeferredChildNodes deferredChildren) {
+		this.deferredChildren = deferredChildren;
+	}
+
 	protected void setChildrenInternal(List<NodeModel> chidren) {
 		this.children = chidren;
 	}
@@ -193,7 +227,7 @@ public class NodeModel{
 	}
 
 	public boolean containsExtension(final Class<? extends IExtension> clazz) {
-		return getExtensionContainer().containsExtension(clazz);
+		return getExistingExtensionContainer().containsExtension(clazz);
 	}
 
 	public String createID() {
@@ -294,6 +328,10 @@ public class NodeModel{
 	}
 
 	public int getChildCount() {
+		final DeferredChildNodes deferredChildren = this.deferredChildren;
+		if (deferredChildren != null) {
+			return deferredChildren.size();
+		}
 		if (getChildrenInternal() == null) {
 			return 0;
 		}
@@ -312,11 +350,11 @@ public class NodeModel{
 	}
 
 	public <T extends IExtension> T getExtension(final Class<T> clazz) {
-		return getExtensionContainer().getExtension(clazz);
+		return getExistingExtensionContainer().getExtension(clazz);
 	}
 
 	public Map<Class<? extends IExtension>, IExtension> getSharedExtensions() {
-		return getExtensionContainer().getExtensions();
+		return getExistingExtensionContainer().getExtensions();
 	}
 
 	public HistoryInformationModel getHistoryInformation() {
@@ -324,11 +362,11 @@ public class NodeModel{
 	}
 
 	public NamedIcon getIcon(final int position) {
-		return getIconModel().getIcon(position);
+		return getExistingIconModel().getIcon(position);
 	}
 
 	public List<NamedIcon> getIcons() {
-		return getIconModel().getIcons();
+		return getExistingIconModel().getIcons();
 	}
 
 	public String getID() {
@@ -336,7 +374,7 @@ public class NodeModel{
 	}
 
 	public int getIndex(final NodeModel node) {
-		return children.indexOf(node);
+		return getChildrenInternal().indexOf(node);
 	}
 
 	public MapModel getMap() {
@@ -411,6 +449,7 @@ public class NodeModel{
 	}
 
 	public void insert(final NodeModel child, int index) {
+		final List<NodeModel> children = getModifiableChildrenInternal();
 		if (index < 0) {
 			index = getChildCount();
 			children.add(index, child);
@@ -506,6 +545,7 @@ public class NodeModel{
 	}
 
 	public void remove(final int index) {
+	    final List<NodeModel> children = getChildrenInternal();
 	    final NodeModel child = children.get(index);
 	    firePreNodeDeleted(child, index);
 	    child.setParent(null);
@@ -522,11 +562,11 @@ public class NodeModel{
     }
 
 	public <T extends IExtension> T removeExtension(final Class<T> clazz){
-		return getExtensionContainer().removeExtension(clazz);
+		return getExistingExtensionContainer().removeExtension(clazz);
 	}
 
 	public boolean removeExtension(final IExtension extension) {
-		return getExtensionContainer().removeExtension(extension);
+		return getExistingExtensionContainer().removeExtension(extension);
 	}
 
 	/**
@@ -581,12 +621,14 @@ public class NodeModel{
 	}
 
 	public void setChildNodeSidesAsNow() {
-		children.forEach(child -> {
+		getChildrenInternal().forEach(child -> {
 			if(child.getSide() == Side.DEFAULT)
 				child.setSide(child.isTopOrLeft(this) ? Side.TOP_OR_LEFT : Side.BOTTOM_OR_RIGHT);
 		});
 	}
 	/**
+	 * Deferred child nodes are not visited here and in {@link #attach()} and {@link #detach()},
+	 * they are created with the map and the attachment state of their parent when they are loaded.
 	 */
 	public void setMap(final MapModel map) {
 		this.map = map;
@@ -672,10 +714,18 @@ public class NodeModel{
 		return sharedData.getExtensionContainer();
 	}
 
+	private ExtensionContainer getExistingExtensionContainer() {
+		return sharedData.getExistingExtensionContainer();
+	}
+
 	private NodeIconSetModel getIconModel() {
 		return sharedData.getIcons();
 	}
 
+	private NodeIconSetModel getExistingIconModel() {
+		return sharedData.getExistingIcons();
+	}
+
 	public NodeModel cloneTree(){
 		final NodeModel clone = new Cloner(this).cloneTree();
 		return clone;
@@ -723,7 +773,9 @@ public class NodeModel{
 		for(NodeModel clone : node.subtreeClones())
 			if(equals(clone))
 				return true;
-		for(NodeModel child : children)
+		if(deferredChildren != null)
+			return false; // branches containing clones are never deferred
+		for(NodeModel child : getChildrenInternal())
 			if(child.subtreeContainsCloneOf(node))
 				return true;
 		return false;
@@ -815,7 +867,7 @@ public class NodeModel{
 	}
 
 	public boolean childSubtreesHaveVisibleContent(Filter filter) {
-		return children.stream().anyMatch(child -> child.subtreeHasVisibleContent(filter));
+		return getChildrenInternal().stream().anyMatch(child -> child.subtreeHasVisibleContent(filter));
 	}
 
 	public NodeModel duplicate(boolean withChildren) {
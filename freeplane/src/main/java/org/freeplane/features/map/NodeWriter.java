@@ -20,6 +20,8 @@
 package org.freeplane.features.map;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -34,6 +36,7 @@ import org.freeplane.core.io.ITreeWriter;
 import org.freeplane.core.io.WriteManager;
 import org.freeplane.core.io.xml.TreeXmlWriter;
 import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.filter.Filter;
 import org.freeplane.features.filter.FilterController;
 import org.freeplane.features.icon.IconController;
 import org.freeplane.features.link.LinkBuilder;
@@ -68,6 +71,7 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 	                  final CopiedNodeSet copiedNodeSet) {
 		this.linkBuilder = linkBuilder;
 		alreadyWrittenSharedContent = new HashMap<>();
+		fragmentRecordings = new ArrayDeque<>();
 		this.mapController = mapController;
 		this.shouldWriteChildren = writeChildren;
 		this.mayWriteChildren = true;
@@ -79,11 +83,33 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 		        || saveFolding.equals(NodeBuilder.RESOURCES_SAVE_FOLDING_IF_MAP_IS_CHANGED);
 	}
 
+	private static class FragmentRecording {
+		final NodeModel node;
+		long childrenStart = -1;
+		long childrenEnd = -1;
+
+		FragmentRecording(NodeModel node) {
+			this.node = node;
+		}
+	}
+
+	private final Deque<FragmentRecording> fragmentRecordings;
+
 	private void saveChildren(final ITreeWriter writer, final NodeModel node) throws IOException {
+		final DeferredChildNodes deferredChildren = node.getDeferredChildren();
+		if (deferredChildren != null && copiedNodeSet == CopiedNodeSet.ALL_NODES
+		        && writer instanceof TreeXmlWriter && Mode.FILE.equals(mode(writer))) {
+			deferredChildren.writeTo((TreeXmlWriter) writer);
+			return;
+		}
 		for (final NodeModel child: node.getChildren()) {
-		if (copiedNodeSet == CopiedNodeSet.ALL_NODES || child.hasVisibleContent(FilterController.getFilter(node.getMap()))) {
+		if (copiedNodeSet == CopiedNodeSet.ALL_NODES || child.hasVisibleContent(filter(writer, node))) {
 				writer.setHint(WriterHint.ALREADY_WRITTEN, isAlreadyWritten(child));
-				writer.addElement(child, nodeTag);
+				final Object fragmentCache = writer.getHint(Hint.FRAGMENT_CACHE);
+				if (fragmentCache instanceof NodeXmlFragmentCache && NodeXmlFragmentCache.canCache(child))
+					writeChildUsingCache((TreeXmlWriter) writer, (NodeXmlFragmentCache) fragmentCache, child);
+				else
+					writer.addElement(child, nodeTag);
 			}
 			else {
 				saveChildren(writer, child);
@@ -91,6 +117,39 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 		}
 	}
 
+	private void writeChildUsingCache(final TreeXmlWriter writer, final NodeXmlFragmentCache fragmentCache,
+	                                  final NodeModel child) throws IOException {
+		final boolean isFolded = mapController.isFolded(child);
+		final NodeXmlFragmentCache.Fragment cachedFragment = fragmentCache.get(child, isFolded);
+		if (cachedFragment != null) {
+			registerWrittenNode(child);
+			writer.addFragment(cachedFragment.head);
+			if (cachedFragment.hasChildren)
+				saveChildren(writer, child);
+			writer.addFragment(cachedFragment.tail);
+			return;
+		}
+		final long start = writer.beginFragment();
+		try {
+			final FragmentRecording recording = new FragmentRecording(child);
+			fragmentRecordings.push(recording);
+			try {
+				writer.addElement(child, nodeTag);
+			}
+			finally {
+				fragmentRecordings.pop();
+			}
+			final long end = writer.getFragmentPosition();
+			final boolean hasChildren = recording.childrenStart >= 0;
+			final String head = writer.getFragmentText(start, hasChildren ? recording.childrenStart : end);
+			final String tail = hasChildren ? writer.getFragmentText(recording.childrenEnd, end) : "";
+			fragmentCache.put(child, new NodeXmlFragmentCache.Fragment(head, tail, isFolded, hasChildren));
+		}
+		finally {
+			writer.endFragment();
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
@@ -162,7 +221,7 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 			final IconController iconController = IconController.getController();
 			iconSize = iconController.getIconSize(node, StyleOption.FOR_UNSELECTED_NODE);
 		} else
-			iconSize = node.getSharedData().getIcons().getIconSize();
+			iconSize = node.getSharedData().getIconSize();
 		if (iconSize != null) {
 			writer.addAttribute("ICON_SIZE", iconSize.toString());
 		}
@@ -202,8 +261,17 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 				writer.addElement(null, xmlNode.getChildAtIndex(i));
 			}
 		}
-		if (mayWriteChildren && shouldWriteChildren && node.getChildren().size()>0) {
-			saveChildren(writer, node);
+		if (mayWriteChildren && shouldWriteChildren && node.getChildCount() > 0) {
+			final FragmentRecording fragmentRecording = fragmentRecordings.peek();
+			if (fragmentRecording != null && fragmentRecording.node == node) {
+				final TreeXmlWriter xmlWriter = (TreeXmlWriter) writer;
+				xmlWriter.startElementContent();
+				fragmentRecording.childrenStart = xmlWriter.getFragmentPosition();
+				saveChildren(writer, node);
+				fragmentRecording.childrenEnd = xmlWriter.getFragmentPosition();
+			}
+			else
+				saveChildren(writer, node);
 		}
 	}
 
@@ -211,6 +279,11 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 	    return writer.getHint(Hint.MODE);
     }
 
+	private Filter filter(final ITreeWriter writer, final NodeModel node) {
+		final Object filter = writer.getHint(Hint.FILTER);
+		return filter instanceof Filter ? (Filter) filter : FilterController.getFilter(node.getMap());
+	}
+
 	String getNodeTag() {
 		return nodeTag;
 	}
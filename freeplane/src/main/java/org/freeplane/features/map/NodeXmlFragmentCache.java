@@ -0,0 +1,127 @@
+package org.freeplane.features.map;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.filter.Filter;
+import org.freeplane.features.link.NodeLinks;
+
+/**
+ * Keeps xml written for nodes at the last save, so that unchanged nodes are not serialized again.
+ *
+ * The cached text of a node consists of the part written before its children and the part written after them.
+ * Children are always taken from the current node, so that a change invalidates only the changed node
+ * and, for structural changes, its parents.
+ * Nodes whose xml depends on other nodes, like clones, encrypted nodes and nodes with links, are never cached.
+ */
+public class NodeXmlFragmentCache implements IExtension {
+	public static final String SAVE_USES_FRAGMENT_CACHE_PROPERTY = "save_uses_fragment_cache";
+
+	static class Fragment {
+		final String head;
+		final String tail;
+		final boolean isFolded;
+		final boolean hasChildren;
+
+		Fragment(String head, String tail, boolean isFolded, boolean hasChildren) {
+			this.head = head;
+			this.tail = tail;
+			this.isFolded = isFolded;
+			this.hasChildren = hasChildren;
+		}
+	}
+
+	static class Updater implements INodeChangeListener, IMapChangeListener {
+		@Override
+		public void nodeChanged(NodeChangeEvent event) {
+			invalidate(event.getNode());
+		}
+
+		@Override
+		public void mapChanged(MapChangeEvent event) {
+			if (Filter.class.equals(event.getProperty()))
+				return;
+			final MapModel map = event.getMap();
+			if (map != null)
+				map.removeExtension(NodeXmlFragmentCache.class);
+		}
+
+		@Override
+		public void onNodeDeleted(NodeDeletionEvent nodeDeletionEvent) {
+			invalidate(nodeDeletionEvent.parent);
+		}
+
+		@Override
+		public void onNodeInserted(NodeModel parent, NodeModel child, int newIndex) {
+			invalidate(parent);
+			invalidate(child);
+		}
+
+		@Override
+		public void onNodeMoved(NodeMoveEvent nodeMoveEvent) {
+			invalidate(nodeMoveEvent.oldParent);
+			invalidate(nodeMoveEvent.newParent);
+			invalidate(nodeMoveEvent.child);
+		}
+
+		private void invalidate(NodeModel node) {
+			final MapModel map = node.getMap();
+			if (map == null)
+				return;
+			final NodeXmlFragmentCache cache = map.getExtension(NodeXmlFragmentCache.class);
+			if (cache != null)
+				cache.fragments.remove(node);
+		}
+	}
+
+	private final Map<NodeModel, Fragment> fragments;
+	private final String writerSettings;
+
+	private NodeXmlFragmentCache(String writerSettings) {
+		this.fragments = new WeakHashMap<>();
+		this.writerSettings = writerSettings;
+	}
+
+	/**
+	 * Returns the cache to be used for writing the whole map into a file,
+	 * or null if the cache is disabled.
+	 * Cached fragments written with different writer settings are discarded.
+	 */
+	static NodeXmlFragmentCache getCacheForSaving(MapModel map) {
+		final ResourceController resourceController = ResourceController.getResourceController();
+		if (!resourceController.getBooleanProperty(SAVE_USES_FRAGMENT_CACHE_PROPERTY)) {
+			map.removeExtension(NodeXmlFragmentCache.class);
+			return null;
+		}
+		final String writerSettings = resourceController.getProperty(NodeBuilder.RESOURCES_SAVE_FOLDING)
+		        + ',' + resourceController.getBooleanProperty(NodeBuilder.RESOURCES_SAVE_MODIFICATION_TIMES)
+		        + ',' + resourceController.getBooleanProperty("useAsciiCharset");
+		final NodeXmlFragmentCache cache = map.getExtension(NodeXmlFragmentCache.class);
+		if (cache != null && cache.writerSettings.equals(writerSettings))
+			return cache;
+		final NodeXmlFragmentCache newCache = new NodeXmlFragmentCache(writerSettings);
+		map.addExtension(newCache);
+		return newCache;
+	}
+
+	static boolean canCache(NodeModel node) {
+		return node.allClones().size() == 1
+		        && EncryptionModel.getModel(node) == null
+		        && node.getExtension(NodeLinks.class) == null;
+	}
+
+	Fragment get(NodeModel node, boolean isFolded) {
+		final Fragment fragment = fragments.get(node);
+		if (fragment == null
+		        || fragment.isFolded != isFolded
+		        || fragment.hasChildren != node.hasChildren())
+			return null;
+		return fragment;
+	}
+
+	void put(NodeModel node, Fragment fragment) {
+		fragments.put(node, fragment);
+	}
+}
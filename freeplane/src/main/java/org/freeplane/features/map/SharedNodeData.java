@@ -19,6 +19,10 @@
  */
 package org.freeplane.features.map;
 
+import java.util.Collections;
+
+import org.freeplane.api.LengthUnit;
+import org.freeplane.api.Quantity;
 import org.freeplane.core.extension.ExtensionContainer;
 import org.freeplane.core.extension.SmallExtensionMap;
 import org.freeplane.core.util.HtmlUtils;
@@ -28,21 +32,27 @@ import org.freeplane.features.text.RichTextModel;
  * @author  Dimitry Polivaev 05.02.2014
  */
 public class SharedNodeData {
-	final private ExtensionContainer extensionContainer;
+	/** Read by nodes without extensions, so that most nodes of a big map do not need their own container. */
+	private static final ExtensionContainer NO_EXTENSIONS = new ExtensionContainer(Collections.emptyMap());
+	private static final NodeIconSetModel NO_ICONS = new NodeIconSetModel();
+	private ExtensionContainer extensionContainer;
 	private HistoryInformationModel historyInformation;
-	final private NodeIconSetModel icons;
+	private NodeIconSetModel icons;
 	private Object userObject;
 	private String xmlText;
 
-	public SharedNodeData() {
-		extensionContainer = new ExtensionContainer(new SmallExtensionMap());
-		icons = new NodeIconSetModel();
-	}
-
 	public ExtensionContainer getExtensionContainer() {
+		if (extensionContainer == null) {
+			extensionContainer = new ExtensionContainer(new SmallExtensionMap());
+		}
 		return extensionContainer;
 	}
 
+	/** returns an empty unmodifiable container if no extension has been added yet. */
+	ExtensionContainer getExistingExtensionContainer() {
+		return extensionContainer != null ? extensionContainer : NO_EXTENSIONS;
+	}
+
 	public HistoryInformationModel getHistoryInformation() {
 		return historyInformation;
 	}
@@ -52,9 +62,21 @@ public class SharedNodeData {
 	}
 
 	public NodeIconSetModel getIcons() {
+		if (icons == null) {
+			icons = new NodeIconSetModel();
+		}
 		return icons;
 	}
 
+	/** returns an empty icon model which must not be changed if no icon or icon size has been set yet. */
+	NodeIconSetModel getExistingIcons() {
+		return icons != null ? icons : NO_ICONS;
+	}
+
+	public Quantity<LengthUnit> getIconSize() {
+		return icons != null ? icons.getIconSize() : null;
+	}
+
 	public Object getUserObject() {
 		return userObject;
 	}
@@ -30,6 +30,7 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -41,6 +42,8 @@ import org.freeplane.core.util.Compat;
 import org.freeplane.core.util.LogUtils;
 import org.freeplane.features.clipboard.ClipboardAccessor;
 import org.freeplane.features.clipboard.ClipboardController;
+import org.freeplane.features.filter.Filter;
+import org.freeplane.features.filter.FilterController;
 import org.freeplane.features.map.IMapSelection;
 import org.freeplane.features.map.INodeDuplicator;
 import org.freeplane.features.map.MapModel;
@@ -78,18 +81,42 @@ public class MapClipboardController implements IExtension, ClipboardController,
 	}
 
 	public MindMapNodesSelection copy(final Collection<NodeModel> selectedNodes) {
-		CopiedNodeSet copiedNodeSet = ResourceController.getResourceController().getBooleanProperty("filtersCopiedNodes") ? MapClipboardController.CopiedNodeSet.FILTERED_NODES : MapClipboardController.CopiedNodeSet.ALL_NODES;
-		CopiedNodeSet copiedTextNodeSet = ResourceController.getResourceController().getBooleanProperty("filtersCopiedText") ? MapClipboardController.CopiedNodeSet.FILTERED_NODES : MapClipboardController.CopiedNodeSet.ALL_NODES;
-		return copy(selectedNodes, copiedNodeSet, copiedTextNodeSet);
+		return copy(selectedNodes, copiedNodeSet("filtersCopiedNodes"), copiedNodeSet("filtersCopiedText"));
+	}
+
+	private static CopiedNodeSet copiedNodeSet(String filterProperty) {
+		return ResourceController.getResourceController().getBooleanProperty(filterProperty) ? MapClipboardController.CopiedNodeSet.FILTERED_NODES : MapClipboardController.CopiedNodeSet.ALL_NODES;
 	}
 
 	public MindMapNodesSelection copy(final Collection<NodeModel> selectedNodes,
 			CopiedNodeSet copiedNodeSet, CopiedNodeSet copiedTextNodeSet) {
+		final MindMapNodesSelection selection = copyForDrag(selectedNodes, copiedNodeSet, copiedTextNodeSet);
+		selection.createContents();
+		return selection;
+	}
+
+	/**
+	 * Returns a selection creating its contents when they are requested first.
+	 * It may only be used while the copied nodes do not change, e.g. for dragging them.
+	 */
+	public MindMapNodesSelection copyForDrag(final IMapSelection selection) {
+		return copyForDrag(selection.getSortedSelection(true), copiedNodeSet("filtersCopiedNodes"), copiedNodeSet("filtersCopiedText"));
+	}
+
+	private MindMapNodesSelection copyForDrag(final Collection<NodeModel> selectedNodes,
+			CopiedNodeSet copiedNodeSet, CopiedNodeSet copiedTextNodeSet) {
+		final List<NodeModel> copiedNodes = new ArrayList<>(selectedNodes);
+		final MapModel map = copiedNodes.isEmpty() ? null : copiedNodes.get(0).getMap();
+		final Filter filter = map != null ? FilterController.getFilter(map) : null;
+		return new MindMapNodesSelection(
+			() -> createForNodesFlavorOrNull(copiedNodes, copiedNodeSet, filter),
+			() -> MindMapPlainTextWriter.INSTANCE.getAsPlainText(copiedNodes, copiedTextNodeSet, filter),
+			() -> getAsHTML(copiedNodes, filter));
+	}
+
+	private String createForNodesFlavorOrNull(final Collection<NodeModel> selectedNodes, CopiedNodeSet copiedNodeSet, Filter filter) {
 		try {
-			final String forNodesFlavor = createForNodesFlavor(selectedNodes, copiedNodeSet);
-			final String plainText = MindMapPlainTextWriter.INSTANCE.getAsPlainText(selectedNodes, copiedTextNodeSet);
-			return new MindMapNodesSelection(forNodesFlavor, plainText,
-			    getAsHTML(selectedNodes));
+			return createForNodesFlavor(selectedNodes, copiedNodeSet, filter);
 		}
 		catch (final UnsupportedFlavorException ex) {
 			LogUtils.severe(ex);
@@ -105,10 +132,14 @@ public class MapClipboardController implements IExtension, ClipboardController,
 	}
 
 	public Transferable copy(final NodeModel node, CopiedNodeSet copiedNodeSet) {
+		return copy(node, copiedNodeSet, null);
+	}
+
+	private Transferable copy(final NodeModel node, CopiedNodeSet copiedNodeSet, Filter filter) {
 		final StringWriter stringWriter = new StringWriter();
 		try {
 			Controller.getCurrentModeController().getMapController().getMapWriter().writeNodeAsXml(stringWriter, node, Mode.CLIPBOARD,
-			    copiedNodeSet, true, false);
+			    copiedNodeSet, filter, true, false);
 		}
 		catch (final IOException e) {
 			LogUtils.severe(e);
@@ -142,25 +173,34 @@ public class MapClipboardController implements IExtension, ClipboardController,
 
 	public String createForNodesFlavor(final Collection<NodeModel> selectedNodes , CopiedNodeSet copiedNodeSet)
 	        throws UnsupportedFlavorException, IOException {
-		String forNodesFlavor = "";
+		return createForNodesFlavor(selectedNodes, copiedNodeSet, null);
+	}
+
+	private String createForNodesFlavor(final Collection<NodeModel> selectedNodes , CopiedNodeSet copiedNodeSet, Filter filter)
+	        throws UnsupportedFlavorException, IOException {
+		final StringBuilder forNodesFlavor = new StringBuilder();
 		boolean firstLoop = true;
 		for (final NodeModel tmpNode : selectedNodes) {
 			if (firstLoop) {
 				firstLoop = false;
 			}
 			else {
-				forNodesFlavor += "<nodeseparator>";
+				forNodesFlavor.append("<nodeseparator>");
 			}
-			forNodesFlavor += copy(tmpNode, copiedNodeSet).getTransferData(MindMapNodesSelection.mindMapNodesFlavor);
+			forNodesFlavor.append(copy(tmpNode, copiedNodeSet, filter).getTransferData(MindMapNodesSelection.mindMapNodesFlavor));
 		}
-		return forNodesFlavor;
+		return forNodesFlavor.toString();
 	}
 
 	public String getAsHTML(final Collection<NodeModel> selectedNodes) {
+		return getAsHTML(selectedNodes, null);
+	}
+
+	private String getAsHTML(final Collection<NodeModel> selectedNodes, Filter filter) {
 		try {
 			final StringWriter stringWriter = new StringWriter();
 			try (BufferedWriter fileout = new BufferedWriter(stringWriter)) {
-			    writeHTML(selectedNodes, fileout);
+			    writeHTML(selectedNodes, fileout, filter);
 			}
 			return stringWriter.toString();
 		}
@@ -205,8 +245,13 @@ public class MapClipboardController implements IExtension, ClipboardController,
 
 
 	public void writeHTML(final Collection<NodeModel> selectedNodes, final Writer fileout) throws IOException {
+		writeHTML(selectedNodes, fileout, null);
+	}
+
+	private void writeHTML(final Collection<NodeModel> selectedNodes, final Writer fileout, Filter filter) throws IOException {
 		MapClipboardController.CopiedNodeSet copiedNodeSet = ResourceController.getResourceController().getBooleanProperty("filtersCopiedText") ? MapClipboardController.CopiedNodeSet.FILTERED_NODES : MapClipboardController.CopiedNodeSet.ALL_NODES;
 		final MindMapHTMLWriter htmlWriter = new MindMapHTMLWriter(Controller.getCurrentModeController().getMapController(), copiedNodeSet, fileout);
+		htmlWriter.setFilter(filter);
 		htmlWriter.writeHTML(selectedNodes);
 	}
 
@@ -222,7 +267,7 @@ public class MapClipboardController implements IExtension, ClipboardController,
 		if (selection != null) {
 			final Transferable copy = copy(selection);
 			if (copy != null) {
-				ClipboardAccessor.getInstance().setClipboardContents(copy);
+				setClipboardContents(copy);
 			}
 		}
 	}
@@ -42,6 +42,7 @@ import org.freeplane.core.util.HtmlUtils;
 import org.freeplane.core.util.LogUtils;
 import org.freeplane.features.cloud.CloudController;
 import org.freeplane.features.filter.Filter;
+import org.freeplane.features.filter.FilterController;
 import org.freeplane.features.icon.IconController;
 import org.freeplane.features.icon.MindIcon;
 import org.freeplane.features.icon.NamedIcon;
@@ -147,7 +148,7 @@ class MindMapHTMLWriter {
 	private final NodeStyleController nodeStyleController;
 	private final TextController textController;
 	private final CloudController clouds;
-	private final Filter filter;
+	private Filter filter;
 	private final CopiedNodeSet copiedNodeSet;
 
 	private boolean writeFoldingCode;
@@ -166,10 +167,14 @@ class MindMapHTMLWriter {
 		writeFoldingCode = false;
 		basedOnHeadings = getProperty("html_export_folding").equals("html_export_based_on_headings");
 		writesColors = ResourceController.getResourceController().getBooleanProperty("html_export_includes_colors");
-		filter = modeController.getController().getSelection().getFilter();
 	}
 
 
+	/** Sets the filter used instead of the current filter of the map of the written nodes. */
+	void setFilter(Filter filter) {
+		this.filter = filter;
+	}
+
 	public void configureCharset(String charset) {
 		this.charset = charset;
 	}
@@ -232,6 +237,8 @@ class MindMapHTMLWriter {
 		writer.write("<html>" + lf );
 		if (!selectedNodes.isEmpty()) {
 			final MapModel map = selectedNodes.iterator().next().getMap();
+			if (filter == null)
+				filter = FilterController.getFilter(map);
 			setDefaultsFrom(map);
 			writer.write("<head>" + lf);
 			writeStyle();
@@ -267,6 +274,8 @@ class MindMapHTMLWriter {
 			return;
 		NodeModel firstNode = branchRootNodes.get(0);
 		MapModel map = firstNode.getMap();
+		if (filter == null)
+			filter = FilterController.getFilter(map);
 		setDefaultsFrom(map);
 		final String htmlExportFoldingOption = getProperty("html_export_folding");
 		writeFoldingCode = htmlExportFoldingOption.equals("html_export_fold_all")
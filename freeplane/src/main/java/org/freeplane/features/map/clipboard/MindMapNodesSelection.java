@@ -27,6 +27,7 @@ import java.awt.datatransfer.UnsupportedFlavorException;
 import java.awt.dnd.DnDConstants;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import org.freeplane.core.util.LogUtils;
@@ -68,39 +69,85 @@ public class MindMapNodesSelection implements Transferable, ClipboardOwner {
 		dropCopyActionFlavor = dropCopyActionFlavorInit;
 		dropLinkActionFlavor = dropLinkActionFlavorInit;
 	}
-	final private String htmlContent;
-	final private String nodesContent;
-	final private String stringContent;
+
+	/** Content created on first request only. */
+	private static class LazyContent {
+		private Supplier<String> supplier;
+		private String content;
+
+		LazyContent(Supplier<String> supplier) {
+			this.supplier = supplier;
+		}
+
+		synchronized String get() {
+			if (supplier != null) {
+				content = supplier.get();
+				supplier = null;
+			}
+			return content;
+		}
+	}
+
+	final private LazyContent htmlContent;
+	final private LazyContent nodesContent;
+	final private LazyContent stringContent;
 	private int dropActionContent;
 	private Collection<NodeModel> nodes;
 	private boolean selectionContainsSingleNodes;
 
+	/**
+	 * Creates a selection whose contents are created when they are requested first,
+	 * or when {@link #createContents()} is called. Null suppliers mean unsupported flavors.
+	 */
+	public MindMapNodesSelection(final Supplier<String> nodesContent,
+	                             final Supplier<String> stringContent, final Supplier<String> htmlContent) {
+		this.nodesContent = lazy(nodesContent);
+		this.stringContent = lazy(stringContent);
+		this.htmlContent = lazy(htmlContent);
+		this.dropActionContent = DnDConstants.ACTION_MOVE;
+	}
+
 	public MindMapNodesSelection(final String nodesContent, final String stringContent,
 	                             final String htmlContent) {
-		this.nodesContent = nodesContent;
-		this.stringContent = stringContent;
-		this.htmlContent = htmlContent;
-		this.dropActionContent = DnDConstants.ACTION_MOVE;
+		this(constant(nodesContent), constant(stringContent), constant(htmlContent));
 	}
 
 	public MindMapNodesSelection(final String nodesContent) {
 	    this(nodesContent, null, null);
     }
 
+	private static LazyContent lazy(final Supplier<String> supplier) {
+		return supplier != null ? new LazyContent(supplier) : null;
+	}
+
+	private static Supplier<String> constant(final String content) {
+		return content != null ? () -> content : null;
+	}
+
+	/** Creates all contents not requested yet, so that later changes of the copied nodes do not affect them. */
+	public void createContents() {
+		for (LazyContent content : new LazyContent[] {nodesContent, stringContent, htmlContent}) {
+			if (content != null)
+				content.get();
+		}
+	}
+
 	@Override
 	public Object getTransferData(final DataFlavor flavor) throws UnsupportedFlavorException {
-		if (flavor.equals(DataFlavor.stringFlavor)) {
-			return stringContent;
+		if (flavor.equals(DataFlavor.stringFlavor) && stringContent != null) {
+			return stringContent.get();
 		}
-		if (flavor.equals(MindMapNodesSelection.mindMapNodesFlavor)) {
-			return nodesContent;
+		if (flavor.equals(MindMapNodesSelection.mindMapNodesFlavor) && nodesContent != null) {
+			return nodesContent.get();
 		}
 		if (flavor.equals(MindMapNodesSelection.dropCopyActionFlavor)
 				|| flavor.equals(MindMapNodesSelection.dropLinkActionFlavor)) {
 			return dropActionContent;
 		}
 		if (flavor.equals(MindMapNodesSelection.htmlFlavor) && htmlContent != null) {
-			return htmlContent;
+			final String html = htmlContent.get();
+			if (html != null)
+				return html;
 		}
 		if (containsObjectsFor(flavor)) {
 			return nodes;
@@ -15,6 +15,7 @@ import java.util.Iterator;
 import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.util.HtmlUtils;
 import org.freeplane.core.util.LogUtils;
+import org.freeplane.features.filter.Filter;
 import org.freeplane.features.filter.FilterController;
 import org.freeplane.features.link.NodeLinks;
 import org.freeplane.features.map.NodeModel;
@@ -29,11 +30,16 @@ public class MindMapPlainTextWriter {
     private MindMapPlainTextWriter() {/**/}
 
     public String getAsPlainText(final Collection<NodeModel> selectedNodes, CopiedNodeSet copiedNodeSet) {
+        return getAsPlainText(selectedNodes, copiedNodeSet, null);
+    }
+
+    /** Writes the nodes using the given filter for filtered node sets, or the current filter of their map if it is null. */
+    public String getAsPlainText(final Collection<NodeModel> selectedNodes, CopiedNodeSet copiedNodeSet, Filter filter) {
         try {
             final StringWriter stringWriter = new StringWriter();
             try (final BufferedWriter fileout = new BufferedWriter(stringWriter)) {
                 for (final Iterator<NodeModel> it = selectedNodes.iterator(); it.hasNext();) {
-                    writeTXT(it.next(), copiedNodeSet, fileout,/* depth= */0);
+                    writeTXT(it.next(), copiedNodeSet, filter, fileout,/* depth= */0);
                 }
             }
             return stringWriter.toString();
@@ -43,14 +49,14 @@ public class MindMapPlainTextWriter {
             return null;
         }
     }
-    private void writeTXT(final NodeModel mindMapNodeModel, CopiedNodeSet copiedNodeSet, final Writer fileout, final int depth) throws IOException {
+    private void writeTXT(final NodeModel mindMapNodeModel, CopiedNodeSet copiedNodeSet, Filter filter, final Writer fileout, final int depth) throws IOException {
         boolean indentTextOutput = ResourceController.getResourceController().getBooleanProperty("indentTextOutput");
         boolean indentationUsesTabsInTextOutput = ResourceController.getResourceController().getBooleanProperty("indentationUsesTabsInTextOutput");
         String indentation = indentTextOutput ? (indentationUsesTabsInTextOutput ? "\t" : "    ") : "";
-        writeTXT(mindMapNodeModel, copiedNodeSet, fileout, depth, indentation);
+        writeTXT(mindMapNodeModel, copiedNodeSet, filter, fileout, depth, indentation);
     }
 
-    private void writeTXT(final NodeModel node, CopiedNodeSet copiedNodeSet, final Writer fileout, final int depth, String indentation) throws IOException {
+    private void writeTXT(final NodeModel node, CopiedNodeSet copiedNodeSet, Filter filter, final Writer fileout, final int depth, String indentation) throws IOException {
 		String core = getTransformedTextForClipboard(node, node, node.getUserObject());
 		writeMultilineTXT(fileout, depth, indentation, core);
 		if (NodeLinks.getValidLink(node) != null) {
@@ -69,7 +75,7 @@ public class MindMapPlainTextWriter {
 			String transformedNote = getTransformedTextForClipboard(node, NoteModel.getNote(node), noteText);
 			writeMultilineTXT(fileout, depth+1, indentation, transformedNote);
 		}
-        writeChildrenText(node, copiedNodeSet, fileout, depth, indentation);
+        writeChildrenText(node, copiedNodeSet, filter, fileout, depth, indentation);
     }
 
     private void writeMultilineTXT(final Writer fileout, final int depth, String indentation,
@@ -98,14 +104,14 @@ public class MindMapPlainTextWriter {
         return plainTextContent;
     }
 
-    private void writeChildrenText(final NodeModel node, CopiedNodeSet copiedNodeSet, final Writer fileout, final int depth, String indentation)
+    private void writeChildrenText(final NodeModel node, CopiedNodeSet copiedNodeSet, Filter filter, final Writer fileout, final int depth, String indentation)
             throws IOException {
         for (final NodeModel child : node.getChildren()) {
-            if (copiedNodeSet == CopiedNodeSet.ALL_NODES || child.hasVisibleContent(FilterController.getFilter(node.getMap()))) {
-                writeTXT(child, copiedNodeSet, fileout, depth + 1, indentation);
+            if (copiedNodeSet == CopiedNodeSet.ALL_NODES || child.hasVisibleContent(filter != null ? filter : FilterController.getFilter(node.getMap()))) {
+                writeTXT(child, copiedNodeSet, filter, fileout, depth + 1, indentation);
             }
             else {
-                writeChildrenText(child, copiedNodeSet, fileout, depth, indentation);
+                writeChildrenText(child, copiedNodeSet, filter, fileout, depth, indentation);
             }
         }
     }
@@ -74,7 +74,7 @@ class FNodeModel extends NodeModel {
 							MapModel map = getMap();
 							final FNodeModel fileNodeModel = new FNodeModel(childFile, map);
 							NodeLinks.createLinkExtension(fileNodeModel).setHyperLink(new Hyperlink(childFile.toURI()));
-							super.getChildrenInternal().add(childCount, fileNodeModel);
+							getModifiableChildrenInternal().add(childCount, fileNodeModel);
 							childCount++;
 							fileNodeModel.setParent(this);
 						}
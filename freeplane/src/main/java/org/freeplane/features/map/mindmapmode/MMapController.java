@@ -88,6 +88,7 @@ import org.freeplane.features.mode.ModeController;
 import org.freeplane.features.mode.mindmapmode.MModeController;
 import org.freeplane.features.nodelocation.mindmapmode.MLocationController;
 import org.freeplane.features.note.NoteController;
+import org.freeplane.features.note.NoteModel;
 import org.freeplane.features.note.mindmapmode.MNoteController;
 import org.freeplane.features.styles.LogicalStyleKeys;
 import org.freeplane.features.styles.LogicalStyleModel;
@@ -95,6 +96,7 @@ import org.freeplane.features.styles.MapStyleModel;
 import org.freeplane.features.styles.MapViewLayout;
 import org.freeplane.features.styles.mindmapmode.MLogicalStyleController;
 import org.freeplane.features.styles.mindmapmode.NewNodeStyle;
+import org.freeplane.features.text.DetailModel;
 import org.freeplane.features.text.TextController;
 import org.freeplane.features.text.mindmapmode.MTextController;
 import org.freeplane.features.ui.IMapViewManager;
@@ -115,6 +117,7 @@ public class MMapController extends MapController {
     public static final int NEW_SIBLING_BEFORE = 4;
     public static final int NEW_SIBLING_BEHIND = 3;
     public static final String RESOURCES_CONVERT_TO_CURRENT_VERSION = "convert_to_current_version";
+    private static final long ESTIMATED_NODE_SIZE = 400;
 
     public MMapController(ModeController modeController) {
         super(modeController);
@@ -472,6 +475,7 @@ public class MMapController extends MapController {
 
     private void deleteSingleNode(final NodeModel parentNode, final int index) {
         final NodeModel node = parentNode.getChildAt(index);
+        final long estimatedBranchSize = estimateBranchSize(node);
         final IActor actor = new IActor() {
             @Override
             public void act() {
@@ -483,6 +487,11 @@ public class MMapController extends MapController {
                 return "delete";
             }
 
+            @Override
+            public long getEstimatedSize() {
+                return DEFAULT_ESTIMATED_SIZE + estimatedBranchSize;
+            }
+
             @Override
             public void undo() {
                 insertNodeIntoWithoutUndo(node, parentNode, index);
@@ -491,6 +500,29 @@ public class MMapController extends MapController {
         Controller.getCurrentModeController().execute(actor, parentNode.getMap());
     }
 
+    /**
+     * Estimates the memory kept by the deleted branch, about 400 bytes per node and its texts.
+     * Child nodes which are not loaded yet are estimated by their kept xml, so that they are not loaded.
+     */
+    private long estimateBranchSize(final NodeModel node) {
+        long size = ESTIMATED_NODE_SIZE + IActor.estimateSize(node.getUserObject());
+        final NoteModel note = NoteModel.getNote(node);
+        if (note != null)
+            size += IActor.estimateSize(note.getXml());
+        final DetailModel details = DetailModel.getDetail(node);
+        if (details != null)
+            size += IActor.estimateSize(details.getXml());
+        final List<String> deferredChildNodesXml = node.getDeferredChildNodesXml();
+        if (! deferredChildNodesXml.isEmpty()) {
+            for (final String childNodeXml : deferredChildNodesXml)
+                size += IActor.estimateSize(childNodeXml);
+            return size;
+        }
+        for (final NodeModel child : node.getChildren())
+            size += estimateBranchSize(child);
+        return size;
+    }
+
     private void deleteWithoutUndo(final NodeModel parent, final int index) {
         final NodeModel child = parent.getChildAt(index);
         final NodeDeletionEvent nodeDeletionEvent = new NodeDeletionEvent(parent, child, index);
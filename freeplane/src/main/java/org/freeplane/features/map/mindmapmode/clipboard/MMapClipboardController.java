@@ -627,7 +627,7 @@ public class MMapClipboardController extends MapClipboardController implements M
 		return transferable;
 	}
 
-	private void cut(IMapSelection selection) {
+	void cut(IMapSelection selection) {
 		final List<NodeModel> collection = selection.getSortedSelection(true);
 		final MindMapNodesSelection transferable = copy(new SummaryGroupEdgeListAdder(collection).addSummaryEdgeNodes(), CopiedNodeSet.ALL_NODES, CopiedNodeSet.ALL_NODES);
 		((MMapController) Controller.getCurrentModeController().getMapController()).deleteNodes(collection);
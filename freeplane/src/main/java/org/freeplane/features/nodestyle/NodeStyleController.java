@@ -23,6 +23,7 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.font.TextAttribute;
 import java.util.Collection;
+import java.util.function.BiFunction;
 
 import org.freeplane.api.Dash;
 import org.freeplane.api.HorizontalTextAlignment;
@@ -81,6 +82,27 @@ public class NodeStyleController implements IExtension {
 	private static final Quantity<LengthUnit> DEFAULT_MINIMUM_WIDTH = new Quantity<LengthUnit>(0, LengthUnit.cm);
 	private static final Quantity<LengthUnit> DEFAULT_MAXIMUM_WIDTH = new Quantity<LengthUnit>(10, LengthUnit.cm);
 
+	/** Font derived from node styles together with the base font it was derived from. */
+	private static class StyleFont {
+		final Font baseFont;
+		final Font font;
+
+		StyleFont(Font baseFont, Font font) {
+			this.baseFont = baseFont;
+			this.font = font;
+		}
+	}
+
+	private static Font defaultFont;
+
+	private final BiFunction<MapModel, Collection<IStyle>, StyleFont> styleFontResolver = (map, styles) -> {
+		final Font baseFont = getDefaultFont();
+		return new StyleFont(baseFont, getStyleFont(baseFont, map, styles));
+	};
+	private final BiFunction<MapModel, Collection<IStyle>, Color> styleTextColorResolver = this::getStyleTextColor;
+	private final BiFunction<MapModel, Collection<IStyle>, Color> styleBackgroundColorResolver = this::getStyleBackgroundColor;
+	private final BiFunction<MapModel, Collection<IStyle>, NodeGeometryModel> styleShapeResolver = this::getStyleShape;
+
 	public NodeStyleController(final ModeController modeController) {
 		this.modeController = modeController;
 		new NodeCssHook();
@@ -94,8 +116,11 @@ public class NodeStyleController implements IExtension {
 		});
 		fontHandlers.addGetter(IPropertyHandler.STYLE, new IPropertyHandler<Font, NodeModel>() {
 			public Font getProperty(final NodeModel node, LogicalStyleController.StyleOption option, final Font currentValue) {
-				final Font defaultFont = getStyleFont(currentValue, node.getMap(), LogicalStyleController.getController(modeController).getStyles(node, option));
-				return defaultFont;
+				final LogicalStyleController styleController = LogicalStyleController.getController(modeController);
+				final StyleFont styleFont = styleController.getStyleProperty(node, option, styleFontResolver);
+				if (styleFont.baseFont.equals(currentValue))
+					return styleFont.font;
+				return getStyleFont(currentValue, node.getMap(), styleController.getStyles(node, option));
 			}
 		});
 		textColorHandlers = new ExclusivePropertyChain<>();
@@ -106,25 +131,21 @@ public class NodeStyleController implements IExtension {
 		});
 		textColorHandlers.addGetter(IPropertyHandler.STYLE, new IPropertyHandler<Color, NodeModel>() {
 			public Color getProperty(final NodeModel node, LogicalStyleController.StyleOption option, final Color currentValue) {
-				return getStyleTextColor(node.getMap(), LogicalStyleController.getController(modeController).getStyles(node, option));
+				return LogicalStyleController.getController(modeController).getStyleProperty(node, option, styleTextColorResolver);
 			}
 		});
 
 		backgroundColorHandlers = new ExclusivePropertyChain<>();
 		backgroundColorHandlers.addGetter(IPropertyHandler.STYLE, new IPropertyHandler<Color, NodeModel>() {
 			public Color getProperty(final NodeModel node, LogicalStyleController.StyleOption option, final Color currentValue) {
-				return getStyleBackgroundColor(node.getMap(), LogicalStyleController.getController(modeController).getStyles(node, option));
+				return LogicalStyleController.getController(modeController).getStyleProperty(node, option, styleBackgroundColorResolver);
 			}
 		});
 
 		shapeHandlers = new ExclusivePropertyChain<>();
 		shapeHandlers.addGetter(IPropertyHandler.STYLE, new IPropertyHandler<NodeGeometryModel, NodeModel>() {
 			public NodeGeometryModel getProperty(final NodeModel node, LogicalStyleController.StyleOption option, final NodeGeometryModel currentValue) {
-				final MapModel map = node.getMap();
-				final LogicalStyleController styleController = LogicalStyleController.getController(modeController);
-				final Collection<IStyle> style = styleController.getStyles(node, option);
-				final NodeGeometryModel returnedShape = getStyleShape(map, style);
-				return returnedShape;
+				return LogicalStyleController.getController(modeController).getStyleProperty(node, option, styleShapeResolver);
 			}
 		});
 		shapeHandlers.addGetter(IPropertyHandler.DEFAULT, new IPropertyHandler<NodeGeometryModel, NodeModel>() {
@@ -381,7 +402,12 @@ public class NodeStyleController implements IExtension {
 		final int fontSize = NodeStyleController.getDefaultFontSize();
 		final int fontStyle = NodeStyleController.getDefaultFontStyle();
 		final String fontFamily = NodeStyleController.getDefaultFontFamilyName();
-		return new Font(fontFamily, fontStyle, fontSize);
+		final Font font = defaultFont;
+		if (font != null && font.getSize() == fontSize && font.getStyle() == fontStyle && font.getName().equals(fontFamily))
+			return font;
+		final Font newFont = new Font(fontFamily, fontStyle, fontSize);
+		defaultFont = newFont;
+		return newFont;
 	}
 
 	/**
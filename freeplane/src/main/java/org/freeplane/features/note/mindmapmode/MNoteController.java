@@ -252,6 +252,13 @@ public class MNoteController extends NoteController {
                 return description;
             }
 
+            @Override
+            public long getEstimatedSize() {
+                return DEFAULT_ESTIMATED_SIZE
+                        + IActor.estimateSize(oldNote == null ? null : oldNote.getXml())
+                        + IActor.estimateSize(newNote == null ? null : newNote.getXml());
+            }
+
             @Override
             public void undo() {
                 setNote(oldNote);
@@ -20,15 +20,14 @@
 package org.freeplane.features.styles;
 
 import java.awt.Component;
-import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 import org.freeplane.core.extension.IExtension;
 import org.freeplane.core.io.IAttributeHandler;
@@ -42,17 +41,12 @@ import org.freeplane.core.undo.IActor;
 import org.freeplane.core.util.HtmlUtils;
 import org.freeplane.core.util.TextUtils;
 import org.freeplane.features.filter.condition.ASelectableCondition;
-import org.freeplane.features.map.IMapChangeListener;
-import org.freeplane.features.map.INodeChangeListener;
 import org.freeplane.features.map.ITooltipProvider;
 import org.freeplane.features.map.MapChangeEvent;
 import org.freeplane.features.map.MapController;
 import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeBuilder;
-import org.freeplane.features.map.NodeChangeEvent;
-import org.freeplane.features.map.NodeDeletionEvent;
 import org.freeplane.features.map.NodeModel;
-import org.freeplane.features.map.NodeMoveEvent;
 import org.freeplane.features.map.NodeWriter;
 import org.freeplane.features.map.ITooltipProvider.TooltipTrigger;
 import org.freeplane.features.mode.CombinedPropertyChain;
@@ -71,9 +65,6 @@ public class LogicalStyleController implements IExtension {
 	public static enum StyleOption{FOR_SELECTED_NODE, FOR_UNSELECTED_NODE, STYLES_ONLY}
 
     private static final int STYLE_TOOLTIP = 0;
-	private WeakReference<NodeModel> cachedNode;
-    private Collection<IStyle>  cachedStyles;
-    private List<IStyle>  cachedStylesForSelectedNode;
 	final private CombinedPropertyChain<Collection<IStyle>, NodeModel> styleHandlers;
 
 	public LogicalStyleController(ModeController modeController) {
@@ -155,44 +146,15 @@ public class LogicalStyleController implements IExtension {
 			if(conditionalStyleModel == null)
 				return;
 			Collection<IStyle> styles = conditionalStyleModel.getStyles(node);
-			cachedNode = null;
 			addAll(node, styleModel, currentValue, styles);
     }
 
 	private void registerChangeListener() {
 		ModeController modeController = Controller.getCurrentModeController();
 		final MapController mapController = modeController.getMapController();
-		mapController.addMapChangeListener(new IMapChangeListener() {
-			public void onPreNodeMoved(NodeMoveEvent nodeMoveEvent) {
-				clearCache();
-			}
-
-			public void onPreNodeDelete(NodeDeletionEvent nodeDeletionEvent) {
-				clearCache();
-			}
-
-			public void onNodeMoved(NodeMoveEvent nodeMoveEvent) {
-				clearCache();
-			}
-
-			public void onNodeInserted(NodeModel parent, NodeModel child, int newIndex) {
-				clearCache();
-			}
-
-			public void onNodeDeleted(NodeDeletionEvent nodeDeletionEvent) {
-				clearCache();
-			}
-
-			public void mapChanged(MapChangeEvent event) {
-				clearCache();
-			}
-		});
-		mapController.addNodeChangeListener(new INodeChangeListener() {
-			public void nodeChanged(NodeChangeEvent event) {
-				clearCache();
-			}
-		});
-
+		final StyleResolutionCache.Updater cacheUpdater = new StyleResolutionCache.Updater();
+		mapController.addMapChangeListener(cacheUpdater);
+		mapController.addNodeChangeListener(cacheUpdater);
     }
 
 	private void createBuilder() {
@@ -314,19 +276,51 @@ public class LogicalStyleController implements IExtension {
 		return MapStyleModel.DEFAULT_STYLE;
 	}
 	public Collection<IStyle>  getStyles(final NodeModel node, StyleOption option) {
-		if(cachedNode == null || !node.equals(cachedNode.get())) {
-		    cachedStyles = null;
-		    cachedNode = null;
-		    cachedStyles = Collections.unmodifiableCollection(styleHandlers.getProperty(node, option, new LinkedHashSet<IStyle>()));
-		    cachedNode = new WeakReference<NodeModel>(node);
-		    List<IStyle> withSelectedNode = new ArrayList<>(cachedStyles.size() + 1);
-		    withSelectedNode.add(MapStyleModel.SELECTION_STYLE);
-		    withSelectedNode.addAll(cachedStyles);
-		    cachedStylesForSelectedNode =  Collections.unmodifiableList(withSelectedNode);
+		return getResolvedStyles(node, option).getStyles(option);
+	}
+
+	/**
+	 * Returns a property derived from the styles of the node by the given resolver.
+	 * The result is kept together with the resolved styles of the node,
+	 * so the resolver should be a constant object and only depend on the style nodes of the map.
+	 */
+	public <T> T getStyleProperty(final NodeModel node, StyleOption option, BiFunction<MapModel, Collection<IStyle>, T> resolver) {
+		return getResolvedStyles(node, option).getProperty(node.getMap(), option, resolver);
+	}
+
+	private StyleResolutionCache.Entry getResolvedStyles(final NodeModel node, StyleOption option) {
+		final StyleResolutionCache cache = StyleResolutionCache.getCache(node.getMap());
+		if (cache == null)
+			return resolveStyles(node, option);
+		final StyleResolutionCache.Entry cachedEntry = cache.get(node);
+		if (cachedEntry != null)
+			return cachedEntry;
+		final int generation = cache.getGeneration();
+		final StyleResolutionCache.Entry entry = resolveStyles(node, option);
+		if (entry.isComplete())
+			cache.put(node, entry, generation);
+		return entry;
+	}
+
+	private StyleResolutionCache.Entry resolveStyles(final NodeModel node, StyleOption option) {
+		final Collection<IStyle> styles = styleHandlers.getProperty(node, option, new LinkedHashSet<IStyle>());
+		final MapModel map = node.getMap();
+		final List<ConditionalStyleModel> conditionalStyleModels = new ArrayList<>();
+		boolean isComplete = true;
+		if (!(map instanceof StyleMapModel)) {
+			final MapStyleModel styleModel = MapStyleModel.getExtension(map);
+			conditionalStyleModels.add(styleModel.getConditionalStyleModel());
+			for (IStyle style : styles) {
+				final NodeModel styleNode = styleModel.getStyleNode(style);
+				if (styleNode != null)
+					conditionalStyleModels.add(styleNode.getExtension(ConditionalStyleModel.class));
+			}
+			// conditional styles are disabled while their conditions are checked, so nested resolutions miss them
+			for (ConditionalStyleModel conditionalStyleModel : conditionalStyleModels)
+				isComplete = isComplete && (conditionalStyleModel == null || !conditionalStyleModel.isDisabled());
 		}
-		return option == StyleOption.FOR_SELECTED_NODE ? cachedStylesForSelectedNode :
-		    option == StyleOption.FOR_UNSELECTED_NODE ? cachedStyles :
-		        cachedStylesForSelectedNode.subList(2, cachedStylesForSelectedNode.size())    ;
+		return new StyleResolutionCache.Entry(styles, new ConditionalStyleChecker(
+		    conditionalStyleModels.toArray(new ConditionalStyleModel[conditionalStyleModels.size()])), isComplete);
 	}
 
 	public void moveConditionalStyleDown(final ConditionalStyleModel conditionalStyleModel, int index) {
@@ -371,11 +365,6 @@ public class LogicalStyleController implements IExtension {
 		conditionalStyleModel.setLast(index, isLast);
 	}
 
-	private void clearCache() {
-	    cachedStyles = null;
-	    cachedNode = null;
-    }
-
 	public IPropertyHandler<Collection<IStyle>, NodeModel> addStyleGetter(
 		final Integer key,
 		final IPropertyHandler<Collection<IStyle>, NodeModel> getter) {
@@ -403,7 +392,6 @@ public class LogicalStyleController implements IExtension {
 	public Collection<IStyle>  getConditionalMapStyles(final NodeModel node) {
 		final MapStyleModel styleModel = MapStyleModel.getExtension(node.getMap());
 		Collection<IStyle> condStyles = styleModel.getConditionalStyleModel().getStyles(node);
-		clearCache();
 		return getResursively(node, condStyles);
 	}
 
@@ -417,7 +405,6 @@ public class LogicalStyleController implements IExtension {
 		final ConditionalStyleModel conditionalStyleModel = node.getExtension(ConditionalStyleModel.class);
 		if(conditionalStyleModel != null) {
 			Collection<IStyle> styles = conditionalStyleModel.getStyles(node);
-			clearCache();
 			condStyles.addAll(styles);
 		}
 		final Collection<IStyle> all = getResursively(node, condStyles);
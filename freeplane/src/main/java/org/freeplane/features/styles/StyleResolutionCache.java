@@ -0,0 +1,279 @@
+package org.freeplane.features.styles;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.filter.Filter;
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.MapChangeEvent;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeMoveEvent;
+import org.freeplane.features.styles.LogicalStyleController.StyleOption;
+
+/**
+ * Keeps the resolved styles of the nodes of a map together with the properties derived from them,
+ * like fonts, colors and shapes.
+ *
+ * Entries of a changed node are removed. Entries of its parent and children are removed
+ * if the conditional styles used for them check the changed node.
+ * If any entry checks ancestors or descendants, any change clears the cache.
+ * Styles depending on conditions checking external state like the selection or scripts are not kept.
+ * Inserted and moved branches are removed completely because automatic level styles depend on the node depth.
+ * Changes of style maps and map changes clear the cache.
+ * If the cache is disabled, only the last resolved node is kept until the next change like before.
+ */
+public class StyleResolutionCache implements IExtension {
+	public static final String CACHE_PROPERTY = "style_resolution_cache";
+	private static final AtomicInteger styleMapVersion = new AtomicInteger();
+	private static final Object NULL_VALUE = new Object();
+
+	static class Entry {
+		private final Collection<IStyle> styles;
+		private final List<IStyle> stylesForSelectedNode;
+		private final boolean checksParent;
+		private final boolean checksAncestors;
+		private final boolean checksChildren;
+		private final boolean checksDescendants;
+		private final boolean isComplete;
+		private final Map<StyleOption, Map<Object, Object>> properties;
+
+		Entry(Collection<IStyle> styles, ConditionalStyleChecker conditionalStyles, boolean isComplete) {
+			this.styles = Collections.unmodifiableCollection(styles);
+			final List<IStyle> withSelectedNode = new ArrayList<>(styles.size() + 1);
+			withSelectedNode.add(MapStyleModel.SELECTION_STYLE);
+			withSelectedNode.addAll(styles);
+			this.stylesForSelectedNode = Collections.unmodifiableList(withSelectedNode);
+			this.checksParent = conditionalStyles.dependsOnCondition(ICondition::checksParent);
+			this.checksAncestors = conditionalStyles.dependsOnCondition(ICondition::checksAncestors);
+			this.checksChildren = conditionalStyles.dependsOnCondition(ICondition::checksChildren);
+			this.checksDescendants = conditionalStyles.dependsOnCondition(ICondition::checksDescendants);
+			this.isComplete = isComplete && !conditionalStyles.dependsOnConditionRecursively(ICondition::checksExternalState);
+			this.properties = new EnumMap<>(StyleOption.class);
+		}
+
+		/**
+		 * Returns false for styles which must not be kept, because they were resolved while conditional styles were checked
+		 * or depend on conditions checking external state like the selection.
+		 */
+		boolean isComplete() {
+			return isComplete;
+		}
+
+		Collection<IStyle> getStyles(StyleOption option) {
+			return option == StyleOption.FOR_SELECTED_NODE ? stylesForSelectedNode :
+			    option == StyleOption.FOR_UNSELECTED_NODE ? styles :
+			        stylesForSelectedNode.subList(2, stylesForSelectedNode.size());
+		}
+
+		@SuppressWarnings("unchecked")
+		<T> T getProperty(MapModel map, StyleOption option, BiFunction<MapModel, Collection<IStyle>, T> resolver) {
+			synchronized (this) {
+				final Map<Object, Object> optionProperties = properties.get(option);
+				final Object value = optionProperties != null ? optionProperties.get(resolver) : null;
+				if (value != null)
+					return value == NULL_VALUE ? null : (T) value;
+			}
+			final T value = resolver.apply(map, getStyles(option));
+			synchronized (this) {
+				properties.computeIfAbsent(option, x -> new HashMap<>()).put(resolver, value != null ? value : NULL_VALUE);
+			}
+			return value;
+		}
+
+		private boolean dependsOnRelatives() {
+			return checksParent || checksAncestors || checksChildren || checksDescendants;
+		}
+	}
+
+	static class Updater implements INodeChangeListener, IMapChangeListener {
+		@Override
+		public int priority() {
+			return 0;
+		}
+
+		@Override
+		public boolean isNotifiedDuringBatch() {
+			return true;
+		}
+
+		@Override
+		public void nodeChanged(NodeChangeEvent event) {
+			onChange(event.getNode(), null);
+		}
+
+		@Override
+		public void mapChanged(MapChangeEvent event) {
+			if (Filter.class.equals(event.getProperty()))
+				return;
+			final MapModel map = event.getMap();
+			if (map instanceof StyleMapModel)
+				styleMapVersion.incrementAndGet();
+			else if (map != null) {
+				final StyleResolutionCache cache = map.getExtension(StyleResolutionCache.class);
+				if (cache != null)
+					cache.clear();
+			}
+		}
+
+		@Override
+		public void onNodeDeleted(NodeDeletionEvent nodeDeletionEvent) {
+			onChange(nodeDeletionEvent.parent, null);
+		}
+
+		@Override
+		public void onNodeInserted(NodeModel parent, NodeModel child, int newIndex) {
+			onChange(parent, child);
+		}
+
+		@Override
+		public void onNodeMoved(NodeMoveEvent nodeMoveEvent) {
+			onChange(nodeMoveEvent.oldParent, null);
+			onChange(nodeMoveEvent.newParent, nodeMoveEvent.child);
+		}
+
+		private void onChange(NodeModel node, NodeModel insertedBranch) {
+			final MapModel map = node.getMap();
+			if (map instanceof StyleMapModel) {
+				styleMapVersion.incrementAndGet();
+				return;
+			}
+			final StyleResolutionCache cache = map != null ? map.getExtension(StyleResolutionCache.class) : null;
+			if (cache == null)
+				return;
+			synchronized (cache) {
+				if (insertedBranch != null)
+					cache.removeBranch(insertedBranch);
+				cache.invalidate(node);
+			}
+		}
+	}
+
+	private final Map<NodeModel, Entry> entries;
+	private final boolean keepsOnlyLastNode;
+	private int version;
+	private int generation;
+	private boolean containsEntriesCheckingAncestors;
+	private boolean containsEntriesCheckingDescendants;
+	private boolean containsEntriesCheckingRelatives;
+
+	private StyleResolutionCache(boolean keepsOnlyLastNode) {
+		this.entries = new WeakHashMap<>();
+		this.keepsOnlyLastNode = keepsOnlyLastNode;
+		this.version = styleMapVersion.get();
+	}
+
+	/** Returns the cache of the given map, or null if the map is a style map. */
+	static StyleResolutionCache getCache(MapModel map) {
+		if (map == null || map instanceof StyleMapModel)
+			return null;
+		final StyleResolutionCache cache = map.getExtension(StyleResolutionCache.class);
+		final boolean keepsOnlyLastNode = !ResourceController.getResourceController().getBooleanProperty(CACHE_PROPERTY);
+		if (cache != null && cache.keepsOnlyLastNode == keepsOnlyLastNode)
+			return cache;
+		final StyleResolutionCache newCache = new StyleResolutionCache(keepsOnlyLastNode);
+		map.putExtension(StyleResolutionCache.class, newCache);
+		return newCache;
+	}
+
+	synchronized Entry get(NodeModel node) {
+		final int currentVersion = styleMapVersion.get();
+		if (version != currentVersion) {
+			clear();
+			version = currentVersion;
+			return null;
+		}
+		return entries.get(node);
+	}
+
+	/** Returns a number changed by each removal, so that entries resolved concurrently with removals are not stored. */
+	synchronized int getGeneration() {
+		return generation;
+	}
+
+	synchronized void put(NodeModel node, Entry entry, int resolutionGeneration) {
+		if (generation != resolutionGeneration || version != styleMapVersion.get())
+			return;
+		if (keepsOnlyLastNode)
+			entries.clear();
+		entries.put(node, entry);
+		containsEntriesCheckingAncestors = containsEntriesCheckingAncestors || entry.checksAncestors;
+		containsEntriesCheckingDescendants = containsEntriesCheckingDescendants || entry.checksDescendants;
+		containsEntriesCheckingRelatives = containsEntriesCheckingRelatives || entry.dependsOnRelatives();
+	}
+
+	synchronized void clear() {
+		generation++;
+		entries.clear();
+		containsEntriesCheckingAncestors = false;
+		containsEntriesCheckingDescendants = false;
+		containsEntriesCheckingRelatives = false;
+	}
+
+	private void removeBranch(NodeModel node) {
+		if (keepsOnlyLastNode) {
+			clear();
+			return;
+		}
+		generation++;
+		entries.remove(node);
+		if (node.hasDeferredChildren())
+			return;
+		for (NodeModel child : node.getChildren())
+			removeBranch(child);
+	}
+
+	/**
+	 * Removes the entry of the changed node and the entries of its parent and children checking it.
+	 * Removed relatives are handled like changed nodes because conditions can also check styles.
+	 * Entries checking ancestors or descendants can depend on nodes anywhere in the branch, so the cache is cleared
+	 * instead of visiting the branch. Child nodes which are not loaded yet have no entries and are not visited.
+	 */
+	private void invalidate(NodeModel changedNode) {
+		if (keepsOnlyLastNode || containsEntriesCheckingAncestors || containsEntriesCheckingDescendants) {
+			clear();
+			return;
+		}
+		generation++;
+		entries.remove(changedNode);
+		if (!containsEntriesCheckingRelatives)
+			return;
+		final Deque<NodeModel> changedNodes = new ArrayDeque<>();
+		changedNodes.add(changedNode);
+		while (!changedNodes.isEmpty()) {
+			final NodeModel node = changedNodes.remove();
+			final List<NodeModel> children = node.hasDeferredChildren() ? Collections.<NodeModel>emptyList() : node.getChildren();
+			for (NodeModel child : children) {
+				final Entry entry = entries.get(child);
+				if (entry != null && entry.checksParent) {
+					entries.remove(child);
+					changedNodes.add(child);
+				}
+			}
+			final NodeModel parent = node.getParentNode();
+			if (parent != null) {
+				final Entry entry = entries.get(parent);
+				if (entry != null && entry.checksChildren) {
+					entries.remove(parent);
+					changedNodes.add(parent);
+				}
+			}
+		}
+	}
+}
@@ -27,11 +27,12 @@ import javax.swing.Icon;
 import org.freeplane.core.util.TextUtils;
 import org.freeplane.features.filter.StringMatchingStrategy;
 import org.freeplane.features.filter.condition.ASelectableCondition;
+import org.freeplane.features.filter.condition.IParallelCondition;
 import org.freeplane.features.filter.condition.StringConditionAdapter;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.n3.nanoxml.XMLElement;
 
-public class NodeContainsCondition extends StringConditionAdapter implements NodeItemRelation {
+public class NodeContainsCondition extends StringConditionAdapter implements NodeItemRelation, IParallelCondition {
 	static final String IGNORE_CASE_NAME = "node_contains_condition";
 	static final String MATCH_CASE_NAME = "match_case_node_contains_condition";
     public static final String VALUE = "VALUE";
@@ -76,6 +77,16 @@ public class NodeContainsCondition extends StringConditionAdapter implements Nod
 		return checkText(content);
 	}
 
+	@Override
+	public Object collectNodeData(NodeModel node) {
+		return NodeTextConditionController.getTextsForComparison(nodeItem, node);
+	}
+
+	@Override
+	public boolean checkNodeData(Object nodeData) {
+		return checkText(NodeTextConditionController.toPlainTexts((String[]) nodeData));
+	}
+
 	private boolean checkText(Object content[]) {
 		for(Object o : content){
 			if(checkText(o))
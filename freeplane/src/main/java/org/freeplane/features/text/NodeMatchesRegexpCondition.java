@@ -31,11 +31,12 @@ import org.freeplane.features.filter.condition.ASelectableCondition;
 import org.freeplane.features.filter.condition.CompareConditionAdapter;
 import org.freeplane.features.filter.condition.ConditionFactory;
 import org.freeplane.features.filter.condition.ConditionFactory.ConditionOperator;
+import org.freeplane.features.filter.condition.IParallelCondition;
 import org.freeplane.features.filter.condition.StringConditionAdapter;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.n3.nanoxml.XMLElement;
 
-public class NodeMatchesRegexpCondition extends ASelectableCondition implements NodeItemRelation {
+public class NodeMatchesRegexpCondition extends ASelectableCondition implements NodeItemRelation, IParallelCondition {
 	static final String NAME = "node_matches_regexp";
 	static final String SEARCH_PATTERN = "SEARCH_PATTERN";
 
@@ -68,6 +69,16 @@ public class NodeMatchesRegexpCondition extends ASelectableCondition implements
 		return content != null && checkText(content);
 	}
 
+	@Override
+	public Object collectNodeData(NodeModel node) {
+		return NodeTextConditionController.getTextsForComparison(nodeItem, node);
+	}
+
+	@Override
+	public boolean checkNodeData(Object nodeData) {
+		return checkText(NodeTextConditionController.toPlainTexts((String[]) nodeData));
+	}
+
 	private boolean checkText(Object content[]) {
 		for(Object o : content){
 			if(o != null && checkText(o.toString()))
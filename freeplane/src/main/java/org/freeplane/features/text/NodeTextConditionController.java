@@ -197,17 +197,52 @@ class NodeTextConditionController implements IElementaryConditionController {
 			return new Object[] { getItemForComparison(nodeItem, node) };
 	}
 
+	/**
+	 * Returns the same texts as {@link #getItemsForComparison(Object, NodeModel)} converted to strings,
+	 * but does not convert html to plain text.
+	 * The conversion is done by {@link #toPlainTexts(String[])}, which unlike this method can be called on any thread.
+	 */
+	public static String[] getTextsForComparison(Object nodeItem, final NodeModel node) {
+		if (nodeItem.equals(TextController.FILTER_ANYTEXT)) {
+			return new String[] {
+					getTextForComparison(TextController.FILTER_NODE, node),
+					getTextForComparison(TextController.FILTER_DETAILS, node),
+			        getTextForComparison(TextController.FILTER_NOTE, node) };
+		}
+		else
+			return new String[] { getTextForComparison(nodeItem, node) };
+	}
+
+	public static String[] toPlainTexts(String[] texts) {
+		final String[] plainTexts = new String[texts.length];
+		for (int i = 0; i < texts.length; i++)
+			plainTexts[i] = HtmlUtils.htmlToPlain(texts[i]);
+		return plainTexts;
+	}
+
 	private static Object getItemForComparison(Object nodeItem, final NodeModel node) {
+		final Object result = getItemForComparison(nodeItem, node, true);
+		if(result instanceof String)
+			return HtmlUtils.htmlToPlain((String)result);
+		return result;
+	}
+
+	private static String getTextForComparison(Object nodeItem, final NodeModel node) {
+		final Object result = getItemForComparison(nodeItem, node, false);
+		return result != null ? result.toString() : null;
+	}
+
+	private static Object getItemForComparison(Object nodeItem, final NodeModel node, boolean transformsHtmlToPlain) {
 		final Object result;
 		if(nodeItem.equals(TextController.FILTER_NODE)){
-			result = transformedObject(node);
+			result = transformedObject(node, transformsHtmlToPlain);
 		}
 		else if(nodeItem.equals(TextController.FILTER_PARENT_TEXT)){
 			final NodeModel parentNode = node.getParentNode();
 			if(parentNode == null)
 				result = null;
 			else
-				result = transformedObject(parentNode);
+				result = transformedObject(parentNode, transformsHtmlToPlain);
 		}
 		else if(nodeItem.equals(TextController.FILTER_DETAILS)){
 			result = DetailModel.getDetailText(node);
@@ -217,18 +252,16 @@ class NodeTextConditionController implements IElementaryConditionController {
 		}
 		else
 			result = null;
-		if(result instanceof String)
-			return HtmlUtils.htmlToPlain((String)result);
 		return result;
     }
 
-	private static Object transformedObject(final NodeModel node) {
+	private static Object transformedObject(final NodeModel node, boolean transformsHtmlToPlain) {
 		TextController textController = TextController.getController();
         Object object = textController.withNodeNumbering( false, () -> textController.getTransformedObjectNoThrow(node));
         if(object instanceof Icon || object instanceof Image)
             object = node.getText();
-        if (object instanceof String)
-            return HtmlUtils.htmlToPlain((String)object);
+        if (transformsHtmlToPlain && object instanceof String)
+            return textController.withNodeNumbering(false, () -> textController.getPlainTransformedText(node));
         else
             return object;
 	}
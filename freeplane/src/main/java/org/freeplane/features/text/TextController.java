@@ -79,6 +79,7 @@ public class TextController implements IExtension {
 	private final List<IContentTransformer> textTransformers;
 	protected final ModeController modeController;
 	private boolean nodeNumberingEnabled = true;
+	private int transformerVersion = 0;
 
 	public static boolean isMarkTransformedTextSet() {
 		return Controller.getCurrentController().getResourceController().getBooleanProperty(MARK_TRANSFORMED_TEXT);
@@ -124,6 +125,10 @@ public class TextController implements IExtension {
 		// this IContentTransformer is unconditional because its outcome
 		// is explicitly defined by the user (assigning a format)!
 		addTextTransformer(new FormatContentTransformer(this, 50));
+		final TransformedTextCache.Updater transformedTextCacheUpdater = new TransformedTextCache.Updater();
+		mapController.addNodeChangeListener(transformedTextCacheUpdater);
+		mapController.addMapChangeListener(transformedTextCacheUpdater);
+		ResourceController.getResourceController().addPropertyChangeListener((propertyName, newValue, oldValue) -> transformerVersion++);
 		registerDetailsTooltip();
 		registerNodeTextTooltip();
 	}
@@ -131,6 +136,7 @@ public class TextController implements IExtension {
     public void addTextTransformer(IContentTransformer textTransformer) {
 		textTransformers.add(textTransformer);
 		Collections.sort(textTransformers);
+		transformerVersion++;
 	}
 
 	public List<IContentTransformer> getTextTransformers() {
@@ -139,6 +145,7 @@ public class TextController implements IExtension {
 
 	public void removeTextTransformer(IContentTransformer textTransformer) {
 		textTransformers.remove(textTransformer);
+		transformerVersion++;
 	}
 
 	public String getText(NodeModel nodeModel) {
@@ -204,24 +211,63 @@ public class TextController implements IExtension {
 	}
 
     public Object getTransformedObjectNoFormattingNoThrow(final NodeModel node, Object nodeProperty, Object data) {
+		try {
+			final TransformedTextCache.Entry cachedTransformation = getCachedTransformation(node, nodeProperty, data);
+			if (cachedTransformation != null)
+				return cachedTransformation.getTransformedObject();
+		}
+		catch (Throwable e) {
+			return transformationError(data, e);
+		}
         return getTransformedObjectNoFormattingNoThrow(node, nodeProperty, data, Mode.VIEW);
     }
 
 	private Object getTransformedObjectNoFormattingNoThrow(final NodeModel node, Object nodeProperty, Object data, Mode mode) {
 		try {
-			Object transformedObject = getTransformedObject(node, nodeProperty, data, mode, null);
-			if (transformedObject instanceof HighlightedTransformedObject)
-				transformedObject =  ((HighlightedTransformedObject) transformedObject).getObject();
-			if (transformedObject instanceof IFormattedObject)
-				transformedObject =  ((IFormattedObject) transformedObject).getObject();
-			return transformedObject;
+			return getTransformedObjectNoFormatting(node, nodeProperty, data, mode);
 		}
 		catch (Throwable e) {
-			LogUtils.warn(e.getMessage());
-			return TextUtils.format("MainView.errorUpdateText", data, e.getLocalizedMessage());
+			return transformationError(data, e);
 		}
 	}
 
+	private Object getTransformedObjectNoFormatting(final NodeModel node, Object nodeProperty, Object data, Mode mode)
+	        throws TransformationException {
+		Object transformedObject = getTransformedObject(node, nodeProperty, data, mode, null);
+		if (transformedObject instanceof HighlightedTransformedObject)
+			transformedObject =  ((HighlightedTransformedObject) transformedObject).getObject();
+		if (transformedObject instanceof IFormattedObject)
+			transformedObject =  ((IFormattedObject) transformedObject).getObject();
+		return transformedObject;
+	}
+
+	private String transformationError(Object data, Throwable e) {
+		LogUtils.warn(e.getMessage());
+		return TextUtils.format("MainView.errorUpdateText", data, e.getLocalizedMessage());
+	}
+
+	/**
+	 * Returns the cached result of {@link #getTransformedObjectNoFormatting} and caches it on a cache miss.
+	 * Returns null if the map has no cache or the data is a formula.
+	 * Formula values depend on other nodes and are cached by the formula plugin itself.
+	 */
+	private TransformedTextCache.Entry getCachedTransformation(final NodeModel node, Object nodeProperty, Object data)
+	        throws TransformationException {
+		if (node == null || data == null)
+			return null;
+		final TransformedTextCache cache = TransformedTextCache.getCache(node.getMap());
+		if (cache == null || isFormula(data))
+			return null;
+		final TransformedTextCache.Entry entry = cache.get(node, nodeProperty, data, nodeNumberingEnabled, transformerVersion);
+		if (entry != null)
+			return entry;
+		final int transformerVersionBeforeTransformation = transformerVersion;
+		final Object transformedObject = getTransformedObjectNoFormatting(node, nodeProperty, data, Mode.VIEW);
+		final boolean isNumbered = nodeProperty == node && getNodeNumbering(node);
+		return cache.put(node, nodeProperty, data, nodeNumberingEnabled, isNumbered,
+		    transformerVersionBeforeTransformation, transformedObject);
+	}
+
 	public Object getTransformedObject(NodeModel node) throws TransformationException {
 		return getTransformedObject(node, null);
 	}
@@ -260,6 +306,14 @@ public class TextController implements IExtension {
 
 	/** returns transformed text converted to plain text. */
 	public String getPlainTransformedText(NodeModel nodeModel) {
+		try {
+			final TransformedTextCache.Entry cachedTransformation = getCachedTransformation(nodeModel, nodeModel, nodeModel.getUserObject());
+			if (cachedTransformation != null)
+				return cachedTransformation.getPlainText();
+		}
+		catch (Throwable e) {
+			// the transformation is repeated below for reporting the error
+		}
 		return HtmlUtils.htmlToPlain(getTransformedTextNoThrow(nodeModel));
 	}
 
@@ -0,0 +1,238 @@
+package org.freeplane.features.text;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.util.HtmlUtils;
+import org.freeplane.features.filter.Filter;
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.MapChangeEvent;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeMoveEvent;
+import org.freeplane.features.nodestyle.NodeStyleController;
+import org.freeplane.features.styles.ConditionalStyleModel;
+import org.freeplane.features.styles.MapStyleModel;
+
+/**
+ * Keeps transformed node contents and their plain text representation of the recently used nodes of a map.
+ *
+ * Entries are keyed by node, node property and content, because all attributes of a node share one node property.
+ * Entries of a node are removed when the node is changed. Formulas are not cached here.
+ * Transformations depending on other nodes, like node numbering and conditional styles checking relatives,
+ * clear the whole cache on any change.
+ */
+public class TransformedTextCache implements IExtension {
+	public static final String CACHE_SIZE_PROPERTY = "transformed_text_cache_size";
+
+	static class Entry {
+		private final Object nodeProperty;
+		private final Object content;
+		private final boolean nodeNumbering;
+		private final int transformerVersion;
+		private final Object transformedObject;
+		private String plainText;
+
+		Entry(Object nodeProperty, Object content, boolean nodeNumbering, int transformerVersion, Object transformedObject) {
+			this.nodeProperty = nodeProperty;
+			this.content = content;
+			this.nodeNumbering = nodeNumbering;
+			this.transformerVersion = transformerVersion;
+			this.transformedObject = transformedObject;
+		}
+
+		boolean matches(Object nodeProperty, Object content, boolean nodeNumbering, int transformerVersion) {
+			return this.nodeProperty == nodeProperty
+			        && this.nodeNumbering == nodeNumbering
+			        && this.transformerVersion == transformerVersion
+			        && (this.content == content || this.content != null && this.content.equals(content));
+		}
+
+		Object getTransformedObject() {
+			return transformedObject;
+		}
+
+		String getPlainText() {
+			if (plainText == null)
+				plainText = HtmlUtils.htmlToPlain(transformedObject.toString());
+			return plainText;
+		}
+	}
+
+	static class Updater implements INodeChangeListener, IMapChangeListener {
+		@Override
+		public int priority() {
+			return 0;
+		}
+
+		@Override
+		public boolean isNotifiedDuringBatch() {
+			return true;
+		}
+
+		@Override
+		public void nodeChanged(NodeChangeEvent event) {
+			final NodeModel node = event.getNode();
+			final TransformedTextCache cache = getExistingCache(node.getMap());
+			if (cache == null)
+				return;
+			if (cache.containsNumberedNodes
+			        || NodeStyleController.NODE_NUMBERING.equals(event.getProperty())
+			        || conditionalStylesCheckRelatives(node.getMap()))
+				cache.clear();
+			else {
+				cache.remove(node);
+				if (node.hasDeferredChildren())
+					return;
+				for (NodeModel child : node.getChildren()) {
+					final ConditionalStyleModel childStyles = child.getExtension(ConditionalStyleModel.class);
+					if (childStyles != null && childStyles.dependsOnCondition(ICondition::checksParent))
+						cache.remove(child);
+				}
+			}
+		}
+
+		@Override
+		public void mapChanged(MapChangeEvent event) {
+			if (Filter.class.equals(event.getProperty()))
+				return;
+			final TransformedTextCache cache = getExistingCache(event.getMap());
+			if (cache != null)
+				cache.clear();
+		}
+
+		@Override
+		public void onNodeDeleted(NodeDeletionEvent nodeDeletionEvent) {
+			onStructureChange(nodeDeletionEvent.parent);
+		}
+
+		@Override
+		public void onNodeInserted(NodeModel parent, NodeModel child, int newIndex) {
+			onStructureChange(parent);
+		}
+
+		@Override
+		public void onNodeMoved(NodeMoveEvent nodeMoveEvent) {
+			onStructureChange(nodeMoveEvent.oldParent);
+			onStructureChange(nodeMoveEvent.newParent);
+		}
+
+		private void onStructureChange(NodeModel parent) {
+			final TransformedTextCache cache = getExistingCache(parent.getMap());
+			if (cache == null)
+				return;
+			if (cache.containsNumberedNodes || conditionalStylesCheckRelatives(parent.getMap()))
+				cache.clear();
+			else
+				cache.remove(parent);
+		}
+
+		private boolean conditionalStylesCheckRelatives(MapModel map) {
+			final MapStyleModel mapStyleModel = MapStyleModel.getExtension(map);
+			if (mapStyleModel == null)
+				return false;
+			final ConditionalStyleModel conditionalStyles = mapStyleModel.getConditionalStyleModel();
+			return conditionalStyles.dependsOnCondition(ICondition::checksParent)
+			        || conditionalStyles.dependsOnCondition(ICondition::checksAncestors)
+			        || conditionalStyles.dependsOnCondition(ICondition::checksChildren)
+			        || conditionalStyles.dependsOnCondition(ICondition::checksDescendants);
+		}
+	}
+
+	private final Map<NodeModel, List<Entry>> entries;
+	private final int maximumNodeCount;
+	private boolean containsNumberedNodes;
+	private long hitCount;
+	private long missCount;
+
+	@SuppressWarnings("serial")
+	private TransformedTextCache(int maximumNodeCount) {
+		this.maximumNodeCount = maximumNodeCount;
+		this.entries = new LinkedHashMap<NodeModel, List<Entry>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<NodeModel, List<Entry>> eldest) {
+				return size() > TransformedTextCache.this.maximumNodeCount;
+			}
+		};
+		this.containsNumberedNodes = false;
+	}
+
+	/** Returns the cache of the given map, or null if caching is disabled. */
+	static TransformedTextCache getCache(MapModel map) {
+		if (map == null)
+			return null;
+		final TransformedTextCache cache = map.getExtension(TransformedTextCache.class);
+		final int maximumNodeCount = ResourceController.getResourceController().getIntProperty(CACHE_SIZE_PROPERTY, 0);
+		if (cache != null && cache.maximumNodeCount == maximumNodeCount)
+			return cache;
+		if (maximumNodeCount <= 0) {
+			map.removeExtension(TransformedTextCache.class);
+			return null;
+		}
+		final TransformedTextCache newCache = new TransformedTextCache(maximumNodeCount);
+		map.putExtension(TransformedTextCache.class, newCache);
+		return newCache;
+	}
+
+	public static TransformedTextCache getExistingCache(MapModel map) {
+		return map != null ? map.getExtension(TransformedTextCache.class) : null;
+	}
+
+	synchronized Entry get(NodeModel node, Object nodeProperty, Object content, boolean nodeNumbering, int transformerVersion) {
+		final List<Entry> nodeEntries = entries.get(node);
+		if (nodeEntries != null) {
+			for (Entry entry : nodeEntries) {
+				if (entry.matches(nodeProperty, content, nodeNumbering, transformerVersion)) {
+					hitCount++;
+					return entry;
+				}
+			}
+		}
+		missCount++;
+		return null;
+	}
+
+	synchronized Entry put(NodeModel node, Object nodeProperty, Object content, boolean nodeNumbering, boolean isNumbered,
+	                       int transformerVersion, Object transformedObject) {
+		final Entry entry = new Entry(nodeProperty, content, nodeNumbering, transformerVersion, transformedObject);
+		List<Entry> nodeEntries = entries.get(node);
+		if (nodeEntries == null) {
+			nodeEntries = new ArrayList<>(2);
+			entries.put(node, nodeEntries);
+		}
+		else
+			nodeEntries.removeIf(e -> e.matches(nodeProperty, content, nodeNumbering, e.transformerVersion));
+		nodeEntries.add(entry);
+		containsNumberedNodes = containsNumberedNodes || isNumbered;
+		return entry;
+	}
+
+	synchronized void remove(NodeModel node) {
+		entries.remove(node);
+	}
+
+	synchronized void clear() {
+		entries.clear();
+		containsNumberedNodes = false;
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	public synchronized int getNodeCount() {
+		return entries.size();
+	}
+}
@@ -581,6 +581,11 @@ public class MTextController extends TextController {
 				return "setNodeText";
 			}
 
+			@Override
+			public long getEstimatedSize() {
+				return DEFAULT_ESTIMATED_SIZE + IActor.estimateSize(oldText) + IActor.estimateSize(newObject);
+			}
+
 			@Override
 			public void undo() {
 				if (!newObject.equals(oldText)) {
@@ -708,6 +713,13 @@ public class MTextController extends TextController {
                 return description;
             }
 
+            @Override
+            public long getEstimatedSize() {
+                return DEFAULT_ESTIMATED_SIZE
+                        + IActor.estimateSize(oldDetails == null ? null : oldDetails.getXml())
+                        + IActor.estimateSize(newDetails == null ? null : newDetails.getXml());
+            }
+
             @Override
             public void undo() {
                 setDetails(oldDetails);
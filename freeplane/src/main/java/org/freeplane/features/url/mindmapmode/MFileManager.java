@@ -76,6 +76,7 @@ import org.freeplane.core.util.Compat;
 import org.freeplane.core.util.FileUtils;
 import org.freeplane.core.util.Hyperlink;
 import org.freeplane.core.util.LogUtils;
+import org.freeplane.core.util.ReadAheadReader;
 import org.freeplane.core.util.TextUtils;
 import org.freeplane.features.link.LinkController;
 import org.freeplane.features.map.DocuMapAttribute;
@@ -104,6 +105,10 @@ import org.freeplane.view.swing.features.filepreview.MindMapPreviewWithOptions;
 public class MFileManager extends UrlManager implements IMapViewChangeListener {
 	public static final String STANDARD_TEMPLATE = "standard_template";
 	private static final String DEFAULT_SAVE_DIR_PROPERTY = "default_save_dir";
+	private static final String READ_AHEAD_ON_LOADING_PROPERTY = "read_ahead_on_map_loading";
+	private static final long READ_AHEAD_MINIMAL_FILE_SIZE = 1 << 20;
+	private static final int READ_AHEAD_CHUNK_SIZE = 1 << 16;
+	private static final int READ_AHEAD_CHUNK_COUNT = 4;
     static final String BACKUP_DIR = ".backup";
 	private static final int DEBUG_OFFSET = 0;
 
@@ -598,6 +603,9 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
 		}
 		else {
 			reader = new InputStreamReader(sequencedInput, StandardCharsets.UTF_8);
+			if (file.length() >= READ_AHEAD_MINIMAL_FILE_SIZE
+			        && ResourceController.getResourceController().getBooleanProperty(READ_AHEAD_ON_LOADING_PROPERTY))
+				reader = new ReadAheadReader(reader, READ_AHEAD_CHUNK_SIZE, READ_AHEAD_CHUNK_COUNT);
 		}
         return reader;
     }
@@ -14,10 +14,12 @@ import java.nio.file.Paths;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.concurrent.TimeUnit;
 
 import org.freeplane.core.resources.TranslatedObject;
 import org.freeplane.core.undo.IUndoHandler;
 import org.freeplane.core.util.Compat;
+import org.freeplane.core.util.LogUtils;
 import org.freeplane.features.map.DocuMapAttribute;
 import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.MapWriter.Mode;
@@ -45,6 +47,8 @@ public class MapLoader{
 	private boolean asDocumentation;
 	private String selectedNodeId;
 	private InputStream inputStream;
+	private long readTime;
+	private long mapCreationTime;
 
 
 	public MapLoader(ModeController modeController) {
@@ -134,13 +138,20 @@ public class MapLoader{
 					map = loadMap();
 					if(map == null)
 					    return null;
+					long viewCreationTime = 0;
 					if (withView) {
 						final File newFile = urlToFileOrNull(newMapLocation);
 						if(newFile != null && ! asDocumentation)
 							fileManager().lock(map, newFile);
+						final long viewCreationStart = System.nanoTime();
 						createMapView(map);
+						viewCreationTime = System.nanoTime() - viewCreationStart;
 						enableAutosave(map);
 					}
+					LogUtils.info(String.format("loaded %s: read %d ms, map created %d ms, view %d ms",
+					    sourceLocation != null ? sourceLocation : "map",
+					    TimeUnit.NANOSECONDS.toMillis(readTime), TimeUnit.NANOSECONDS.toMillis(mapCreationTime),
+					    TimeUnit.NANOSECONDS.toMillis(viewCreationTime)));
 				}
 				finally {
 					setWaitingCursor(false);
@@ -217,6 +228,7 @@ public class MapLoader{
 		if(actualSourceLocation == null)
 		    return null;
 		final MMapModel map = createMindMap();
+		final long readStart = System.nanoTime();
 		try {
 			AccessController.doPrivileged(new PrivilegedExceptionAction<Void>() {
 
@@ -236,6 +248,7 @@ public class MapLoader{
 		} catch (PrivilegedActionException e) {
 			throw new RuntimeException(e.getCause());
 		}
+		readTime = System.nanoTime() - readStart;
 
 		if (map.getRootNode() == null)
 			map.createNewRoot();
@@ -256,7 +269,9 @@ public class MapLoader{
 			map.setSaved(actualSourceLocation != null && actualSourceLocation.equals(newMapLocation));
 		}
 		mapController().addLoadedMap(map);
+		final long mapCreationStart = System.nanoTime();
 		mapController().fireMapCreated(map);
+		mapCreationTime = System.nanoTime() - mapCreationStart;
 		setFollowedMapProperties(map);
 		return map;
 	}
@@ -17,6 +17,7 @@
 package org.freeplane.n3.nanoxml;
 
 import java.io.Reader;
+import java.io.StringReader;
 
 /**
  * NanoXML uses IXMLBuilder to construct the XML data structure it retrieved
@@ -76,6 +77,23 @@ public interface IXMLBuilder {
 	 */
 	public void addPCData(Reader reader, String systemID, int lineNr) throws Exception;
 
+	/**
+	 * This method is called by parsers which have already read the complete
+	 * PCDATA element. By default the data is passed to the reader based method.
+	 * 
+	 * @param data
+	 *            the data of the element with all entities resolved.
+	 * @param systemID
+	 *            the system ID of the XML data source.
+	 * @param lineNr
+	 *            the line in the source where the element starts.
+	 * @throws java.lang.Exception
+	 *             If an exception occurred while processing the event.
+	 */
+	public default void addPCData(String data, String systemID, int lineNr) throws Exception {
+		addPCData(new StringReader(data), systemID, lineNr);
+	}
+
 	/**
 	 * This method is called when the attributes of an XML element have been
 	 * processed.
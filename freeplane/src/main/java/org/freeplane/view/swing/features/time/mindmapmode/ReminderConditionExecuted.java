@@ -63,4 +63,9 @@ class ReminderConditionExecuted extends ASelectableCondition {
 	String getName() {
 		return NAME;
 	}
+
+	@Override
+	public boolean checksExternalState() {
+		return true;
+	}
 }
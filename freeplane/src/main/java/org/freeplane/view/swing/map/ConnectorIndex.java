@@ -0,0 +1,251 @@
+package org.freeplane.view.swing.map;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.freeplane.features.link.ConnectorModel;
+import org.freeplane.view.swing.map.link.ILinkView;
+
+/**
+ * Keeps the connectors of a map view between paints in a grid of their bounds,
+ * so that painting and hit testing only visit connectors close to the painted area or to the point.
+ *
+ * Connectors are collected after each layout with the rectangles of their visible end nodes
+ * and placed into the grid by them. Like before, a connector is only painted if one of the node views
+ * it was found at is selected or intersects the painted region, and connectors are painted in the order
+ * they are found in the node view tree. Their views are created when they are painted for the first time
+ * and are reused until the next layout, connector change or change of the selection state of their end nodes.
+ * After a view has been painted, its bounds are known and it is only painted again if they intersect the clip,
+ * unless the inclinations of its connector have been changed in the meantime.
+ * Views without bounds, like edge like connectors, are always painted.
+ *
+ * The map view only uses the index if property {@value MapView#CONNECTOR_INDEX_PROPERTY} is set,
+ * otherwise it walks the node view tree on every paint.
+ */
+class ConnectorIndex {
+	private static final int CELL_SIZE = 512;
+	private static final int MAXIMAL_CELL_COUNT_PER_ENTRY = 64;
+
+	private static class Visit {
+		private final NodeView nodeView;
+		private final Rectangle nodeViewBounds;
+		private final int order;
+
+		private Visit(NodeView nodeView, Rectangle nodeViewBounds, int order) {
+			this.nodeView = nodeView;
+			this.nodeViewBounds = nodeViewBounds;
+			this.order = order;
+		}
+
+		private boolean isPaintedIn(Rectangle region) {
+			return nodeViewBounds == null || nodeView.isSelected() || region.intersects(nodeViewBounds);
+		}
+	}
+
+	static class Entry {
+		private final ConnectorModel connector;
+		private final NodeView source;
+		private final NodeView target;
+		private final Rectangle endPointBounds;
+		private final List<Visit> visits;
+		private int paintOrder;
+		private ILinkView view;
+		private boolean hasView;
+		private boolean isViewCreatedForSelectedNode;
+		private Rectangle paintedBounds;
+		private Point paintedStartInclination;
+		private Point paintedEndInclination;
+		private int queryCount;
+
+		private Entry(ConnectorModel connector, NodeView source, NodeView target, Rectangle endPointBounds) {
+			this.connector = connector;
+			this.source = source;
+			this.target = target;
+			this.endPointBounds = endPointBounds;
+			this.visits = new ArrayList<>(2);
+		}
+
+		ConnectorModel getConnector() {
+			return connector;
+		}
+
+		NodeView getSource() {
+			return source;
+		}
+
+		NodeView getTarget() {
+			return target;
+		}
+
+		ILinkView getView() {
+			return view;
+		}
+
+		/** Returns the view created by the factory, which may return null for connectors not shown. */
+		ILinkView getOrCreateView(Function<Entry, ILinkView> factory) {
+			final boolean isNodeSelected = isNodeSelected();
+			if (! hasView || isViewCreatedForSelectedNode != isNodeSelected) {
+				view = factory.apply(this);
+				hasView = true;
+				isViewCreatedForSelectedNode = isNodeSelected;
+				paintedBounds = null;
+			}
+			return view;
+		}
+
+		boolean isNodeSelected() {
+			return source != null && source.isSelected() || target != null && target.isSelected();
+		}
+
+		boolean mayIntersect(Rectangle clip) {
+			return clip == null || ! hasPaintedBounds() || paintedBounds.intersects(clip);
+		}
+
+		boolean mayContain(Point point) {
+			return ! hasPaintedBounds() || paintedBounds.contains(point);
+		}
+
+		private boolean hasPaintedBounds() {
+			return paintedBounds != null
+					&& Objects.equals(paintedStartInclination, connector.getStartInclination())
+					&& Objects.equals(paintedEndInclination, connector.getEndInclination());
+		}
+
+		/** Keeps the bounds of the painted view extended by the given margin, which covers arrows and line width. */
+		void painted(int margin) {
+			final Rectangle bounds = new Rectangle(0, 0, -1, -1);
+			view.increaseBounds(bounds);
+			if (bounds.width < 0 || bounds.height < 0) {
+				paintedBounds = null;
+				return;
+			}
+			bounds.grow(margin, margin);
+			paintedBounds = bounds;
+			paintedStartInclination = connector.getStartInclination();
+			paintedEndInclination = connector.getEndInclination();
+		}
+	}
+
+	private final List<Entry> entries;
+	private final List<Entry> largeEntries;
+	private final Map<Long, List<Entry>> cells;
+	private boolean isValid;
+	private Object viewState;
+	private int queryCount;
+	private int visitCount;
+
+	ConnectorIndex() {
+		entries = new ArrayList<>();
+		largeEntries = new ArrayList<>();
+		cells = new HashMap<>();
+	}
+
+	boolean isValid() {
+		return isValid;
+	}
+
+	/** Marks the index as complete after all connectors have been added. */
+	void validate() {
+		isValid = true;
+	}
+
+	void clear() {
+		entries.clear();
+		largeEntries.clear();
+		cells.clear();
+		visitCount = 0;
+		isValid = false;
+	}
+
+	/** Discards all connector views if the given state used to create them has changed. */
+	void setViewState(Object viewState) {
+		if (Objects.equals(this.viewState, viewState))
+			return;
+		this.viewState = viewState;
+		for (Entry entry : entries)
+			entry.hasView = false;
+	}
+
+	Entry add(ConnectorModel connector, NodeView source, NodeView target, Rectangle endPointBounds) {
+		final Entry entry = new Entry(connector, source, target, endPointBounds);
+		entries.add(entry);
+		final int firstColumn = Math.floorDiv(endPointBounds.x, CELL_SIZE);
+		final int lastColumn = Math.floorDiv(endPointBounds.x + endPointBounds.width, CELL_SIZE);
+		final int firstRow = Math.floorDiv(endPointBounds.y, CELL_SIZE);
+		final int lastRow = Math.floorDiv(endPointBounds.y + endPointBounds.height, CELL_SIZE);
+		if ((long) (lastColumn - firstColumn + 1) * (lastRow - firstRow + 1) > MAXIMAL_CELL_COUNT_PER_ENTRY) {
+			largeEntries.add(entry);
+			return entry;
+		}
+		for (int column = firstColumn; column <= lastColumn; column++)
+			for (int row = firstRow; row <= lastRow; row++)
+				cells.computeIfAbsent(cellKey(column, row), x -> new ArrayList<>()).add(entry);
+		return entry;
+	}
+
+	/**
+	 * Records that the connector was found among the links of the given node view.
+	 * Null bounds stand for the root view, whose connectors are painted in any case.
+	 */
+	void addVisit(Entry entry, NodeView nodeView, Rectangle nodeViewBounds) {
+		entry.visits.add(new Visit(nodeView, nodeViewBounds, visitCount++));
+	}
+
+	/**
+	 * Returns the connectors painted in the given region in the order they were found,
+	 * or all connectors for a null region.
+	 */
+	List<Entry> getEntries(Rectangle region) {
+		if (region == null)
+			return entries;
+		final int firstColumn = Math.floorDiv(region.x, CELL_SIZE);
+		final int lastColumn = Math.floorDiv(region.x + region.width, CELL_SIZE);
+		final int firstRow = Math.floorDiv(region.y, CELL_SIZE);
+		final int lastRow = Math.floorDiv(region.y + region.height, CELL_SIZE);
+		final List<Entry> foundEntries = new ArrayList<>();
+		queryCount++;
+		if ((long) (lastColumn - firstColumn + 1) * (lastRow - firstRow + 1) > cells.size())
+			addPaintedEntries(entries, region, foundEntries);
+		else {
+			for (int column = firstColumn; column <= lastColumn; column++)
+				for (int row = firstRow; row <= lastRow; row++) {
+					final List<Entry> cellEntries = cells.get(cellKey(column, row));
+					if (cellEntries != null)
+						addPaintedEntries(cellEntries, region, foundEntries);
+				}
+			addPaintedEntries(largeEntries, region, foundEntries);
+		}
+		if (foundEntries.size() > 1)
+			Collections.sort(foundEntries, Comparator.comparingInt(entry -> entry.paintOrder));
+		return foundEntries;
+	}
+
+	private void addPaintedEntries(List<Entry> candidates, Rectangle region, List<Entry> foundEntries) {
+		for (Entry entry : candidates) {
+			if (entry.queryCount == queryCount)
+				continue;
+			entry.queryCount = queryCount;
+			if (! region.intersects(entry.endPointBounds))
+				continue;
+			entry.paintOrder = -1;
+			for (Visit visit : entry.visits) {
+				if (visit.isPaintedIn(region) && (entry.paintOrder == -1 || visit.order < entry.paintOrder))
+					entry.paintOrder = visit.order;
+			}
+			if (entry.paintOrder != -1)
+				foundEntries.add(entry);
+		}
+	}
+
+	private static long cellKey(int column, int row) {
+		return ((long) column << 32) | (row & 0xFFFFFFFFL);
+	}
+}
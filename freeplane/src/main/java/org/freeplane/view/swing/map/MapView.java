@@ -53,10 +53,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.Vector;
@@ -67,6 +69,7 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JViewport;
 import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeListener;
 
 import org.freeplane.api.ChildNodesAlignment;
 import org.freeplane.api.ChildrenSides;
@@ -80,6 +83,7 @@ import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.ui.AntiAliasingConfigurator;
 import org.freeplane.core.ui.IUserInputListenerFactory;
 import org.freeplane.core.ui.components.UITools;
+import org.freeplane.core.ui.components.html.ScaledHTML;
 import org.freeplane.core.util.ColorUtils;
 import org.freeplane.core.util.LogUtils;
 import org.freeplane.features.attribute.AttributeController;
@@ -160,6 +164,9 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
     private enum PaintingPurpose {PAINTING, PRINTING, OVERVIEW}
 
     private static final int ROOT_NODE_COMPONENT_INDEX = 0;
+    /** Added to the painted bounds of connectors for arrows and hit testing. */
+    private static final int CONNECTOR_BOUNDS_MARGIN = 16;
+    static final String CONNECTOR_INDEX_PROPERTY = "connector_index";
 	private static final String UNFOLD_ON_NAVIGATION = "unfold_on_navigation";
 	private static final String SYNCHRONIZE_SELECTION_ACROSS_VISIBLE_VIEWS_PROPERTY = "synchronizeSelectionAcrossVisibleViews";
 	private static final String SYNCHRONIZE_SELECTION_ONLY_ON_BRANCH_CHANGE = "synchronizeSelectionOnlyOnBranchChange";
@@ -501,6 +508,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
         private boolean addToSelectedSet(final NodeView node) {
             boolean hasChanged = selectedSet.add(node);
             if(hasChanged) {
+                nodeViewVirtualizer.createChildViews(node);
                 fireSelectionChangedLater();
             }
             return hasChanged;
@@ -735,6 +743,9 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	static private Color selectionRectangleColor;
 	/** Used to identify a right click onto a link curve. */
 	private Vector<ILinkView> arrowLinkViews;
+	/** Index entries of the arrow link views if they have been painted from the connector index. */
+	private List<ConnectorIndex.Entry> paintedConnectors;
+	private final ConnectorIndex connectorIndex = new ConnectorIndex();
 	private ScalableComponent backgroundComponent;
 	private Rectangle boundingRectangle = null;
 	private FitMap fitMap = FitMap.USER_DEFINED;
@@ -778,6 +789,9 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 	final private ComponentAdapter viewportSizeChangeListener;
 	private final INodeChangeListener connectorChangeListener;
+	private final NodeViewVirtualizer nodeViewVirtualizer;
+	private final NodeViewVirtualizer.Updater nodeViewVirtualizerUpdater;
+	private final ChangeListener viewportChangeListener;
 	private boolean scrollsViewAfterLayout = true;
 	private boolean allowsCompactLayout;
 	private boolean isAutoCompactLayoutEnabled;
@@ -816,6 +830,9 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		antiAliasingConfigurator = new AntiAliasingConfigurator(this);
 		this.viewedMap = viewedMap;
 		this.modeController = modeController;
+		nodeViewVirtualizer = new NodeViewVirtualizer(this);
+		nodeViewVirtualizerUpdater = nodeViewVirtualizer.new Updater();
+		viewportChangeListener = e -> nodeViewVirtualizer.scheduleUpdate();
         setLayout(new MindMapLayout());
 		rootsHistory = new ArrayList<>();
 		setAutoscrolls(true);
@@ -847,8 +864,10 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 			@Override
 			public void nodeChanged(final NodeChangeEvent event) {
 				if(NodeLinks.CONNECTOR.equals(event.getProperty()) &&
-						event.getNode().getMap().equals(getMap()))
+						event.getNode().getMap().equals(getMap())) {
+					connectorIndex.clear();
 					repaint();
+				}
 			}
 		};
 		addPropertyChangeListener(SPOTLIGHT_ENABLED, repaintOnClientPropertyChangeListener);
@@ -989,15 +1008,23 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 	@Override
     public void addNotify() {
-	    super.addNotify();
+	    ScaledHTML.updateRenderersOnce(super::addNotify);
 	    modeController.getMapController().addUINodeChangeListener(connectorChangeListener);
+	    modeController.getMapController().addUINodeChangeListener(nodeViewVirtualizerUpdater);
+	    modeController.getMapController().addMapChangeListener(nodeViewVirtualizerUpdater);
 	    getParent().addComponentListener(viewportSizeChangeListener);
+	    if(getParent() instanceof JViewport)
+	    	((JViewport) getParent()).addChangeListener(viewportChangeListener);
     }
 
 	@Override
     public void removeNotify() {
 		modeController.getMapController().removeNodeChangeListener(connectorChangeListener);
+		modeController.getMapController().removeNodeChangeListener(nodeViewVirtualizerUpdater);
+		modeController.getMapController().removeMapChangeListener(nodeViewVirtualizerUpdater);
 		getParent().removeComponentListener(viewportSizeChangeListener);
+	    if(getParent() instanceof JViewport)
+	    	((JViewport) getParent()).removeChangeListener(viewportChangeListener);
 	    super.removeNotify();
     }
 
@@ -1132,19 +1159,23 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
         }
         for (int i = 0; i < arrowLinkViews.size(); ++i) {
             final ILinkView arrowView = arrowLinkViews.get(i);
-            if (arrowView.detectCollision(p, true)) {
+            if (mayContain(i, p) && arrowView.detectCollision(p, true)) {
                 return arrowView;
             }
         }
         for (int i = 0; i < arrowLinkViews.size(); ++i) {
             final ILinkView arrowView = arrowLinkViews.get(i);
-            if (arrowView.detectCollision(p, false)) {
+            if (mayContain(i, p) && arrowView.detectCollision(p, false)) {
                 return arrowView;
             }
         }
         return null;
     }
 
+    private boolean mayContain(int arrowLinkViewIndex, final Point p) {
+        return paintedConnectors == null || paintedConnectors.get(arrowLinkViewIndex).mayContain(p);
+    }
+
     public Object detectObject(final Point p) {
         Object view = detectView(p);
         if(view instanceof ILinkView)
@@ -1162,6 +1193,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		paintingPurpose = PaintingPurpose.PAINTING;
 		updatePrintedNodes();
 		isPreparedForPrinting = false;
+		nodeViewVirtualizer.scheduleUpdate();
 	}
 
 	/*
@@ -1224,6 +1256,12 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	}
 
 	public NodeView getNodeView(final NodeModel node) {
+		final NodeView nodeView = getExistingNodeView(node);
+		return nodeView != null || node == null ? nodeView : nodeViewVirtualizer.createViewsOnPath(node);
+	}
+
+	/** Unlike {@link #getNodeView(NodeModel)}, it does not create views of nodes in branches released by {@link NodeViewVirtualizer}. */
+	NodeView getExistingNodeView(final NodeModel node) {
 		if (node == null) {
 			return null;
 		}
@@ -1483,7 +1521,10 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	    if(currentRootView != null)
 	        remove(currentRootView);
 	    currentRootParentView = null;
-		mapRootView = currentRootView = NodeViewFactory.getInstance().newNodeView(getMap().getRootNode(), this, this, ROOT_NODE_COMPONENT_INDEX);
+	    nodeViewVirtualizer.reset();
+	    connectorIndex.clear();
+		ScaledHTML.updateRenderersOnce(() ->
+			mapRootView = currentRootView = NodeViewFactory.getInstance().newNodeView(getMap().getRootNode(), this, this, ROOT_NODE_COMPONENT_INDEX));
 		selection.clear();
 	}
 
@@ -1519,6 +1560,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 	@Override
 	public void mapChanged(final MapChangeEvent event) {
+		connectorIndex.clear();
 		final Object property = event.getProperty();
 		if (property.equals(MapStyle.RESOURCES_BACKGROUND_COLOR)) {
 			setBackground(requiredBackground());
@@ -2458,7 +2500,12 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
     private void paintConnectors(final Graphics2D graphics) {
 		arrowLinkViews = new Vector<ILinkView>();
-		if(hasNodeLinks())
+		paintedConnectors = null;
+		if(! hasNodeLinks())
+			return;
+		if(ResourceController.getResourceController().getBooleanProperty(CONNECTOR_INDEX_PROPERTY))
+			paintIndexedConnectors(graphics);
+		else
 			paintConnectors(currentRootView, graphics, new HashSet<ConnectorModel>());
 	}
 
@@ -2499,6 +2546,125 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		}
     }
 
+	private void paintIndexedConnectors(final Graphics2D graphics) {
+		paintedConnectors = new ArrayList<>();
+		if(containsExtension(Connectors.class))
+			connectorIndex.clear();
+		if(! connectorIndex.isValid()) {
+			collectConnectors(currentRootView, null, new HashMap<ConnectorModel, ConnectorIndex.Entry>());
+			connectorIndex.validate();
+		}
+		connectorIndex.setViewState(Arrays.asList(showConnectors, hideSingleEndConnectors, getBackground()));
+		final Rectangle clip = graphics.getClipBounds();
+		final LinkController linkController = LinkController.getController(getModeController());
+		final Font font = graphics.getFont();
+		try {
+			for (ConnectorIndex.Entry entry : connectorIndex.getEntries(getConnectorRegion())) {
+				final ILinkView arrowLink = entry.getOrCreateView(this::createConnectorView);
+				if (arrowLink == null)
+					continue;
+				if (entry.mayIntersect(clip)) {
+					arrowLink.paint(graphics);
+					entry.painted(getZoomed(CONNECTOR_BOUNDS_MARGIN) + linkController.getWidth(entry.getConnector()));
+				}
+				arrowLinkViews.add(arrowLink);
+				paintedConnectors.add(entry);
+			}
+		}
+		finally {
+			graphics.setFont(font);
+		}
+	}
+
+	private void collectConnectors(final NodeView source, final Rectangle sourceBounds,
+	                               final Map<ConnectorModel, ConnectorIndex.Entry> collectedConnectors) {
+		final NodeModel node = source.getNode();
+		collectConnectors(getLinksFrom(node), source, sourceBounds, collectedConnectors);
+		collectConnectors(getLinksTo(node), source, sourceBounds, collectedConnectors);
+		final int nodeViewCount = source.getComponentCount();
+		for (int i = 0; i < nodeViewCount; i++) {
+			final Component component = source.getComponent(i);
+			if (!(component instanceof NodeView)) {
+				continue;
+			}
+			final NodeView child = (NodeView) component;
+			if(child.isSubtreeVisible())
+				collectConnectors(child, SwingUtilities.convertRectangle(source, child.getBounds(), this), collectedConnectors);
+		}
+	}
+
+	private void collectConnectors(final Collection<? extends NodeLinkModel> links, final NodeView source,
+	                               final Rectangle sourceBounds,
+	                               final Map<ConnectorModel, ConnectorIndex.Entry> collectedConnectors) {
+		for (final NodeLinkModel next : links) {
+			if (!(next instanceof ConnectorModel)) {
+				continue;
+			}
+			final ConnectorModel ref = (ConnectorModel) next;
+			final ConnectorIndex.Entry entry;
+			if (collectedConnectors.containsKey(ref))
+				entry = collectedConnectors.get(ref);
+			else {
+				entry = createConnectorEntry(ref);
+				collectedConnectors.put(ref, entry);
+			}
+			if (entry != null)
+				connectorIndex.addVisit(entry, source, sourceBounds);
+		}
+	}
+
+	private ConnectorIndex.Entry createConnectorEntry(final ConnectorModel ref) {
+		if(! ref.isVisible(getFilter()))
+			return null;
+		final NodeView sourceView = getDisplayedNodeView(ref.getSource());
+		final NodeView targetView = getDisplayedNodeView(ref.getTarget());
+		final Rectangle sourceRectangle = sourceView != null && sourceView.isContentVisible()
+				? SwingUtilities.convertRectangle(sourceView, sourceView.getMainView().getBounds(), this)
+				: null;
+		final Rectangle targetRectangle = targetView != null && targetView.isContentVisible()
+				? SwingUtilities.convertRectangle(targetView, targetView.getMainView().getBounds(), this)
+				: null;
+		if(sourceRectangle == null && targetRectangle == null)
+			return null;
+		final Rectangle connectorRectangle = sourceRectangle == null ? targetRectangle :
+			targetRectangle == null ? sourceRectangle : sourceRectangle.union(targetRectangle);
+		return connectorIndex.add(ref, sourceView, targetView, connectorRectangle);
+	}
+
+	private ILinkView createConnectorView(ConnectorIndex.Entry entry) {
+		final ConnectorModel ref = entry.getConnector();
+		final NodeView sourceView = entry.getSource();
+		final NodeView targetView = entry.getTarget();
+		final boolean areBothNodesVisible = sourceView != null && targetView != null
+				&& sourceView.isContentVisible() && targetView.isContentVisible();
+		if(! showsConnectorLinesOrArrows(entry.isNodeSelected()))
+			return null;
+		final LinkController linkController = LinkController.getController(getModeController());
+		if (areBothNodesVisible
+				&& (
+				ConnectorShape.EDGE_LIKE.equals(linkController.getShape(ref)) && ! ref.isSelfLink()
+				|| sourceView.getMap().getLayoutType() == MapViewLayout.OUTLINE))
+			return new EdgeLinkView(ref, getModeController(), sourceView, targetView);
+		else if(areBothNodesVisible || ! hideSingleEndConnectors)
+			return new ConnectorView(ref, sourceView, targetView, getBackground());
+		else
+			return null;
+	}
+
+	/** Connectors of selected node views and node views intersecting this region are painted
+	 * if the rectangle of their end nodes intersects it too, or all connectors if it is null. */
+	private Rectangle getConnectorRegion() {
+	    if(paintingPurpose == PaintingPurpose.PRINTING)
+	        return null;
+        final JViewport vp = (JViewport) getParent();
+        final Rectangle viewRect = vp.getViewRect();
+        viewRect.x -= viewRect.width;
+        viewRect.y -= viewRect.height;
+        viewRect.width *= 3;
+        viewRect.height *= 3;
+        return viewRect;
+	}
+
 	private boolean hasNodeLinks() {
 		return LinkController.getController(getModeController()).hasNodeLinks(getMap(), this);
 	}
@@ -2583,6 +2749,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		paintingPurpose = PaintingPurpose.PRINTING;
 		if (!isPreparedForPrinting) {
 			isPreparedForPrinting = true;
+			nodeViewVirtualizer.createAllChildViews();
 			updatePrintedNodes();
 			fitMap = FitMap.valueOf();
 			if (backgroundComponent != null && fitMap == FitMap.BACKGROUND) {
@@ -2901,9 +3068,19 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 			validateSelecteds();
 			getRoot().validateTree();
 			super.validateTree();
+			connectorIndex.clear();
+			nodeViewVirtualizer.scheduleUpdate();
 		}
 	}
 
+	NodeViewVirtualizer getNodeViewVirtualizer() {
+		return nodeViewVirtualizer;
+	}
+
+	boolean isInSelection(final NodeView nodeView) {
+		return selection.contains(nodeView);
+	}
+
 	public void repaintVisible() {
 		Container parent = getParent();
 		if(parent != null)
@@ -58,6 +58,7 @@ import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.ui.IUserInputListenerFactory;
 import org.freeplane.core.ui.components.TagIcon;
 import org.freeplane.core.ui.components.UITools;
+import org.freeplane.core.ui.components.html.ScaledHTML;
 import org.freeplane.core.util.ColorUtils;
 import org.freeplane.core.util.LogUtils;
 import org.freeplane.core.util.ObjectRule;
@@ -1063,6 +1064,8 @@ public class NodeView extends JComponent implements INodeView {
 	void addChildViews() {
 		if(isFolded())
 			return;
+		if(map.getNodeViewVirtualizer().keepsChildViewsReleased(this))
+			return;
 		int index = 0;
 		for (NodeModel child : getNode().getChildren()) {
 			if(isChildHidden(child))
@@ -1393,6 +1396,10 @@ public class NodeView extends JComponent implements INodeView {
 		}
 		if(child == map.getRoot().getNode())
 		    return;
+		if(map.getNodeViewVirtualizer().isReleased(this)) {
+			revalidate();
+			return;
+		}
 		if(! map.isSelected() && parent.getChildCount() == 1
 		        && map.getFilter().getCondition() == null
 		        && ! getNode().isRoot()) {
@@ -1654,6 +1661,7 @@ public class NodeView extends JComponent implements INodeView {
 			child.remove();
 		}
 		getModeController().onViewRemoved(this);
+		map.getNodeViewVirtualizer().viewRemoved(this);
 		removeFromMap();
 		if (attributeView != null) {
 			attributeView.viewRemoved();
@@ -1662,6 +1670,13 @@ public class NodeView extends JComponent implements INodeView {
 		map.deselect(this);
 	}
 
+	void removeChildViews() {
+		for (NodeView child : getChildrenViews()) {
+			child.remove();
+		}
+		lastSelectedChild = null;
+	}
+
 	protected void removeFromMap() {
 		setFocusCycleRoot(false);
 		Container parent = getParent();
@@ -1834,7 +1849,7 @@ public class NodeView extends JComponent implements INodeView {
 	        map.revalidateSelecteds();
 	    }
 	    else {
-	        addChildViews();
+	        ScaledHTML.updateRenderersOnce(this::addChildViews);
 	    }
 	    revalidate();
 	}
@@ -2096,6 +2111,7 @@ public class NodeView extends JComponent implements INodeView {
 		updateAll(UpdateCause.UNKNOWN);
 	}
 	public void updateAll(UpdateCause cause) {
+		map.getNodeViewVirtualizer().discardReleasedGeometry(this);
 		update(cause);
 		invalidate();
 		for (final NodeView child : getChildrenViews()) {
@@ -2103,6 +2119,7 @@ public class NodeView extends JComponent implements INodeView {
 		}
 	}
 	void resetLayoutPropertiesRecursively() {
+	    map.getNodeViewVirtualizer().discardReleasedGeometry(this);
 	    childNodesAlignment = null;
 	    childNodesLayout = null;
 		LinkedList<NodeView> childrenViews = getChildrenViews();
@@ -322,7 +322,7 @@ class NodeViewLayoutHelper {
 	}
 
 	private boolean hasChildViews(NodeView child) {
-		return child.getComponentCount() > 1;
+		return child.getComponentCount() > 1 || child.getMap().getNodeViewVirtualizer().isReleased(child);
 	}
 
 	private boolean isConsideredForAlignment(NodeView child) {
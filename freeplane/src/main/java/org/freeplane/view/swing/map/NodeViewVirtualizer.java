@@ -0,0 +1,360 @@
+package org.freeplane.view.swing.map;
+
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.EventQueue;
+import java.awt.KeyboardFocusManager;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.link.LinkController;
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeMoveEvent;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.ui.ViewController;
+
+/**
+ * Releases the child views of branches which are far outside of the viewport
+ * and creates them again when they come close to it.
+ *
+ * Before the child views of a branch are removed, the layout results of all views of the branch are kept
+ * in a lightweight geometry model. A released view restores its layout from the model instead of laying out
+ * its missing children, so the map keeps its size and all visible views keep their positions.
+ * When the child views are created again, each of them is released in turn until it comes close to the viewport.
+ *
+ * The model of a node and its ancestors is discarded whenever the node changes, and the model of a view
+ * is not used if its content size or the zoom have changed in the meantime.
+ * In both cases the released view creates its child views again before it is laid out.
+ *
+ * Branches containing selected nodes, nodes with connectors or the focus owner, and branches inside of clouds
+ * are never released. Nothing is released while the map is printed or its overview is shown,
+ * and for the outline layout.
+ */
+class NodeViewVirtualizer {
+	static final String VIRTUALIZATION_PROPERTY = "map_view_virtualization";
+
+	private static class Geometry {
+		private final Dimension size;
+		private final Rectangle contentBounds;
+		private final boolean isContentVisible;
+		private final Dimension contentSize;
+		private final float zoom;
+		private final int topOverlap;
+		private final int bottomOverlap;
+		private final StepFunction topBoundary;
+		private final StepFunction bottomBoundary;
+
+		Geometry(NodeView view) {
+			final NodeViewLayoutHelper layoutHelper = view.getLayoutHelper();
+			size = view.getSize();
+			contentBounds = view.getContent().getBounds();
+			isContentVisible = view.getContent().isVisible();
+			contentSize = layoutHelper.calculateContentSize();
+			zoom = view.getMap().getZoom();
+			topOverlap = layoutHelper.getTopOverlap();
+			bottomOverlap = layoutHelper.getBottomOverlap();
+			topBoundary = layoutHelper.getTopBoundary();
+			bottomBoundary = layoutHelper.getBottomBoundary();
+		}
+
+		boolean fits(NodeView view) {
+			return zoom == view.getMap().getZoom()
+					&& isContentVisible == view.isContentVisible()
+					&& contentSize.equals(view.getLayoutHelper().calculateContentSize());
+		}
+
+		void restore(NodeView view) {
+			final NodeViewLayoutHelper layoutHelper = view.getLayoutHelper();
+			view.getContent().setVisible(isContentVisible);
+			view.getContent().setBounds(contentBounds);
+			view.setSize(size);
+			layoutHelper.setTopOverlap(topOverlap);
+			layoutHelper.setBottomOverlap(bottomOverlap);
+			layoutHelper.setTopBoundary(topBoundary);
+			layoutHelper.setBottomBoundary(bottomBoundary);
+		}
+	}
+
+	class Updater implements INodeChangeListener, IMapChangeListener {
+		@Override
+		public void nodeChanged(NodeChangeEvent event) {
+			discardGeometry(event.getNode());
+		}
+
+		@Override
+		public void onNodeInserted(NodeModel parent, NodeModel child, int newIndex) {
+			discardGeometry(parent);
+		}
+
+		@Override
+		public void onNodeDeleted(NodeDeletionEvent nodeDeletionEvent) {
+			discardBranchGeometry(nodeDeletionEvent.node);
+			discardGeometry(nodeDeletionEvent.parent);
+		}
+
+		@Override
+		public void onNodeMoved(NodeMoveEvent nodeMoveEvent) {
+			discardBranchGeometry(nodeMoveEvent.child);
+			discardGeometry(nodeMoveEvent.oldParent);
+			discardGeometry(nodeMoveEvent.newParent);
+		}
+	}
+
+	private final MapView map;
+	private final Map<NodeModel, Geometry> geometries;
+	private final Set<NodeView> releasedViews;
+	private boolean isUpdateScheduled;
+	private boolean isChangingViews;
+
+	NodeViewVirtualizer(MapView map) {
+		this.map = map;
+		this.geometries = new HashMap<>();
+		this.releasedViews = Collections.newSetFromMap(new IdentityHashMap<>());
+	}
+
+	boolean isReleased(NodeView view) {
+		return ! releasedViews.isEmpty() && releasedViews.contains(view);
+	}
+
+	/** Called before child views are added. Returns true if the view keeps its child views released instead. */
+	boolean keepsChildViewsReleased(NodeView view) {
+		if (geometries.isEmpty())
+			return false;
+		if (geometries.containsKey(view.getNode())) {
+			releasedViews.add(view);
+			return true;
+		}
+		releasedViews.remove(view);
+		return false;
+	}
+
+	/** Lays out a released view from its geometry, or creates its child views if the geometry does not fit anymore. */
+	boolean restoresReleasedLayout(NodeView view) {
+		if (! isReleased(view))
+			return false;
+		final Geometry geometry = geometries.get(view.getNode());
+		if (geometry != null && ! map.isOutlineLayoutSet() && geometry.fits(view)) {
+			geometry.restore(view);
+			return true;
+		}
+		createChildViews(view);
+		return false;
+	}
+
+	void viewRemoved(NodeView view) {
+		if (releasedViews.remove(view) && ! isChangingViews)
+			discardBranchGeometry(view.getNode());
+	}
+
+	/** Discards the geometry of a released branch so that its child views are created before the next layout. */
+	void discardReleasedGeometry(NodeView view) {
+		if (isReleased(view)) {
+			discardBranchGeometry(view.getNode());
+			view.revalidate();
+		}
+	}
+
+	void reset() {
+		geometries.clear();
+		releasedViews.clear();
+	}
+
+	/** Creates the views on the path to the given node if it belongs to a released branch. */
+	NodeView createViewsOnPath(NodeModel node) {
+		if (releasedViews.isEmpty() || isChangingViews || map.getPaintingMode() != null)
+			return null;
+		final ArrayList<NodeModel> path = new ArrayList<>();
+		NodeView view = null;
+		for (NodeModel ancestor = node; ancestor != null && view == null; ancestor = ancestor.getParentNode()) {
+			view = map.getExistingNodeView(ancestor);
+			if (view == null)
+				path.add(ancestor);
+		}
+		for (int i = path.size() - 1; i >= 0 && view != null; i--) {
+			NodeView pathView = map.getExistingNodeView(path.get(i));
+			if (pathView == null && isReleased(view)) {
+				createChildViews(view);
+				pathView = map.getExistingNodeView(path.get(i));
+			}
+			view = pathView;
+		}
+		return view;
+	}
+
+	void createChildViews(NodeView view) {
+		if (! releasedViews.remove(view))
+			return;
+		geometries.remove(view.getNode());
+		final boolean wasChangingViews = isChangingViews;
+		isChangingViews = true;
+		try {
+			view.addChildViews();
+		}
+		finally {
+			isChangingViews = wasChangingViews;
+		}
+		view.revalidate();
+	}
+
+	void scheduleUpdate() {
+		if (isUpdateScheduled)
+			return;
+		if (releasedViews.isEmpty() && ! ResourceController.getResourceController().getBooleanProperty(VIRTUALIZATION_PROPERTY))
+			return;
+		isUpdateScheduled = true;
+		EventQueue.invokeLater(this::update);
+	}
+
+	/**
+	 * Creates the child views of released views close to the viewport
+	 * and releases the child views of branches far away from it.
+	 */
+	void update() {
+		isUpdateScheduled = false;
+		if (! map.isDisplayable() || map.isPrinting() || ! (map.getParent() instanceof JViewport))
+			return;
+		if (! isEnabled()) {
+			createAllChildViews();
+			return;
+		}
+		final JViewport viewport = (JViewport) map.getParent();
+		final Rectangle viewRect = viewport.getViewRect();
+		final Rectangle region = new Rectangle(viewRect.x - viewRect.width, viewRect.y - viewRect.height,
+				3 * viewRect.width, 3 * viewRect.height);
+		final NodeView root = map.getRoot();
+		while (! releasedViews.isEmpty() && map.isValid() && createChildViewsInRegion(root, region, root.getX(), root.getY()))
+			map.validate();
+		if (! map.isValid())
+			return;
+		final Component focusOwner = KeyboardFocusManager.getCurrentKeyboardFocusManager().getFocusOwner();
+		final boolean hasConnectors = LinkController.getController(map.getModeController()).hasNodeLinks(map.getMap(), map);
+		if (releaseChildViewsOutsideOfRegion(root, region, root.getX(), root.getY(), focusOwner, hasConnectors))
+			map.revalidate();
+	}
+
+	private boolean isEnabled() {
+		if (! ResourceController.getResourceController().getBooleanProperty(VIRTUALIZATION_PROPERTY)
+				|| map.isOutlineLayoutSet())
+			return false;
+		final ViewController viewController = Controller.getCurrentController().getViewController();
+		return viewController == null || ! viewController.isMapOverviewVisible();
+	}
+
+	void createAllChildViews() {
+		if (releasedViews.isEmpty())
+			return;
+		while (! releasedViews.isEmpty()) {
+			geometries.clear();
+			for (NodeView view : new ArrayList<>(releasedViews))
+				createChildViews(view);
+		}
+		map.validate();
+	}
+
+	private boolean createChildViewsInRegion(NodeView view, Rectangle region, int x, int y) {
+		if (! region.intersects(x, y, view.getWidth(), view.getHeight()))
+			return false;
+		if (isReleased(view)) {
+			createChildViews(view);
+			return true;
+		}
+		boolean createdViews = false;
+		for (NodeView child : view.getChildrenViews())
+			createdViews |= createChildViewsInRegion(child, region, x + child.getX(), y + child.getY());
+		return createdViews;
+	}
+
+	private boolean releaseChildViewsOutsideOfRegion(NodeView view, Rectangle region, int x, int y,
+			Component focusOwner, boolean hasConnectors) {
+		if (view.getCloudModel() != null)
+			return false;
+		if (view != map.getRoot() && ! region.intersects(x, y, view.getWidth(), view.getHeight())
+				&& view.isContentVisible() && view.getComponentCount() > 1
+				&& ! containsKeptViews(view, focusOwner, hasConnectors)) {
+			releaseChildViews(view);
+			return true;
+		}
+		boolean releasedChildViews = false;
+		for (NodeView child : view.getChildrenViews())
+			releasedChildViews |= releaseChildViewsOutsideOfRegion(child, region, x + child.getX(), y + child.getY(),
+					focusOwner, hasConnectors);
+		return releasedChildViews;
+	}
+
+	private boolean containsKeptViews(NodeView view, Component focusOwner, boolean hasConnectors) {
+		if (focusOwner != null && SwingUtilities.isDescendingFrom(focusOwner, view))
+			return true;
+		return containsKeptViews(view, hasConnectors);
+	}
+
+	private boolean containsKeptViews(NodeView view, boolean hasConnectors) {
+		if (map.isInSelection(view))
+			return true;
+		if (hasConnectors) {
+			final LinkController linkController = LinkController.getController(map.getModeController());
+			final NodeModel node = view.getNode();
+			if (! linkController.getLinksFrom(node, map).isEmpty() || ! linkController.getLinksTo(node, map).isEmpty())
+				return true;
+		}
+		for (NodeView child : view.getChildrenViews())
+			if (containsKeptViews(child, hasConnectors))
+				return true;
+		return false;
+	}
+
+	private void releaseChildViews(NodeView view) {
+		keepGeometry(view);
+		final boolean wasChangingViews = isChangingViews;
+		isChangingViews = true;
+		try {
+			view.removeChildViews();
+		}
+		finally {
+			isChangingViews = wasChangingViews;
+		}
+		releasedViews.add(view);
+	}
+
+	private void keepGeometry(NodeView view) {
+		if (isReleased(view))
+			return;
+		geometries.put(view.getNode(), new Geometry(view));
+		for (NodeView child : view.getChildrenViews())
+			if (child.getComponentCount() > 1 || isReleased(child))
+				keepGeometry(child);
+	}
+
+	private void discardGeometry(NodeModel node) {
+		if (geometries.isEmpty() || node.getMap() != map.getMap())
+			return;
+		for (NodeModel ancestor = node; ancestor != null; ancestor = ancestor.getParentNode()) {
+			geometries.remove(ancestor);
+			final NodeView view = map.getExistingNodeView(ancestor);
+			if (view != null) {
+				if (isReleased(view))
+					view.revalidate();
+				break;
+			}
+		}
+	}
+
+	private void discardBranchGeometry(NodeModel node) {
+		if (geometries.remove(node) == null)
+			return;
+		for (NodeModel child : node.getChildren())
+			discardBranchGeometry(child);
+	}
+}
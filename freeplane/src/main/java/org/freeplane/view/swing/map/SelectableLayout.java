@@ -37,6 +37,9 @@ public class SelectableLayout implements INodeViewLayout {
 	}
 
 	public void layoutContainer(final Container parent) {
+		final NodeView view = (NodeView) parent;
+		if (view.getMap().getNodeViewVirtualizer().restoresReleasedLayout(view))
+			return;
 		getLayout(parent).layoutContainer(parent);
 	}
 
@@ -95,6 +95,7 @@ public class ZoomableLabelUI extends BasicLabelUI {
 
 	@Override
 	public Dimension getPreferredSize(final JComponent c) {
+		ScaledHTML.createDeferredRenderer((JLabel) c);
 		final Dimension preferredSize = super.getPreferredSize(c);
 		final ZoomableLabel zoomableLabel = (ZoomableLabel) c;
 		if(zoomableLabel.getIcon() == null){
@@ -510,6 +511,7 @@ public class ZoomableLabelUI extends BasicLabelUI {
 	}
 
 	void layoutIgnoringZoom(ZoomableLabel label) {
+		ScaledHTML.createDeferredRenderer(label);
 		boolean wasPainting = isPainting;
 		try{
 			isPainting = true;
@@ -144,7 +144,7 @@ public class MNodeDragListener implements DragGestureListener {
 			}
 		}
 		Cursor cursor = getCursorByAction(dragActionType);
-		final Transferable t = MapClipboardController.getController().copy(Controller.getCurrentController().getSelection());
+		final Transferable t = MapClipboardController.getController().copyForDrag(Controller.getCurrentController().getSelection());
 		if (isLinkDragEvent(e)) {
 			cursor = DragSource.DefaultLinkDrop;
 			((MindMapNodesSelection) t).setDropAction(DnDConstants.ACTION_LINK);
@@ -0,0 +1,230 @@
+package org.freeplane.core.io.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+
+import org.freeplane.core.io.IElementContentHandler;
+import org.freeplane.core.io.IElementDOMHandler;
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.n3.nanoxml.NonValidator;
+import org.freeplane.n3.nanoxml.StdXMLReader;
+import org.freeplane.n3.nanoxml.XMLElement;
+import org.freeplane.n3.nanoxml.XMLException;
+import org.junit.Test;
+
+public class XMLScannerTest {
+	private static final String[] RESOURCES = {
+			"/templates/standard-1.6.mm",
+			"/templates/BigMap.mm",
+			"/templates/conceptMap.mm",
+			"/templates/dark_nord_template.mm",
+			"/xslt/export2oowriter.xsl",
+			"/styles/viewer_standard.mm",
+			"/xslt/mm2wordml_utf8_TEMPLATE.mm",
+			"/xslt/mm2html.xsl",
+			"/xml/preferences.xml",
+			"/xml/mindmapmodemenu.xml",
+	};
+
+	private static final String EDGE_CASES = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\r\n"
+			+ "<!DOCTYPE map [\r\n  <!ENTITY product \"Free&amp;plane\">\r\n  <!ELEMENT map ANY>\r\n"
+			+ "  <!-- comment in subset -->\r\n  <?pi in subset?>\r\n]>\r\n"
+			+ "<!-- leading comment -->\r\n"
+			+ "<map version=\"1.0\" xmlns:x=\"urn:x\">\r\n"
+			+ "\t<node TEXT=\"a&lt;b&gt;c &amp; &quot;d&quot; &apos;e&apos;\tf\r\ng\" ID='single \"quoted\"'>\r\n"
+			+ "\t\t<x:attribute x:NAME=\"&#65;&#x42;&#x9;\" VALUE=\"&product;\"/>\r\n"
+			+ "\t\ttext before <![CDATA[<cdata> ]] ]]] &amp;]]> after cdata<!-- inner --> and comment\r\n"
+			+ "\t\t<empty/><empty   />\n<?target data?>\r"
+			+ "\t\t<mixed>one <b>two</b> three &product; &#10;</mixed>\r\n"
+			+ "\t\t<ns xmlns=\"urn:default\"><inner xmlns:x=\"urn:other\" x:a=\"1\"/><x:inner/></ns>\r\n"
+			+ "\t</node>\r\n"
+			+ "</map>\r\n"
+			+ "<!-- trailing comment -->\r\n";
+
+	@Test
+	public void buildsSameElementsAsNanoXmlForBundledFiles() throws Exception {
+		for (String resource : RESOURCES) {
+			final String text = readResource(resource);
+			assertEquals(resource, dump(parseWithNanoXml(text)), dump(parseWithScanner(text)));
+		}
+	}
+
+	@Test
+	public void buildsSameElementsAsNanoXmlForEdgeCases() throws Exception {
+		assertEquals(dump(parseWithNanoXml(EDGE_CASES)), dump(parseWithScanner(EDGE_CASES)));
+	}
+
+	@Test
+	public void decodesSupplementaryCharacterReferences() throws Exception {
+		final XMLElement element = parseWithScanner("<a TEXT=\"&#x1F600;&#128512;\"/>");
+		assertEquals("\uD83D\uDE00\uD83D\uDE00", element.getAttribute("TEXT", null));
+	}
+
+	@Test
+	public void reportsErrorsLikeNanoXml() throws Exception {
+		assertSameError("<map><node TEXT=\"&unknown;\"/></map>");
+		assertSameError("<map><node TEXT=\"x\"></map>");
+		assertSameError("<map><node TEXT=\"x\"");
+	}
+
+	@Test
+	public void collectsElementContentLikeNanoXml() throws Exception {
+		final String text = "<map>\r\n<node TEXT=\"a\">\r\n"
+				+ "<richcontent TYPE=\"NODE\"><html>\r\n  <body><p>rich &amp; <b>text</b></p><br/></body>\r\n</html>\r\n"
+				+ "</richcontent>\r\n"
+				+ "<text>one <b>two</b> three</text>\r\n"
+				+ "<hook NAME=\"x\"><text>not collected</text></hook>\r\n"
+				+ "</node>\r\n</map>";
+		assertEquals(load(text, false), load(text, true));
+	}
+
+	@Test
+	public void collectsContentUntilClosingTagOfSameLevel() throws Exception {
+		final String content = "\n<richcontent TYPE=\"a&gt;b\" X='</richcontent>'/>"
+				+ "<![CDATA[</richcontent>]]><!-- </richcontent> --><?pi </richcontent>?>"
+				+ "<richcontent><x>text &amp; more</x><y/></richcontent>\n";
+		final String text = "<map><node TEXT=\"a\"><richcontent TYPE=\"NODE\">" + content + "</richcontent>"
+				+ "<text>one</text></node></map>";
+		final String events = load(text, true);
+		assertEquals(load(text, false), events);
+		assertEquals(true, events.contains("end richcontent in node [" + content + "]"));
+	}
+
+	private static void assertSameError(String text) {
+		final String expected = parseError(() -> parseWithNanoXml(text));
+		assertNotNull(expected);
+		assertEquals(expected, parseError(() -> parseWithScanner(text)));
+	}
+
+	private interface Parse {
+		XMLElement run() throws Exception;
+	}
+
+	private static String parseError(Parse parse) {
+		try {
+			parse.run();
+			fail();
+			return null;
+		}
+		catch (Exception e) {
+			Throwable cause = e;
+			while (cause.getCause() != null)
+				cause = cause.getCause();
+			return cause.getClass().getSimpleName();
+		}
+	}
+
+	private static XMLElement parseWithNanoXml(String text) throws XMLException {
+		final XMLParser parser = new XMLParser();
+		parser.setReader(new StdXMLReader(new StringReader(text)));
+		parser.setBuilder(new StdXMLBuilder());
+		parser.setValidator(new NonValidator());
+		return (XMLElement) parser.parse();
+	}
+
+	private static XMLElement parseWithScanner(String text) throws Exception {
+		final StdXMLBuilder builder = new StdXMLBuilder();
+		new XMLScanner(new StringReader(text), builder).parse();
+		return (XMLElement) builder.getResult();
+	}
+
+	private static String load(String text, boolean usesBufferedScanner) throws XMLException {
+		final StringBuilder events = new StringBuilder();
+		final ReadManager readManager = new ReadManager();
+		readManager.addElementHandler("map", new RecordingHandler(events));
+		readManager.addElementHandler("node", new RecordingHandler(events));
+		readManager.addElementHandler("hook", new RecordingHandler(events));
+		readManager.addElementHandler("richcontent", new ContentHandler(events, false));
+		readManager.addElementHandler("text", new ContentHandler(events, true));
+		new TreeXmlReader(readManager).load(new StringReader(text), usesBufferedScanner);
+		return events.toString();
+	}
+
+	private static class RecordingHandler implements IElementDOMHandler {
+		private final StringBuilder events;
+
+		RecordingHandler(StringBuilder events) {
+			this.events = events;
+		}
+
+		@Override
+		public Object createElement(Object parent, String tag, XMLElement attributes) {
+			events.append("start ").append(tag).append('\n');
+			return tag;
+		}
+
+		@Override
+		public void endElement(Object parent, String tag, Object element, XMLElement dom) {
+			events.append("end ").append(tag).append(" in ").append(parent).append('\n').append(dump(dom));
+		}
+	}
+
+	private static class ContentHandler implements IElementContentHandler {
+		private final StringBuilder events;
+		private final boolean findsClosingTagByName;
+
+		ContentHandler(StringBuilder events, boolean findsClosingTagByName) {
+			this.events = events;
+			this.findsClosingTagByName = findsClosingTagByName;
+		}
+
+		@Override
+		public Object createElement(Object parent, String tag, XMLElement attributes) {
+			events.append("start ").append(tag).append('\n');
+			return tag;
+		}
+
+		@Override
+		public boolean findsClosingTagByName() {
+			return findsClosingTagByName;
+		}
+
+		@Override
+		public void endElement(Object parent, String tag, Object node, XMLElement element, String content) {
+			events.append("end ").append(tag).append(" in ").append(parent).append(" [").append(content).append("]\n")
+			    .append(dump(element));
+		}
+	}
+
+	private static String dump(XMLElement element) {
+		final StringBuilder out = new StringBuilder();
+		dump(element, "", out);
+		return out.toString();
+	}
+
+	private static void dump(XMLElement element, String indent, StringBuilder out) {
+		out.append(indent).append(element.getFullName()).append(" {").append(element.getNamespace()).append("} line ")
+		    .append(element.getLineNr()).append(' ').append(element.getSystemID());
+		final Enumeration<String> attributeNames = element.enumerateAttributeNames();
+		while (attributeNames.hasMoreElements()) {
+			final String name = attributeNames.nextElement();
+			out.append(' ').append(name).append("{").append(element.getAttributeNamespace(name)).append("}=[")
+			    .append(element.getAttribute(name, null)).append(']');
+		}
+		if (element.getContent() != null)
+			out.append(" [").append(element.getContent()).append(']');
+		out.append('\n');
+		for (XMLElement child : element.getChildren())
+			dump(child, indent + "  ", out);
+	}
+
+	private static String readResource(String resource) throws Exception {
+		try (InputStream in = XMLScannerTest.class.getResourceAsStream(resource)) {
+			assertNotNull(resource, in);
+			final Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+			final StringBuilder text = new StringBuilder();
+			final char[] buffer = new char[8192];
+			for (int count; (count = reader.read(buffer)) != -1;)
+				text.append(buffer, 0, count);
+			return text.toString();
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package org.freeplane.core.ui.components.html;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+import javax.swing.plaf.basic.BasicHTML;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.View;
+import javax.swing.text.html.StyleSheet;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.HeadlessMaps;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeferredHTMLRenderersTest {
+	private static final int LABEL_COUNT = 100;
+
+	private ResourceController resourceController;
+	private String savedDeferredRendering;
+	private String savedCacheSize;
+	private final StyleSheet customStyleSheet = new StyleSheet();
+
+	@Before
+	public void setUp() {
+		HeadlessMaps.modeController();
+		resourceController = ResourceController.getResourceController();
+		savedDeferredRendering = resourceController.getProperty(DeferredHTMLRenderers.PROPERTY);
+		savedCacheSize = resourceController.getProperty(HTMLDocumentCache.CACHE_SIZE_PROPERTY);
+		resourceController.setProperty(HTMLDocumentCache.CACHE_SIZE_PROPERTY, 0);
+		customStyleSheet.addRule("body { font-size: 20pt; font-weight: bold; }");
+	}
+
+	@After
+	public void tearDown() {
+		resourceController.setProperty(DeferredHTMLRenderers.PROPERTY, savedDeferredRendering);
+		resourceController.setProperty(HTMLDocumentCache.CACHE_SIZE_PROPERTY, savedCacheSize);
+	}
+
+	private List<JLabel> createLabels() {
+		final List<JLabel> labels = new ArrayList<>();
+		for (int i = 0; i < LABEL_COUNT; i++) {
+			final JLabel label = new JLabel();
+			if (i % 2 == 0)
+				label.putClientProperty(StyleSheet.class, customStyleSheet);
+			labels.add(label);
+		}
+		return labels;
+	}
+
+	private static String text(int i) {
+		if (i % 2 == 0)
+			return "plain text " + i;
+		return "<html><body><p>paragraph " + i + "</p><ul><li><b>bold</b> item</li></ul>"
+		        + "<table><tr><td>cell " + i + "</td></tr></table><unknown>tag</unknown></body></html>";
+	}
+
+	private static View view(JLabel label) {
+		return (View) label.getClientProperty(BasicHTML.propertyKey);
+	}
+
+	private List<View> render(boolean defersRendering) throws Exception {
+		resourceController.setProperty(DeferredHTMLRenderers.PROPERTY, defersRendering);
+		final List<JLabel> labels = createLabels();
+		SwingUtilities.invokeAndWait(() -> ScaledHTML.updateRenderersOnce(() -> {
+			for (int i = 0; i < labels.size(); i++) {
+				ScaledHTML.updateRenderer(labels.get(i), "<html>previous text</html>");
+				ScaledHTML.updateRenderer(labels.get(i), text(i));
+			}
+		}));
+		final List<View> views = new ArrayList<>();
+		for (JLabel label : labels)
+			views.add(view(label));
+		return views;
+	}
+
+	private static String text(View view) throws BadLocationException {
+		final Document document = view.getDocument();
+		return document.getText(0, document.getLength());
+	}
+
+	@Test
+	public void rendersSameTextsAsImmediateRendering() throws Exception {
+		final List<View> deferredViews = render(true);
+		final List<View> immediateViews = render(false);
+
+		for (int i = 0; i < LABEL_COUNT; i++) {
+			final View deferredView = deferredViews.get(i);
+			final View immediateView = immediateViews.get(i);
+			assertThat(text(deferredView)).isEqualTo(text(immediateView)).doesNotContain("previous");
+			assertThat(deferredView.getPreferredSpan(View.X_AXIS)).isEqualTo(immediateView.getPreferredSpan(View.X_AXIS));
+			assertThat(deferredView.getPreferredSpan(View.Y_AXIS)).isEqualTo(immediateView.getPreferredSpan(View.Y_AXIS));
+		}
+	}
+
+	@Test
+	public void createsRendererOfLabelMeasuredDuringUpdates() throws Exception {
+		resourceController.setProperty(DeferredHTMLRenderers.PROPERTY, true);
+		final JLabel label = new JLabel();
+		final List<View> viewsDuringUpdates = new ArrayList<>();
+		SwingUtilities.invokeAndWait(() -> ScaledHTML.updateRenderersOnce(() -> {
+			ScaledHTML.updateRenderer(label, text(1));
+			viewsDuringUpdates.add(view(label));
+			ScaledHTML.createDeferredRenderer(label);
+			viewsDuringUpdates.add(view(label));
+		}));
+
+		assertThat(viewsDuringUpdates.get(0)).isNull();
+		assertThat(viewsDuringUpdates.get(1)).isNotNull();
+		assertThat(view(label)).isSameAs(viewsDuringUpdates.get(1));
+	}
+}
@@ -0,0 +1,132 @@
+package org.freeplane.core.ui.components.html;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Color;
+import java.awt.ComponentOrientation;
+import java.awt.Font;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.swing.JLabel;
+import javax.swing.SwingConstants;
+import javax.swing.plaf.basic.BasicHTML;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.View;
+import javax.swing.text.html.StyleSheet;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.HeadlessMaps;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HTMLDocumentCacheTest {
+	private static final AtomicInteger htmlCounter = new AtomicInteger();
+
+	private ResourceController resourceController;
+	private String savedCacheSize;
+	private AtomicInteger parsedDocumentCount;
+	private Supplier<Document> parser;
+
+	@Before
+	public void setUp() {
+		HeadlessMaps.modeController();
+		resourceController = ResourceController.getResourceController();
+		savedCacheSize = resourceController.getProperty(HTMLDocumentCache.CACHE_SIZE_PROPERTY);
+		resourceController.setProperty(HTMLDocumentCache.CACHE_SIZE_PROPERTY, 500);
+		parsedDocumentCount = new AtomicInteger();
+		parser = () -> {
+			parsedDocumentCount.incrementAndGet();
+			return new PlainDocument();
+		};
+	}
+
+	@After
+	public void tearDown() {
+		resourceController.setProperty(HTMLDocumentCache.CACHE_SIZE_PROPERTY, savedCacheSize);
+	}
+
+	/** Returns html not used by other tests, because the cache is shared. */
+	private static String uniqueHtml() {
+		return "<html><body><p>paragraph " + htmlCounter.incrementAndGet() + "</p>"
+		        + "<ul><li><b>bold</b> item</li></ul><table><tr><td>cell</td></tr></table></body></html>";
+	}
+
+	@Test
+	public void cachedDocumentHasSamePreferredSizeAsParsedDocument() {
+		final String html = uniqueHtml();
+		final View parsedView = ScaledHTML.createHTMLView(new JLabel(), html);
+		final View cachedView = ScaledHTML.createHTMLView(new JLabel(), html);
+		resourceController.setProperty(HTMLDocumentCache.CACHE_SIZE_PROPERTY, 0);
+		final View freshView = ScaledHTML.createHTMLView(new JLabel(), html);
+
+		assertThat(cachedView.getDocument()).isSameAs(parsedView.getDocument());
+		assertThat(freshView.getDocument()).isNotSameAs(parsedView.getDocument());
+		assertThat(cachedView.getPreferredSpan(View.X_AXIS)).isEqualTo(freshView.getPreferredSpan(View.X_AXIS));
+		assertThat(cachedView.getPreferredSpan(View.Y_AXIS)).isEqualTo(freshView.getPreferredSpan(View.Y_AXIS));
+	}
+
+	private void assertSeparateDocuments(Consumer<JLabel> labelChange) {
+		final String html = uniqueHtml();
+		final Document document = HTMLDocumentCache.getDocument(new JLabel(), html, parser);
+		final JLabel changedLabel = new JLabel();
+		labelChange.accept(changedLabel);
+
+		assertThat(HTMLDocumentCache.getDocument(new JLabel(), html, parser)).isSameAs(document);
+		assertThat(HTMLDocumentCache.getDocument(changedLabel, html, parser)).isNotSameAs(document);
+		assertThat(parsedDocumentCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void separatesDocumentsOfDifferentFonts() {
+		assertSeparateDocuments(label -> label.setFont(label.getFont().deriveFont(Font.ITALIC, 31f)));
+	}
+
+	@Test
+	public void separatesDocumentsOfDifferentForegrounds() {
+		assertSeparateDocuments(label -> label.setForeground(new Color(0x123456)));
+	}
+
+	@Test
+	public void separatesDocumentsOfDifferentAlignments() {
+		assertSeparateDocuments(label -> label.setHorizontalAlignment(SwingConstants.RIGHT));
+	}
+
+	@Test
+	public void separatesDocumentsOfDifferentOrientations() {
+		assertSeparateDocuments(label -> label.setComponentOrientation(ComponentOrientation.RIGHT_TO_LEFT));
+	}
+
+	@Test
+	public void separatesDocumentsOfDifferentStyleSheets() {
+		assertSeparateDocuments(label -> label.putClientProperty(StyleSheet.class, new StyleSheet()));
+	}
+
+	@Test
+	public void separatesDocumentsOfDifferentBases() {
+		assertSeparateDocuments(label -> {
+			try {
+				label.putClientProperty(BasicHTML.documentBaseKey, new URL("file:/document/base/"));
+			}
+			catch (MalformedURLException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	@Test
+	public void parsesEveryDocumentWithoutCacheSize() {
+		resourceController.setProperty(HTMLDocumentCache.CACHE_SIZE_PROPERTY, 0);
+		final String html = uniqueHtml();
+
+		final Document document = HTMLDocumentCache.getDocument(new JLabel(), html, parser);
+
+		assertThat(HTMLDocumentCache.getDocument(new JLabel(), html, parser)).isNotSameAs(document);
+		assertThat(parsedDocumentCount.get()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,120 @@
+package org.freeplane.core.undo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.HeadlessMaps;
+import org.freeplane.features.map.MapModel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class UndoHandlerTest {
+	private static final long MB = 1024L * 1024L;
+
+	private ResourceController resourceController;
+	private String savedMemoryLimit;
+	private UndoHandler undoHandler;
+	private final List<String> undoneActors = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		HeadlessMaps.modeController();
+		resourceController = ResourceController.getResourceController();
+		savedMemoryLimit = resourceController.getProperty(UndoHandler.MEMORY_LIMIT_PROPERTY);
+		resourceController.setProperty(UndoHandler.MEMORY_LIMIT_PROPERTY, 1);
+		undoHandler = new UndoHandler(Mockito.mock(MapModel.class));
+	}
+
+	@After
+	public void tearDown() {
+		resourceController.setProperty(UndoHandler.MEMORY_LIMIT_PROPERTY, savedMemoryLimit);
+	}
+
+	private IActor actor(String name, long estimatedSize) {
+		return new IActor() {
+			@Override
+			public void act() {
+			}
+
+			@Override
+			public String getDescription() {
+				return name;
+			}
+
+			@Override
+			public void undo() {
+				undoneActors.add(name);
+			}
+
+			@Override
+			public long getEstimatedSize() {
+				return estimatedSize;
+			}
+		};
+	}
+
+	private void add(String name, long estimatedSize) {
+		undoHandler.forceNewTransaction();
+		undoHandler.addActor(actor(name, estimatedSize));
+	}
+
+	private void undoAll() {
+		while (undoHandler.canUndo())
+			undoHandler.undo();
+	}
+
+	@Test
+	public void removesOldestEntriesExceedingMemoryLimit() {
+		for (int i = 0; i < 5; i++)
+			add("actor " + i, MB / 4);
+
+		assertThat(undoHandler.getEstimatedSize()).isLessThanOrEqualTo(MB);
+		undoAll();
+		assertThat(undoneActors).containsExactly("actor 4", "actor 3", "actor 2");
+	}
+
+	@Test
+	public void keepsLastEntryExceedingMemoryLimit() {
+		add("small", 100);
+		add("large", 2 * MB);
+
+		undoAll();
+		assertThat(undoneActors).containsExactly("large");
+	}
+
+	@Test
+	public void keepsAllEntriesWithoutMemoryLimit() {
+		resourceController.setProperty(UndoHandler.MEMORY_LIMIT_PROPERTY, 0);
+		for (int i = 0; i < 5; i++)
+			add("actor " + i, MB);
+
+		assertThat(undoHandler.getEstimatedSize()).isGreaterThan(5 * MB);
+		undoAll();
+		assertThat(undoneActors).hasSize(5);
+	}
+
+	@Test
+	public void keepsEntriesOfOpenTransaction() {
+		undoHandler.startTransaction();
+		for (int i = 0; i < 5; i++)
+			add("actor " + i, MB / 3);
+		undoHandler.rollback();
+
+		assertThat(undoneActors).containsExactly("actor 4", "actor 3", "actor 2", "actor 1", "actor 0");
+	}
+
+	@Test
+	public void subtractsRemovedRedoEntries() {
+		add("first", MB / 3);
+		add("second", MB / 3);
+		undoHandler.undo();
+		add("third", 100);
+
+		assertThat(undoHandler.getEstimatedSize()).isLessThan(MB / 2);
+	}
+}
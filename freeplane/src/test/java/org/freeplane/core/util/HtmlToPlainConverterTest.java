@@ -0,0 +1,77 @@
+package org.freeplane.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HtmlToPlainConverterTest {
+	private static final String[] CORPUS = {
+			"",
+			"plain text",
+			"<html><head></head><body><p>short <b>rich</b> text</p></body></html>",
+			"<html>\n  <head>\n    <style type=\"text/css\">p { margin-top: 0 }</style>\n  </head>\n"
+			+ "  <body>\n    <p>\n      A paragraph with <b>bold</b>, <i>italic</i> and &lt;escaped&gt; &amp; text&nbsp;&nbsp;\n    </p>\n"
+			+ "    <ul>\n      <li>\n        first item\n      </li>\n      <li>\n        second&#160;item\n      </li>\n    </ul>\n"
+			+ "    <table>\n      <tr>\n        <td>cell 1</td>\n        <td>cell 2</td>\n      </tr>\n    </table>\n"
+			+ "    <p>\n      <a href=\"https://www.freeplane.org\">link</a><br>line break\n    </p>\n  </body>\n</html>\n",
+			"<html><body><p>Zero</p><p>One&nbsp; </p><p>Two&nbsp;&nbsp; \n</p></body></html>",
+			"<html><body><div><p><br> text <br/></p></div><tr><div> x</div></tr></body></html>",
+			"<html><body><ol><li>first</li><li><b> second </b></li></ol><dl><dt>term<dd>definition</dl></body></html>",
+			"<html><body>&AMP;nbsp; &amp;lt; &Quot; &#60;tag&#62; &#x3c; &#9; tab &#10; line &#1;</body></html>",
+			"<html><body>AT&T; a &unknown; entity &#xyz; &#-5; &#x; and a trailing &</body></html>",
+			"<html><body><p>  </p><b> </b> <i>x </i> <td> </td> <ul> </ul> <br> \t\r\n y</body></html>",
+			"<html><body>a > b\n\t c >\n\t d</body></html>",
+	};
+
+	@Test
+	public void convertsCorpusLikeRegularExpressions() {
+		for (String text : CORPUS) {
+			assertSameResult(text, true, "   * ");
+			assertSameResult(text, false, "   * ");
+			assertSameResult(text, true, "");
+		}
+	}
+
+	@Test
+	public void convertsTypicalRichTextWithoutFallback() {
+		assertNotNull(HtmlToPlainConverter.convert(CORPUS[3], true, "   * "));
+	}
+
+	@Test
+	public void convertsRandomMarkupLikeRegularExpressions() {
+		final String[] tokens = { "<p>", "</p>", "<P class=\"x\">", "<div>", "</div>", "<tr>", "<td>", "</td>",
+				"<br>", "<br/>", "<dt>", "<dd>", "<ul>", "<ol>", "<li>", "</li>", "<b>", "</b>", "<pre>", "<>",
+				"<", ">", "< b>", "</ >", " ", "  ", "\n", "\t", "\r", "\f", "x", "text", "&", ";", "&lt;", "&GT;",
+				"&quot;", "&amp;", "&nbsp;", "nbsp;", "lt;", "&#160;", "&#32;", "&#10;", "&#9;", "&#x41;", "&#38;",
+				"&#1;", "&#;", "&;", "&#x;", "&#65536;", " " };
+		final Random random = new Random(1);
+		for (int i = 0; i < 50000; i++) {
+			final StringBuilder text = new StringBuilder("<html>");
+			final int length = random.nextInt(20);
+			for (int j = 0; j < length; j++)
+				text.append(tokens[random.nextInt(tokens.length)]);
+			assertSameResult(text.toString(), random.nextBoolean(), "   * ");
+		}
+	}
+
+	private void assertSameResult(String text, boolean removeNewLines, String bulletPointReplacement) {
+		String expected;
+		try {
+			expected = HtmlUtils.htmlToPlainUsingPatterns(text, removeNewLines, bulletPointReplacement);
+		}
+		catch (RuntimeException e) {
+			expected = e.getClass().getName();
+		}
+		String actual;
+		try {
+			actual = HtmlUtils.htmlToPlain(text, false, removeNewLines, bulletPointReplacement);
+		}
+		catch (RuntimeException e) {
+			actual = e.getClass().getName();
+		}
+		assertEquals(text, expected, actual);
+	}
+}
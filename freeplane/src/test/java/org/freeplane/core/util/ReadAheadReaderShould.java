@@ -0,0 +1,81 @@
+package org.freeplane.core.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ReadAheadReaderShould {
+	@Test
+	public void returnTextOfSource() throws Exception {
+		final StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 10000; i++)
+			text.append(i).append(' ');
+		try (Reader reader = new ReadAheadReader(new StringReader(text.toString()), 100, 3)) {
+			final StringBuilder readText = new StringBuilder();
+			final char[] buffer = new char[77];
+			for (int count; (count = reader.read(buffer, 0, 1 + readText.length() % buffer.length)) != -1;)
+				readText.append(buffer, 0, count);
+			assertThat(readText.toString(), equalTo(text.toString()));
+			assertThat(reader.read(), equalTo(-1));
+		}
+	}
+
+	@Test
+	public void returnEndOfStreamForEmptySource() throws Exception {
+		try (Reader reader = new ReadAheadReader(new StringReader(""), 100, 3)) {
+			assertThat(reader.read(), equalTo(-1));
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void throwExceptionOfSourceAfterTextReadBefore() throws Exception {
+		final Reader source = new Reader() {
+			private boolean isRead;
+
+			@Override
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				if (isRead)
+					throw new IOException();
+				isRead = true;
+				cbuf[off] = 'x';
+				return 1;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		try (Reader reader = new ReadAheadReader(source, 100, 3)) {
+			assertThat(reader.read(), equalTo((int) 'x'));
+			reader.read();
+		}
+	}
+
+	@Test
+	public void closeSourceAfterReaderIsClosed() throws Exception {
+		final CountDownLatch sourceClosed = new CountDownLatch(1);
+		final Reader source = new Reader() {
+			@Override
+			public int read(char[] cbuf, int off, int len) {
+				cbuf[off] = 'x';
+				return 1;
+			}
+
+			@Override
+			public void close() {
+				sourceClosed.countDown();
+			}
+		};
+		final Reader reader = new ReadAheadReader(source, 100, 3);
+		assertThat(reader.read(), equalTo((int) 'x'));
+		reader.close();
+		assertThat(sourceClosed.await(10, TimeUnit.SECONDS), equalTo(true));
+	}
+}
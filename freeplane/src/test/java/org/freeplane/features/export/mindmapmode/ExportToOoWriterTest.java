@@ -0,0 +1,101 @@
+package org.freeplane.features.export.mindmapmode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.HeadlessMaps;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.MapWriter.Mode;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ExportToOoWriterTest {
+	private static final String MAP = "<map version=\"freeplane 1.12.1\">\n"
+	        + "<node TEXT=\"root\" ID=\"ID_root\">\n"
+	        + "<hook NAME=\"MapStyle\">\n"
+	        + "<map_styles>\n"
+	        + "<stylenode LOCALIZED_TEXT=\"styles.root_node\">\n"
+	        + "<stylenode LOCALIZED_TEXT=\"styles.predefined\" POSITION=\"bottom_or_right\">\n"
+	        + "<stylenode LOCALIZED_TEXT=\"default\" ID=\"ID_default\" COLOR=\"#000000\"/>\n"
+	        + "<stylenode LOCALIZED_TEXT=\"defaultstyle.details\" ID=\"ID_details\"/>\n"
+	        + "<stylenode LOCALIZED_TEXT=\"defaultstyle.note\" ID=\"ID_note\"/>\n"
+	        + "</stylenode>\n"
+	        + "</stylenode>\n"
+	        + "</map_styles>\n"
+	        + "</hook>\n"
+	        + "<node TEXT=\"a &amp; b\" POSITION=\"bottom_or_right\" ID=\"ID_a\">\n"
+	        + "<richcontent TYPE=\"NOTE\"><html><body><p>note&nbsp;text</p></body></html></richcontent>\n"
+	        + "<node TEXT=\"a1\" ID=\"ID_a1\"/>\n"
+	        + "</node>\n"
+	        + "<node ID=\"ID_b\" POSITION=\"top_or_left\">\n"
+	        + "<richcontent TYPE=\"NODE\"><html><body><p><b>rich</b> text</p></body></html></richcontent>\n"
+	        + "</node>\n"
+	        + "</node>\n"
+	        + "</map>\n";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	private List<NodeModel> branches;
+
+	@Before
+	public void setUp() {
+		HeadlessMaps.modeController();
+		final MapModel map = HeadlessMaps.load(MAP);
+		branches = Collections.singletonList(map.getRootNode());
+	}
+
+	private String transformWithStringWriter(String xsltFileName) throws Exception {
+		final StringWriter xml = new StringWriter();
+		new BranchXmlWriter(branches).writeXml(xml, Mode.EXPORT);
+		final URL xsltUrl = ResourceController.getResourceController().getResource(xsltFileName);
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		TransformerFactory.newInstance().newTransformer(new StreamSource(xsltUrl.toExternalForm()))
+		    .transform(new StreamSource(new StringReader(xml.toString())), new StreamResult(output));
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static String entry(ZipFile zip, String name) throws Exception {
+		final ZipEntry entry = zip.getEntry(name);
+		assertThat(entry).isNotNull();
+		try (InputStream input = zip.getInputStream(entry)) {
+			final ByteArrayOutputStream output = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[4096];
+			for (int count; (count = input.read(buffer)) > 0;)
+				output.write(buffer, 0, count);
+			return new String(output.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+	@Test
+	public void writesSameDocumentsAsTransformationOfStringWriterXml() throws Exception {
+		final File file = folder.newFile("map.odt");
+		new ExportToOoWriter().exportToOoWriter(branches, file);
+
+		try (ZipFile zip = new ZipFile(file)) {
+			final String content = entry(zip, "content.xml");
+			assertThat(content).contains("rich");
+			assertThat(content).isEqualTo(transformWithStringWriter("/xslt/export2oowriter.xsl"));
+			assertThat(entry(zip, "META-INF/manifest.xml")).isEqualTo(transformWithStringWriter("/xslt/export2oowriter.manifest.xsl"));
+			assertThat(entry(zip, "styles.xml")).isEqualTo(transformWithStringWriter("/xslt/export2oowriter.styles.xsl"));
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package org.freeplane.features.export.mindmapmode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class XsltTemplatesTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static void writeStylesheet(File file, String output) throws Exception {
+		final String stylesheet = "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">"
+		        + "<xsl:output method=\"text\"/>"
+		        + "<xsl:template match=\"/\">" + output + "</xsl:template>"
+		        + "</xsl:stylesheet>";
+		Files.write(file.toPath(), stylesheet.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String transform(File xsltFile) throws Exception {
+		final StringWriter output = new StringWriter();
+		XsltTemplates.newTransformer(xsltFile).transform(new StreamSource(new StringReader("<map/>")), new StreamResult(output));
+		return output.toString();
+	}
+
+	@Test
+	public void compilesStylesheetAgainAfterFileChanges() throws Exception {
+		final File xsltFile = folder.newFile("export.xsl");
+		writeStylesheet(xsltFile, "first");
+		final long lastModified = xsltFile.lastModified();
+		assertThat(transform(xsltFile)).isEqualTo("first");
+
+		writeStylesheet(xsltFile, "second");
+		xsltFile.setLastModified(lastModified);
+		assertThat(transform(xsltFile)).isEqualTo("first");
+
+		xsltFile.setLastModified(lastModified + 2000);
+		assertThat(transform(xsltFile)).isEqualTo("second");
+	}
+}
@@ -0,0 +1,110 @@
+package org.freeplane.features.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.MapFake;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Test;
+
+public class FilterUpdateShould {
+	private static final ICondition CONTAINS_X = node -> node.getText().contains("x");
+
+	private static final ICondition PARENT_CONTAINS_X = new ICondition() {
+		@Override
+		public boolean checkNode(NodeModel node) {
+			return node.getParentNode() != null && CONTAINS_X.checkNode(node.getParentNode());
+		}
+
+		@Override
+		public boolean checksParent() {
+			return true;
+		}
+	};
+
+	private static final ICondition ANY_CHILD_CONTAINS_X = new ICondition() {
+		@Override
+		public boolean checkNode(NodeModel node) {
+			return node.getChildren().stream().anyMatch(CONTAINS_X::checkNode);
+		}
+
+		@Override
+		public boolean checksChildren() {
+			return true;
+		}
+	};
+
+	private final MapFake mapFake = new MapFake();
+	private final Random random = new Random(1);
+	private final List<NodeModel> nodes = new ArrayList<>();
+
+	@Test
+	public void produceSameResultsAsFullCalculation_forNodeCondition() {
+		checkRandomChanges(CONTAINS_X);
+	}
+
+	@Test
+	public void produceSameResultsAsFullCalculation_forParentCondition() {
+		checkRandomChanges(PARENT_CONTAINS_X);
+	}
+
+	@Test
+	public void produceSameResultsAsFullCalculation_forChildrenCondition() {
+		checkRandomChanges(ANY_CHILD_CONTAINS_X);
+	}
+
+	private void checkRandomChanges(ICondition condition) {
+		createTree(mapFake.getRoot(), 4);
+		final Filter filter = new Filter(condition, false, true, true, false, null);
+		filter.calculateFilterResults(mapFake.getRoot().getMap());
+		for (int i = 0; i < 300; i++) {
+			final NodeModel node = nodes.get(random.nextInt(nodes.size()));
+			final int change = random.nextInt(3);
+			if (change == 0 || node.getParentNode() == null) {
+				node.setText(randomText());
+				filter.updateFilterResults(node, x -> {});
+			}
+			else if (change == 1) {
+				final NodeModel child = mapFake.createNode(randomText());
+				node.insert(child);
+				nodes.add(child);
+				filter.updateFilterResults(child, x -> {});
+			}
+			else if (! node.hasChildren()) {
+				final NodeModel parent = node.getParentNode();
+				parent.remove(parent.getIndex(node));
+				nodes.remove(node);
+				filter.updateFilterResults(parent, x -> {});
+			}
+			assertSameResults(condition, filter);
+		}
+	}
+
+	private void createTree(NodeModel parent, int depth) {
+		nodes.add(parent);
+		if (depth == 0)
+			return;
+		for (int i = 0; i < 3; i++) {
+			final NodeModel child = mapFake.createNode(randomText());
+			parent.insert(child);
+			createTree(child, depth - 1);
+		}
+	}
+
+	private String randomText() {
+		return random.nextInt(4) == 0 ? "x" : "y";
+	}
+
+	private void assertSameResults(ICondition condition, Filter filter) {
+		final Filter expected = new Filter(condition, false, true, true, false, null);
+		expected.calculateFilterResults(mapFake.getRoot().getMap());
+		for (NodeModel node : nodes) {
+			assertThat(filter.getFilterInfo(node).get(~0)).as(node.getText())
+			    .isEqualTo(expected.getFilterInfo(node).get(~0));
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package org.freeplane.features.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.filter.condition.IParallelCondition;
+import org.freeplane.features.map.HeadlessMaps;
+import org.freeplane.features.map.MapFake;
+import org.freeplane.features.map.NodeModel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelFilterShould {
+	private static final IParallelCondition CONTAINS_X = new IParallelCondition() {
+		@Override
+		public Object collectNodeData(NodeModel node) {
+			return node.getText();
+		}
+
+		@Override
+		public boolean checkNodeData(Object nodeData) {
+			return ((String) nodeData).contains("x");
+		}
+	};
+
+	private final MapFake mapFake = new MapFake();
+	private final Random random = new Random(1);
+	private final List<NodeModel> nodes = new ArrayList<>();
+	private ResourceController resourceController;
+	private String savedParallelEvaluationProperty;
+
+	@Before
+	public void setUp() {
+		HeadlessMaps.modeController();
+		resourceController = ResourceController.getResourceController();
+		savedParallelEvaluationProperty = resourceController.getProperty(Filter.PARALLEL_EVALUATION_PROPERTY);
+	}
+
+	@After
+	public void tearDown() {
+		resourceController.setProperty(Filter.PARALLEL_EVALUATION_PROPERTY, savedParallelEvaluationProperty);
+	}
+
+	@Test
+	public void produceSameResultsAsSerialFiltering_forLargeMap() {
+		createTree(mapFake.getRoot(), 7);
+		assertThat(nodes.size()).isGreaterThan(1000);
+		assertSameResults(false);
+		assertSameResults(true);
+	}
+
+	@Test
+	public void produceSameResultsAsSerialFiltering_forSmallMap() {
+		createTree(mapFake.getRoot(), 3);
+		assertSameResults(false);
+		assertSameResults(true);
+	}
+
+	private void createTree(NodeModel parent, int depth) {
+		nodes.add(parent);
+		if (depth == 0)
+			return;
+		for (int i = 0; i < 3; i++) {
+			final NodeModel child = mapFake.createNode(random.nextInt(4) == 0 ? "x" : "y");
+			parent.insert(child);
+			createTree(child, depth - 1);
+		}
+	}
+
+	private Filter calculateFilter(boolean hidesMatchingElements, boolean evaluatesInParallel) {
+		resourceController.setProperty(Filter.PARALLEL_EVALUATION_PROPERTY, evaluatesInParallel);
+		final Filter filter = new Filter(CONTAINS_X, hidesMatchingElements, true, false, false, null);
+		filter.calculateFilterResults(mapFake.getRoot().getMap());
+		return filter;
+	}
+
+	private void assertSameResults(boolean hidesMatchingElements) {
+		final Filter parallel = calculateFilter(hidesMatchingElements, true);
+		final Filter serial = calculateFilter(hidesMatchingElements, false);
+		for (NodeModel node : nodes) {
+			assertThat(parallel.getFilterInfo(node).get(~0)).as(node.getText())
+			    .isEqualTo(serial.getFilterInfo(node).get(~0));
+		}
+	}
+}
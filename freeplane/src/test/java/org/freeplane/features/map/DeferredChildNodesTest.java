@@ -0,0 +1,203 @@
+package org.freeplane.features.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.freeplane.features.map.HeadlessMaps.node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.undo.IUndoHandler;
+import org.freeplane.core.undo.UndoHandler;
+import org.freeplane.features.map.mindmapmode.MMapController;
+import org.freeplane.features.mode.ModeController;
+import org.freeplane.features.styles.LogicalStyleController;
+import org.freeplane.features.styles.LogicalStyleController.StyleOption;
+import org.freeplane.features.text.TextController;
+import org.freeplane.features.text.mindmapmode.MTextController;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeferredChildNodesTest {
+	private static final String MAP = "<map version=\"freeplane 1.12.1\">\n"
+	        + "<node TEXT=\"root\" ID=\"ID_root\">\n"
+	        + "<hook NAME=\"MapStyle\">\n"
+	        + "<map_styles>\n"
+	        + "<stylenode LOCALIZED_TEXT=\"styles.root_node\">\n"
+	        + "<stylenode LOCALIZED_TEXT=\"styles.predefined\" POSITION=\"bottom_or_right\">\n"
+	        + "<stylenode LOCALIZED_TEXT=\"default\" ID=\"ID_default\"/>\n"
+	        + "</stylenode>\n"
+	        + "</stylenode>\n"
+	        + "</map_styles>\n"
+	        + "</hook>\n"
+	        + "<node TEXT=\"a\" FOLDED=\"true\" POSITION=\"bottom_or_right\" ID=\"ID_a\">\n"
+	        + "<node TEXT=\"a1\" ID=\"ID_a1\">\n"
+	        + "<richcontent TYPE=\"NOTE\"><html><body><p> ID=\"ID_fake\"</p><!-- <node ID=\"ID_comment\"/> --></body></html></richcontent>\n"
+	        + "</node>\n"
+	        + "<node TEXT=\"a2\" ID='ID_a2'>\n"
+	        + "<attribute NAME=\"ID\" VALUE=\"ID_attribute\"/>\n"
+	        + "<node TEXT=\"a21\" ID=\"ID_a21\"/>\n"
+	        + "</node>\n"
+	        + "</node>\n"
+	        + "<node TEXT=\"b\" POSITION=\"bottom_or_right\" ID=\"ID_b\"/>\n"
+	        + "</node>\n"
+	        + "</map>\n";
+
+	private ResourceController resourceController;
+	private String savedLazyLoadingProperty;
+	private String savedModificationTimesProperty;
+
+	@Before
+	public void setUp() {
+		HeadlessMaps.modeController();
+		resourceController = ResourceController.getResourceController();
+		savedLazyLoadingProperty = resourceController.getProperty(DeferredNodeBuilder.LAZY_BRANCH_LOADING_PROPERTY);
+		savedModificationTimesProperty = resourceController.getProperty(NodeBuilder.RESOURCES_SAVE_MODIFICATION_TIMES);
+		resourceController.setProperty(NodeBuilder.RESOURCES_SAVE_MODIFICATION_TIMES, false);
+	}
+
+	@After
+	public void tearDown() {
+		resourceController.setProperty(DeferredNodeBuilder.LAZY_BRANCH_LOADING_PROPERTY, savedLazyLoadingProperty);
+		resourceController.setProperty(NodeBuilder.RESOURCES_SAVE_MODIFICATION_TIMES, savedModificationTimesProperty);
+	}
+
+	private MapModel load(boolean loadsLazily) {
+		resourceController.setProperty(DeferredNodeBuilder.LAZY_BRANCH_LOADING_PROPERTY, loadsLazily);
+		return HeadlessMaps.load(MAP);
+	}
+
+	@Test
+	public void keepsChildrenOfFoldedNodesDeferred() {
+		final MapModel map = load(true);
+		final NodeModel node = node(map, "ID_a");
+
+		assertThat(node.getDeferredChildren()).isNotNull();
+		assertThat(node.getChildCount()).isEqualTo(2);
+		assertThat(load(false).getNodeForID("ID_a").getDeferredChildren()).isNull();
+	}
+
+	@Test
+	public void savesSameXmlAsMapLoadedCompletely() {
+		resourceController.setProperty(DeferredNodeBuilder.LAZY_BRANCH_LOADING_PROPERTY, false);
+		final String savedXml = HeadlessMaps.save(HeadlessMaps.load(MAP));
+		final MapModel completelyLoadedMap = HeadlessMaps.load(savedXml);
+		resourceController.setProperty(DeferredNodeBuilder.LAZY_BRANCH_LOADING_PROPERTY, true);
+		final MapModel lazilyLoadedMap = HeadlessMaps.load(savedXml);
+
+		assertThat(node(lazilyLoadedMap, "ID_a").getDeferredChildren()).isNotNull();
+		assertThat(HeadlessMaps.save(lazilyLoadedMap)).isEqualTo(HeadlessMaps.save(completelyLoadedMap)).isEqualTo(savedXml);
+
+		node(lazilyLoadedMap, "ID_a").getChildren();
+		assertThat(HeadlessMaps.save(lazilyLoadedMap)).isEqualTo(savedXml);
+	}
+
+	@Test
+	public void findsNodesInDeferredBranch() {
+		final MapModel map = load(true);
+
+		final NodeModel node = map.getNodeForID("ID_a21");
+
+		assertThat(node).isNotNull();
+		assertThat(node.getText()).isEqualTo("a21");
+		assertThat(node.getParentNode()).isSameAs(map.getNodeForID("ID_a2"));
+		assertThat(node.getParentNode().getParentNode()).isSameAs(map.getNodeForID("ID_a"));
+		assertThat(node(map, "ID_a").getDeferredChildren()).isNull();
+	}
+
+	@Test
+	public void ignoresIdsOutsideOfNodeTags() {
+		final MapModel map = load(true);
+
+		assertThat(map.getNodeForID("ID_fake")).isNull();
+		assertThat(map.getNodeForID("ID_comment")).isNull();
+		assertThat(map.getNodeForID("ID_attribute")).isNull();
+
+		assertThat(node(map, "ID_a").getDeferredChildren()).isNotNull();
+	}
+
+	@Test
+	public void readsIdsOfNodeTagsOnly() {
+		final List<String> ids = new ArrayList<>();
+		DeferredNodeBuilder.addContainedNodeIDs("<node TEXT='ID=\"ID_text\"' ID='ID_1'><nodes ID=\"ID_2\"/>"
+		        + "<![CDATA[<node ID=\"ID_3\">]]><node\nID = \"ID_&amp;4\"></node></node>", ids);
+
+		assertThat(ids).containsExactly("ID_1", "ID_&4");
+	}
+
+	@Test
+	public void createsDeferredChildrenAttachedToMapOfReinsertedParent() {
+		final MapModel map = load(true);
+		final NodeModel node = node(map, "ID_a");
+		final NodeModel root = map.getRootNode();
+		root.remove(root.getIndex(node));
+		node(map, "ID_b").insert(node);
+
+		assertThat(node.getDeferredChildren()).isNotNull();
+		final NodeModel child = node.getChildAt(0);
+		assertThat(child.getMap()).isSameAs(map);
+		assertThat(child.isAttached()).isTrue();
+		assertThat(map.getNodeForID("ID_a1")).isSameAs(child);
+	}
+
+	@Test
+	public void createsDeferredChildrenDetachedFromRemovedParent() {
+		final MapModel map = load(true);
+		final NodeModel node = node(map, "ID_a");
+		final NodeModel root = map.getRootNode();
+		root.remove(root.getIndex(node));
+
+		assertThat(node.getDeferredChildren()).isNotNull();
+		final NodeModel child = node.getChildAt(0);
+		assertThat(child.isAttached()).isFalse();
+	}
+
+	@Test
+	public void unregistersDeferredNodesOfDeletedParent() {
+		final MapModel map = load(true);
+		final MMapController mapController = (MMapController) HeadlessMaps.mapController();
+
+		mapController.deleteNode(node(map, "ID_a"));
+
+		assertThat(map.getNodeForID("ID_a21")).isNull();
+	}
+
+	@Test
+	public void keepsChildrenDeferredWhenCachedNodeIsChangedOrMoved() {
+		final MapModel map = load(true);
+		final ModeController modeController = HeadlessMaps.modeController();
+		final MTextController textController = (MTextController) TextController.getController(modeController);
+		final MMapController mapController = (MMapController) HeadlessMaps.mapController();
+		final NodeModel node = node(map, "ID_a");
+		textController.getPlainTransformedText(node);
+		LogicalStyleController.getController(modeController).getStyles(node, StyleOption.FOR_UNSELECTED_NODE);
+
+		textController.setNodeText(node, "changed");
+
+		assertThat(node.getDeferredChildren()).isNotNull();
+
+		mapController.moveNodes(Collections.singletonList(node), node(map, "ID_b"), 0);
+
+		assertThat(node.getParentNode()).isSameAs(node(map, "ID_b"));
+		assertThat(node.getDeferredChildren()).isNotNull();
+	}
+
+	@Test
+	public void estimatesUndoSizeOfDeletedDeferredBranchWithoutLoadingIt() {
+		final MapModel map = load(true);
+		final MMapController mapController = (MMapController) HeadlessMaps.mapController();
+		map.beforeViewCreated();
+		final UndoHandler undoHandler = (UndoHandler) map.getExtension(IUndoHandler.class);
+		final NodeModel node = node(map, "ID_a");
+		final long deferredXmlLength = node.getDeferredChildNodesXml().stream().mapToLong(String::length).sum();
+		final long sizeBeforeDeletion = undoHandler.getEstimatedSize();
+
+		mapController.deleteNode(node);
+
+		assertThat(node.getDeferredChildren()).isNotNull();
+		assertThat(undoHandler.getEstimatedSize() - sizeBeforeDeletion).isGreaterThan(2 * deferredXmlLength);
+	}
+}
@@ -0,0 +1,62 @@
+package org.freeplane.features.map;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.freeplane.core.ui.menubuilders.HeadlessFreeplaneRunner;
+import org.freeplane.features.map.MapWriter.Mode;
+import org.freeplane.features.map.clipboard.MapClipboardController.CopiedNodeSet;
+import org.freeplane.features.map.mindmapmode.MMapModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.mode.ModeController;
+import org.freeplane.features.mode.mindmapmode.MModeController;
+import org.freeplane.n3.nanoxml.XMLException;
+
+/**
+ * Loads and saves maps in a headless freeplane instance shared by all tests.
+ */
+public class HeadlessMaps {
+	static {
+		new HeadlessFreeplaneRunner();
+	}
+
+	public static ModeController modeController() {
+		return Controller.getCurrentController().getModeController(MModeController.MODENAME);
+	}
+
+	public static MapController mapController() {
+		return modeController().getMapController();
+	}
+
+	public static MapModel load(String xml) {
+		final MapController mapController = mapController();
+		final MapModel map = new MMapModel(mapController.duplicator());
+		try {
+			mapController.getMapReader().createNodeTreeFromXml(map, new StringReader(xml), Mode.FILE);
+		}
+		catch (IOException | XMLException e) {
+			throw new IllegalStateException(e);
+		}
+		mapController.fireMapCreated(map);
+		return map;
+	}
+
+	public static String save(MapModel map) {
+		final StringWriter writer = new StringWriter();
+		try {
+			mapController().getMapWriter().writeMapAsXml(map, writer, Mode.FILE, CopiedNodeSet.ALL_NODES, false);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return writer.toString();
+	}
+
+	public static NodeModel node(MapModel map, String id) {
+		final NodeModel node = map.getNodeForID(id);
+		if (node == null)
+			throw new IllegalArgumentException("No node " + id);
+		return node;
+	}
+}
@@ -0,0 +1,129 @@
+package org.freeplane.features.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.freeplane.features.map.HeadlessMaps.node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.mindmapmode.MMapController;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.text.TextController;
+import org.freeplane.features.text.TransformedTextCache;
+import org.freeplane.features.text.mindmapmode.MTextController;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MapControllerBatchTest {
+	private static final String MAP = "<map version=\"freeplane 1.12.1\">\n"
+	        + "<node TEXT=\"root\" ID=\"ID_root\">\n"
+	        + "<node TEXT=\"a\" POSITION=\"bottom_or_right\" ID=\"ID_a\"/>\n"
+	        + "<node TEXT=\"b\" POSITION=\"bottom_or_right\" ID=\"ID_b\"/>\n"
+	        + "</node>\n"
+	        + "</map>\n";
+
+	private final List<NodeChangeEvent> textChanges = new ArrayList<>();
+	private final INodeChangeListener listener = event -> {
+		if (NodeModel.NODE_TEXT.equals(event.getProperty()))
+			textChanges.add(event);
+	};
+	private MMapController mapController;
+	private MTextController textController;
+	private ResourceController resourceController;
+	private String savedCacheSize;
+	private MapModel map;
+
+	@Before
+	public void setUp() {
+		mapController = (MMapController) HeadlessMaps.mapController();
+		textController = (MTextController) TextController.getController(HeadlessMaps.modeController());
+		resourceController = ResourceController.getResourceController();
+		savedCacheSize = resourceController.getProperty(TransformedTextCache.CACHE_SIZE_PROPERTY);
+		resourceController.setProperty(TransformedTextCache.CACHE_SIZE_PROPERTY, 100);
+		map = HeadlessMaps.load(MAP);
+		mapController.addNodeChangeListener(listener);
+	}
+
+	@After
+	public void tearDown() {
+		mapController.removeNodeChangeListener(listener);
+		resourceController.setProperty(TransformedTextCache.CACHE_SIZE_PROPERTY, savedCacheSize);
+	}
+
+	@Test
+	public void mergesNodeChangesUntilBatchEnds() {
+		final NodeModel node = node(map, "ID_a");
+
+		mapController.batch(map, () -> {
+			textController.setNodeText(node, "a1");
+			textController.setNodeText(node, "a2");
+			assertThat(textChanges).isEmpty();
+			assertThat(mapController.isBatchRunning(map)).isTrue();
+		});
+
+		assertThat(mapController.isBatchRunning(map)).isFalse();
+		assertThat(textChanges).hasSize(1);
+		assertThat(textChanges.get(0).getNode()).isSameAs(node);
+		assertThat(textChanges.get(0).getOldValue()).isEqualTo("a");
+		assertThat(textChanges.get(0).getNewValue()).isEqualTo("a2");
+	}
+
+	@Test
+	public void dropsChangesOfNodesDeletedDuringBatch() {
+		final NodeModel node = node(map, "ID_a");
+
+		mapController.batch(map, () -> {
+			textController.setNodeText(node, "a1");
+			mapController.deleteNode(node);
+		});
+
+		assertThat(textChanges).isEmpty();
+	}
+
+	@Test
+	public void doesNotDeferChangesOfOtherMaps() {
+		final MapModel otherMap = HeadlessMaps.load(MAP);
+		final NodeModel otherNode = node(otherMap, "ID_a");
+
+		mapController.batch(map, () -> {
+			textController.setNodeText(otherNode, "changed");
+			assertThat(textChanges).hasSize(1);
+		});
+
+		assertThat(textChanges).hasSize(1);
+	}
+
+	@Test
+	public void keepsCachedTextsUpToDateDuringBatch() {
+		final NodeModel node = node(map, "ID_a");
+		assertThat(textController.getPlainTransformedText(node)).isEqualTo("a");
+
+		mapController.batch(map, () -> {
+			textController.setNodeText(node, "changed");
+			assertThat(textController.getPlainTransformedText(node)).isEqualTo("changed");
+		});
+	}
+
+	@Test
+	public void runsBatchOnDispatchThread() {
+		final AtomicBoolean runsOnDispatchThread = new AtomicBoolean();
+
+		mapController.batch(map, () -> runsOnDispatchThread.set(Controller.getCurrentController().getViewController().isDispatchThread()));
+
+		assertThat(runsOnDispatchThread.get()).isTrue();
+	}
+
+	@Test
+	public void rethrowsExceptionOfChanges() {
+		final IllegalStateException exception = new IllegalStateException();
+
+		assertThatThrownBy(() -> mapController.batch(map, () -> {
+			throw exception;
+		})).isSameAs(exception);
+		assertThat(mapController.isBatchRunning(map)).isFalse();
+	}
+}
@@ -0,0 +1,67 @@
+package org.freeplane.features.map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class NodeByIdMapShould {
+	private final NodeByIdMap uut = new NodeByIdMap();
+
+	@Test
+	public void parseNumbersOfStandardIdsOnly() {
+		assertThat(NodeByIdMap.idNumber("ID_0"), equalTo(0));
+		assertThat(NodeByIdMap.idNumber("ID_1234"), equalTo(1234));
+		assertThat(NodeByIdMap.idNumber("ID_2147483647"), equalTo(Integer.MAX_VALUE));
+		assertThat(NodeByIdMap.idNumber("ID_2147483648"), equalTo(-1));
+		assertThat(NodeByIdMap.idNumber("ID_01"), equalTo(-1));
+		assertThat(NodeByIdMap.idNumber("ID_-1"), equalTo(-1));
+		assertThat(NodeByIdMap.idNumber("ID_"), equalTo(-1));
+		assertThat(NodeByIdMap.idNumber("Freeplane_Link_1"), equalTo(-1));
+	}
+
+	@Test
+	public void returnNodesOfStandardAndOtherIds() {
+		final NodeModel node = mock(NodeModel.class);
+		final NodeModel otherNode = mock(NodeModel.class);
+		uut.put("ID_17", node);
+		uut.put("ID_017", otherNode);
+		assertThat(uut.get("ID_17"), sameInstance(node));
+		assertThat(uut.get("ID_017"), sameInstance(otherNode));
+		assertThat(uut.get("ID_18"), nullValue());
+		assertThat(uut.size(), equalTo(2));
+	}
+
+	@Test
+	public void keepKeysRegisteredWithNullValue() {
+		uut.put("ID_17", mock(NodeModel.class));
+		uut.put("ID_17", null);
+		assertThat(uut.containsKey("ID_17"), equalTo(true));
+		assertThat(uut.get("ID_17"), nullValue());
+	}
+
+	@Test
+	public void behaveLikeHashMapForManyIds() {
+		final Map<String, NodeModel> expected = new HashMap<>();
+		final Random random = new Random(1);
+		final NodeModel node = mock(NodeModel.class);
+		for (int i = 0; i < 100000; i++) {
+			final String id = "ID_" + random.nextInt(1000);
+			if (random.nextBoolean())
+				assertThat(uut.put(id, node), equalTo(expected.put(id, node)));
+			else
+				assertThat(uut.remove(id), equalTo(expected.remove(id)));
+		}
+		assertThat(uut.size(), equalTo(expected.size()));
+		assertThat(uut, equalTo(expected));
+		for (int i = 0; i < 1000; i++)
+			assertThat(uut.containsKey("ID_" + i), equalTo(expected.containsKey("ID_" + i)));
+	}
+}
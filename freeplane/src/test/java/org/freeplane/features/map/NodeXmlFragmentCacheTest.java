@@ -0,0 +1,113 @@
+package org.freeplane.features.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.freeplane.features.map.HeadlessMaps.node;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.attribute.Attribute;
+import org.freeplane.features.attribute.mindmapmode.MAttributeController;
+import org.freeplane.features.filter.Filter;
+import org.freeplane.features.map.mindmapmode.MMapController;
+import org.freeplane.features.nodestyle.NodeStyleController;
+import org.freeplane.features.nodestyle.mindmapmode.MNodeStyleController;
+import org.freeplane.features.styles.MapStyleModel;
+import org.freeplane.features.styles.mindmapmode.MLogicalStyleController;
+import org.freeplane.features.text.TextController;
+import org.freeplane.features.text.mindmapmode.MTextController;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodeXmlFragmentCacheTest {
+	static final String MAP = "<map version=\"freeplane 1.12.1\">\n"
+	        + "<node TEXT=\"root\" ID=\"ID_root\">\n"
+	        + "<hook NAME=\"MapStyle\">\n"
+	        + "<map_styles>\n"
+	        + "<stylenode LOCALIZED_TEXT=\"styles.root_node\">\n"
+	        + "<stylenode LOCALIZED_TEXT=\"styles.predefined\" POSITION=\"bottom_or_right\">\n"
+	        + "<stylenode LOCALIZED_TEXT=\"default\" ID=\"ID_default\" COLOR=\"#000000\"/>\n"
+	        + "<stylenode LOCALIZED_TEXT=\"defaultstyle.floating\" ID=\"ID_floating\"/>\n"
+	        + "</stylenode>\n"
+	        + "</stylenode>\n"
+	        + "</map_styles>\n"
+	        + "</hook>\n"
+	        + "<node TEXT=\"a\" POSITION=\"bottom_or_right\" ID=\"ID_a\">\n"
+	        + "<attribute NAME=\"key\" VALUE=\"value\"/>\n"
+	        + "<node TEXT=\"a1\" ID=\"ID_a1\"/>\n"
+	        + "<node TEXT=\"a2\" FOLDED=\"true\" ID=\"ID_a2\">\n"
+	        + "<node TEXT=\"a21\" ID=\"ID_a21\"/>\n"
+	        + "<node TEXT=\"a22\" ID=\"ID_a22\"/>\n"
+	        + "</node>\n"
+	        + "</node>\n"
+	        + "<node TEXT=\"b\" POSITION=\"top_or_left\" COLOR=\"#ff0000\" ID=\"ID_b\">\n"
+	        + "<richcontent TYPE=\"NOTE\"><html><body><p>note</p></body></html></richcontent>\n"
+	        + "<node TEXT=\"b1\" ID=\"ID_b1\"/>\n"
+	        + "<node TEXT=\"b2\" ID=\"ID_b2\">\n"
+	        + "<node TEXT=\"b21\" ID=\"ID_b21\"/>\n"
+	        + "</node>\n"
+	        + "</node>\n"
+	        + "</node>\n"
+	        + "</map>\n";
+
+	private ResourceController resourceController;
+	private String savedCacheProperty;
+	private String savedModificationTimesProperty;
+	private MapModel cachedMap;
+	private MapModel uncachedMap;
+
+	@Before
+	public void setUp() {
+		HeadlessMaps.modeController();
+		resourceController = ResourceController.getResourceController();
+		savedCacheProperty = resourceController.getProperty(NodeXmlFragmentCache.SAVE_USES_FRAGMENT_CACHE_PROPERTY);
+		savedModificationTimesProperty = resourceController.getProperty(NodeBuilder.RESOURCES_SAVE_MODIFICATION_TIMES);
+		resourceController.setProperty(NodeBuilder.RESOURCES_SAVE_MODIFICATION_TIMES, false);
+		cachedMap = HeadlessMaps.load(MAP);
+		uncachedMap = HeadlessMaps.load(MAP);
+	}
+
+	@After
+	public void tearDown() {
+		resourceController.setProperty(NodeXmlFragmentCache.SAVE_USES_FRAGMENT_CACHE_PROPERTY, savedCacheProperty);
+		resourceController.setProperty(NodeBuilder.RESOURCES_SAVE_MODIFICATION_TIMES, savedModificationTimesProperty);
+	}
+
+	private String save(MapModel map, boolean usesCache) {
+		resourceController.setProperty(NodeXmlFragmentCache.SAVE_USES_FRAGMENT_CACHE_PROPERTY, usesCache);
+		return HeadlessMaps.save(map);
+	}
+
+	private void assertSameXmlAfter(Consumer<MapModel> change) {
+		change.accept(cachedMap);
+		change.accept(uncachedMap);
+		assertThat(save(cachedMap, true)).isEqualTo(save(uncachedMap, false));
+	}
+
+	@Test
+	public void writesSameXmlAsUncachedSaveAfterChanges() {
+		final MMapController mapController = (MMapController) HeadlessMaps.mapController();
+		final MTextController textController = (MTextController) TextController.getController(HeadlessMaps.modeController());
+		final MNodeStyleController nodeStyleController = (MNodeStyleController) NodeStyleController.getController(HeadlessMaps.modeController());
+		final MAttributeController attributeController = MAttributeController.getController();
+
+		assertSameXmlAfter(map -> {});
+		assertSameXmlAfter(map -> {});
+		assertSameXmlAfter(map -> textController.setNodeText(node(map, "ID_a1"), "changed a1"));
+		assertSameXmlAfter(map -> textController.setNodeText(node(map, "ID_b21"), "changed b21"));
+		assertSameXmlAfter(map -> mapController.moveNodes(Arrays.asList(node(map, "ID_a1")), node(map, "ID_b2"), 0));
+		assertSameXmlAfter(map -> mapController.moveNodes(Arrays.asList(node(map, "ID_b1")), node(map, "ID_b"), 1));
+		assertSameXmlAfter(map -> mapController.unfold(node(map, "ID_a2"), Filter.createTransparentFilter()));
+		assertSameXmlAfter(map -> mapController.fold(node(map, "ID_b2")));
+		assertSameXmlAfter(map -> nodeStyleController.setColor(node(map, "ID_a21"), Color.BLUE));
+		assertSameXmlAfter(map -> nodeStyleController.setBold(node(map, "ID_b"), true));
+		assertSameXmlAfter(map -> MLogicalStyleController.getController().setStyle(node(map, "ID_a22"), MapStyleModel.FLOATING_STYLE));
+		assertSameXmlAfter(map -> attributeController.addAttribute(node(map, "ID_a22"), new Attribute("added", "1")));
+		assertSameXmlAfter(map -> attributeController.setAttribute(node(map, "ID_a"), 0, new Attribute("key", "changed")));
+		assertSameXmlAfter(map -> mapController.deleteNode(node(map, "ID_a21")));
+		assertSameXmlAfter(map -> textController.setNodeText(node(map, "ID_root"), "changed root"));
+	}
+}
@@ -0,0 +1,117 @@
+package org.freeplane.features.map.mindmapmode.clipboard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.freeplane.features.map.HeadlessMaps.node;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.datatransfer.DataFlavor;
+import java.util.Arrays;
+import java.util.List;
+
+import org.freeplane.features.filter.Filter;
+import org.freeplane.features.filter.FilterController;
+import org.freeplane.features.map.HeadlessMaps;
+import org.freeplane.features.map.IMapSelection;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeModel.Side;
+import org.freeplane.features.map.clipboard.MapClipboardController;
+import org.freeplane.features.map.clipboard.MapClipboardController.CopiedNodeSet;
+import org.freeplane.features.map.clipboard.MindMapNodesSelection;
+import org.freeplane.features.text.TextController;
+import org.freeplane.features.text.mindmapmode.MTextController;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class MMapClipboardControllerTest {
+	private static final String MAP = "<map version=\"freeplane 1.12.1\">\n"
+	        + "<node TEXT=\"root\" ID=\"ID_root\">\n"
+	        + "<node TEXT=\"a\" POSITION=\"bottom_or_right\" ID=\"ID_a\">\n"
+	        + "<node TEXT=\"a1\" ID=\"ID_a1\"/>\n"
+	        + "</node>\n"
+	        + "<node TEXT=\"b\" POSITION=\"bottom_or_right\" ID=\"ID_b\"/>\n"
+	        + "</node>\n"
+	        + "</map>\n";
+
+	private MMapClipboardController clipboardController;
+	private MTextController textController;
+	private MapModel map;
+
+	@Before
+	public void setUp() {
+		HeadlessMaps.modeController();
+		clipboardController = (MMapClipboardController) MapClipboardController.getController();
+		textController = (MTextController) TextController.getController(HeadlessMaps.modeController());
+		map = HeadlessMaps.load(MAP);
+		map.beforeViewCreated();
+	}
+
+	private MindMapNodesSelection copy(String... ids) {
+		final List<NodeModel> nodes = Arrays.asList(Arrays.stream(ids).map(id -> node(map, id)).toArray(NodeModel[]::new));
+		final MindMapNodesSelection selection = clipboardController.copy(nodes, CopiedNodeSet.ALL_NODES, CopiedNodeSet.FILTERED_NODES);
+		clipboardController.setClipboardContents(selection);
+		return selection;
+	}
+
+	private static String plainText(MindMapNodesSelection selection) throws Exception {
+		return selection.getTransferData(DataFlavor.stringFlavor).toString();
+	}
+
+	private List<String> pasteIntoRootAndGetTexts(MindMapNodesSelection selection) {
+		final NodeModel root = map.getRootNode();
+		final int childCount = root.getChildCount();
+		clipboardController.paste(selection, root, Side.DEFAULT);
+		final NodeModel pasted = root.getChildAt(childCount);
+		return Arrays.asList(pasted.getText(), pasted.getChildCount() > 0 ? pasted.getChildAt(0).getText() : null);
+	}
+
+	@Test
+	public void pastesCopiedContentAfterCopiedNodeIsEdited() throws Exception {
+		final MindMapNodesSelection selection = copy("ID_a");
+		textController.setNodeText(node(map, "ID_a"), "edited a");
+		textController.setNodeText(node(map, "ID_a1"), "edited a1");
+
+		assertThat(plainText(selection)).doesNotContain("edited");
+		assertThat(pasteIntoRootAndGetTexts(selection)).containsExactly("a", "a1");
+	}
+
+	@Test
+	public void pastesCutNodes() throws Exception {
+		copy("ID_b");
+		final IMapSelection mapSelection = mock(IMapSelection.class);
+		when(mapSelection.getSortedSelection(true)).thenReturn(Arrays.asList(node(map, "ID_a")));
+		final MMapClipboardController spiedController = spy(clipboardController);
+		spiedController.cut(mapSelection);
+		final ArgumentCaptor<MindMapNodesSelection> cutSelection = ArgumentCaptor.forClass(MindMapNodesSelection.class);
+		verify(spiedController).setClipboardContents(cutSelection.capture());
+		final MindMapNodesSelection selection = cutSelection.getValue();
+
+		assertThat(map.getNodeForID("ID_a")).isNull();
+		assertThat(pasteIntoRootAndGetTexts(selection)).containsExactly("a", "a1");
+	}
+
+	@Test
+	public void writesNodesWithFilterOfCopyTime() throws Exception {
+		final Filter filter = new Filter(node -> ! "a1".equals(node.getText()), false, false, false, false, null);
+		filter.calculateFilterResults(map);
+		FilterController.setFilter(map, filter);
+		final MindMapNodesSelection selection = copy("ID_a");
+		FilterController.setFilter(map, Filter.createTransparentFilter());
+
+		assertThat(plainText(selection)).doesNotContain("a1");
+	}
+
+	@Test
+	public void createsDraggedContentsWhenRequested() throws Exception {
+		final IMapSelection mapSelection = mock(IMapSelection.class);
+		when(mapSelection.getSortedSelection(true)).thenReturn(Arrays.asList(node(map, "ID_a")));
+		final MindMapNodesSelection selection = clipboardController.copyForDrag(mapSelection);
+		node(map, "ID_a1").setText("changed before drop");
+
+		assertThat(plainText(selection)).contains("changed before drop");
+	}
+}
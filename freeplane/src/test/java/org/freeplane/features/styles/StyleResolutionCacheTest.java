@@ -0,0 +1,142 @@
+package org.freeplane.features.styles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.freeplane.features.map.HeadlessMaps.node;
+
+import java.awt.FontMetrics;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import javax.swing.Icon;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.filter.condition.ASelectableCondition;
+import org.freeplane.features.filter.condition.ParentConditionDecorator;
+import org.freeplane.features.map.HeadlessMaps;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.styles.LogicalStyleController.StyleOption;
+import org.freeplane.features.text.TextController;
+import org.freeplane.features.text.mindmapmode.MTextController;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StyleResolutionCacheTest {
+	private static final String MAP = "<map version=\"freeplane 1.12.1\">\n"
+	        + "<node TEXT=\"root\" ID=\"ID_root\">\n"
+	        + "<hook NAME=\"MapStyle\">\n"
+	        + "<map_styles>\n"
+	        + "<stylenode LOCALIZED_TEXT=\"styles.root_node\">\n"
+	        + "<stylenode LOCALIZED_TEXT=\"styles.predefined\" POSITION=\"bottom_or_right\">\n"
+	        + "<stylenode LOCALIZED_TEXT=\"default\" ID=\"ID_default\"/>\n"
+	        + "<stylenode LOCALIZED_TEXT=\"defaultstyle.floating\" ID=\"ID_floating\"/>\n"
+	        + "</stylenode>\n"
+	        + "</stylenode>\n"
+	        + "</map_styles>\n"
+	        + "</hook>\n"
+	        + "<node TEXT=\"a\" POSITION=\"bottom_or_right\" ID=\"ID_a\">\n"
+	        + "<node TEXT=\"a1\" ID=\"ID_a1\"/>\n"
+	        + "</node>\n"
+	        + "</node>\n"
+	        + "</map>\n";
+
+	private static class TestCondition extends ASelectableCondition {
+		private final Predicate<NodeModel> predicate;
+		private final boolean checksExternalState;
+
+		TestCondition(Predicate<NodeModel> predicate, boolean checksExternalState) {
+			this.predicate = predicate;
+			this.checksExternalState = checksExternalState;
+		}
+
+		@Override
+		public boolean checkNode(NodeModel node) {
+			return predicate.test(node);
+		}
+
+		@Override
+		public boolean checksExternalState() {
+			return checksExternalState;
+		}
+
+		@Override
+		protected String createDescription() {
+			return "test";
+		}
+
+		@Override
+		protected List<Icon> createRenderedIcons(FontMetrics fontMetrics) {
+			return Collections.emptyList();
+		}
+
+		@Override
+		protected String getName() {
+			return "test_condition";
+		}
+	}
+
+	private ResourceController resourceController;
+	private String savedCacheProperty;
+	private LogicalStyleController logicalStyleController;
+	private MTextController textController;
+	private MapModel map;
+	private boolean externalState;
+
+	@Before
+	public void setUp() {
+		HeadlessMaps.modeController();
+		resourceController = ResourceController.getResourceController();
+		savedCacheProperty = resourceController.getProperty(StyleResolutionCache.CACHE_PROPERTY);
+		resourceController.setProperty(StyleResolutionCache.CACHE_PROPERTY, true);
+		logicalStyleController = LogicalStyleController.getController(HeadlessMaps.modeController());
+		textController = (MTextController) TextController.getController(HeadlessMaps.modeController());
+		map = HeadlessMaps.load(MAP);
+	}
+
+	@After
+	public void tearDown() {
+		resourceController.setProperty(StyleResolutionCache.CACHE_PROPERTY, savedCacheProperty);
+	}
+
+	private void addConditionalMapStyle(ASelectableCondition condition) {
+		logicalStyleController.addConditionalStyle(MapStyleModel.getExtension(map).getConditionalStyleModel(),
+		    true, condition, MapStyleModel.FLOATING_STYLE, false);
+	}
+
+	private boolean hasConditionalStyle(String id) {
+		return logicalStyleController.getStyles(node(map, id), StyleOption.FOR_UNSELECTED_NODE)
+		    .contains(MapStyleModel.FLOATING_STYLE);
+	}
+
+	@Test
+	public void updatesConditionalStyleAfterNodeChange() {
+		addConditionalMapStyle(new TestCondition(node -> node.getText().contains("x"), false));
+		assertThat(hasConditionalStyle("ID_a")).isFalse();
+
+		textController.setNodeText(node(map, "ID_a"), "x");
+
+		assertThat(hasConditionalStyle("ID_a")).isTrue();
+	}
+
+	@Test
+	public void updatesConditionalStyleCheckingParentAfterParentChange() {
+		addConditionalMapStyle(new ParentConditionDecorator(new TestCondition(node -> node.getText().contains("x"), false)));
+		assertThat(hasConditionalStyle("ID_a1")).isFalse();
+
+		textController.setNodeText(node(map, "ID_a"), "x");
+
+		assertThat(hasConditionalStyle("ID_a1")).isTrue();
+	}
+
+	@Test
+	public void updatesConditionalStyleCheckingExternalStateWithoutMapChange() {
+		addConditionalMapStyle(new TestCondition(node -> externalState, true));
+		assertThat(hasConditionalStyle("ID_a")).isFalse();
+
+		externalState = true;
+
+		assertThat(hasConditionalStyle("ID_a")).isTrue();
+	}
+}
@@ -0,0 +1,106 @@
+package org.freeplane.features.text;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.freeplane.features.map.HeadlessMaps.node;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.attribute.NodeAttributeTableModel;
+import org.freeplane.features.map.HeadlessMaps;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.text.mindmapmode.MTextController;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TransformedTextCacheTest {
+	private static final String MAP = "<map version=\"freeplane 1.12.1\">\n"
+	        + "<node TEXT=\"root\" ID=\"ID_root\">\n"
+	        + "<node TEXT=\"a\" POSITION=\"bottom_or_right\" ID=\"ID_a\">\n"
+	        + "<attribute NAME=\"first\" VALUE=\"1\"/>\n"
+	        + "<attribute NAME=\"second\" VALUE=\"2\"/>\n"
+	        + "</node>\n"
+	        + "<node TEXT=\"b\" POSITION=\"bottom_or_right\" ID=\"ID_b\"/>\n"
+	        + "<node TEXT=\"c\" POSITION=\"bottom_or_right\" ID=\"ID_c\"/>\n"
+	        + "</node>\n"
+	        + "</map>\n";
+
+	private ResourceController resourceController;
+	private String savedCacheSize;
+	private MTextController textController;
+	private MapModel map;
+
+	@Before
+	public void setUp() {
+		HeadlessMaps.modeController();
+		resourceController = ResourceController.getResourceController();
+		savedCacheSize = resourceController.getProperty(TransformedTextCache.CACHE_SIZE_PROPERTY);
+		resourceController.setProperty(TransformedTextCache.CACHE_SIZE_PROPERTY, 2);
+		textController = (MTextController) TextController.getController(HeadlessMaps.modeController());
+		map = HeadlessMaps.load(MAP);
+	}
+
+	@After
+	public void tearDown() {
+		resourceController.setProperty(TransformedTextCache.CACHE_SIZE_PROPERTY, savedCacheSize);
+	}
+
+	@Test
+	public void returnsCachedTextOnSecondRequest() {
+		final NodeModel node = node(map, "ID_a");
+		assertThat(textController.getPlainTransformedText(node)).isEqualTo("a");
+		final TransformedTextCache cache = TransformedTextCache.getExistingCache(map);
+		final long hitCount = cache.getHitCount();
+		final long missCount = cache.getMissCount();
+
+		assertThat(textController.getPlainTransformedText(node)).isEqualTo("a");
+
+		assertThat(cache.getHitCount()).isEqualTo(hitCount + 1);
+		assertThat(cache.getMissCount()).isEqualTo(missCount);
+	}
+
+	@Test
+	public void keepsEntriesOfAllAttributesOfNode() {
+		final NodeModel node = node(map, "ID_a");
+		final NodeAttributeTableModel attributes = NodeAttributeTableModel.getModel(node);
+		assertThat(textController.getTransformedTextNoThrow(node, attributes, "1")).isEqualTo("1");
+		assertThat(textController.getTransformedTextNoThrow(node, attributes, "2")).isEqualTo("2");
+		final TransformedTextCache cache = TransformedTextCache.getExistingCache(map);
+		final long hitCount = cache.getHitCount();
+
+		assertThat(textController.getTransformedTextNoThrow(node, attributes, "1")).isEqualTo("1");
+		assertThat(textController.getTransformedTextNoThrow(node, attributes, "2")).isEqualTo("2");
+
+		assertThat(cache.getHitCount()).isEqualTo(hitCount + 2);
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedNodes() {
+		textController.getPlainTransformedText(node(map, "ID_a"));
+		textController.getPlainTransformedText(node(map, "ID_b"));
+		textController.getPlainTransformedText(node(map, "ID_a"));
+		textController.getPlainTransformedText(node(map, "ID_c"));
+		final TransformedTextCache cache = TransformedTextCache.getExistingCache(map);
+
+		assertThat(cache.getNodeCount()).isEqualTo(2);
+		final long missCount = cache.getMissCount();
+		textController.getPlainTransformedText(node(map, "ID_a"));
+		assertThat(cache.getMissCount()).isEqualTo(missCount);
+		textController.getPlainTransformedText(node(map, "ID_b"));
+		assertThat(cache.getMissCount()).isEqualTo(missCount + 1);
+	}
+
+	@Test
+	public void invalidatesEntriesOfChangedNode() {
+		final NodeModel node = node(map, "ID_b");
+		assertThat(textController.getPlainTransformedText(node)).isEqualTo("b");
+
+		final TransformedTextCache cache = TransformedTextCache.getExistingCache(map);
+
+		textController.setNodeText(node, "changed");
+
+		final int nodeCount = cache.getNodeCount();
+		assertThat(textController.getPlainTransformedText(node)).isEqualTo("changed");
+		assertThat(cache.getNodeCount()).isEqualTo(nodeCount + 1);
+	}
+}
@@ -0,0 +1,178 @@
+package org.freeplane.view.swing.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import org.freeplane.features.link.ConnectorModel;
+import org.freeplane.features.map.HeadlessMaps;
+import org.freeplane.view.swing.map.link.ILinkView;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConnectorIndexTest {
+	private static final Rectangle PAINTED_EVERYWHERE = null;
+
+	private ConnectorIndex index;
+	private List<ConnectorIndex.Entry> createdViews;
+	private Function<ConnectorIndex.Entry, ILinkView> viewFactory;
+
+	@Before
+	public void setUp() {
+		HeadlessMaps.modeController();
+		index = new ConnectorIndex();
+		createdViews = new ArrayList<>();
+		viewFactory = entry -> {
+			createdViews.add(entry);
+			return mock(ILinkView.class);
+		};
+	}
+
+	private static NodeView nodeView(boolean isSelected) {
+		final NodeView nodeView = mock(NodeView.class);
+		when(nodeView.isSelected()).thenReturn(isSelected);
+		return nodeView;
+	}
+
+	private static ConnectorModel connector() {
+		final ConnectorModel connector = mock(ConnectorModel.class);
+		when(connector.getStartInclination()).thenReturn(new Point(1, 1));
+		when(connector.getEndInclination()).thenReturn(new Point(2, 2));
+		return connector;
+	}
+
+	private ConnectorIndex.Entry addPaintedEverywhere(Rectangle endPointBounds) {
+		final ConnectorIndex.Entry entry = index.add(connector(), null, null, endPointBounds);
+		index.addVisit(entry, null, PAINTED_EVERYWHERE);
+		return entry;
+	}
+
+	/** Fills many grid cells, so that small regions are looked up cell by cell. */
+	private void addDistantEntries() {
+		for (int i = 0; i < 100; i++)
+			addPaintedEverywhere(new Rectangle(100_000 + 1000 * i, 100_000, 10, 10));
+	}
+
+	@Test
+	public void findsEntriesInCellsOfNegativeCoordinates() {
+		addDistantEntries();
+		final ConnectorIndex.Entry entry = addPaintedEverywhere(new Rectangle(-600, -600, 50, 50));
+		final ConnectorIndex.Entry crossingEntry = addPaintedEverywhere(new Rectangle(-10, -10, 20, 20));
+		index.validate();
+
+		assertThat(index.getEntries(new Rectangle(-700, -700, 200, 200))).containsExactly(entry);
+		assertThat(index.getEntries(new Rectangle(-20, -20, 15, 15))).containsExactly(crossingEntry);
+		assertThat(index.getEntries(new Rectangle(5, 5, 15, 15))).containsExactly(crossingEntry);
+		assertThat(index.getEntries(new Rectangle(-400, -400, 300, 300))).isEmpty();
+	}
+
+	@Test
+	public void findsLargeEntriesEverywhereInsideTheirBounds() {
+		addDistantEntries();
+		final ConnectorIndex.Entry largeEntry = addPaintedEverywhere(new Rectangle(-50_000, -50_000, 100_000, 100_000));
+		index.validate();
+
+		assertThat(index.getEntries(new Rectangle(40_000, -40_000, 10, 10))).containsExactly(largeEntry);
+		assertThat(index.getEntries(new Rectangle(60_000, 0, 10, 10))).isEmpty();
+	}
+
+	@Test
+	public void returnsAllEntriesForNullRegion() {
+		final ConnectorIndex.Entry entry = addPaintedEverywhere(new Rectangle(0, 0, 10, 10));
+		final ConnectorIndex.Entry distantEntry = addPaintedEverywhere(new Rectangle(100_000, 0, 10, 10));
+
+		assertThat(index.getEntries(null)).containsExactly(entry, distantEntry);
+	}
+
+	@Test
+	public void paintsEntriesInOrderOfTheirFirstVisitInsideRegion() {
+		final Rectangle region = new Rectangle(0, 0, 1000, 1000);
+		final Rectangle inside = new Rectangle(10, 10, 10, 10);
+		final Rectangle outside = new Rectangle(5000, 5000, 10, 10);
+		final ConnectorIndex.Entry first = index.add(connector(), null, null, inside);
+		final ConnectorIndex.Entry second = index.add(connector(), null, null, inside);
+		index.addVisit(first, nodeView(false), outside);
+		index.addVisit(second, nodeView(false), inside);
+		index.addVisit(first, nodeView(false), inside);
+		index.validate();
+
+		assertThat(index.getEntries(region)).containsExactly(second, first);
+	}
+
+	@Test
+	public void paintsEntriesVisitedOutsideRegionOnlyAtSelectedNodes() {
+		final Rectangle region = new Rectangle(0, 0, 1000, 1000);
+		final Rectangle inside = new Rectangle(10, 10, 10, 10);
+		final Rectangle outside = new Rectangle(5000, 5000, 10, 10);
+		final ConnectorIndex.Entry atSelectedNode = index.add(connector(), null, null, inside);
+		final ConnectorIndex.Entry atUnselectedNode = index.add(connector(), null, null, inside);
+		index.addVisit(atSelectedNode, nodeView(true), outside);
+		index.addVisit(atUnselectedNode, nodeView(false), outside);
+		index.validate();
+
+		assertThat(index.getEntries(region)).containsExactly(atSelectedNode);
+	}
+
+	@Test
+	public void reusesViewsUntilViewStateChanges() {
+		final ConnectorIndex.Entry entry = addPaintedEverywhere(new Rectangle(0, 0, 10, 10));
+		index.setViewState(Arrays.asList(true, false));
+
+		final ILinkView view = entry.getOrCreateView(viewFactory);
+		assertThat(entry.getOrCreateView(viewFactory)).isSameAs(view);
+		index.setViewState(Arrays.asList(true, false));
+		assertThat(entry.getOrCreateView(viewFactory)).isSameAs(view);
+		index.setViewState(Arrays.asList(false, false));
+		assertThat(entry.getOrCreateView(viewFactory)).isNotSameAs(view);
+		assertThat(createdViews).hasSize(2);
+	}
+
+	@Test
+	public void recreatesViewWhenSelectionOfEndNodeChanges() {
+		final NodeView source = nodeView(false);
+		final ConnectorIndex.Entry entry = index.add(connector(), source, null, new Rectangle(0, 0, 10, 10));
+
+		final ILinkView view = entry.getOrCreateView(viewFactory);
+		when(source.isSelected()).thenReturn(true);
+
+		assertThat(entry.isNodeSelected()).isTrue();
+		assertThat(entry.getOrCreateView(viewFactory)).isNotSameAs(view);
+		assertThat(createdViews).hasSize(2);
+	}
+
+	@Test
+	public void prunesHitsAndClipsOutsidePaintedBounds() {
+		final ConnectorModel connector = connector();
+		final ConnectorIndex.Entry entry = index.add(connector, null, null, new Rectangle(0, 0, 10, 10));
+		final ILinkView view = mock(ILinkView.class);
+		doAnswer(invocation -> {
+			((Rectangle) invocation.getArgument(0)).setBounds(100, 100, 50, 50);
+			return null;
+		}).when(view).increaseBounds(any());
+		entry.getOrCreateView(x -> view);
+
+		assertThat(entry.mayContain(new Point(500, 500))).isTrue();
+
+		entry.painted(10);
+
+		assertThat(entry.mayContain(new Point(95, 95))).isTrue();
+		assertThat(entry.mayContain(new Point(500, 500))).isFalse();
+		assertThat(entry.mayIntersect(new Rectangle(140, 140, 100, 100))).isTrue();
+		assertThat(entry.mayIntersect(new Rectangle(400, 400, 100, 100))).isFalse();
+		assertThat(entry.mayIntersect(null)).isTrue();
+
+		when(connector.getStartInclination()).thenReturn(new Point(30, 30));
+
+		assertThat(entry.mayContain(new Point(500, 500))).isTrue();
+		assertThat(entry.mayIntersect(new Rectangle(400, 400, 100, 100))).isTrue();
+	}
+}
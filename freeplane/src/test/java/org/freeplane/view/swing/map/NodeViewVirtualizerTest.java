@@ -0,0 +1,212 @@
+package org.freeplane.view.swing.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.freeplane.features.map.HeadlessMaps.node;
+
+import java.awt.EventQueue;
+import java.awt.Rectangle;
+import java.lang.reflect.InvocationTargetException;
+
+import javax.swing.JViewport;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.HeadlessMaps;
+import org.freeplane.features.map.MapController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.text.TextController;
+import org.freeplane.features.text.mindmapmode.MTextController;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodeViewVirtualizerTest {
+	private static final String MAP = "<map version=\"freeplane 1.12.1\">\n"
+	        + "<node TEXT=\"root\" ID=\"ID_root\">\n"
+	        + "<node TEXT=\"a\" POSITION=\"bottom_or_right\" ID=\"ID_a\">\n"
+	        + "<node TEXT=\"a1\" ID=\"ID_a1\">\n"
+	        + "<node TEXT=\"a11\" ID=\"ID_a11\"/>\n"
+	        + "</node>\n"
+	        + "<node TEXT=\"a2\" ID=\"ID_a2\"/>\n"
+	        + "</node>\n"
+	        + "<node TEXT=\"b\" POSITION=\"bottom_or_right\" ID=\"ID_b\">\n"
+	        + "<node TEXT=\"b1\" ID=\"ID_b1\"/>\n"
+	        + "</node>\n"
+	        + "<node TEXT=\"c\" POSITION=\"bottom_or_right\" ID=\"ID_c\">\n"
+	        + "<node TEXT=\"c1\" ID=\"ID_c1\">\n"
+	        + "<arrowlink DESTINATION=\"ID_root\"/>\n"
+	        + "</node>\n"
+	        + "</node>\n"
+	        + "</node>\n"
+	        + "</map>\n";
+
+	private static final int FAR_AWAY = -100_000;
+
+	/**
+	 * Node views are created only for a displayable map view, which is never the case without a window.
+	 * Components without peers are never valid and are skipped by {@link java.awt.Container#validate()},
+	 * so the map view lays out all node views whenever it is validated and reports itself valid.
+	 */
+	@SuppressWarnings("serial")
+	private static class HeadlessMapView extends MapView {
+		private boolean isDisplayable;
+
+		HeadlessMapView(MapModel map) {
+			super(map, HeadlessMaps.modeController());
+		}
+
+		@Override
+		public boolean isDisplayable() {
+			return isDisplayable;
+		}
+
+		@Override
+		public boolean isValid() {
+			return true;
+		}
+
+		@Override
+		public void validate() {
+			synchronized (getTreeLock()) {
+				getRoot().validateTree();
+				doLayout();
+			}
+		}
+	}
+
+	private MapModel map;
+	private HeadlessMapView mapView;
+	private NodeViewVirtualizer virtualizer;
+	private NodeViewVirtualizer.Updater updater;
+
+	@Before
+	public void setUp() {
+		map = HeadlessMaps.load(MAP);
+		ResourceController.getResourceController().setProperty(NodeViewVirtualizer.VIRTUALIZATION_PROPERTY, true);
+		mapView = new HeadlessMapView(map);
+		mapView.isDisplayable = true;
+		mapView.setMap(map);
+		final JViewport viewport = new JViewport();
+		viewport.setView(mapView);
+		viewport.setSize(800, 600);
+		virtualizer = mapView.getNodeViewVirtualizer();
+		updater = virtualizer.new Updater();
+		final MapController mapController = HeadlessMaps.mapController();
+		mapController.addNodeChangeListener(updater);
+		mapController.addMapChangeListener(updater);
+	}
+
+	@After
+	public void tearDown() {
+		final MapController mapController = HeadlessMaps.mapController();
+		mapController.removeNodeChangeListener(updater);
+		mapController.removeMapChangeListener(updater);
+		ResourceController.getResourceController().setProperty(NodeViewVirtualizer.VIRTUALIZATION_PROPERTY, false);
+	}
+
+	/** Runs the test on the event dispatch thread, where node views are revalidated synchronously. */
+	private static void onEventDispatchThread(Runnable test) throws Throwable {
+		try {
+			EventQueue.invokeAndWait(test);
+		}
+		catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private NodeView view(String id) {
+		return mapView.getExistingNodeView(node(map, id));
+	}
+
+	private void scrollTo(int x, int y) {
+		mapView.setLocation(-x, -y);
+		virtualizer.update();
+		mapView.validate();
+	}
+
+	@Test
+	public void releasesChildViewsOfBranchesFarFromViewportAndKeepsTheirLayout() throws Throwable {
+		onEventDispatchThread(() -> {
+			mapView.validate();
+			final Rectangle rootBounds = mapView.getRoot().getBounds();
+			final Rectangle branchBounds = view("ID_a").getBounds();
+			final Rectangle contentBounds = view("ID_a").getContent().getBounds();
+			final Rectangle siblingBounds = view("ID_b").getBounds();
+
+			scrollTo(FAR_AWAY, FAR_AWAY);
+
+			final NodeView branch = view("ID_a");
+			assertThat(virtualizer.isReleased(branch)).isTrue();
+			assertThat(branch.getChildrenViews()).isEmpty();
+			assertThat(view("ID_a1")).isNull();
+			assertThat(view("ID_a11")).isNull();
+			assertThat(mapView.getRoot().getBounds()).isEqualTo(rootBounds);
+			assertThat(branch.getBounds()).isEqualTo(branchBounds);
+			assertThat(branch.getContent().getBounds()).isEqualTo(contentBounds);
+			assertThat(view("ID_b").getBounds()).isEqualTo(siblingBounds);
+		});
+	}
+
+	@Test
+	public void createsChildViewsAgainCloseToViewport() throws Throwable {
+		onEventDispatchThread(() -> {
+			mapView.validate();
+			final Rectangle nestedBounds = view("ID_a11").getBounds();
+			scrollTo(FAR_AWAY, FAR_AWAY);
+
+			scrollTo(0, 0);
+
+			assertThat(virtualizer.isReleased(view("ID_a"))).isFalse();
+			assertThat(virtualizer.isReleased(view("ID_a1"))).isFalse();
+			assertThat(view("ID_a11")).isNotNull();
+			assertThat(view("ID_a11").getBounds()).isEqualTo(nestedBounds);
+		});
+	}
+
+	@Test
+	public void createsViewsOfReleasedBranchOnRequest() throws Throwable {
+		onEventDispatchThread(() -> {
+			mapView.validate();
+			scrollTo(FAR_AWAY, FAR_AWAY);
+
+			final NodeView nestedView = mapView.getNodeView(node(map, "ID_a11"));
+
+			assertThat(nestedView).isNotNull();
+			assertThat(nestedView.getNode()).isSameAs(node(map, "ID_a11"));
+			assertThat(virtualizer.isReleased(view("ID_a"))).isFalse();
+		});
+	}
+
+	@Test
+	public void keepsBranchesWithSelectedNodesAndConnectors() throws Throwable {
+		onEventDispatchThread(() -> {
+			mapView.validate();
+			mapView.selectAsTheOnlyOneSelected(view("ID_b1"), false);
+
+			scrollTo(FAR_AWAY, FAR_AWAY);
+
+			assertThat(virtualizer.isReleased(view("ID_a"))).isTrue();
+			assertThat(virtualizer.isReleased(view("ID_b"))).isFalse();
+			assertThat(view("ID_b1")).isNotNull();
+			assertThat(virtualizer.isReleased(view("ID_c"))).isFalse();
+			assertThat(view("ID_c1")).isNotNull();
+		});
+	}
+
+	@Test
+	public void createsChildViewsBeforeLayoutWhenReleasedNodeChanges() throws Throwable {
+		onEventDispatchThread(() -> {
+			mapView.validate();
+			scrollTo(FAR_AWAY, FAR_AWAY);
+			final NodeModel releasedNode = node(map, "ID_a11");
+			final MTextController textController = (MTextController) TextController.getController(HeadlessMaps.modeController());
+
+			textController.setNodeText(releasedNode, "changed a11");
+			mapView.validate();
+
+			assertThat(virtualizer.isReleased(view("ID_a"))).isFalse();
+			assertThat(view("ID_a1")).isNotNull();
+			assertThat(view("ID_a11")).isNotNull();
+		});
+	}
+}
@@ -37,6 +37,10 @@ public interface Controller extends ControllerRO, HeadlessMapCreator {
 	/** reset undo / redo lists and deactivate Undo for current script */
 	void deactivateUndo();
 
+	/** runs the changes as one batch of the current map, see {@link MindMap#batch(Runnable)}.
+	 * @since 1.12.12 */
+	void withBatch(Runnable changes);
+
 	/** invokes undo once - for testing purposes mainly.
 	 * @since 1.2 */
 	void undo();
@@ -136,6 +136,19 @@ public interface MindMap extends MindMapRO {
 	 *  @since 1.7.2 */
 	void evaluateOutdatedFormulas();
 
+	/**
+	 * Runs the changes as one undoable action and notifies listeners and views once per changed node property after they are done.
+	 * Formulas depending on the changed nodes are evaluated again when their values are read inside the batch,
+	 * and their nodes are refreshed after the batch.
+	 * If the changes throw an exception, they are rolled back.
+	 * <pre>
+	 *  node.mindMap.batch {
+	 *      node.mindMap.root.findAll().each { it.attributes.set('checked', true) }
+	 *  }
+	 * </pre>
+	 *  @since 1.12.12 */
+	void batch(Runnable changes);
+
 	void addListener(NodeChangeListener listener);
 
 	void removeListener(NodeChangeListener listener);
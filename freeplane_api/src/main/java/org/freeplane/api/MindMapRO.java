@@ -4,6 +4,7 @@ import java.awt.Color;
 import java.io.File;
 import java.net.URI;
 import java.util.List;
+import java.util.stream.Stream;
 
 /** The map a node belongs to: <code>node.map</code> - read-only.
  *
@@ -21,6 +22,14 @@ public interface MindMapRO {
 	 * @return the node if the map contains it or null otherwise. */
 	Node node(String id);
 
+	/** Returns the nodes of the map for which <code>condition.check(node)</code> returns true
+	 * as a lazily evaluated stream in the order of {@link NodeRO#findAll()}, see {@link NodeRO#stream()}.
+	 * <pre>
+	 *  def count = node.mindMap.nodesMatching{ it.text.contains('x') }.count()
+	 * </pre>
+	 * @since 1.12.12 */
+	Stream<? extends Node> nodesMatching(NodeCondition condition);
+
 	/** returns the filenname of the map as a java.io.File object if available or null otherwise. */
 	File getFile();
 
@@ -3,6 +3,7 @@ package org.freeplane.api;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 
@@ -482,6 +483,17 @@ public interface NodeRO {
 	 * @since 1.2 */
 	List<? extends Node> findAllDepthFirst();
 
+	/** Returns the nodes of the branch that starts with this node as a lazily evaluated stream in the order of {@link #findAll()}.
+	 * Nodes are visited and wrapped only when the stream reaches them, so that a search can stop at its first match:
+	 * <pre>
+	 *  def firstTodo = node.stream().filter{ it.text.startsWith('TODO') }.findFirst()
+	 *  def count = node.stream().filter{ it.attributes.containsKey('cost') }.count()
+	 * </pre>
+	 * The stream is always evaluated sequentially by the calling thread, because nodes may not be read concurrently.
+	 * See {@link MindMapRO#nodesMatching(NodeCondition)} for map-global searches.
+	 * @since 1.12.12 */
+	Stream<? extends Node> stream();
+
 	Date getLastModifiedAt();
 
 	Date getCreatedAt();
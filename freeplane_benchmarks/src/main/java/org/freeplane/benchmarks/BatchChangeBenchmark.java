@@ -0,0 +1,76 @@
+package org.freeplane.benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.freeplane.features.map.MapController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.mode.ModeController;
+import org.freeplane.features.text.TextController;
+import org.freeplane.features.text.mindmapmode.MTextController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Changes the text of all nodes of a map one or more times on the main thread like a script does,
+ * either change by change or in one {@link MapController#batch(MapModel, Runnable)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchChangeBenchmark extends SyntheticMapState {
+	@Param({"false", "true"})
+	public boolean batch;
+
+	@Param({"1", "3"})
+	public int changesPerNode;
+
+	private MapModel map;
+	private MapController mapController;
+	private MTextController textController;
+	private List<NodeModel> nodes;
+	private int round;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		map = BenchmarkEnvironment.loadMap(generator().generateXml());
+		final ModeController modeController = BenchmarkEnvironment.start();
+		mapController = modeController.getMapController();
+		textController = (MTextController) TextController.getController(modeController);
+		nodes = new ArrayList<>();
+		collect(map.getRootNode());
+	}
+
+	private void collect(NodeModel node) {
+		nodes.add(node);
+		for (NodeModel child : node.getChildren())
+			collect(child);
+	}
+
+	@Benchmark
+	public void changeAllNodeTexts() throws InterruptedException, InvocationTargetException {
+		final String text = "changed " + round++;
+		final Runnable changes = () -> {
+			for (NodeModel node : nodes) {
+				for (int i = 0; i < changesPerNode; i++)
+					textController.setNodeText(node, text + i);
+			}
+		};
+		Controller.getCurrentController().getViewController().invokeAndWait(
+		    batch ? () -> mapController.batch(map, changes) : changes);
+	}
+}
@@ -0,0 +1,68 @@
+package org.freeplane.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.freeplane.core.util.Compat;
+import org.freeplane.features.filter.FilterController;
+import org.freeplane.features.map.MapController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.MapWriter.Mode;
+import org.freeplane.features.map.mindmapmode.MMapModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.mode.ModeController;
+import org.freeplane.features.mode.mindmapmode.MModeController;
+import org.freeplane.main.application.CommandLineParser;
+import org.freeplane.main.headlessmode.FreeplaneHeadlessStarter;
+import org.freeplane.n3.nanoxml.XMLException;
+
+/**
+ * Starts a headless freeplane instance once per JVM and loads synthetic maps into it.
+ */
+public class BenchmarkEnvironment {
+	private static ModeController modeController;
+
+	public static synchronized ModeController start() {
+		if (modeController == null) {
+			System.setProperty("java.awt.headless", "true");
+			if (null == System.getProperty("org.freeplane.core.dir.lib", null)) {
+				System.setProperty("org.freeplane.core.dir.lib", "/lib/");
+			}
+			Compat.setIsApplet(false);
+			final FreeplaneHeadlessStarter starter = new FreeplaneHeadlessStarter(CommandLineParser.parse());
+			final Controller controller = starter.createController();
+			starter.createModeControllers(controller);
+			FilterController.getController(controller).loadDefaultConditions();
+			starter.createFrame();
+			modeController = controller.getModeController(MModeController.MODENAME);
+		}
+		return modeController;
+	}
+
+	public static MapController mapController() {
+		return start().getMapController();
+	}
+
+	public static MapModel newMap() {
+		final MapController mapController = mapController();
+		return new MMapModel(mapController.duplicator());
+	}
+
+	public static MapModel loadMap(String xml) {
+		final MapModel map = readMap(xml);
+		mapController().fireMapCreated(map);
+		return map;
+	}
+
+	/** Parses the map without notifying map life cycle listeners, so that only the reader is involved. */
+	public static MapModel readMap(String xml) {
+		final MapModel map = newMap();
+		try {
+			mapController().getMapReader().createNodeTreeFromXml(map, new StringReader(xml), Mode.FILE);
+		}
+		catch (IOException | XMLException e) {
+			throw new IllegalStateException(e);
+		}
+		return map;
+	}
+}
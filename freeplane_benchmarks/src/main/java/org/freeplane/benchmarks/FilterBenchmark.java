@@ -0,0 +1,66 @@
+package org.freeplane.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.filter.Filter;
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.text.NodeContainsCondition;
+import org.freeplane.features.text.NodeMatchesRegexpCondition;
+import org.freeplane.features.text.TextController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures {@link Filter#calculateFilterResults(org.freeplane.features.map.NodeModel)}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FilterBenchmark extends SyntheticMapState {
+	public enum ConditionType {
+		CONTAINS, APPROXIMATELY_CONTAINS, REGEXP
+	}
+
+	@Param({"CONTAINS", "APPROXIMATELY_CONTAINS", "REGEXP"})
+	public ConditionType conditionType;
+
+	@Param({"false", "true"})
+	public boolean parallelEvaluation;
+
+	private MapModel map;
+	private ICondition condition;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		map = BenchmarkEnvironment.loadMap(generator().generateXml());
+		ResourceController.getResourceController().setProperty(Filter.PARALLEL_EVALUATION_PROPERTY, parallelEvaluation);
+		switch (conditionType) {
+			case CONTAINS:
+				condition = new NodeContainsCondition(TextController.FILTER_NODE, "omega", false, false, false, false);
+				break;
+			case APPROXIMATELY_CONTAINS:
+				condition = new NodeContainsCondition(TextController.FILTER_NODE, "omgea", false, true, false, false);
+				break;
+			case REGEXP:
+				condition = new NodeMatchesRegexpCondition(TextController.FILTER_NODE, ".*(omega|sigma) \\d+7.*");
+				break;
+		}
+	}
+
+	@Benchmark
+	public Filter calculateFilterResults() {
+		final Filter filter = new Filter(condition, false, true, false, false, null);
+		filter.calculateFilterResults(map.getRootNode());
+		return filter;
+	}
+}
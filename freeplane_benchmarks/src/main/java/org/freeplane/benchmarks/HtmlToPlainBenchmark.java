@@ -0,0 +1,52 @@
+package org.freeplane.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.freeplane.core.util.HtmlUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Measures {@link HtmlUtils#htmlToPlain(String, boolean, boolean)} on typical rich text node content. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HtmlToPlainBenchmark {
+	private final String shortHtml = "<html><head></head><body><p>short <b>rich</b> text</p></body></html>";
+	private final String richHtml = "<html>\n  <head>\n    <style type=\"text/css\">p { margin-top: 0 }</style>\n  </head>\n"
+	        + "  <body>\n    <p>\n      A paragraph with <b>bold</b>, <i>italic</i> and &lt;escaped&gt; &amp; text&nbsp;&nbsp;\n    </p>\n"
+	        + "    <ul>\n      <li>\n        first item\n      </li>\n      <li>\n        second&#160;item\n      </li>\n    </ul>\n"
+	        + "    <table>\n      <tr>\n        <td>cell 1</td>\n        <td>cell 2</td>\n      </tr>\n    </table>\n"
+	        + "    <p>\n      <a href=\"https://www.freeplane.org\">link</a><br>line break\n    </p>\n  </body>\n</html>\n";
+	private final String plainText = "plain text without any markup, as most nodes have it";
+
+	@Benchmark
+	public void shortHtml(Blackhole blackhole) {
+		blackhole.consume(HtmlUtils.htmlToPlain(shortHtml, true, true));
+	}
+
+	@Benchmark
+	public void richHtml(Blackhole blackhole) {
+		blackhole.consume(HtmlUtils.htmlToPlain(richHtml, true, true));
+	}
+
+	@Benchmark
+	public void richHtmlKeepingNewLines(Blackhole blackhole) {
+		blackhole.consume(HtmlUtils.htmlToPlain(richHtml, true, false));
+	}
+
+	@Benchmark
+	public void plainText(Blackhole blackhole) {
+		blackhole.consume(HtmlUtils.htmlToPlain(plainText, true, true));
+	}
+}
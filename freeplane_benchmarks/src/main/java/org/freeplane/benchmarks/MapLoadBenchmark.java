@@ -0,0 +1,35 @@
+package org.freeplane.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.freeplane.features.map.MapModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures {@link org.freeplane.features.map.MapReader#createNodeTreeFromXml}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MapLoadBenchmark extends SyntheticMapState {
+	private String xml;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkEnvironment.start();
+		xml = generator().generateXml();
+	}
+
+	@Benchmark
+	public MapModel loadMap() {
+		return BenchmarkEnvironment.readMap(xml);
+	}
+}
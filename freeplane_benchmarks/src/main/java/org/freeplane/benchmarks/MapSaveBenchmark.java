@@ -0,0 +1,66 @@
+package org.freeplane.benchmarks;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeXmlFragmentCache;
+import org.freeplane.features.map.clipboard.MapClipboardController.CopiedNodeSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link org.freeplane.features.map.MapWriter#writeMapAsXml}
+ * for an unchanged map and for a map with a single changed leaf,
+ * with and without {@link NodeXmlFragmentCache}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MapSaveBenchmark extends SyntheticMapState {
+	@Param({ "false", "true" })
+	public boolean fragmentCache;
+
+	private MapModel map;
+	private NodeModel leaf;
+	private int changeCounter;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		map = BenchmarkEnvironment.loadMap(generator().generateXml());
+		ResourceController.getResourceController()
+		    .setProperty(NodeXmlFragmentCache.SAVE_USES_FRAGMENT_CACHE_PROPERTY, fragmentCache);
+		leaf = map.getRootNode();
+		while (leaf.hasChildren())
+			leaf = leaf.getChildAt(leaf.getChildCount() / 2);
+		saveMap();
+	}
+
+	@Benchmark
+	public String saveAfterLeafChange() throws IOException {
+		leaf.setText("changed " + changeCounter++);
+		BenchmarkEnvironment.mapController().nodeChanged(leaf);
+		return saveMap();
+	}
+
+	@Benchmark
+	public String saveMap() throws IOException {
+		final StringWriter writer = new StringWriter();
+		BenchmarkEnvironment.mapController().getMapWriter()
+		    .writeMapAsXml(map, writer, org.freeplane.features.map.MapWriter.Mode.FILE, CopiedNodeSet.ALL_NODES, false);
+		return writer.toString();
+	}
+}
@@ -0,0 +1,104 @@
+package org.freeplane.benchmarks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.ObjectName;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.MapWriter.Mode;
+
+/**
+ * Prints the heap used per node of a loaded synthetic map, in total and by class,
+ * using the class histogram of the running JVM. Run it with
+ *   gradle :freeplane_benchmarks:nodeFootprint
+ * or pass the map depth and fan out, e.g. -PfootprintArgs="6 10" for a 1111111 node map.
+ */
+public class NodeFootprintReport {
+	private static final int REPORTED_CLASS_COUNT = 20;
+
+	private static class ClassUsage {
+		final String className;
+		final long instances;
+		final long bytes;
+
+		ClassUsage(String className, long instances, long bytes) {
+			this.className = className;
+			this.instances = instances;
+			this.bytes = bytes;
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		final int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+		final int fanOut = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		final SyntheticMapGenerator generator = new SyntheticMapGenerator(depth, fanOut, 0, 0, 0, 42);
+		BenchmarkEnvironment.start();
+		final File file = File.createTempFile("footprint", ".mm");
+		file.deleteOnExit();
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+			generator.write(writer);
+		}
+		final Map<String, ClassUsage> before = classHistogram();
+		final MapModel map = BenchmarkEnvironment.newMap();
+		try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+			BenchmarkEnvironment.mapController().getMapReader().createNodeTreeFromXml(map, reader, Mode.FILE);
+		}
+		final Map<String, ClassUsage> after = classHistogram();
+		final int nodeCount = generator.nodeCount();
+		final List<ClassUsage> increases = new ArrayList<>();
+		long totalBytes = 0;
+		for (ClassUsage usage : after.values()) {
+			final ClassUsage previousUsage = before.get(usage.className);
+			final long instances = usage.instances - (previousUsage != null ? previousUsage.instances : 0);
+			final long bytes = usage.bytes - (previousUsage != null ? previousUsage.bytes : 0);
+			totalBytes += bytes;
+			if (bytes > 0)
+				increases.add(new ClassUsage(usage.className, instances, bytes));
+		}
+		increases.sort((first, second) -> Long.compare(second.bytes, first.bytes));
+		System.out.printf("%d nodes, %.1f bytes per node%n", nodeCount, (double) totalBytes / nodeCount);
+		System.out.printf("%10s %10s  %s%n", "bytes/node", "objs/node", "class");
+		for (ClassUsage usage : increases.subList(0, Math.min(REPORTED_CLASS_COUNT, increases.size())))
+			System.out.printf("%10.1f %10.2f  %s%n", (double) usage.bytes / nodeCount,
+			    (double) usage.instances / nodeCount, usage.className);
+		if (map.getRootNode() == null)
+			throw new IllegalStateException();
+	}
+
+	/** Returns the live objects by class after pending finalizers have run and a full garbage collection. */
+	private static Map<String, ClassUsage> classHistogram() throws IOException {
+		final String histogram;
+		System.gc();
+		System.runFinalization();
+		try {
+			histogram = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+			    new ObjectName("com.sun.management:type=DiagnosticCommand"), "gcClassHistogram",
+			    new Object[] { null }, new String[] { String[].class.getName() });
+		}
+		catch (Exception e) {
+			throw new IOException("class histogram is not available", e);
+		}
+		final Map<String, ClassUsage> usages = new HashMap<>();
+		for (String line : histogram.split("\n")) {
+			final String[] columns = line.trim().split("\\s+");
+			if (columns.length < 4 || ! columns[0].endsWith(":"))
+				continue;
+			final String className = columns[3];
+			usages.put(className, new ClassUsage(className, Long.parseLong(columns[1]), Long.parseLong(columns[2])));
+		}
+		return usages;
+	}
+}
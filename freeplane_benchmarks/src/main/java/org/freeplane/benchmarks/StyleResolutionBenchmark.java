@@ -0,0 +1,84 @@
+package org.freeplane.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.filter.condition.AnyChildConditionDecorator;
+import org.freeplane.features.filter.condition.ParentConditionDecorator;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.ModeController;
+import org.freeplane.features.nodestyle.NodeStyleController;
+import org.freeplane.features.styles.ConditionalStyleModel;
+import org.freeplane.features.styles.LogicalStyleController;
+import org.freeplane.features.styles.LogicalStyleController.StyleOption;
+import org.freeplane.features.styles.MapStyleModel;
+import org.freeplane.features.styles.StyleResolutionCache;
+import org.freeplane.features.text.NodeContainsCondition;
+import org.freeplane.features.text.TextController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Resolves the style dependent properties needed to paint all nodes of a map with conditional styles,
+ * one of them checking the parent and one checking the children.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StyleResolutionBenchmark extends SyntheticMapState {
+	@Param({"false", "true"})
+	public boolean styleResolutionCache;
+
+	private NodeStyleController nodeStyleController;
+	private List<NodeModel> nodes;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		final MapModel map = BenchmarkEnvironment.loadMap(generator().generateXml());
+		ResourceController.getResourceController().setProperty(StyleResolutionCache.CACHE_PROPERTY, styleResolutionCache);
+		final ModeController modeController = BenchmarkEnvironment.start();
+		final LogicalStyleController logicalStyleController = LogicalStyleController.getController(modeController);
+		final ConditionalStyleModel conditionalStyles = MapStyleModel.getExtension(map).getConditionalStyleModel();
+		logicalStyleController.addConditionalStyle(conditionalStyles, true,
+		    new NodeContainsCondition(TextController.FILTER_NODE, "alpha", false, false, false, false), MapStyleModel.NOTE_STYLE, false);
+		logicalStyleController.addConditionalStyle(conditionalStyles, true,
+		    new ParentConditionDecorator(new NodeContainsCondition(TextController.FILTER_NODE, "beta", false, false, false, false)),
+		    MapStyleModel.DETAILS_STYLE, false);
+		logicalStyleController.addConditionalStyle(conditionalStyles, true,
+		    new AnyChildConditionDecorator(new NodeContainsCondition(TextController.FILTER_NODE, "gamma", false, false, false, false)),
+		    MapStyleModel.ATTRIBUTE_STYLE, false);
+		nodeStyleController = NodeStyleController.getController(modeController);
+		nodes = new ArrayList<>();
+		collect(map.getRootNode());
+	}
+
+	private void collect(NodeModel node) {
+		nodes.add(node);
+		for (NodeModel child : node.getChildren())
+			collect(child);
+	}
+
+	@Benchmark
+	public void resolveNodeStyles(Blackhole blackhole) {
+		for (NodeModel node : nodes) {
+			blackhole.consume(nodeStyleController.getFont(node, StyleOption.FOR_UNSELECTED_NODE));
+			blackhole.consume(nodeStyleController.getColor(node, StyleOption.FOR_UNSELECTED_NODE));
+			blackhole.consume(nodeStyleController.getBackgroundColor(node, StyleOption.FOR_UNSELECTED_NODE));
+			blackhole.consume(nodeStyleController.getShape(node, StyleOption.FOR_UNSELECTED_NODE));
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package org.freeplane.benchmarks;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Random;
+
+import org.freeplane.core.util.FreeplaneVersion;
+import org.freeplane.core.util.HtmlUtils;
+
+/**
+ * Writes reproducible synthetic maps in the .mm file format.
+ *
+ * The same parameters and seed always produce the same document, so benchmark
+ * results obtained on different machines can be compared. All nodes are unfolded.
+ */
+public class SyntheticMapGenerator {
+	private static final String[] WORDS = { "alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta",
+	        "iota", "kappa", "lambda", "mu", "nu", "xi", "omicron", "pi", "rho", "sigma", "tau", "upsilon", "phi",
+	        "chi", "psi", "omega" };
+
+	private final int depth;
+	private final int fanOut;
+	private final double richTextRatio;
+	private final int attributeCount;
+	private final double connectorDensity;
+	private final long seed;
+
+	private Random random;
+	private int nodeCounter;
+	private int nodeCount;
+
+	/**
+	 * @param depth number of levels below the root node
+	 * @param fanOut number of children of each non leaf node
+	 * @param richTextRatio share of nodes with html content, from 0 to 1
+	 * @param attributeCount number of attributes added to every node
+	 * @param connectorDensity share of nodes having a connector to another node, from 0 to 1
+	 * @param seed random seed used for texts and connector targets
+	 */
+	public SyntheticMapGenerator(int depth, int fanOut, double richTextRatio, int attributeCount,
+	                             double connectorDensity, long seed) {
+		if (depth < 0 || fanOut < 0 || attributeCount < 0)
+			throw new IllegalArgumentException("negative map size parameter");
+		this.depth = depth;
+		this.fanOut = fanOut;
+		this.richTextRatio = richTextRatio;
+		this.attributeCount = attributeCount;
+		this.connectorDensity = connectorDensity;
+		this.seed = seed;
+	}
+
+	public int nodeCount() {
+		int count = 1;
+		int levelCount = 1;
+		for (int level = 0; level < depth; level++) {
+			levelCount *= fanOut;
+			count += levelCount;
+		}
+		return count;
+	}
+
+	public String generateXml() {
+		final StringWriter writer = new StringWriter(nodeCount() * (200 + 60 * attributeCount));
+		try {
+			write(writer);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return writer.toString();
+	}
+
+	public void write(Writer writer) throws IOException {
+		random = new Random(seed);
+		nodeCounter = 0;
+		nodeCount = nodeCount();
+		writer.write("<map version=\"");
+		writer.write(FreeplaneVersion.XML_VERSION);
+		writer.write("\">\n");
+		writeNode(writer, 0);
+		writer.write("</map>\n");
+	}
+
+	private void writeNode(Writer writer, int level) throws IOException {
+		final int nodeNumber = nodeCounter++;
+		final boolean isRichText = random.nextDouble() < richTextRatio;
+		final String text = randomText(nodeNumber);
+		writer.write("<node ID=\"");
+		writer.write(nodeId(nodeNumber));
+		writer.write("\" CREATED=\"1600000000000\" MODIFIED=\"1600000000000\"");
+		if (level < depth && fanOut > 0) {
+			// explicit folding state keeps the map from being folded by default after load
+			writer.write(" FOLDED=\"false\"");
+		}
+		if (!isRichText) {
+			writer.write(" TEXT=\"");
+			writer.write(HtmlUtils.toXMLEscapedText(text));
+			writer.write('"');
+		}
+		writer.write(">\n");
+		if (isRichText) {
+			writer.write("<richcontent TYPE=\"NODE\"><html><head></head><body><p><b>");
+			writer.write(HtmlUtils.toXMLEscapedText(text));
+			writer.write("</b></p><ul><li>first &amp; item</li><li><i>second</i> item</li></ul>"
+			        + "<p>&lt;text&gt;&#160;with&#160;entities</p></body></html></richcontent>\n");
+		}
+		for (int i = 0; i < attributeCount; i++) {
+			writer.write("<attribute NAME=\"attribute");
+			writer.write(Integer.toString(i));
+			writer.write("\" VALUE=\"");
+			writer.write(WORDS[random.nextInt(WORDS.length)]);
+			writer.write(Integer.toString(nodeNumber));
+			writer.write("\"/>\n");
+		}
+		if (nodeNumber > 0 && random.nextDouble() < connectorDensity) {
+			writer.write("<arrowlink DESTINATION=\"");
+			writer.write(nodeId(random.nextInt(nodeCount)));
+			writer.write("\" STARTARROW=\"NONE\" ENDARROW=\"DEFAULT\"/>\n");
+		}
+		if (level < depth) {
+			for (int i = 0; i < fanOut; i++)
+				writeNode(writer, level + 1);
+		}
+		writer.write("</node>\n");
+	}
+
+	private String randomText(int nodeNumber) {
+		final StringBuilder text = new StringBuilder();
+		final int wordCount = 1 + random.nextInt(6);
+		for (int i = 0; i < wordCount; i++) {
+			text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+		}
+		return text.append(nodeNumber).toString();
+	}
+
+	static String nodeId(int nodeNumber) {
+		return "ID_" + (1000000000 + nodeNumber);
+	}
+}
@@ -0,0 +1,34 @@
+package org.freeplane.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Common JMH parameters describing the synthetic map a benchmark runs on.
+ * Override them from the command line, e.g. <code>-p depth=5 -p fanOut=10</code> for a 111111 node map.
+ */
+@State(Scope.Benchmark)
+public class SyntheticMapState {
+	@Param("4")
+	public int depth;
+
+	@Param("10")
+	public int fanOut;
+
+	@Param("0.2")
+	public double richTextRatio;
+
+	@Param("2")
+	public int attributeCount;
+
+	@Param("0.05")
+	public double connectorDensity;
+
+	@Param("42")
+	public long seed;
+
+	protected SyntheticMapGenerator generator() {
+		return new SyntheticMapGenerator(depth, fanOut, richTextRatio, attributeCount, connectorDensity, seed);
+	}
+}
@@ -0,0 +1,65 @@
+package org.freeplane.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.text.TextController;
+import org.freeplane.features.text.TransformationException;
+import org.freeplane.features.text.TransformedTextCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Measures {@link TextController#getTransformedObject} and {@link TextController#getPlainTransformedText} over all map nodes. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TextTransformationBenchmark extends SyntheticMapState {
+	/** Maximal number of nodes kept in {@link TransformedTextCache}, 0 disables the cache. */
+	@Param({"0", "10000"})
+	public int textCacheSize;
+
+	private TextController textController;
+	private List<NodeModel> nodes;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		final MapModel map = BenchmarkEnvironment.loadMap(generator().generateXml());
+		ResourceController.getResourceController().setProperty(TransformedTextCache.CACHE_SIZE_PROPERTY, textCacheSize);
+		textController = TextController.getController(BenchmarkEnvironment.start());
+		nodes = new ArrayList<>();
+		collect(map.getRootNode());
+	}
+
+	private void collect(NodeModel node) {
+		nodes.add(node);
+		for (NodeModel child : node.getChildren())
+			collect(child);
+	}
+
+	@Benchmark
+	public void getTransformedObject(Blackhole blackhole) throws TransformationException {
+		for (NodeModel node : nodes)
+			blackhole.consume(textController.getTransformedObject(node));
+	}
+
+	@Benchmark
+	public void getPlainTransformedText(Blackhole blackhole) {
+		for (NodeModel node : nodes)
+			blackhole.consume(textController.getPlainTransformedText(node));
+	}
+}
@@ -0,0 +1,63 @@
+package org.freeplane.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.freeplane.benchmarks.BenchmarkEnvironment;
+import org.freeplane.benchmarks.SyntheticMapState;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Converts the html texts of all rich text nodes of a map to plain text,
+ * either by {@link HtmlToPlainConverter} or by the regular expressions it replaces.
+ * It lives in the util package because the regular expression conversion is package private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HtmlToPlainConverterBenchmark extends SyntheticMapState {
+	@Param({"false", "true"})
+	public boolean usesRegularExpressions;
+
+	private String[] htmlTexts;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		final MapModel map = BenchmarkEnvironment.loadMap(generator().generateXml());
+		final List<String> texts = new ArrayList<>();
+		collectHtmlTexts(map.getRootNode(), texts);
+		htmlTexts = texts.toArray(new String[texts.size()]);
+	}
+
+	private void collectHtmlTexts(NodeModel node, List<String> texts) {
+		final String text = node.getText();
+		if (HtmlUtils.isHtml(text))
+			texts.add(text);
+		for (NodeModel child : node.getChildren())
+			collectHtmlTexts(child, texts);
+	}
+
+	@Benchmark
+	public void convertRichTexts(Blackhole blackhole) {
+		for (String text : htmlTexts) {
+			blackhole.consume(usesRegularExpressions
+			        ? HtmlUtils.htmlToPlainUsingPatterns(text, true, "   * ")
+			        : HtmlUtils.htmlToPlain(text, false, true));
+		}
+	}
+}
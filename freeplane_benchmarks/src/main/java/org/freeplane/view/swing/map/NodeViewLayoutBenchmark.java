@@ -0,0 +1,87 @@
+package org.freeplane.view.swing.map;
+
+import java.awt.Component;
+import java.util.concurrent.TimeUnit;
+
+import org.freeplane.benchmarks.BenchmarkEnvironment;
+import org.freeplane.benchmarks.SyntheticMapState;
+import org.freeplane.features.map.MapModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link VerticalNodeViewLayoutStrategy#calculateLayoutData()} for a completely unfolded map view.
+ * It lives in the view package because the layout strategy is package private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NodeViewLayoutBenchmark extends SyntheticMapState {
+	/**
+	 * Node views are created and styled only for a displayable map view,
+	 * which is never the case for a component without a window in headless mode.
+	 * The flag is set after construction, and the map is set again so that all views are created.
+	 */
+	@SuppressWarnings("serial")
+	private static class HeadlessMapView extends MapView {
+		private boolean isDisplayable;
+
+		HeadlessMapView(MapModel map) {
+			super(map, BenchmarkEnvironment.start());
+		}
+
+		@Override
+		public boolean isDisplayable() {
+			return isDisplayable;
+		}
+
+		// the headless map view manager has no view component to compare with
+		@Override
+		public boolean isSelected() {
+			return true;
+		}
+	}
+
+	private NodeView rootView;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		final MapModel map = BenchmarkEnvironment.loadMap(generator().generateXml());
+		final HeadlessMapView mapView = new HeadlessMapView(map);
+		mapView.isDisplayable = true;
+		mapView.setMap(map);
+		rootView = mapView.getRoot();
+		layout(rootView);
+	}
+
+	@Benchmark
+	public NodeView calculateLayoutData() {
+		invalidate(rootView);
+		layout(rootView);
+		return rootView;
+	}
+
+	private void invalidate(NodeView view) {
+		view.invalidate();
+		for (Component child : view.getComponents()) {
+			if (child instanceof NodeView)
+				invalidate((NodeView) child);
+		}
+	}
+
+	private void layout(NodeView view) {
+		synchronized (view.getTreeLock()) {
+			if (view.getContent() != null)
+				new VerticalNodeViewLayoutStrategy(view).calculateLayoutData();
+		}
+	}
+}
@@ -94,7 +94,7 @@ class PackageNode extends CodeNode {
     }
 
 	private void initializeChildNodes() {
-	    List<NodeModel> children = super.getChildrenInternal();
+	    List<NodeModel> children = super.getModifiableChildrenInternal();
 	    if (classCount == 0)
 	        return;
 	    final List<JavaPackage> packages = relevantSubpackages(javaPackage);
@@ -112,7 +112,7 @@ class ProjectNode extends CodeNode implements GroupFinder{
         .filter(Optional::isPresent)
         .map(Optional::get)
         .collect(Collectors.toSet());
-        List<NodeModel> children = super.getChildrenInternal();
+        List<NodeModel> children = super.getModifiableChildrenInternal();
         Map<Integer, CodeNode> nodes = groups.stream()
                 .parallel()
                 .map(gi ->
@@ -0,0 +1,48 @@
+package org.freeplane.plugin.codeexplorer.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+
+import org.freeplane.core.ui.menubuilders.HeadlessFreeplaneRunner;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.plugin.codeexplorer.graph.GraphCycleFinder;
+import org.freeplane.plugin.codeexplorer.graph.GraphNodeSort;
+import org.freeplane.plugin.codeexplorer.task.GroupIdentifier;
+import org.freeplane.plugin.codeexplorer.task.GroupMatcher;
+import org.junit.Test;
+
+import com.tngtech.archunit.core.domain.JavaClasses;
+import com.tngtech.archunit.core.importer.ClassFileImporter;
+
+public class ProjectNodeTest {
+    static {
+        new HeadlessFreeplaneRunner();
+    }
+
+    private static final String GRAPH_PACKAGE = GraphNodeSort.class.getPackage().getName();
+
+    @Test
+    public void buildsCodeMapOfImportedClasses() {
+        final JavaClasses classes = new ClassFileImporter().importPackages(GRAPH_PACKAGE);
+        final CodeMap map = new CodeMap(Controller.getCurrentModeController().getMapController().duplicator());
+        final GroupMatcher groupMatcher = javaClass -> GRAPH_PACKAGE.equals(javaClass.getPackageName())
+                ? Optional.of(new GroupIdentifier("graph", "graph"))
+                : Optional.empty();
+
+        final ProjectNode root = ProjectNode.asMapRoot("project", map, classes, groupMatcher);
+
+        assertThat(map.getRootNode()).isSameAs(root);
+        assertThat(root.getChildren()).singleElement().isInstanceOf(PackageNode.class);
+        final NodeModel graphSortNode = map.getNodeForID(CodeNode.idWithGroupIndex(GraphNodeSort.class.getName(), 0));
+        final NodeModel cycleFinderNode = map.getNodeForID(CodeNode.idWithGroupIndex(GraphCycleFinder.class.getName(), 0));
+        assertThat(graphSortNode).isInstanceOf(ClassNode.class);
+        assertThat(graphSortNode.getText()).isEqualTo("GraphNodeSort");
+        assertThat(cycleFinderNode).isInstanceOf(ClassNode.class);
+        final NodeModel classesNode = graphSortNode.getParentNode();
+        assertThat(classesNode).isInstanceOf(ClassesNode.class);
+        assertThat(classesNode.getChildren()).contains(graphSortNode, cycleFinderNode);
+        assertThat(classesNode.getParentNode().getParentNode()).isSameAs(root);
+    }
+}
@@ -32,10 +32,20 @@ public class FormulaUpdateChangeListener implements INodeChangeListener, IMapCha
         return 1;
     }
 
+    @Override
+    public boolean isNotifiedDuringBatch() {
+        return true;
+    }
+
     @Override
 	public void nodeChanged(NodeChangeEvent event) {
 		if (!FormulaCache.class.equals(event.getProperty())) {
-            reevaluateNodeDependencies(false, event.getNode());
+			final NodeModel node = event.getNode();
+			// during a batch only the cached values are removed, the nodes are refreshed when it ends
+			if (Controller.getCurrentModeController().getMapController().isBatchRunning(node.getMap()))
+				FormulaDependencies.manageChangeAndReturnDependencies(false, Collections.singletonList(node));
+			else
+				reevaluateNodeDependencies(false, node);
 		}
 	}
 
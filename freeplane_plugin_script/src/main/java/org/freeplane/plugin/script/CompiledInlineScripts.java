@@ -0,0 +1,115 @@
+package org.freeplane.plugin.script;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import org.apache.commons.io.FileUtils;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.runtime.EncodingGroovyMethods;
+import org.freeplane.core.util.LogUtils;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+
+/**
+ * Disk cache for classes of inline scripts like formulas, so that they are loaded instead of compiled after restarts.
+ * Classes are cached by the hash of the script text, the Freeplane version
+ * and the script classpath entries with their modification times.
+ * Each class directory is written under a temporary name and renamed when it is complete,
+ * unless the script has been cached by another thread in the meantime.
+ * Outdated and least recently used directories are removed by {@link CompiledScriptCleaner}.
+ */
+class CompiledInlineScripts {
+    private final File directory;
+    private final String keyPrefix;
+
+    CompiledInlineScripts(File directory, String freeplaneVersion, List<String> classpath) {
+        this.directory = directory;
+        this.keyPrefix = freeplaneVersion + "\n" + classpathStamp(classpath);
+    }
+
+    private static String classpathStamp(List<String> classpath) {
+        StringBuilder stamp = new StringBuilder();
+        for (String entry : classpath != null ? classpath : Collections.<String>emptyList()) {
+            File file = new File(entry);
+            stamp.append(file.getAbsolutePath())
+                .append('=')
+                .append(CompiledScriptCleaner.calculateLastDependencyModificationTime(file))
+                .append('\n');
+        }
+        return stamp.toString();
+    }
+
+    String key(String scriptText) {
+        try {
+            return EncodingGroovyMethods.md5(keyPrefix + "\n" + scriptText);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    Class parseAndCache(final GroovyCodeSource codeSource, final CompilerConfiguration config,
+                        final Supplier<GroovyClassLoader> classLoaders) {
+        String key = key(codeSource.getScriptText());
+        File cache = new File(directory, key);
+        File propertyFile = new File(cache, "compiled.properties");
+        File classes = new File(cache, "classes");
+        if (propertyFile.exists() && classes.exists()) {
+            try (InputStream in = new FileInputStream(propertyFile)) {
+                Properties properties = new Properties();
+                properties.load(in);
+                String className = properties.getProperty("class");
+                GroovyClassLoader loader = classLoaders.get();
+                loader.addURL(ScriptClassLoader.pathToUrl(classes));
+                Class cachedClass = loader.loadClass(className);
+                cache.setLastModified(System.currentTimeMillis());
+                return cachedClass;
+            } catch (IOException | ClassNotFoundException | LinkageError e) {
+                FileUtils.deleteQuietly(cache);
+            }
+        }
+        File compilationDir;
+        try {
+            directory.mkdirs();
+            compilationDir = Files.createTempDirectory(directory.toPath(), key).toFile();
+        } catch (IOException e) {
+            LogUtils.warn(e);
+            return classLoaders.get().parseClass(codeSource, false);
+        }
+        File compiledClasses = new File(compilationDir, "classes");
+        compiledClasses.mkdirs();
+        config.setTargetDirectory(compiledClasses);
+        long time = System.currentTimeMillis();
+        GroovyClassLoader loader = classLoaders.get();
+        Class parsedClass;
+        try {
+            parsedClass = loader.parseClass(codeSource, false);
+        }
+        catch (RuntimeException e) {
+            FileUtils.deleteQuietly(compilationDir);
+            throw e;
+        }
+        try (FileOutputStream out = new FileOutputStream(new File(compilationDir, "compiled.properties"))){
+            Properties properties = new Properties();
+            properties.setProperty("class", parsedClass.getName());
+            properties.setProperty("time", Long.toString(time));
+            properties.store(out, "");
+        } catch (IOException e) {
+            LogUtils.warn(e);
+            FileUtils.deleteQuietly(compilationDir);
+            return parsedClass;
+        }
+        if (! compilationDir.renameTo(cache))
+            FileUtils.deleteQuietly(compilationDir);
+        return parsedClass;
+    }
+}
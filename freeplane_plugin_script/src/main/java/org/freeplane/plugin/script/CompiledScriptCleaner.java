@@ -8,22 +8,27 @@ import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Properties;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
+import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.util.LogUtils;
 
 class CompiledScriptCleaner {
+    private static final String INLINE_SCRIPT_CACHE_SIZE_PROPERTY = "compiled_inline_script_disk_cache_size";
+
     private long calculateLastDependencyModificationTime() {
         long lastModificationTime = ScriptResources.getClasspath().stream()
             .map(File::new)
-            .mapToLong(this::calculateLastDependencyModificationTime)
+            .mapToLong(CompiledScriptCleaner::calculateLastDependencyModificationTime)
             .reduce(0, Long::max);
         return lastModificationTime;
     }
 
-    private long calculateLastDependencyModificationTime(File f) {
+    static long calculateLastDependencyModificationTime(File f) {
         final long lastModificationTime;
         if(f.isDirectory()) {
             try {
@@ -52,6 +57,9 @@ class CompiledScriptCleaner {
                 long lastDependencyModificationTime = calculateLastDependencyModificationTime();
                 Stream.of(cacheDirectories)
                     .forEach(cache -> removeOutdated(cache, lastDependencyModificationTime));
+                int inlineScriptCacheSize = ResourceController.getResourceController().getIntProperty(INLINE_SCRIPT_CACHE_SIZE_PROPERTY, 0);
+                removeOutdatedInlineScripts(ScriptResources.getCompiledInlineScriptsDir(), inlineScriptCacheSize,
+                    lastDependencyModificationTime);
             }
         } else {
             try {
@@ -62,6 +70,32 @@ class CompiledScriptCleaner {
         }
     }
 
+    /** Keeps the most recently used inline scripts compiled after the last dependency change. */
+    void removeOutdatedInlineScripts(File inlineScriptsDir, int cacheSize, long lastDependencyModificationTime) {
+        File[] cacheDirectories = inlineScriptsDir.listFiles();
+        if(cacheDirectories == null)
+            return;
+        Arrays.sort(cacheDirectories, Comparator.comparingLong(File::lastModified).reversed());
+        int keptCacheCount = 0;
+        for (File cache : cacheDirectories) {
+            if(keptCacheCount < cacheSize && isCompiledAfter(cache, lastDependencyModificationTime))
+                keptCacheCount++;
+            else
+                FileUtils.deleteQuietly(cache);
+        }
+    }
+
+    private boolean isCompiledAfter(File cache, long lastDependencyModificationTime) {
+        File propertyFile = new File(cache, "compiled.properties");
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(propertyFile)) {
+            properties.load(in);
+            return Long.parseLong(properties.getProperty("time")) > lastDependencyModificationTime;
+        } catch (IOException|NumberFormatException e) {
+            return false;
+        }
+    }
+
     private void removeOutdated(File cache, long lastDependencyModificationTime) {
         File propertyFile = new File(cache, "compiled.properties");
         if (propertyFile.exists()) {
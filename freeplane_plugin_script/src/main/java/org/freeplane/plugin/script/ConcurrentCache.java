@@ -1,49 +1,148 @@
 package org.freeplane.plugin.script;
 
-import java.util.LinkedHashMap;
-import java.util.Map.Entry;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 
+/**
+ * Bounded cache for concurrent use.
+ *
+ * Keys are distributed over shards. Lookups of cached values take no lock,
+ * they only mark the entry as referenced. Each shard evicts its entries using the CLOCK algorithm:
+ * the clock hand skips and unmarks referenced entries and evicts the first unreferenced one.
+ *
+ * Values of absent keys are computed only once even if several threads ask for them at the same time.
+ * The suppliers should be fast and must not access the cache.
+ */
 public class ConcurrentCache <K, V> {
 
-	private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+	private static final int MAXIMAL_DEFAULT_SHARD_COUNT = 16;
 
-    private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
-    private final ReentrantReadWriteLock.ReadLock readLock = rwl.readLock();
-    private final ReentrantReadWriteLock.WriteLock writeLock = rwl.writeLock();
+	private static class Entry<K, V> {
+		final K key;
+		final V value;
+		volatile boolean referenced;
+
+		Entry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+	private class Shard {
+		private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+		private final ArrayList<Entry<K, V>> clock = new ArrayList<>();
+		private int hand;
+
+		V computeIfAbsent(K key, Supplier<? extends V> supplier) {
+			Entry<K, V> entry = entries.get(key);
+			if (entry == null) {
+				final boolean[] computed = {false};
+				entry = entries.computeIfAbsent(key, k -> {
+					computed[0] = true;
+					return new Entry<K, V>(k, supplier.get());
+				});
+				if (computed[0]) {
+					misses.increment();
+					add(entry);
+					return entry.value;
+				}
+			}
+			hits.increment();
+			entry.referenced = true;
+			return entry.value;
+		}
+
+		private synchronized void add(Entry<K, V> entry) {
+			final int capacity = Math.max(1, (maxSize.getAsInt() + shards.length - 1) / shards.length);
+			while (clock.size() > capacity) {
+				final int evicted = advanceHand();
+				evict(clock.remove(evicted));
+				hand = evicted;
+			}
+			if (clock.size() < capacity)
+				clock.add(entry);
+			else
+				evict(clock.set(advanceHand(), entry));
+		}
+
+		/** Returns the index of the next unreferenced entry and moves the hand past it. */
+		private int advanceHand() {
+			for (;;) {
+				if (hand >= clock.size())
+					hand = 0;
+				final Entry<K, V> candidate = clock.get(hand);
+				if (! candidate.referenced)
+					return hand++;
+				candidate.referenced = false;
+				hand++;
+			}
+		}
+
+		private void evict(Entry<K, V> entry) {
+			entries.remove(entry.key, entry);
+			evictions.increment();
+		}
+
+		synchronized int size() {
+			return clock.size();
+		}
+	}
+
+	private final IntSupplier maxSize;
+	private final ConcurrentCache<K, V>.Shard[] shards;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
 
-	private final LinkedHashMap<K, V> cache ;
-	@SuppressWarnings("serial")
 	public ConcurrentCache(IntSupplier maxSize) {
+		this(maxSize, defaultShardCount());
+	}
+
+	@SuppressWarnings("unchecked")
+	ConcurrentCache(IntSupplier maxSize, int shardCount) {
 		super();
-		cache = new  LinkedHashMap<K, V>(maxSize.getAsInt() + 1, DEFAULT_LOAD_FACTOR, true){
-			@Override
-			protected boolean removeEldestEntry(Entry<K, V> eldest) {
-				return size() > maxSize.getAsInt();
-			}
-		};
+		this.maxSize = maxSize;
+		shards = new ConcurrentCache.Shard[shardCount];
+		for (int i = 0; i < shardCount; i++)
+			shards[i] = new Shard();
+	}
+
+	private static int defaultShardCount() {
+		final int processors = Runtime.getRuntime().availableProcessors();
+		return Math.min(MAXIMAL_DEFAULT_SHARD_COUNT, Integer.highestOneBit(processors));
 	}
 
 	public V computeIfAbsent(K key, Supplier<? extends V> supplier) {
-        readLock.lock();
-        try {
-            V value = cache.get(key);
-            if (null != value) {
-                return value;
-            }
-        } finally {
-            readLock.unlock();
-        }
-        V value = supplier.get();
-        writeLock.lock();
-        try {
-            V oldValue = cache.putIfAbsent(key, value);
-            return null != oldValue ? oldValue : value;
-        } finally {
-        	writeLock.unlock();
-        }
+		final int hash = key.hashCode();
+		final int shard = ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards.length;
+		return shards[shard].computeIfAbsent(key, supplier);
 	}
 
+	public int size() {
+		int size = 0;
+		for (Shard shard : shards)
+			size += shard.size();
+		return size;
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "ConcurrentCache [size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+		        + ", evictions=" + getEvictionCount() + "]";
+	}
 }
@@ -0,0 +1,38 @@
+package org.freeplane.plugin.script;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.plugin.script.dependencies.EvaluationDependencies;
+
+/**
+ * Evaluates the formulas of the given nodes and keeps the results in the {@link FormulaCache}.
+ * Nodes are evaluated after the nodes they depended on in their last evaluation,
+ * so that their precedents are usually taken from the cache.
+ */
+public class FormulaEvaluationScheduler {
+	private final List<List<NodeModel>> groups;
+
+	/** Orders the nodes by their dependencies known at the time of the call. */
+	public FormulaEvaluationScheduler(Collection<NodeModel> nodes) {
+		final Map<MapModel, List<NodeModel>> nodesByMap = new LinkedHashMap<>();
+		for (NodeModel node : nodes) {
+			if (FormulaUtils.containsFormulas(node))
+				nodesByMap.computeIfAbsent(node.getMap(), x -> new ArrayList<>()).add(node);
+		}
+		groups = new ArrayList<>();
+		for (Entry<MapModel, List<NodeModel>> entry : nodesByMap.entrySet())
+			groups.addAll(EvaluationDependencies.of(entry.getKey()).evaluationGroups(entry.getValue()));
+	}
+
+	public void evaluate() {
+		for (List<NodeModel> group : groups)
+			group.forEach(FormulaUtils::evaluateFormulas);
+	}
+}
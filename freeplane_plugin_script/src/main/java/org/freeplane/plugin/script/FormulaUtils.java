@@ -1,6 +1,7 @@
 package org.freeplane.plugin.script;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
@@ -168,20 +169,39 @@ public class FormulaUtils {
 	}
 
 	public static void evaluateAllFormulas(MapModel map) {
+		final FormulaEvaluationScheduler scheduler = new FormulaEvaluationScheduler(allNodes(map));
 		clearCache(map);
-		evaluateOutdatedFormulas(map);
+		scheduler.evaluate();
 	}
 
 	public static void evaluateOutdatedFormulas(MapModel map) {
-		cacheAllRecursively(map.getRootNode());
+		new FormulaEvaluationScheduler(allNodes(map)).evaluate();
 	}
 
-	static private void cacheAllRecursively(NodeModel node) {
+	private static List<NodeModel> allNodes(MapModel map) {
+		final List<NodeModel> nodes = new ArrayList<>();
+		addAllRecursively(nodes, map.getRootNode());
+		return nodes;
+	}
+
+	private static void addAllRecursively(List<NodeModel> nodes, NodeModel node) {
+		nodes.add(node);
+		node.getChildren().stream().forEach(child -> addAllRecursively(nodes, child));
+	}
+
+	static boolean containsFormulas(NodeModel node) {
+		if (containsFormula(node.getUserObject()))
+			return true;
+		NodeAttributeTableModel attributeTableModel = node.getExtension(NodeAttributeTableModel.class);
+		return attributeTableModel != null
+				&& attributeTableModel.getAttributes().stream().anyMatch(a -> containsFormula(a.getValue()));
+	}
+
+	static void evaluateFormulas(NodeModel node) {
 		cacheIfFormula(node, node.getUserObject());
 		NodeAttributeTableModel attributeTableModel = node.getExtension(NodeAttributeTableModel.class);
 		if(attributeTableModel != null)
 			attributeTableModel.getAttributes().stream().forEach(a -> cacheIfFormula(node, a.getValue()));
-		node.getChildren().stream().forEach(FormulaUtils::cacheAllRecursively);
 	}
 
 	public static void cacheIfFormula(NodeModel node, Object maybeFormula) {
@@ -38,6 +38,7 @@ import org.codehaus.groovy.control.SourceUnit;
 import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import org.codehaus.groovy.runtime.EncodingGroovyMethods;
 import org.codehaus.groovy.runtime.InvokerHelper;
+import org.freeplane.core.util.FreeplaneVersion;
 import org.freeplane.core.util.LogUtils;
 
 import groovy.lang.Binding;
@@ -112,7 +113,10 @@ class GroovyShell extends GroovyObjectSupport {
      */
     private Class loadClass(final GroovyCodeSource codeSource) throws CompilationFailedException {
         if(ClasspathScriptCompiler.compilesOnlyChangedScriptFiles()) {
-            return parseAndCache(codeSource);
+            if(codeSource.getFile() != null)
+                return parseAndCache(codeSource);
+            else
+                return parseAndCacheScriptText(codeSource);
         }
         else
             return parseClass(codeSource);
@@ -182,6 +186,16 @@ class GroovyShell extends GroovyObjectSupport {
     }
 
 
+    private static class CompiledInlineScriptsHolder {
+        static final CompiledInlineScripts INSTANCE = new CompiledInlineScripts(ScriptResources.getCompiledInlineScriptsDir(),
+            FreeplaneVersion.getVersion().toString(), ScriptResources.getClasspath());
+    }
+
+    private Class parseAndCacheScriptText(final GroovyCodeSource codeSource) {
+        return CompiledInlineScriptsHolder.INSTANCE.parseAndCache(codeSource, config, this::createClassLoader);
+    }
+
+
     private GroovyClassLoader createClassLoader() {
         GroovyClassLoader loader = AccessController.doPrivileged(new PrivilegedAction<GroovyClassLoader>() {
             @Override
@@ -43,6 +43,10 @@ public class ScriptingEngine {
     private static int getCompiledScriptCacheSize() {
 		return ResourceController.getResourceController().getIntProperty("compiled_script_cache_size");
 	}
+    /** returns size, hit, miss and eviction counts of the cache of compiled scripts. */
+    public static String getCompiledScriptCacheStatistics() {
+    	return scripts.toString();
+    }
 	/**
 	 * @param permissions if null use default scripting permissions.
 	 * @return the result of the script, or null, if the user has cancelled.
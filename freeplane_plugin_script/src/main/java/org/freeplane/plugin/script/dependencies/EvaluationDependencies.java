@@ -1,8 +1,15 @@
 package org.freeplane.plugin.script.dependencies;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.WeakHashMap;
@@ -127,6 +134,80 @@ public class EvaluationDependencies implements IExtension{
 		return dependencies != null ? dependencies : Collections.<NodeModel>emptyList();
 	}
 
+	/**
+	 * Splits the given nodes into groups, so that the nodes of each group only accessed nodes of the previous groups
+	 * when they were evaluated last time. Nodes of the same group can be evaluated independently from each other.
+	 * Nodes accessing all nodes, global nodes or clones, nodes in cycles and nodes accessing them come last,
+	 * each one in a group of its own.
+	 */
+	public List<List<NodeModel>> evaluationGroups(Collection<NodeModel> nodes) {
+		final Map<NodeModel, Set<NodeModel>> precedents = new LinkedHashMap<>();
+		for (NodeModel node : nodes)
+			precedents.put(node, new LinkedHashSet<>());
+		for (Entry<NodeModel, DependentNodeReferences> entry : onNodeDependencies.entrySet()) {
+			final NodeModel accessedNode = entry.getKey();
+			if (precedents.containsKey(accessedNode)) {
+				for (NodeModel accessingNode : entry.getValue())
+					addPrecedent(precedents, accessingNode, accessedNode);
+			}
+		}
+		for (Entry<NodeModel, DependentNodeReferences> entry : onBranchDependencies.entrySet()) {
+			final NodeModel branchNode = entry.getKey();
+			for (NodeModel accessedNode : precedents.keySet()) {
+				if (accessedNode.isDescendantOf(branchNode)) {
+					for (NodeModel accessingNode : entry.getValue())
+						addPrecedent(precedents, accessingNode, accessedNode);
+				}
+			}
+		}
+		final Set<NodeModel> unorderedNodes = new LinkedHashSet<>();
+		for (DependentNodeReferences accessingNodes : onCloneDependencies.values())
+			accessingNodes.forEach(unorderedNodes::add);
+		unorderedNodes.addAll(onAnyNodeDependencies.keySet());
+		unorderedNodes.addAll(onGlobalNodeDependencies.keySet());
+
+		final Map<NodeModel, List<NodeModel>> dependents = new HashMap<>();
+		final Map<NodeModel, Integer> unevaluatedPrecedentCounts = new HashMap<>();
+		final ArrayDeque<NodeModel> evaluableNodes = new ArrayDeque<>();
+		for (Entry<NodeModel, Set<NodeModel>> entry : precedents.entrySet()) {
+			final NodeModel node = entry.getKey();
+			if (unorderedNodes.contains(node))
+				continue;
+			for (NodeModel precedent : entry.getValue())
+				dependents.computeIfAbsent(precedent, x -> new ArrayList<>()).add(node);
+			unevaluatedPrecedentCounts.put(node, entry.getValue().size());
+			if (entry.getValue().isEmpty())
+				evaluableNodes.add(node);
+		}
+		final List<List<NodeModel>> groups = new ArrayList<>();
+		final Map<NodeModel, Integer> groupIndices = new HashMap<>();
+		while (! evaluableNodes.isEmpty()) {
+			final NodeModel node = evaluableNodes.remove();
+			int groupIndex = 0;
+			for (NodeModel precedent : precedents.get(node))
+				groupIndex = Math.max(groupIndex, groupIndices.get(precedent) + 1);
+			groupIndices.put(node, groupIndex);
+			if (groupIndex == groups.size())
+				groups.add(new ArrayList<>());
+			groups.get(groupIndex).add(node);
+			for (NodeModel dependent : dependents.getOrDefault(node, Collections.emptyList())) {
+				if (unevaluatedPrecedentCounts.merge(dependent, -1, Integer::sum) == 0)
+					evaluableNodes.add(dependent);
+			}
+		}
+		for (NodeModel node : precedents.keySet()) {
+			if (! groupIndices.containsKey(node))
+				groups.add(Collections.singletonList(node));
+		}
+		return groups;
+	}
+
+	private static void addPrecedent(Map<NodeModel, Set<NodeModel>> precedents, NodeModel accessingNode, NodeModel accessedNode) {
+		final Set<NodeModel> accessingNodePrecedents = precedents.get(accessingNode);
+		if (accessingNodePrecedents != null && accessingNode != accessedNode)
+			accessingNodePrecedents.add(accessedNode);
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
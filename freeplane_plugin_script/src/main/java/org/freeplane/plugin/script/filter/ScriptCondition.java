@@ -104,6 +104,11 @@ public class ScriptCondition extends ASelectableCondition {
 	}
 
 
+	@Override
+	public boolean checksExternalState() {
+		return true;
+	}
+
 	private void setErrorStatus(final String info) {
 	    LogUtils.warn(info);
 	    if(! errorReported){
@@ -159,6 +159,12 @@ class ControllerProxy implements Proxy.Controller {
 		}
 	}
 
+	@Override
+	public void withBatch(Runnable changes) {
+		final MapModel map = Controller.getCurrentController().getMap();
+		Controller.getCurrentModeController().getMapController().batch(map, changes);
+	}
+
 	@Override
 	public void undo() {
 		final MapModel map = Controller.getCurrentController().getMap();
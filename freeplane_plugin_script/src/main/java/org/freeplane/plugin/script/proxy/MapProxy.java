@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.stream.Stream;
 
 import org.freeplane.api.BookmarkType;
 import org.freeplane.api.ConditionalStyles;
@@ -55,6 +56,16 @@ public class MapProxy extends AbstractProxy<MapModel> implements MindMap, Map {
 		return node != null ? new NodeProxy(node, getScriptContext()) : null;
 	}
 
+	// MapRO: R
+	@Override
+	public Stream<? extends Node> nodesMatching(final NodeCondition condition) {
+		final NodeModel rootNode = getDelegate().getRootNode();
+		final ScriptContext scriptContext = getScriptContext();
+		if (scriptContext != null)
+			scriptContext.accessBranch(rootNode);
+		return ProxyUtils.stream(condition, rootNode, scriptContext);
+	}
+
 	// MapRO: R
 	@Override
 	public Node getRoot() {
@@ -350,6 +361,12 @@ public class MapProxy extends AbstractProxy<MapModel> implements MindMap, Map {
 		FormulaUtils.evaluateOutdatedFormulas(getDelegate());
 	}
 
+	// Map: R/W
+	@Override
+	public void batch(Runnable changes) {
+		getModeController().getMapController().batch(getDelegate(), changes);
+	}
+
 	@Override
 	public void addListener(NodeChangeListener listener) {
 		NodeChangeListeners.of(Controller.getCurrentModeController(), getDelegate()).add(getScriptContext(), listener);
@@ -826,6 +826,14 @@ class NodeProxy extends AbstractProxy<NodeModel> implements Proxy.Node {
 		return ProxyUtils.findAll(delegate, getScriptContext(), false);
     }
 
+	// NodeRO: R
+	@Override
+	public Stream<? extends Node> stream() {
+		final NodeModel delegate = getDelegate();
+		reportBranchAccess(delegate);
+		return ProxyUtils.stream(null, delegate, getScriptContext());
+	}
+
 	// NodeRO: R
 	@Override
 	public List<? extends Node> findAllDepthFirst() {
@@ -10,8 +10,12 @@ import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.freeplane.api.Node;
 import org.freeplane.api.NodeCondition;
@@ -23,6 +27,7 @@ import org.freeplane.features.format.FormatController;
 import org.freeplane.features.format.FormattedDate;
 import org.freeplane.features.format.FormattedNumber;
 import org.freeplane.features.format.IFormattedObject;
+import org.freeplane.features.map.NodeIterator;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.map.NodeStream;
 import org.freeplane.features.mode.mindmapmode.MModeController;
@@ -120,6 +125,30 @@ public class ProxyUtils {
 		return nodes.collect(Collectors.toList());
 	}
 
+	/** returns the nodes of the branch starting at node in the order of findAll(), they are wrapped when the stream reaches them.
+	 * The stream never splits, so that nodes and proxies are only accessed by the calling thread even if the stream is made parallel.
+	 * @param condition if null every node will match. */
+	static Stream<? extends Proxy.Node> stream(final NodeCondition condition, final NodeModel node, final ScriptContext scriptContext) {
+		final Iterator<NodeModel> iterator = NodeIterator.of(node, NodeModel::getChildren);
+		final Spliterator<NodeModel> spliterator = new Spliterators.AbstractSpliterator<NodeModel>(Long.MAX_VALUE,
+		    Spliterator.ORDERED | Spliterator.NONNULL) {
+			@Override
+			public boolean tryAdvance(final Consumer<? super NodeModel> action) {
+				if (! iterator.hasNext())
+					return false;
+				action.accept(iterator.next());
+				return true;
+			}
+
+			@Override
+			public Spliterator<NodeModel> trySplit() {
+				return null;
+			}
+		};
+		final Stream<NodeProxy> nodes = StreamSupport.stream(spliterator, false).map(nodeModel -> new NodeProxy(nodeModel, scriptContext));
+		return condition == null ? nodes : nodes.filter(condition::check);
+	}
+
 	public static List<Proxy.Node> createListOfChildren(final NodeModel nodeModel, final ScriptContext scriptContext) {
         return new ArrayList<Proxy.Node>(new AbstractList<Proxy.Node>() {
     		@Override
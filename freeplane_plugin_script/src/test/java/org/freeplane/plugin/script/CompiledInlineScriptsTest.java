@@ -0,0 +1,137 @@
+package org.freeplane.plugin.script;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+
+public class CompiledInlineScriptsTest {
+	private static final String VERSION = "1.12.1";
+	private static final String SCRIPT = "1 + 2";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File directory;
+	private CompilerConfiguration config;
+	private List<GroovyClassLoader> createdLoaders;
+
+	@Before
+	public void setUp() {
+		directory = new File(folder.getRoot(), "inline");
+		config = new CompilerConfiguration();
+		createdLoaders = new ArrayList<>();
+	}
+
+	private Class<?> parseAndCache(CompiledInlineScripts uut) {
+		final GroovyCodeSource codeSource = new GroovyCodeSource(SCRIPT, "Script1.groovy", "/groovy/shell");
+		return uut.parseAndCache(codeSource, config, () -> {
+			final GroovyClassLoader loader = new GroovyClassLoader(getClass().getClassLoader(), config);
+			createdLoaders.add(loader);
+			return loader;
+		});
+	}
+
+	private static Object run(Class<?> scriptClass) {
+		return InvokerHelper.createScript(scriptClass, new Binding()).run();
+	}
+
+	private GroovyClassLoader lastCreatedLoader() {
+		return createdLoaders.get(createdLoaders.size() - 1);
+	}
+
+	@Test
+	public void loadsCachedClassAfterRestart() {
+		final Class<?> compiledClass = parseAndCache(new CompiledInlineScripts(directory, VERSION, null));
+		assertThat(compiledClass.getClassLoader()).isNotSameAs(lastCreatedLoader());
+
+		final Class<?> cachedClass = parseAndCache(new CompiledInlineScripts(directory, VERSION, null));
+
+		assertThat(cachedClass.getClassLoader()).isSameAs(lastCreatedLoader());
+		assertThat(run(cachedClass)).isEqualTo(3);
+		assertThat(directory.list()).hasSize(1);
+	}
+
+	@Test
+	public void changesKeyWhenVersionOrClasspathEntryChanges() throws IOException {
+		final File library = folder.newFile("library.jar");
+		library.setLastModified(1_000_000L);
+		final List<String> classpath = Collections.singletonList(library.getPath());
+		final String key = new CompiledInlineScripts(directory, VERSION, classpath).key(SCRIPT);
+
+		assertThat(new CompiledInlineScripts(directory, VERSION, classpath).key(SCRIPT)).isEqualTo(key);
+		assertThat(new CompiledInlineScripts(directory, "1.12.2", classpath).key(SCRIPT)).isNotEqualTo(key);
+		assertThat(new CompiledInlineScripts(directory, VERSION, null).key(SCRIPT)).isNotEqualTo(key);
+
+		library.setLastModified(2_000_000L);
+
+		assertThat(new CompiledInlineScripts(directory, VERSION, classpath).key(SCRIPT)).isNotEqualTo(key);
+	}
+
+	@Test
+	public void deletesCorruptCacheEntryAndCompilesAgain() throws IOException {
+		final CompiledInlineScripts uut = new CompiledInlineScripts(directory, VERSION, null);
+		parseAndCache(uut);
+		final File classFile = new File(new File(directory, uut.key(SCRIPT)), "classes/Script1.class");
+		final byte[] corruptContent = {1, 2, 3, 4};
+		Files.write(classFile.toPath(), corruptContent);
+
+		final Class<?> recompiledClass = parseAndCache(new CompiledInlineScripts(directory, VERSION, null));
+
+		assertThat(recompiledClass.getClassLoader()).isNotSameAs(lastCreatedLoader());
+		assertThat(run(recompiledClass)).isEqualTo(3);
+		assertThat(Files.readAllBytes(classFile.toPath())).isNotEqualTo(corruptContent);
+		assertThat(directory.list()).hasSize(1);
+	}
+
+	private File cacheEntry(String name, String compilationTime, long lastUsed) throws IOException {
+		final File cache = new File(directory, name);
+		new File(cache, "classes").mkdirs();
+		if (compilationTime != null) {
+			try (OutputStream out = new FileOutputStream(new File(cache, "compiled.properties"))) {
+				final Properties properties = new Properties();
+				properties.setProperty("class", "Script1");
+				properties.setProperty("time", compilationTime);
+				properties.store(out, "");
+			}
+		}
+		cache.setLastModified(lastUsed);
+		return cache;
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedAndOutdatedEntries() throws IOException {
+		final long lastDependencyModificationTime = 1_000_000L;
+		final File recent = cacheEntry("recent", "2000000", 5_000_000L);
+		final File older = cacheEntry("older", "2000000", 4_000_000L);
+		final File oldest = cacheEntry("oldest", "2000000", 3_000_000L);
+		final File compiledBeforeDependencyChange = cacheEntry("outdated", "500000", 6_000_000L);
+		final File withoutProperties = cacheEntry("corrupt", null, 7_000_000L);
+
+		new CompiledScriptCleaner().removeOutdatedInlineScripts(directory, 2, lastDependencyModificationTime);
+
+		assertThat(recent).exists();
+		assertThat(older).exists();
+		assertThat(oldest).doesNotExist();
+		assertThat(compiledBeforeDependencyChange).doesNotExist();
+		assertThat(withoutProperties).doesNotExist();
+	}
+}
@@ -0,0 +1,72 @@
+package org.freeplane.plugin.script;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ConcurrentCacheTest {
+	@Test
+	public void evictsEntriesNotReferencedSinceLastPassOfClockHand() {
+		final ConcurrentCache<String, String> uut = new ConcurrentCache<>(() -> 3, 1);
+		uut.computeIfAbsent("a", () -> "a");
+		uut.computeIfAbsent("b", () -> "b");
+		uut.computeIfAbsent("c", () -> "c");
+		uut.computeIfAbsent("a", () -> "other");
+		uut.computeIfAbsent("d", () -> "d");
+
+		assertThat(uut.computeIfAbsent("a", () -> "other")).isEqualTo("a");
+		assertThat(uut.computeIfAbsent("b", () -> "other")).isEqualTo("other");
+		assertThat(uut.size()).isEqualTo(3);
+		assertThat(uut.getHitCount()).isEqualTo(2);
+		assertThat(uut.getMissCount()).isEqualTo(5);
+		assertThat(uut.getEvictionCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void shrinksWhenMaximalSizeDecreases() {
+		final AtomicInteger maxSize = new AtomicInteger(4);
+		final ConcurrentCache<Integer, Integer> uut = new ConcurrentCache<>(maxSize::get, 1);
+		for (int i = 0; i < 4; i++)
+			uut.computeIfAbsent(i, () -> 0);
+		maxSize.set(2);
+		uut.computeIfAbsent(4, () -> 0);
+		assertThat(uut.size()).isEqualTo(2);
+		assertThat(uut.getEvictionCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void computesValueOnceForConcurrentRequests() throws Exception {
+		final ConcurrentCache<String, Object> uut = new ConcurrentCache<>(() -> 10, 4);
+		final AtomicInteger computations = new AtomicInteger();
+		final CountDownLatch start = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			@SuppressWarnings("unchecked")
+			final Future<Object>[] results = new Future[8];
+			for (int i = 0; i < results.length; i++) {
+				results[i] = executor.submit(() -> {
+					start.await();
+					return uut.computeIfAbsent("key", () -> {
+						computations.incrementAndGet();
+						return new Object();
+					});
+				});
+			}
+			start.countDown();
+			final Object value = results[0].get(10, TimeUnit.SECONDS);
+			for (Future<Object> result : results)
+				assertThat(result.get(10, TimeUnit.SECONDS)).isSameAs(value);
+			assertThat(computations.get()).isEqualTo(1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+}
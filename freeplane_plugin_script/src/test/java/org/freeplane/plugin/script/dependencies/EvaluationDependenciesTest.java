@@ -0,0 +1,53 @@
+package org.freeplane.plugin.script.dependencies;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class EvaluationDependenciesTest {
+	private final MapModel map = Mockito.mock(MapModel.class);
+	private final EvaluationDependencies uut = new EvaluationDependencies();
+
+	@Test
+	public void groupsNodesAfterAccessedNodes() {
+		final NodeModel a = new NodeModel(map);
+		final NodeModel b = new NodeModel(map);
+		final NodeModel c = new NodeModel(map);
+		final NodeModel d = new NodeModel(map);
+		uut.accessNode(c, b);
+		uut.accessNode(b, a);
+		uut.accessNode(c, a);
+		assertThat(uut.evaluationGroups(asList(c, b, a, d)))
+		    .containsExactly(asList(a, d), singletonList(b), singletonList(c));
+	}
+
+	@Test
+	public void groupsNodesAfterNodesOfAccessedBranches() {
+		final NodeModel root = new NodeModel(map);
+		final NodeModel child = new NodeModel(map);
+		root.insert(child);
+		final NodeModel accessing = new NodeModel(map);
+		uut.accessBranch(accessing, root);
+		assertThat(uut.evaluationGroups(asList(accessing, root, child)))
+		    .containsExactly(asList(root, child), singletonList(accessing));
+	}
+
+	@Test
+	public void putsNodesInCyclesAndTheirDependentsLast() {
+		final NodeModel a = new NodeModel(map);
+		final NodeModel b = new NodeModel(map);
+		final NodeModel c = new NodeModel(map);
+		final NodeModel d = new NodeModel(map);
+		uut.accessNode(a, b);
+		uut.accessNode(b, a);
+		uut.accessNode(c, a);
+		uut.accessAll(d);
+		assertThat(uut.evaluationGroups(asList(a, b, c, d)))
+		    .containsExactly(singletonList(a), singletonList(b), singletonList(c), singletonList(d));
+	}
+}
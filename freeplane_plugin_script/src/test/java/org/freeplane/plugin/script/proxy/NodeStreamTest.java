@@ -0,0 +1,75 @@
+package org.freeplane.plugin.script.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.freeplane.api.Node;
+import org.freeplane.api.NodeRO;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class NodeStreamTest {
+	private final MapModel map = Mockito.mock(MapModel.class);
+	private NodeModel root;
+	private NodeModel a;
+
+	@Before
+	public void setUp() {
+		root = new NodeModel("root", map);
+		a = new NodeModel("a", map);
+		final NodeModel a1 = new NodeModel("a1", map);
+		final NodeModel b = new NodeModel("b", map);
+		final NodeModel b1 = new NodeModel("b1", map);
+		root.insert(a);
+		root.insert(b);
+		a.insert(a1);
+		b.insert(b1);
+		when(map.getRootNode()).thenReturn(root);
+	}
+
+	private static Object text(NodeRO node) {
+		return ((NodeProxy) node).getDelegate().getUserObject();
+	}
+
+	private static List<Object> texts(Stream<? extends Node> nodes) {
+		return nodes.map(NodeStreamTest::text).collect(Collectors.toList());
+	}
+
+	@Test
+	public void streamsBranchInOrderOfFindAll() {
+		assertThat(texts(new NodeProxy(root, null).stream())).containsExactly("root", "a", "a1", "b", "b1");
+		assertThat(texts(new NodeProxy(a, null).stream())).containsExactly("a", "a1");
+	}
+
+	@Test
+	public void streamsNodesMatchingCondition() {
+		final Stream<? extends Node> nodes = new MapProxy(map, null).nodesMatching(node -> text(node).toString().endsWith("1"));
+		assertThat(texts(nodes)).containsExactly("a1", "b1");
+	}
+
+	@Test
+	public void stopsAtFirstMatch() {
+		final Set<Object> checkedNodes = ConcurrentHashMap.newKeySet();
+		new MapProxy(map, null).nodesMatching(node -> checkedNodes.add(text(node)) && text(node).equals("a")).findFirst();
+		assertThat(checkedNodes).containsExactlyInAnyOrder("root", "a");
+	}
+
+	@Test
+	public void evaluatesParallelStreamInCallingThread() {
+		final Thread callingThread = Thread.currentThread();
+		final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		final long count = new MapProxy(map, null).nodesMatching(node -> threads.add(Thread.currentThread()) || true)
+		    .parallel().count();
+		assertThat(count).isEqualTo(5);
+		assertThat(threads).containsExactly(callingThread);
+	}
+}